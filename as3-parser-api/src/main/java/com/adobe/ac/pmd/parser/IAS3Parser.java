@@ -31,6 +31,7 @@
 package com.adobe.ac.pmd.parser;
 
 import java.io.IOException;
+import java.util.Set;
 
 import com.adobe.ac.pmd.parser.exceptions.TokenException;
 
@@ -58,4 +59,12 @@ public interface IAS3Parser
    IParserNode buildAst( final String filePath,
                          final String[] scriptBlockLines ) throws IOException,
                                                           TokenException;
-}
\ No newline at end of file
+
+   /**
+    * @param lines
+    * @param filters the tokens to skip
+    * @return a stream over the tokens of the given lines
+    */
+   ITokenStream tokenize( final String[] lines,
+                          final Set< TokenFilter > filters );
+}
@@ -48,6 +48,27 @@ public interface IParserNode
     */
    int countNodeFromType( final NodeKind type );
 
+   /**
+    * @param kinds
+    * @return the nearest ancestor of this node which is of one of the given
+    *         types, or null if there is none
+    */
+   IParserNode findAncestor( final NodeKind... kinds );
+
+   /**
+    * @param type
+    * @return the nodes of type "type" in this node's subtree, this node
+    *         included, in document order
+    */
+   List< IParserNode > findNodesFromType( final NodeKind type );
+
+   /**
+    * @param value
+    * @return the nodes which string value is "value" in this node's subtree,
+    *         this node included, in document order
+    */
+   List< IParserNode > findNodesFromValue( final String value );
+
    /**
     * @param names
     * @return the list of IParserNode which names is contained in the given
@@ -86,17 +107,33 @@ public interface IParserNode
     */
    int getLine();
 
+   /**
+    * @return the node's parent, or null if the node is the root
+    */
+   IParserNode getParent();
+
    /**
     * @return node's string value
     */
    String getStringValue();
 
+   /**
+    * @return the structural facts about this node's subtree
+    */
+   ISubtreeSummary getSummary();
+
    /**
     * @param expectedType
     * @return true if the node's type is identical to the given name
     */
    boolean is( final NodeKind expectedType ); // NOPMD
 
+   /**
+    * @param kinds
+    * @return true if an ancestor of this node is of one of the given types
+    */
+   boolean isInside( final NodeKind... kinds );
+
    /**
     * @return the children number
     */
@@ -0,0 +1,69 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.parser;
+
+/**
+ * Structural facts about the subtree of a node, computed once when the ast is
+ * built.
+ * 
+ * @author xagnetti
+ */
+public interface ISubtreeSummary
+{
+   /**
+    * @param kind
+    * @return true if a node of the given kind is in the subtree
+    */
+   boolean contains( final NodeKind kind );
+
+   /**
+    * @return the number of decision points in the subtree, which is its
+    *         cyclomatic complexity
+    */
+   int getDecisionPointNb();
+
+   /**
+    * @return the greatest number of nested control statements (if, for,
+    *         foreach, forin, while, do, switch, try) in the subtree
+    */
+   int getNestingDepth();
+
+   /**
+    * @return the number of nodes in the subtree, the node included
+    */
+   int getNodeNb();
+
+   /**
+    * @return the number of statements in the subtree, counted as the children
+    *         starting on a new line
+    */
+   int getStatementNb();
+}
@@ -0,0 +1,91 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.parser;
+
+/**
+ * Cursor over the tokens of a source, which never builds the text of a token
+ * unless it is asked for. The getters describe the current token, and are
+ * valid only once next() has returned true.
+ * 
+ * @author xagnetti
+ */
+public interface ITokenStream
+{
+   /**
+    * @return the current token's column, starting at 1
+    */
+   int getColumn();
+
+   /**
+    * @return the offset following the current token in the scanned content,
+    *         -1 if the token is not a range of the content
+    */
+   int getEnd();
+
+   /**
+    * @return the keyword the current token is, null if it is not a keyword
+    */
+   KeyWords getKeyWord();
+
+   /**
+    * @return the current token's lexical category
+    */
+   TokenKind getKind();
+
+   /**
+    * @return the current token's line, starting at 1
+    */
+   int getLine();
+
+   /**
+    * @return the operator the current token is, null if it is not one of the
+    *         Operators
+    */
+   Operators getOperator();
+
+   /**
+    * @return the offset of the current token in the scanned content, -1 if
+    *         the token is not a range of the content
+    */
+   int getStart();
+
+   /**
+    * @return the current token's text, which is built on the first call
+    */
+   String getText();
+
+   /**
+    * Moves to the next token which is not filtered out.
+    * 
+    * @return false once the end of the source has been reached
+    */
+   boolean next();
+}
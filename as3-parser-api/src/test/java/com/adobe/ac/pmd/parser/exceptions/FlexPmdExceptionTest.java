@@ -40,6 +40,14 @@ public class FlexPmdExceptionTest
 {
    private static final String MY_FILE_NAME = "myFileName";
 
+   @Test
+   public void testInterruptedParsingException()
+   {
+      assertEquals( "parsing of "
+                          + MY_FILE_NAME + " has been interrupted.",
+                    new InterruptedParsingException( MY_FILE_NAME ).getMessage() );
+   }
+
    @Test
    public void testNullTokenException()
    {
@@ -34,18 +34,25 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
+import com.adobe.ac.ncss.utils.FileContent;
 import com.adobe.ac.pmd.files.impl.FileUtils;
 import com.adobe.ac.pmd.parser.IAS3Parser;
 import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.ITokenStream;
 import com.adobe.ac.pmd.parser.KeyWords;
 import com.adobe.ac.pmd.parser.NodeKind;
 import com.adobe.ac.pmd.parser.Operators;
+import com.adobe.ac.pmd.parser.TokenFilter;
+import com.adobe.ac.pmd.parser.TokenKind;
+import com.adobe.ac.pmd.parser.exceptions.InterruptedParsingException;
 import com.adobe.ac.pmd.parser.exceptions.NullTokenException;
 import com.adobe.ac.pmd.parser.exceptions.TokenException;
 import com.adobe.ac.pmd.parser.exceptions.UnExpectedTokenException;
 import com.adobe.ac.pmd.parser.exceptions.UnExpectedTokenException.Position;
 
+import de.bokelberg.flex.parser.AS3Scanner.ScanningInterruptedException;
 import de.bokelberg.flex.parser.AS3Scanner.Token;
 
 /**
@@ -110,6 +117,55 @@ public class AS3Parser implements IAS3Parser
                          scriptBlockLines );
    }
 
+   /**
+    * Parses the shared buffer of the given content, without reading the file
+    * again.
+    * 
+    * @param filePath
+    * @param content
+    * @return
+    * @throws TokenException
+    */
+   public final IParserNode buildAst( final String filePath,
+                                      final FileContent content ) throws TokenException
+   {
+      setFileName( filePath );
+      scn = new AS3Scanner();
+      scn.setContent( content );
+      return NodeStore.compact( parseCompilationUnit() );
+   }
+
+   /**
+    * Tokenizes the shared buffer of the given content, without reading the
+    * file again.
+    * 
+    * @param content
+    * @param filters the tokens to skip
+    * @return a stream over the tokens of the given content
+    */
+   public final ITokenStream tokenize( final FileContent content,
+                                       final Set< TokenFilter > filters )
+   {
+      final AS3Scanner scanner = new AS3Scanner();
+
+      scanner.setContent( content );
+      return new ScannerTokenStream( scanner, filters );
+   }
+
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.parser.IAS3Parser#tokenize(java.lang.String[],
+    * java.util.Set)
+    */
+   public final ITokenStream tokenize( final String[] lines,
+                                       final Set< TokenFilter > filters )
+   {
+      final AS3Scanner scanner = new AS3Scanner();
+
+      scanner.setLines( lines );
+      return new ScannerTokenStream( scanner, filters );
+   }
+
    /**
     * @return
     */
@@ -142,7 +198,7 @@ public class AS3Parser implements IAS3Parser
             nextTokenAllowNewLine();
          }
       }
-      while ( tok.getText().equals( NEW_LINE ) );
+      while ( tok.getKind() == TokenKind.NEW_LINE );
    }
 
    /**
@@ -168,29 +224,9 @@ public class AS3Parser implements IAS3Parser
          {
             meta.add( parseMetaData() );
          }
-         else if ( tokIs( KeyWords.VAR ) )
-         {
-            parseClassField( result,
-                             modifiers,
-                             meta );
-         }
-         else if ( tokIs( KeyWords.CONST ) )
-         {
-            parseClassConstant( result,
-                                modifiers,
-                                meta );
-         }
-         else if ( tokIs( KeyWords.IMPORT ) )
-         {
-            result.addChild( parseImport() );
-         }
-         else if ( tokIs( KeyWords.FUNCTION ) )
-         {
-            parseClassFunctions( result,
-                                 modifiers,
-                                 meta );
-         }
-         else
+         else if ( !tryToParseClassMember( result,
+                                           modifiers,
+                                           meta ) )
          {
             tryToParseCommentNode( result,
                                    modifiers );
@@ -240,20 +276,7 @@ public class AS3Parser implements IAS3Parser
                                        tok.getColumn() );
       while ( !tokIs( Operators.RIGHT_CURLY_BRACKET ) )
       {
-         if ( tokIs( KeyWords.IMPORT ) )
-         {
-            result.addChild( parseImport() );
-         }
-         else if ( tokIs( KeyWords.FUNCTION ) )
-         {
-            result.addChild( parseFunctionSignature() );
-         }
-         else if ( tokIs( KeyWords.INCLUDE )
-               || tokIs( KeyWords.INCLUDE_AS2 ) )
-         {
-            result.addChild( parseIncludeExpression() );
-         }
-         else if ( tokIs( Operators.LEFT_SQUARE_BRACKET ) )
+         if ( tokIs( Operators.LEFT_SQUARE_BRACKET ) )
          {
             while ( !tokIs( Operators.RIGHT_SQUARE_BRACKET ) )
             {
@@ -261,7 +284,7 @@ public class AS3Parser implements IAS3Parser
             }
             nextToken();
          }
-         else
+         else if ( !tryToParseInterfaceMember( result ) )
          {
             tryToParseCommentNode( result,
                                    null );
@@ -286,40 +309,11 @@ public class AS3Parser implements IAS3Parser
       while ( !tokIs( Operators.RIGHT_CURLY_BRACKET )
             && !tokIs( KeyWords.EOF ) )
       {
-         if ( tokIs( KeyWords.IMPORT ) )
-         {
-            result.addChild( parseImport() );
-         }
-         else if ( tokIs( KeyWords.USE ) )
-         {
-            result.addChild( parseUse() );
-         }
-         else if ( tokIs( Operators.LEFT_SQUARE_BRACKET ) )
+         if ( tokIs( Operators.LEFT_SQUARE_BRACKET ) )
          {
             meta.add( parseMetaData() );
          }
-         else if ( tokIs( KeyWords.CLASS ) )
-         {
-            result.addChild( parseClass( meta,
-                                         modifiers ) );
-
-            modifiers.clear();
-            meta.clear();
-         }
-         else if ( tokIs( KeyWords.INTERFACE ) )
-         {
-            result.addChild( parseInterface( meta,
-                                             modifiers ) );
-            modifiers.clear();
-            meta.clear();
-         }
-         else if ( tokIs( KeyWords.FUNCTION ) )
-         {
-            parseClassFunctions( result,
-                                 modifiers,
-                                 meta );
-         }
-         else if ( tok.getText().startsWith( ASDOC_COMMENT ) )
+         else if ( tokIsComment( ASDOC_COMMENT ) )
          {
             currentAsDoc = Node.create( NodeKind.AS_DOC,
                                         tok.getLine(),
@@ -327,7 +321,7 @@ public class AS3Parser implements IAS3Parser
                                         tok.getText() );
             nextToken();
          }
-         else if ( tok.getText().startsWith( MULTIPLE_LINES_COMMENT ) )
+         else if ( tokIsComment( MULTIPLE_LINES_COMMENT ) )
          {
             currentMultiLineComment = Node.create( NodeKind.MULTI_LINE_COMMENT,
                                                    tok.getLine(),
@@ -335,7 +329,9 @@ public class AS3Parser implements IAS3Parser
                                                    tok.getText() );
             nextToken();
          }
-         else
+         else if ( !tryToParsePackageMember( result,
+                                             modifiers,
+                                             meta ) )
          {
             modifiers.add( tok );
             nextTokenIgnoringDocumentation();
@@ -389,61 +385,27 @@ public class AS3Parser implements IAS3Parser
     */
    final IParserNode parseStatement() throws TokenException
    {
-      IParserNode result;
+      IParserNode result = null;
 
-      if ( tokIs( KeyWords.FOR ) )
-      {
-         result = parseFor();
-      }
-      else if ( tokIs( KeyWords.IF ) )
-      {
-         result = parseIf();
-      }
-      else if ( tokIs( KeyWords.SWITCH ) )
+      switch ( tok.getKind() )
       {
-         result = parseSwitch();
-      }
-      else if ( tokIs( KeyWords.DO ) )
-      {
-         result = parseDo();
-      }
-      else if ( tokIs( KeyWords.WHILE ) )
-      {
-         result = parseWhile();
-      }
-      else if ( tokIs( KeyWords.TRY ) )
-      {
-         result = parseTry();
-      }
-      else if ( tokIs( KeyWords.CATCH ) )
-      {
-         result = parseCatch();
-      }
-      else if ( tokIs( KeyWords.FINALLY ) )
-      {
-         result = parseFinally();
-      }
-      else if ( tokIs( Operators.LEFT_CURLY_BRACKET ) )
-      {
-         result = parseBlock();
-      }
-      else if ( tokIs( KeyWords.VAR ) )
-      {
-         result = parseVar();
-      }
-      else if ( tokIs( KeyWords.CONST ) )
-      {
-         result = parseConst();
-      }
-      else if ( tokIs( KeyWords.RETURN ) )
-      {
-         result = parseReturnStatement();
-      }
-      else if ( tokIs( Operators.SEMI_COLUMN ) )
-      {
-         result = parseEmptyStatement();
+      case KEYWORD:
+         result = parseKeywordStatement();
+         break;
+      case OPERATOR:
+         if ( tokIs( Operators.LEFT_CURLY_BRACKET ) )
+         {
+            result = parseBlock();
+         }
+         else if ( tokIs( Operators.SEMI_COLUMN ) )
+         {
+            result = parseEmptyStatement();
+         }
+         break;
+      default:
+         break;
       }
-      else
+      if ( result == null )
       {
          result = parseExpressionList();
          skip( Operators.SEMI_COLUMN );
@@ -511,12 +473,26 @@ public class AS3Parser implements IAS3Parser
 
    private void consume( final KeyWords keyword ) throws TokenException
    {
-      consume( keyword.toString() );
+      if ( tokIs( keyword ) )
+      {
+         nextToken();
+      }
+      else
+      {
+         consume( keyword.toString() );
+      }
    }
 
    private void consume( final Operators operator ) throws TokenException
    {
-      consume( operator.toString() );
+      if ( tokIs( operator ) )
+      {
+         nextToken();
+      }
+      else
+      {
+         consume( operator.toString() );
+      }
    }
 
    /**
@@ -528,7 +504,7 @@ public class AS3Parser implements IAS3Parser
     */
    private void consume( final String text ) throws TokenException
    {
-      while ( tok.getText().startsWith( "//" ) )
+      while ( tokIsComment( SINGLE_LINE_COMMENT ) )
       {
          nextToken();
       }
@@ -636,7 +612,9 @@ public class AS3Parser implements IAS3Parser
 
    /**
     * Get the next token Skip comments but keep newlines We need this method for
-    * beeing able to decide if a returnStatement has an expression
+    * beeing able to decide if a returnStatement has an expression. As every
+    * token goes through this method, this is also where an interrupted parsing
+    * is stopped.
     * 
     * @throws UnExpectedTokenException
     */
@@ -644,7 +622,18 @@ public class AS3Parser implements IAS3Parser
    {
       do
       {
-         tok = scn.nextToken();
+         if ( Thread.currentThread().isInterrupted() )
+         {
+            throw new InterruptedParsingException( fileName );
+         }
+         try
+         {
+            tok = scn.nextToken();
+         }
+         catch ( final ScanningInterruptedException e )
+         {
+            throw new InterruptedParsingException( fileName );
+         }
 
          if ( tok == null )
          {
@@ -656,7 +645,7 @@ public class AS3Parser implements IAS3Parser
             throw new NullTokenException( fileName );
          }
       }
-      while ( tok.getText().startsWith( SINGLE_LINE_COMMENT ) );
+      while ( tokIsComment( SINGLE_LINE_COMMENT ) );
    }
 
    private void nextTokenIgnoringDocumentation() throws TokenException
@@ -665,7 +654,7 @@ public class AS3Parser implements IAS3Parser
       {
          nextToken();
       }
-      while ( tok.getText().startsWith( MULTIPLE_LINES_COMMENT ) );
+      while ( tokIsComment( MULTIPLE_LINES_COMMENT ) );
    }
 
    private IParserNode parseAdditiveExpression() throws TokenException
@@ -856,7 +845,7 @@ public class AS3Parser implements IAS3Parser
 
       while ( !tokIs( Operators.RIGHT_CURLY_BRACKET ) )
       {
-         if ( tok.getText().startsWith( MULTIPLE_LINES_COMMENT ) )
+         if ( tokIsComment( MULTIPLE_LINES_COMMENT ) )
          {
             currentFunctionNode.addChild( Node.create( NodeKind.MULTI_LINE_COMMENT,
                                                        tok.getLine(),
@@ -1554,12 +1543,49 @@ public class AS3Parser implements IAS3Parser
     * 
     * @throws TokenException
     */
+   /**
+    * tok is a keyword
+    * 
+    * @return null if the keyword does not start a statement
+    * @throws TokenException
+    */
+   private IParserNode parseKeywordStatement() throws TokenException
+   {
+      switch ( tok.getKeyWord() )
+      {
+      case FOR:
+         return parseFor();
+      case IF:
+         return parseIf();
+      case SWITCH:
+         return parseSwitch();
+      case DO:
+         return parseDo();
+      case WHILE:
+         return parseWhile();
+      case TRY:
+         return parseTry();
+      case CATCH:
+         return parseCatch();
+      case FINALLY:
+         return parseFinally();
+      case VAR:
+         return parseVar();
+      case CONST:
+         return parseConst();
+      case RETURN:
+         return parseReturnStatement();
+      default:
+         return null;
+      }
+   }
+
    private Node parseLambdaExpression() throws TokenException
    {
       consume( KeyWords.FUNCTION );
       Node result;
 
-      if ( tok.getText().compareTo( "(" ) == 0 )
+      if ( tokIs( Operators.LEFT_PARENTHESIS ) )
       {
          result = Node.create( NodeKind.LAMBDA,
                                tok.getLine(),
@@ -1585,7 +1611,7 @@ public class AS3Parser implements IAS3Parser
       setFileName( filePath );
       scn = new AS3Scanner();
       scn.setLines( lines );
-      return parseCompilationUnit();
+      return NodeStore.compact( parseCompilationUnit() );
    }
 
    /**
@@ -1931,7 +1957,7 @@ public class AS3Parser implements IAS3Parser
       Node result;
 
       nextTokenAllowNewLine();
-      if ( tokIs( NEW_LINE )
+      if ( tok.getKind() == TokenKind.NEW_LINE
             || tokIs( Operators.SEMI_COLUMN ) )
       {
          nextToken( true );
@@ -2088,7 +2114,7 @@ public class AS3Parser implements IAS3Parser
                              parseExpression() );
             isInFor = false;
          }
-         if ( tokIs( NodeKind.IN.toString() ) )
+         if ( tokIs( KeyWords.IN ) )
          {
             return parseForIn( result );
          }
@@ -2305,18 +2331,7 @@ public class AS3Parser implements IAS3Parser
 
    private void skip( final Operators operator ) throws TokenException
    {
-      skip( operator.toString() );
-   }
-
-   /**
-    * Skip the current token, if it equals to the parameter
-    * 
-    * @param text
-    * @throws UnExpectedTokenException
-    */
-   private void skip( final String text ) throws TokenException
-   {
-      if ( tokIs( text ) )
+      if ( tokIs( operator ) )
       {
          nextToken();
       }
@@ -2324,12 +2339,12 @@ public class AS3Parser implements IAS3Parser
 
    private boolean tokIs( final KeyWords keyword )
    {
-      return tok.getText().compareTo( keyword.toString() ) == 0;
+      return tok.getKeyWord() == keyword;
    }
 
    private boolean tokIs( final Operators operator )
    {
-      return tok.getText().compareTo( operator.toString() ) == 0;
+      return tok.getOperator() == operator;
    }
 
    /**
@@ -2343,10 +2358,57 @@ public class AS3Parser implements IAS3Parser
       return tok.getText().equals( text );
    }
 
+   /**
+    * @param prefix
+    * @return true, if tok is a comment starting with the given prefix
+    */
+   private boolean tokIsComment( final String prefix )
+   {
+      return tok.getKind() == TokenKind.COMMENT
+            && tok.getText().startsWith( prefix );
+   }
+
+   /**
+    * @return true, if tok starts a class member, which has then been parsed
+    * @throws TokenException
+    */
+   private boolean tryToParseClassMember( final Node result,
+                                          final List< Token > modifiers,
+                                          final List< Node > meta ) throws TokenException
+   {
+      if ( tok.getKind() != TokenKind.KEYWORD )
+      {
+         return false;
+      }
+      switch ( tok.getKeyWord() )
+      {
+      case VAR:
+         parseClassField( result,
+                          modifiers,
+                          meta );
+         return true;
+      case CONST:
+         parseClassConstant( result,
+                             modifiers,
+                             meta );
+         return true;
+      case IMPORT:
+         result.addChild( parseImport() );
+         return true;
+      case FUNCTION:
+         parseClassFunctions( result,
+                              modifiers,
+                              meta );
+         return true;
+      default:
+         return false;
+      }
+   }
+
    private void tryToParseCommentNode( final Node result,
                                        final List< Token > modifiers ) throws TokenException
    {
-      if ( tok.getText().startsWith( ASDOC_COMMENT ) )
+      if ( tokIsComment( ASDOC_COMMENT ) )
       {
          currentAsDoc = Node.create( NodeKind.AS_DOC,
                                      tok.getLine(),
@@ -2354,7 +2416,7 @@ public class AS3Parser implements IAS3Parser
                                      tok.getText() );
          nextToken();
       }
-      else if ( tok.getText().startsWith( MULTIPLE_LINES_COMMENT ) )
+      else if ( tokIsComment( MULTIPLE_LINES_COMMENT ) )
       {
          result.addChild( Node.create( NodeKind.MULTI_LINE_COMMENT,
                                        tok.getLine(),
@@ -2371,4 +2433,74 @@ public class AS3Parser implements IAS3Parser
          nextTokenIgnoringDocumentation();
       }
    }
+
+   /**
+    * @return true, if tok starts an interface member, which has then been
+    *         parsed
+    * @throws TokenException
+    */
+   private boolean tryToParseInterfaceMember( final Node result ) throws TokenException
+   {
+      if ( tok.getKind() != TokenKind.KEYWORD )
+      {
+         return false;
+      }
+      switch ( tok.getKeyWord() )
+      {
+      case IMPORT:
+         result.addChild( parseImport() );
+         return true;
+      case FUNCTION:
+         result.addChild( parseFunctionSignature() );
+         return true;
+      case INCLUDE:
+      case INCLUDE_AS2:
+         result.addChild( parseIncludeExpression() );
+         return true;
+      default:
+         return false;
+      }
+   }
+
+   /**
+    * @return true, if tok starts a package member, which has then been parsed
+    * @throws TokenException
+    */
+   private boolean tryToParsePackageMember( final Node result,
+                                            final List< Token > modifiers,
+                                            final List< Node > meta ) throws TokenException
+   {
+      if ( tok.getKind() != TokenKind.KEYWORD )
+      {
+         return false;
+      }
+      switch ( tok.getKeyWord() )
+      {
+      case IMPORT:
+         result.addChild( parseImport() );
+         return true;
+      case USE:
+         result.addChild( parseUse() );
+         return true;
+      case CLASS:
+         result.addChild( parseClass( meta,
+                                      modifiers ) );
+         modifiers.clear();
+         meta.clear();
+         return true;
+      case INTERFACE:
+         result.addChild( parseInterface( meta,
+                                          modifiers ) );
+         modifiers.clear();
+         meta.clear();
+         return true;
+      case FUNCTION:
+         parseClassFunctions( result,
+                              modifiers,
+                              meta );
+         return true;
+      default:
+         return false;
+      }
+   }
 }
@@ -30,21 +30,12 @@
  */
 package de.bokelberg.flex.parser;
 
-import java.io.IOException;
-import java.io.StringReader;
-import java.util.logging.Logger;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import java.nio.CharBuffer;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
-
-import com.adobe.ac.utils.StackTraceUtils;
+import com.adobe.ac.ncss.utils.FileContent;
+import com.adobe.ac.pmd.parser.KeyWords;
+import com.adobe.ac.pmd.parser.Operators;
+import com.adobe.ac.pmd.parser.TokenKind;
 
 /**
  * convert a actionscript to a stream of tokens
@@ -55,21 +46,75 @@ import com.adobe.ac.utils.StackTraceUtils;
 public class AS3Scanner
 {
    /**
+    * Thrown when the scanning thread has been interrupted, so that a runaway
+    * scan (a huge E4X literal for instance) can be cancelled.
+    * 
+    * @author xagnetti
+    */
+   @SuppressWarnings("serial")
+   public static final class ScanningInterruptedException extends RuntimeException
+   {
+      /**
+       * @param lineNumber
+       */
+      protected ScanningInterruptedException( final int lineNumber )
+      {
+         super( "scanning interrupted at line "
+               + lineNumber );
+      }
+   }
+
+   /**
+    * A token is either built from a given text, or refers to a range of the
+    * scanned buffer, in which case its text is materialized on first access
+    * only. A scanner which reuses its token refills the same instance for
+    * every token it scans.
+    * 
     * @author xagnetti
     */
    public static final class Token
    {
       private static Token create( final String textContent,
                                    final int tokenLine,
-                                   final int tokenColumn )
+                                   final int tokenColumn,
+                                   final TokenKind defaultKind )
       {
-         return new Token( textContent, tokenLine, tokenColumn );
+         return new Token( textContent, tokenLine, tokenColumn, false, defaultKind );
       }
 
-      private final int     column;
-      private final boolean isNumeric;
-      private final int     line;
-      private final String  text;
+      private static TokenKind guessKind( final String textContent,
+                                          final boolean isNumToSet )
+      {
+         if ( isNumToSet
+               || textContent.startsWith( "\"" ) || textContent.startsWith( "'" ) )
+         {
+            return TokenKind.LITERAL;
+         }
+         if ( textContent.equals( "\n" ) )
+         {
+            return TokenKind.NEW_LINE;
+         }
+         if ( textContent.startsWith( "//" )
+               || textContent.startsWith( "/*" ) )
+         {
+            return TokenKind.COMMENT;
+         }
+         return textContent.length() > 0
+               && Character.isJavaIdentifierStart( textContent.charAt( 0 ) ) ? TokenKind.IDENTIFIER
+                                                                            : TokenKind.OPERATOR;
+      }
+
+      private int         column;
+      private int         end;
+      private boolean     isNumeric;
+      private KeyWords    keyword;
+      private TokenKind   kind;
+      private int         line;
+      private Operators   operator;
+      private char[]      source;
+      private int         start;
+      private SymbolTable symbols;
+      private String      text;
 
       /**
        * @param textContent
@@ -84,6 +129,8 @@ public class AS3Scanner
       }
 
       /**
+       * The kind of the token is guessed from its text.
+       * 
        * @param textContent
        * @param tokenLine
        * @param tokenColumn
@@ -94,10 +141,41 @@ public class AS3Scanner
                        final int tokenColumn,
                        final boolean isNumToSet )
       {
-         text = textContent;
-         line = tokenLine + 1;
-         column = tokenColumn + 1;
-         isNumeric = isNumToSet;
+         this( textContent, tokenLine, tokenColumn, isNumToSet, textContent == null ? TokenKind.IDENTIFIER
+                                                                                     : guessKind( textContent,
+                                                                                                  isNumToSet ) );
+      }
+
+      private Token( final char[] sourceToBeSet,
+                     final int startToBeSet,
+                     final int endToBeSet,
+                     final int tokenLine,
+                     final int tokenColumn,
+                     final boolean isNumToSet,
+                     final SymbolTable symbolsToBeSet,
+                     final TokenKind defaultKind )
+      {
+         set( sourceToBeSet,
+              startToBeSet,
+              endToBeSet,
+              tokenLine,
+              tokenColumn,
+              isNumToSet,
+              symbolsToBeSet,
+              defaultKind );
+      }
+
+      private Token( final String textContent,
+                     final int tokenLine,
+                     final int tokenColumn,
+                     final boolean isNumToSet,
+                     final TokenKind defaultKind )
+      {
+         set( textContent,
+              tokenLine,
+              tokenColumn,
+              isNumToSet,
+              defaultKind );
       }
 
       /**
@@ -108,6 +186,31 @@ public class AS3Scanner
          return column;
       }
 
+      /**
+       * @return the offset following the token in the scanned buffer, -1 if
+       *         the token has been built from a text
+       */
+      public int getEnd()
+      {
+         return end;
+      }
+
+      /**
+       * @return the keyword this token is, null if it is not a keyword
+       */
+      public KeyWords getKeyWord()
+      {
+         return keyword;
+      }
+
+      /**
+       * @return
+       */
+      public TokenKind getKind()
+      {
+         return kind;
+      }
+
       /**
        * @return
        */
@@ -116,11 +219,38 @@ public class AS3Scanner
          return line;
       }
 
+      /**
+       * @return the operator this token is, null if it is not one of the
+       *         Operators
+       */
+      public Operators getOperator()
+      {
+         return operator;
+      }
+
+      /**
+       * @return the offset of the token in the scanned buffer, -1 if the token
+       *         has been built from a text
+       */
+      public int getStart()
+      {
+         return start;
+      }
+
       /**
        * @return
        */
       public String getText()
       {
+         if ( text == null )
+         {
+            text = symbols == null ? new String( source, start, end
+                                           - start )
+                                  : symbols.intern( source,
+                                                    start,
+                                                    end
+                                                          - start );
+         }
          return text;
       }
 
@@ -131,56 +261,116 @@ public class AS3Scanner
       {
          return isNumeric;
       }
-   }
 
-   private static class XMLVerifier
-   {
-      private static DefaultHandler handler;
-      private static SAXParser      saxParser;
-
-      static
+      private TokenKind computeKind( final TokenKind defaultKind )
       {
-         final SAXParserFactory factory = SAXParserFactory.newInstance();
-
-         handler = new DefaultHandler();
-         factory.setNamespaceAware( false );
-
-         try
-         {
-            saxParser = factory.newSAXParser();
-         }
-         catch ( final ParserConfigurationException e )
-         {
-            LOGGER.warning( StackTraceUtils.print( e ) );
-         }
-         catch ( final SAXException e )
+         if ( keyword != null )
          {
+            return TokenKind.KEYWORD;
          }
+         return operator == null ? defaultKind
+                                : TokenKind.OPERATOR;
       }
 
-      public static boolean verify( final String text )
+      private Token set( final char[] sourceToBeSet,
+                         final int startToBeSet,
+                         final int endToBeSet,
+                         final int tokenLine,
+                         final int tokenColumn,
+                         final boolean isNumToSet,
+                         final SymbolTable symbolsToBeSet,
+                         final TokenKind defaultKind )
       {
-         try
-         {
-            saxParser.parse( new InputSource( new StringReader( text ) ),
-                             handler );
-            return true;
-         }
-         catch ( final SAXException e )
+         final int slot = symbolsToBeSet == null ? -1
+                                                : ReservedWords.find( sourceToBeSet,
+                                                                      startToBeSet,
+                                                                      endToBeSet
+                                                                            - startToBeSet );
+
+         source = sourceToBeSet;
+         start = startToBeSet;
+         end = endToBeSet;
+         symbols = symbolsToBeSet;
+         line = tokenLine + 1;
+         column = tokenColumn + 1;
+         isNumeric = isNumToSet;
+         keyword = ReservedWords.getKeyWord( slot );
+         operator = ReservedWords.getOperator( slot );
+         kind = computeKind( defaultKind );
+         text = null;
+         if ( keyword != null )
          {
-            LOGGER.warning( StackTraceUtils.print( e ) );
-            return false;
+            text = keyword.toString();
          }
-         catch ( final IOException e )
+         else if ( operator != null )
          {
-            LOGGER.warning( StackTraceUtils.print( e ) );
-            return false;
+            text = operator.toString();
          }
+         return this;
+      }
+
+      private Token set( final String textContent,
+                         final int tokenLine,
+                         final int tokenColumn,
+                         final boolean isNumToSet,
+                         final TokenKind defaultKind )
+      {
+         final int slot = ReservedWords.find( textContent );
+
+         text = textContent;
+         source = null;
+         start = -1;
+         end = -1;
+         symbols = null;
+         line = tokenLine + 1;
+         column = tokenColumn + 1;
+         isNumeric = isNumToSet;
+         keyword = ReservedWords.getKeyWord( slot );
+         operator = ReservedWords.getOperator( slot );
+         kind = computeKind( defaultKind );
+         return this;
       }
    }
 
-   private static final String END    = "__END__";
-   private static final Logger LOGGER = Logger.getLogger( AS3Scanner.class.getName() );
+   private static final String   END                      = "__END__";
+   private static final String[] EQUAL_SEQUENCES          = new String[]
+                                                          { "===",
+               "==" };
+   private static final String[] GREATER_THAN_SEQUENCES   = new String[]
+                                                          { ">>>=",
+               ">>>",
+               ">>=",
+               ">>",
+               ">=" };
+   private static final String[] LOWER_THAN_SEQUENCES     = new String[]
+                                                          { "<<<=",
+               "<<<",
+               "<<=",
+               "<<",
+               "<=" };
+   private static final String[] NO_SEQUENCES             = new String[]
+                                                          {};
+   private static final String[] NOT_SEQUENCES            = new String[]
+                                                          { "!==",
+               "!=" };
+   private static final String[] SINGLE_AND_SEQUENCES     = new String[]
+                                                          { "&&",
+               "&=" };
+   private static final String[] SINGLE_COLON_SEQUENCES   = new String[]
+                                                          { "::" };
+   private static final String[] SINGLE_HAT_SEQUENCES     = new String[]
+                                                          { "^=" };
+   private static final String[] SINGLE_MINUS_SEQUENCES   = new String[]
+                                                          { "--",
+               "-=" };
+   private static final String[] SINGLE_OR_SEQUENCES      = new String[]
+                                                          { "||",
+               "|=" };
+   private static final String[] SINGLE_PERCENT_SEQUENCES = new String[]
+                                                          { "%=" };
+   private static final String[] SINGLE_PLUS_SEQUENCES    = new String[]
+                                                          { "++",
+               "+=" };
 
    protected static boolean isDecimalChar( final char currentCharacter )
    {
@@ -188,10 +378,26 @@ public class AS3Scanner
             && currentCharacter <= '9';
    }
 
-   private int      column;
-   private boolean  inVector;
-   private int      line;
-   private String[] lines = null;
+   /**
+    * Whole content being scanned, every line being followed by '\n'
+    */
+   private char[]            buffer      = null;
+   private int               column;
+   private boolean           inVector;
+   private int               line;
+   /**
+    * Offset of every line start in the buffer, followed by the end of the
+    * content plus one
+    */
+   private int[]             lineOffsets = null;
+   private int               linesNb;
+   private char              precedingCharacter;
+   /**
+    * Token refilled for every scanned token, null if every token is a new
+    * instance
+    */
+   private Token             reusedToken = null;
+   private final SymbolTable symbols     = new SymbolTable();
 
    /**
     * @return
@@ -201,14 +407,52 @@ public class AS3Scanner
       return nextToken();
    }
 
+   /**
+    * Scans the shared buffer of the given content, without copying it.
+    * 
+    * @param content
+    */
+   public void setContent( final FileContent content )
+   {
+      setBuffer( content.getBuffer(),
+                 content.getLineOffsets() );
+   }
+
    /**
     * @param linesToBeSet
     */
    public void setLines( final String[] linesToBeSet )
    {
-      lines = linesToBeSet;
-      line = 0;
-      column = -1;
+      if ( linesToBeSet == null )
+      {
+         setBuffer( null,
+                    null );
+         return;
+      }
+      final int[] offsets = new int[ linesToBeSet.length + 1 ];
+      int length = 0;
+
+      for ( int lineIndex = 0; lineIndex < linesToBeSet.length; lineIndex++ )
+      {
+         offsets[ lineIndex ] = length;
+         length += linesToBeSet[ lineIndex ].length() + 1;
+      }
+      offsets[ linesToBeSet.length ] = length;
+
+      final char[] chars = new char[ length ];
+
+      for ( int lineIndex = 0; lineIndex < linesToBeSet.length; lineIndex++ )
+      {
+         final String currentLine = linesToBeSet[ lineIndex ];
+
+         currentLine.getChars( 0,
+                               currentLine.length(),
+                               chars,
+                               offsets[ lineIndex ] );
+         chars[ offsets[ lineIndex + 1 ] - 1 ] = '\n';
+      }
+      setBuffer( chars,
+                 offsets );
    }
 
    boolean isHexChar( final char currentCharacter )
@@ -224,6 +468,21 @@ public class AS3Scanner
             || isLower || isUpper;
    }
 
+   /**
+    * From now on, every scanned token is the same instance, which is valid
+    * until the next token is scanned only.
+    */
+   void reuseToken()
+   {
+      if ( reusedToken == null )
+      {
+         reusedToken = Token.create( END,
+                                     0,
+                                     0,
+                                     TokenKind.KEYWORD );
+      }
+   }
+
    /**
     * @return
     */
@@ -231,19 +490,21 @@ public class AS3Scanner
    {
       char currentCharacter;
 
-      if ( lines != null
-            && line < lines.length )
+      if ( buffer != null
+            && line < linesNb )
       {
          currentCharacter = nextNonWhitespaceCharacter();
       }
       else
       {
-         return new Token( END, line, column );
+         return createTextToken( END,
+                                 TokenKind.KEYWORD );
       }
 
       if ( currentCharacter == '\n' )
       {
-         return new Token( "\n", line, column );
+         return createTextToken( "\n",
+                                 TokenKind.NEW_LINE );
       }
       if ( currentCharacter == '/' )
       {
@@ -271,59 +532,47 @@ public class AS3Scanner
             || currentCharacter == '[' || currentCharacter == ']' || currentCharacter == ';'
             || currentCharacter == ',' || currentCharacter == '?' || currentCharacter == '~' )
       {
-         return scanSingleCharacterToken( currentCharacter );
+         return scanSingleCharacterToken();
       }
       if ( currentCharacter == ':' )
       {
          return scanCharacterSequence( currentCharacter,
-                                       new String[]
-                                       { "::" } );
+                                       SINGLE_COLON_SEQUENCES );
       }
       if ( currentCharacter == '*' )
       {
          return scanCharacterSequence( currentCharacter,
-                                       new String[]
-                                       {} );
+                                       NO_SEQUENCES );
       }
       if ( currentCharacter == '+' )
       {
          return scanCharacterSequence( currentCharacter,
-                                       new String[]
-                                       { "++",
-                                                   "+=" } );
+                                       SINGLE_PLUS_SEQUENCES );
       }
       if ( currentCharacter == '-' )
       {
          return scanCharacterSequence( currentCharacter,
-                                       new String[]
-                                       { "--",
-                                                   "-=" } );
+                                       SINGLE_MINUS_SEQUENCES );
       }
       if ( currentCharacter == '%' )
       {
          return scanCharacterSequence( currentCharacter,
-                                       new String[]
-                                       { "%=" } );
+                                       SINGLE_PERCENT_SEQUENCES );
       }
       if ( currentCharacter == '&' )
       {
          return scanCharacterSequence( currentCharacter,
-                                       new String[]
-                                       { "&&",
-                                                   "&=" } );
+                                       SINGLE_AND_SEQUENCES );
       }
       if ( currentCharacter == '|' )
       {
          return scanCharacterSequence( currentCharacter,
-                                       new String[]
-                                       { "||",
-                                                   "|=" } );
+                                       SINGLE_OR_SEQUENCES );
       }
       if ( currentCharacter == '^' )
       {
          return scanCharacterSequence( currentCharacter,
-                                       new String[]
-                                       { "^=" } );
+                                       SINGLE_HAT_SEQUENCES );
       }
       if ( currentCharacter == '>' )
       {
@@ -334,54 +583,137 @@ public class AS3Scanner
          else
          {
             return scanCharacterSequence( currentCharacter,
-                                          new String[]
-                                          { ">>>=",
-                                                      ">>>",
-                                                      ">>=",
-                                                      ">>",
-                                                      ">=" } );
+                                          GREATER_THAN_SEQUENCES );
          }
       }
       if ( currentCharacter == '=' )
       {
          return scanCharacterSequence( currentCharacter,
-                                       new String[]
-                                       { "===",
-                                                   "==" } );
+                                       EQUAL_SEQUENCES );
       }
       if ( currentCharacter == '!' )
       {
          return scanCharacterSequence( currentCharacter,
-                                       new String[]
-                                       { "!==",
-                                                   "!=" } );
+                                       NOT_SEQUENCES );
       }
 
-      return scanWord( currentCharacter );
+      return scanWord();
    }
 
-   private int computePossibleMatchesMaxLength( final String[] possibleMatches )
+   /**
+    * @param start
+    * @param end
+    * @param isNum
+    * @param tokenSymbols symbol table interning the token's text, null if it
+    *           is not interned
+    * @param kind
+    * @return a token of the buffer at the current line and column, which is
+    *         the reused token if any
+    */
+   private Token createBufferToken( final int start,
+                                    final int end,
+                                    final boolean isNum,
+                                    final SymbolTable tokenSymbols,
+                                    final TokenKind kind )
    {
-      int max = 0;
+      return reusedToken == null ? new Token( buffer, start, end, line, column, isNum, tokenSymbols, kind )
+                                : reusedToken.set( buffer,
+                                                   start,
+                                                   end,
+                                                   line,
+                                                   column,
+                                                   isNum,
+                                                   tokenSymbols,
+                                                   kind );
+   }
 
-      for ( final String possibleMatch : possibleMatches )
-      {
-         max = Math.max( max,
-                         possibleMatch.length() );
-      }
-      return max;
+   /**
+    * @param length
+    * @return a numeric literal starting at the current character
+    */
+   private Token createNumberToken( final int length )
+   {
+      final int start = position();
+
+      return createBufferToken( start,
+                                start
+                                      + length,
+                                true,
+                                null,
+                                TokenKind.LITERAL );
    }
 
-   private char getPreviousCharacter()
+   /**
+    * @param length
+    * @param defaultKind kind of the token if it is neither a keyword nor one
+    *           of the Operators
+    * @return a token starting at the current character, whose text is
+    *         interned in the symbol table of this scanner
+    */
+   private Token createSymbolToken( final int length,
+                                    final TokenKind defaultKind )
    {
-      int currentIndex = -1;
-      char currentChar;
-      do
-      {
-         currentChar = peekChar( currentIndex-- );
-      }
-      while ( currentChar == ' ' );
-      return currentChar;
+      final int start = position();
+
+      return createBufferToken( start,
+                                start
+                                      + length,
+                                false,
+                                symbols,
+                                defaultKind );
+   }
+
+   /**
+    * @param text
+    * @param kind
+    * @return a token of the given text at the current line and column, which
+    *         is the reused token if any
+    */
+   private Token createTextToken( final String text,
+                                  final TokenKind kind )
+   {
+      return reusedToken == null ? Token.create( text,
+                                                 line,
+                                                 column,
+                                                 kind )
+                                : reusedToken.set( text,
+                                                   line,
+                                                   column,
+                                                   false,
+                                                   kind );
+   }
+
+   /**
+    * @param length
+    * @param kind
+    * @return a token starting at the current character, whose text is not
+    *         materialized until needed
+    */
+   private Token createToken( final int length,
+                              final TokenKind kind )
+   {
+      final int start = position();
+
+      return createBufferToken( start,
+                                start
+                                      + length,
+                                false,
+                                null,
+                                kind );
+   }
+
+   /**
+    * @param tag
+    * @return the text of the given tag, viewed in the buffer whenever
+    *         possible
+    */
+   private CharSequence getTagText( final Token tag )
+   {
+      return tag.source == null ? tag.getText()
+                               : CharBuffer.wrap( tag.source,
+                                                  tag.start,
+                                                  tag.end
+                                                        - tag.start );
    }
 
    private boolean isIdentifierCharacter( final char currentCharacter )
@@ -392,111 +724,147 @@ public class AS3Scanner
             || currentCharacter == '$';
    }
 
-   private boolean isProcessingInstruction( final String text )
-   {
-      return text.startsWith( "<?" );
-   }
-
-   private boolean isValidRegExp( final String pattern )
+   /**
+    * @param sequence
+    * @return true if the given sequence starts at the current character
+    */
+   private boolean isNextSequence( final String sequence )
    {
-      try
-      {
-         Pattern.compile( pattern );
-      }
-      catch ( final PatternSyntaxException t )
+      for ( int index = 1; index < sequence.length(); index++ )
       {
-         return false;
+         if ( peekChar( index ) != sequence.charAt( index ) )
+         {
+            return false;
+         }
       }
       return true;
    }
 
-   private boolean isValidXML( final String text )
+   private boolean isValidRegExp( final Token token )
    {
-      return XMLVerifier.verify( text );
+      if ( token.source == null )
+      {
+         final char[] text = token.getText().toCharArray();
+
+         return RegExpLiteralRecognizer.isWellFormed( text,
+                                                      0,
+                                                      text.length );
+      }
+      return RegExpLiteralRecognizer.isWellFormed( token.source,
+                                                   token.start,
+                                                   token.end );
    }
 
    private char nextChar()
    {
-      final String currentLine = lines[ line ];
+      final int lineStart = lineOffsets[ line ];
 
       column++;
-      if ( currentLine.length() <= column )
+      if ( lineOffsets[ line + 1 ]
+            - lineStart - 1 <= column )
       {
          column = -1;
          line++;
+         if ( Thread.currentThread().isInterrupted() )
+         {
+            throw new ScanningInterruptedException( line );
+         }
          return '\n';
       }
 
-      char currentChar = currentLine.charAt( column );
+      char currentChar = buffer[ lineStart
+            + column ];
 
       while ( currentChar == '\uFEFF' )
       {
          column++;
-         currentChar = currentLine.charAt( column );
+         currentChar = buffer[ lineStart
+               + column ];
       }
       return currentChar;
    }
 
+   /**
+    * Skips the blanks, and records on the way the character which precedes
+    * the returned one.
+    * 
+    * @return the next non blank character
+    */
    private char nextNonWhitespaceCharacter()
    {
-      char result;
-      do
+      char preceding = peekChar( 0 );
+      char result = nextChar();
+
+      while ( result == ' '
+            || result == '\t' )
       {
+         if ( result == '\t' )
+         {
+            preceding = result;
+         }
          result = nextChar();
       }
-      while ( result == ' '
-            || result == '\t' );
+      precedingCharacter = preceding;
       return result;
    }
 
    private char peekChar( final int offset )
    {
-      final String currentLine = lines[ line ];
+      final int lineStart = lineOffsets[ line ];
       final int index = column
             + offset;
       if ( index == -1 )
       {
          return '\0';
       }
-      if ( index >= currentLine.length() )
+      if ( index >= lineOffsets[ line + 1 ]
+            - lineStart - 1 )
       {
          return '\n';
       }
 
-      return currentLine.charAt( index );
+      return buffer[ lineStart
+            + index ];
+   }
+
+   /**
+    * @return the offset of the current character in the buffer
+    */
+   private int position()
+   {
+      return lineOffsets[ line ]
+            + column;
    }
 
    /**
-    * find the longest matching sequence
+    * find the longest matching sequence. The current character is not always
+    * the given one, when an invalid XML literal has been skipped.
     * 
     * @param currentCharacter
     * @param possibleMatches
-    * @param maxLength
     * @return
     */
    private Token scanCharacterSequence( final char currentCharacter,
                                         final String[] possibleMatches )
    {
-      int peekPos = 1;
-      final StringBuffer buffer = new StringBuffer();
-      final int maxLength = computePossibleMatchesMaxLength( possibleMatches );
+      String found = null;
+      int foundLength = 1;
 
-      buffer.append( currentCharacter );
-      String found = buffer.toString();
-      while ( peekPos < maxLength )
+      for ( final String possibleMatch : possibleMatches )
       {
-         buffer.append( peekChar( peekPos ) );
-         peekPos++;
-         for ( final String possibleMatche : possibleMatches )
+         if ( possibleMatch.length() > foundLength
+               && isNextSequence( possibleMatch ) )
          {
-            if ( buffer.toString().equals( possibleMatche ) )
-            {
-               found = buffer.toString();
-            }
+            found = possibleMatch;
+            foundLength = possibleMatch.length();
          }
       }
-      final Token result = new Token( found, line, column );
-      skipChars( found.length() - 1 );
+      final Token result = buffer[ position() ] == currentCharacter ? createSymbolToken( foundLength,
+                                                                                         TokenKind.OPERATOR )
+                                                                   : createTextToken( found == null ? String.valueOf( currentCharacter )
+                                                                                                   : found,
+                                                                                      TokenKind.OPERATOR );
+      skipChars( foundLength - 1 );
       return result;
    }
 
@@ -522,8 +890,8 @@ public class AS3Scanner
 
       Token result;
 
-      if ( getPreviousCharacter() == '='
-            || getPreviousCharacter() == '(' || getPreviousCharacter() == ',' )
+      if ( precedingCharacter == '='
+            || precedingCharacter == '(' || precedingCharacter == ',' )
       {
          result = scanRegExp();
 
@@ -535,11 +903,13 @@ public class AS3Scanner
 
       if ( firstCharacter == '=' )
       {
-         result = new Token( "/=", line, column );
+         result = createSymbolToken( 2,
+                                     TokenKind.OPERATOR );
          skipChars( 1 );
          return result;
       }
-      result = new Token( "/", line, column );
+      result = createSymbolToken( 1,
+                                  TokenKind.OPERATOR );
       return result;
    }
 
@@ -551,39 +921,39 @@ public class AS3Scanner
    private Token scanDecimal( final char currentCharacter )
    {
       char currentChar = currentCharacter;
-      final StringBuffer buffer = new StringBuffer();
+      int length = 0;
       int peekPos = 1;
 
       while ( isDecimalChar( currentChar ) )
       {
-         buffer.append( currentChar );
+         length++;
          currentChar = peekChar( peekPos++ );
       }
 
       if ( currentChar == '.' )
       {
-         buffer.append( currentChar );
+         length++;
          currentChar = peekChar( peekPos++ );
 
          while ( isDecimalChar( currentChar ) )
          {
-            buffer.append( currentChar );
+            length++;
             currentChar = peekChar( peekPos++ );
          }
 
          if ( currentChar == 'E' )
          {
-            buffer.append( currentChar );
+            length++;
             currentChar = peekChar( peekPos++ );
             while ( isDecimalChar( currentChar ) )
             {
-               buffer.append( currentChar );
+               length++;
                currentChar = peekChar( peekPos++ );
             }
          }
       }
-      final Token result = new Token( buffer.toString(), line, column, true );
-      skipChars( result.text.length() - 1 );
+      final Token result = createNumberToken( length );
+      skipChars( length - 1 );
       return result;
    }
 
@@ -599,17 +969,19 @@ public class AS3Scanner
       if ( secondCharacter == '.' )
       {
          final char thirdCharacter = peekChar( 2 );
-         final String text = thirdCharacter == '.' ? "..."
-                                                  : "..";
-         final Token result = new Token( text, line, column );
+         final int length = thirdCharacter == '.' ? 3
+                                                 : 2;
+         final Token result = createSymbolToken( length,
+                                                 TokenKind.OPERATOR );
 
-         skipChars( text.length() - 1 );
+         skipChars( length - 1 );
 
          return result;
       }
       else if ( secondCharacter == '<' )
       {
-         final Token result = new Token( ".<", line, column );
+         final Token result = createSymbolToken( 2,
+                                                 TokenKind.OPERATOR );
 
          skipChars( 1 );
 
@@ -626,22 +998,14 @@ public class AS3Scanner
     */
    private Token scanHex()
    {
-      final StringBuffer buffer = new StringBuffer();
+      int length = 2;
 
-      buffer.append( "0x" );
-      int peekPos = 2;
-      for ( ;; )
+      while ( isHexChar( peekChar( length ) ) )
       {
-         final char character = peekChar( peekPos++ );
-
-         if ( !isHexChar( character ) )
-         {
-            break;
-         }
-         buffer.append( character );
+         length++;
       }
-      final Token result = new Token( buffer.toString(), line, column, true );
-      skipChars( result.text.length() - 1 );
+      final Token result = createNumberToken( length );
+      skipChars( length - 1 );
       return result;
    }
 
@@ -652,22 +1016,24 @@ public class AS3Scanner
     */
    private Token scanMultiLineComment()
    {
-      final StringBuffer buffer = new StringBuffer();
+      final int start = position();
       char currentCharacter = ' ';
       char previousCharacter = ' ';
 
-      buffer.append( "/*" );
       skipChar();
       do
       {
          previousCharacter = currentCharacter;
          currentCharacter = nextChar();
-         buffer.append( currentCharacter );
       }
       while ( currentCharacter != 0
             && !( currentCharacter == '/' && previousCharacter == '*' ) );
 
-      return new Token( buffer.toString(), line, column );
+      return createBufferToken( start,
+                                position() + 1,
+                                false,
+                                null,
+                                TokenKind.COMMENT );
    }
 
    /**
@@ -689,7 +1055,8 @@ public class AS3Scanner
          final char firstCharacter = peekChar( 1 );
          if ( !isDecimalChar( firstCharacter ) )
          {
-            return new Token( ".", line, column );
+            return createSymbolToken( 1,
+                                      TokenKind.OPERATOR );
          }
       }
       if ( characterToBeScanned == '0' )
@@ -707,16 +1074,17 @@ public class AS3Scanner
    {
       final Token token = scanUntilDelimiter( '/' );
       if ( token != null
-            && isValidRegExp( token.text ) )
+            && isValidRegExp( token ) )
       {
          return token;
       }
       return null;
    }
 
-   private Token scanSingleCharacterToken( final char character )
+   private Token scanSingleCharacterToken()
    {
-      return new Token( String.valueOf( character ), line, column );
+      return createSymbolToken( 1,
+                                TokenKind.OPERATOR );
    }
 
    /**
@@ -727,8 +1095,11 @@ public class AS3Scanner
     */
    private Token scanSingleLineComment()
    {
-      final Token result = new Token( lines[ line ].substring( column ), line, column );
-      skipChars( result.text.length() - 1 );
+      final int length = lineOffsets[ line + 1 ]
+            - position() - 1;
+      final Token result = createToken( length,
+                                        TokenKind.COMMENT );
+      skipChars( length - 1 );
       return result;
    }
 
@@ -754,12 +1125,9 @@ public class AS3Scanner
    private Token scanUntilDelimiter( final char start,
                                      final char delimiter )
    {
-      final StringBuffer buffer = new StringBuffer();
       int peekPos = 1;
       int numberOfBackslashes = 0;
 
-      buffer.append( start );
-
       for ( ;; )
       {
          final char currentCharacter = peekChar( peekPos++ );
@@ -767,14 +1135,17 @@ public class AS3Scanner
          {
             return null;
          }
-         buffer.append( currentCharacter );
          if ( currentCharacter == delimiter
                && numberOfBackslashes == 0 )
          {
-            final Token result = Token.create( buffer.toString(),
-                                               line,
-                                               column );
-            skipChars( buffer.toString().length() - 1 );
+            final Token result = buffer[ position() ] == start ? createToken( peekPos,
+                                                                              TokenKind.LITERAL )
+                                                              : createTextToken( start
+                                                                                       + new String( buffer,
+                                                                                                     position() + 1,
+                                                                                                     peekPos - 1 ),
+                                                                                 TokenKind.LITERAL );
+            skipChars( peekPos - 1 );
             return result;
          }
          numberOfBackslashes = currentCharacter == '\\' ? ( numberOfBackslashes + 1 ) % 2
@@ -782,40 +1153,37 @@ public class AS3Scanner
       }
    }
 
-   private Token scanWord( final char startingCharacter )
+   private Token scanWord()
    {
-      char currentChar = startingCharacter;
-      final StringBuffer buffer = new StringBuffer();
+      int length = 1;
 
-      buffer.append( currentChar );
-      int peekPos = 1;
-      for ( ;; )
+      while ( isIdentifierCharacter( peekChar( length ) ) )
       {
-         currentChar = peekChar( peekPos++ );
-         if ( !isIdentifierCharacter( currentChar ) )
-         {
-            break;
-         }
-
-         buffer.append( currentChar );
+         length++;
       }
-      final Token result = new Token( buffer.toString(), line, column );
-      skipChars( buffer.toString().length() - 1 );
+      final char firstCharacter = buffer[ position() ];
+      final Token result = createSymbolToken( length,
+                                              isIdentifierCharacter( firstCharacter )
+                                                    || Character.isLetter( firstCharacter ) ? TokenKind.IDENTIFIER
+                                                                                           : TokenKind.OPERATOR );
+      skipChars( length - 1 );
       return result;
    }
 
    /**
-    * Try to parse a XML document
+    * Try to parse a XML document. Its extent is found by counting the opening
+    * and closing tags, and it is then checked in place in the buffer.
     * 
-    * @return
+    * @return the XML literal, null if there is none. The scanner is moved
+    *         after the candidate literal when it is not well formed.
     */
    private Token scanXML()
    {
       final int currentLine = line;
       final int currentColumn = column;
+      final int start = position();
+      boolean isContiguous = true;
       int level = 0;
-      final StringBuffer buffer = new StringBuffer();
-      char currentCharacter = '<';
 
       for ( ;; )
       {
@@ -830,13 +1198,12 @@ public class AS3Scanner
                column = currentColumn;
                return null;
             }
-            buffer.append( currentToken.text );
-            if ( isProcessingInstruction( currentToken.text ) )
+            isContiguous = isContiguous
+                  && currentToken.getStart() >= 0;
+            if ( getTagText( currentToken ).charAt( 1 ) == '?' )
             {
-               currentCharacter = nextChar();
-               if ( currentCharacter == '\n' )
+               if ( nextChar() == '\n' )
                {
-                  buffer.append( '\n' );
                   skipChar();
                }
                currentToken = null;
@@ -844,30 +1211,42 @@ public class AS3Scanner
          }
          while ( currentToken == null );
 
-         if ( currentToken.text.startsWith( "</" ) )
+         final CharSequence tag = getTagText( currentToken );
+
+         if ( tag.charAt( 1 ) == '/' )
          {
             level--;
          }
-         else if ( !currentToken.text.endsWith( "/>" )
-               && !currentToken.text.equals( "<>" ) ) // NOT operator in AS2
+         else if ( tag.charAt( tag.length() - 2 ) != '/'
+               && tag.length() != 2 ) // <> is the NOT operator in AS2
          {
             level++;
          }
 
          if ( level <= 0 )
          {
-            return new Token( buffer.toString(), line, column );
+            final int end = currentToken.getEnd();
+
+            if ( isContiguous
+                  && XMLLiteralRecognizer.isWellFormed( buffer,
+                                                        start,
+                                                        end ) )
+            {
+               return createBufferToken( start,
+                                         end,
+                                         false,
+                                         null,
+                                         TokenKind.LITERAL );
+            }
+            return null;
          }
 
-         for ( ;; )
+         char currentCharacter;
+         do
          {
             currentCharacter = nextChar();
-            if ( currentCharacter == '<' )
-            {
-               break;
-            }
-            buffer.append( currentCharacter );
          }
+         while ( currentCharacter != '<' );
       }
    }
 
@@ -881,18 +1260,27 @@ public class AS3Scanner
    {
       final Token xmlToken = scanXML();
 
-      if ( xmlToken != null
-            && isValidXML( xmlToken.text ) )
+      if ( xmlToken != null )
       {
          return xmlToken;
       }
       return scanCharacterSequence( startingCharacterc,
-                                    new String[]
-                                    { "<<<=",
-                                                "<<<",
-                                                "<<=",
-                                                "<<",
-                                                "<=" } );
+                                    LOWER_THAN_SEQUENCES );
+   }
+
+   /**
+    * @param bufferToBeSet
+    * @param lineOffsetsToBeSet
+    */
+   private void setBuffer( final char[] bufferToBeSet,
+                           final int[] lineOffsetsToBeSet )
+   {
+      buffer = bufferToBeSet;
+      lineOffsets = lineOffsetsToBeSet;
+      linesNb = lineOffsetsToBeSet == null ? 0
+                                          : lineOffsetsToBeSet.length - 1;
+      line = 0;
+      column = -1;
    }
 
    private void skipChar()
@@ -0,0 +1,304 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+
+import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.NodeKind;
+
+/**
+ * Compact binary encoding of an ast, so that the ast of an unchanged file can
+ * be read back instead of being parsed again. The encoding starts with a
+ * header and the version, followed by the sorted string values, and by the
+ * nodes in document order. Every node is encoded as its kind, its line as a
+ * difference with the previous node's one, its column, its value id and the
+ * size of its subtree. The numbers are encoded as variable length integers.
+ * 
+ * @author xagnetti
+ */
+public final class AstCodec
+{
+   /**
+    * Reads the encoded values and nodes, checking that every number is in its
+    * range, so that a corrupted encoding fails instead of building an
+    * inconsistent store.
+    */
+   private static final class Decoder
+   {
+      private final byte[] bytes;
+      private int          position;
+
+      private Decoder( final byte[] bytesToBeSet )
+      {
+         bytes = bytesToBeSet;
+      }
+
+      private void check( final boolean condition ) throws IOException
+      {
+         if ( !condition )
+         {
+            throw new IOException( "Corrupted ast at byte "
+                  + position );
+         }
+      }
+
+      private byte readByte() throws IOException
+      {
+         check( position < bytes.length );
+         return bytes[ position++ ];
+      }
+
+      private IParserNode readNodes( final String[] values ) throws IOException
+      {
+         final int size = readNumber();
+
+         check( size > 0
+               && size <= bytes.length - position );
+         final byte[] kinds = new byte[ size ];
+         final int[] lines = new int[ size ];
+         final int[] columns = new int[ size ];
+         final int[] valueIds = new int[ size ];
+         final int[] ends = new int[ size ];
+         final int[] parents = new int[ size ];
+         final int[] openNodes = new int[ size ];
+         int openNodesNb = 0;
+         int line = 0;
+
+         for ( int index = 0; index < size; index++ )
+         {
+            kinds[ index ] = readByte();
+            check( kinds[ index ] >= 0
+                  && kinds[ index ] < KINDS.length );
+            line += readSignedNumber();
+            lines[ index ] = line;
+            columns[ index ] = readSignedNumber();
+            valueIds[ index ] = readNumber() - 1;
+            check( valueIds[ index ] >= -1
+                  && valueIds[ index ] < values.length );
+            final int length = readNumber();
+
+            check( length > 0
+                  && length <= size - index );
+            ends[ index ] = index
+                  + length;
+            while ( openNodesNb > 0
+                  && ends[ openNodes[ openNodesNb - 1 ] ] <= index )
+            {
+               openNodesNb--;
+            }
+            parents[ index ] = openNodesNb == 0 ? -1
+                                               : openNodes[ openNodesNb - 1 ];
+            check( ends[ index ] > index
+                  && ( index == 0 ? ends[ index ] == size
+                                 : parents[ index ] >= 0
+                                       && ends[ index ] <= ends[ parents[ index ] ] ) );
+            openNodes[ openNodesNb++ ] = index;
+         }
+         check( position == bytes.length );
+         return new StoredNode( new NodeStore( kinds, lines, columns, valueIds, values, ends, parents ), 0 );
+      }
+
+      private int readNumber() throws IOException
+      {
+         int number = 0;
+         int shift = 0;
+         byte current = readByte();
+
+         while ( ( current & 0x80 ) != 0 )
+         {
+            number |= ( current & 0x7F ) << shift;
+            shift += 7;
+            check( shift < 32 );
+            current = readByte();
+         }
+         return number
+               | current << shift;
+      }
+
+      private int readSignedNumber() throws IOException
+      {
+         final int number = readNumber();
+
+         return number >>> 1
+               ^ -( number & 1 );
+      }
+
+      private String[] readValues() throws IOException
+      {
+         final int size = readNumber();
+
+         check( size >= 0
+               && size <= bytes.length - position );
+         final String[] values = new String[ size ];
+
+         for ( int valueId = 0; valueId < size; valueId++ )
+         {
+            final int length = readNumber();
+
+            check( length >= 0
+                  && length <= bytes.length - position );
+            values[ valueId ] = new String( bytes, position, length, ENCODING );
+            position += length;
+            check( valueId == 0
+                  || values[ valueId - 1 ].compareTo( values[ valueId ] ) < 0 );
+         }
+         return values;
+      }
+   }
+
+   /**
+    * Version of the encoding and of the parser. It must be increased whenever
+    * one of them changes the encoded asts.
+    */
+   public static final int         VERSION  = 1;
+   private static final String     ENCODING = "UTF-8";
+   private static final byte[]     HEADER   = { 'A', 'S', 'T' };
+   private static final NodeKind[] KINDS    = NodeKind.values();
+
+   /**
+    * @param bytes
+    * @return the ast encoded in the given bytes
+    * @throws IOException if the bytes are not an ast encoded with the current
+    *            version
+    */
+   public static IParserNode decode( final byte[] bytes ) throws IOException
+   {
+      final Decoder decoder = new Decoder( bytes );
+
+      for ( final byte headerByte : HEADER )
+      {
+         if ( decoder.readByte() != headerByte )
+         {
+            throw new IOException( "Not an encoded ast" );
+         }
+      }
+      if ( decoder.readNumber() != VERSION )
+      {
+         throw new IOException( "The ast has been encoded with another version" );
+      }
+      return decoder.readNodes( decoder.readValues() );
+   }
+
+   /**
+    * @param root
+    * @return the bytes encoding the given ast
+    */
+   public static byte[] encode( final IParserNode root )
+   {
+      final StoredNode storedRoot = ( StoredNode ) ( root instanceof StoredNode ? root
+                                                                                : NodeStore.compact( root ) );
+      final NodeStore store = storedRoot.getStore();
+      final int start = storedRoot.getIndex();
+      final int end = store.getEnd( start );
+      final ByteArrayOutputStream stream = new ByteArrayOutputStream( ( end - start ) * 6 );
+      int previousLine = 0;
+
+      stream.write( HEADER,
+                    0,
+                    HEADER.length );
+      writeNumber( stream,
+                   VERSION );
+      writeNumber( stream,
+                   store.getValues().length );
+      for ( final String value : store.getValues() )
+      {
+         final byte[] valueBytes = toBytes( value );
+
+         writeNumber( stream,
+                      valueBytes.length );
+         stream.write( valueBytes,
+                       0,
+                       valueBytes.length );
+      }
+      writeNumber( stream,
+                   end
+                         - start );
+      for ( int index = start; index < end; index++ )
+      {
+         stream.write( store.getKind( index ).ordinal() );
+         writeSignedNumber( stream,
+                            store.getLine( index )
+                                  - previousLine );
+         writeSignedNumber( stream,
+                            store.getColumn( index ) );
+         writeNumber( stream,
+                      store.getValueId( index ) + 1 );
+         writeNumber( stream,
+                      store.getEnd( index )
+                            - index );
+         previousLine = store.getLine( index );
+      }
+      return stream.toByteArray();
+   }
+
+   private static byte[] toBytes( final String value )
+   {
+      try
+      {
+         return value.getBytes( ENCODING );
+      }
+      catch ( final UnsupportedEncodingException e )
+      {
+         throw new IllegalStateException( e );
+      }
+   }
+
+   private static void writeNumber( final ByteArrayOutputStream stream,
+                                    final int number )
+   {
+      int remaining = number;
+
+      while ( ( remaining & ~0x7F ) != 0 )
+      {
+         stream.write( remaining & 0x7F | 0x80 );
+         remaining >>>= 7;
+      }
+      stream.write( remaining );
+   }
+
+   /**
+    * Interleaves the negative and the positive numbers, so that the small
+    * negative ones are encoded in few bytes.
+    */
+   private static void writeSignedNumber( final ByteArrayOutputStream stream,
+                                          final int number )
+   {
+      writeNumber( stream,
+                   number << 1 ^ number >> 31 );
+   }
+
+   private AstCodec()
+   {
+   }
+}
@@ -189,6 +189,10 @@ class NestedNode
          children = new ArrayList< IParserNode >();
       }
       children.add( child );
+      if ( child instanceof Node )
+      {
+         ( ( Node ) child ).setParent( ( Node ) this );
+      }
       return child;
    }
 
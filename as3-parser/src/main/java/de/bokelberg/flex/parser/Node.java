@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.ISubtreeSummary;
 import com.adobe.ac.pmd.parser.NodeKind;
 
 /**
@@ -66,6 +67,19 @@ final class Node extends NestedNode implements IParserNode
       return new Node( idToBeSet, lineToBeSet, columnToBeSet, valueToBeSet );
    }
 
+   private static boolean isKindInArray( final NodeKind[] kinds,
+                                         final NodeKind kind )
+   {
+      for ( final NodeKind currentKind : kinds )
+      {
+         if ( currentKind == kind )
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
    private static boolean isNameInArray( final String[] strings,
                                          final String string )
    {
@@ -81,6 +95,7 @@ final class Node extends NestedNode implements IParserNode
 
    private final int    column;
    private final int    line;
+   private Node         parent;
    private final String stringValue;
 
    private Node( final NodeKind idToBeSet,
@@ -118,6 +133,56 @@ final class Node extends NestedNode implements IParserNode
       stringValue = valueToBeSet;
    }
 
+   public IParserNode findAncestor( final NodeKind... kinds )
+   {
+      Node ancestor = parent;
+
+      while ( ancestor != null
+            && !isKindInArray( kinds,
+                               ancestor.getId() ) )
+      {
+         ancestor = ancestor.parent;
+      }
+      return ancestor;
+   }
+
+   public List< IParserNode > findNodesFromType( final NodeKind type )
+   {
+      final List< IParserNode > foundNodes = new ArrayList< IParserNode >();
+
+      if ( is( type ) )
+      {
+         foundNodes.add( this );
+      }
+      if ( numChildren() > 0 )
+      {
+         for ( final IParserNode child : getChildren() )
+         {
+            foundNodes.addAll( child.findNodesFromType( type ) );
+         }
+      }
+      return foundNodes;
+   }
+
+   public List< IParserNode > findNodesFromValue( final String value )
+   {
+      final List< IParserNode > foundNodes = new ArrayList< IParserNode >();
+
+      if ( value != null
+            && value.equals( getStringValue() ) )
+      {
+         foundNodes.add( this );
+      }
+      if ( numChildren() > 0 )
+      {
+         for ( final IParserNode child : getChildren() )
+         {
+            foundNodes.addAll( child.findNodesFromValue( value ) );
+         }
+      }
+      return foundNodes;
+   }
+
    public List< IParserNode > findPrimaryStatementsFromNameInChildren( final String[] names )
    {
       final List< IParserNode > foundNode = new ArrayList< IParserNode >();
@@ -148,11 +213,30 @@ final class Node extends NestedNode implements IParserNode
       return line;
    }
 
+   public IParserNode getParent()
+   {
+      return parent;
+   }
+
    public String getStringValue()
    {
       return stringValue;
    }
 
+   /**
+    * The summaries are computed while storing the nodes, so the subtree is
+    * stored first.
+    */
+   public ISubtreeSummary getSummary()
+   {
+      return NodeStore.compact( this ).getSummary();
+   }
+
+   public boolean isInside( final NodeKind... kinds )
+   {
+      return findAncestor( kinds ) != null;
+   }
+
    @Override
    public String toString()
    {
@@ -179,4 +263,12 @@ final class Node extends NestedNode implements IParserNode
       }
       return buffer.toString();
    }
-}
\ No newline at end of file
+
+   /**
+    * @param parentToBeSet
+    */
+   void setParent( final Node parentToBeSet )
+   {
+      parent = parentToBeSet;
+   }
+}
@@ -0,0 +1,697 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.NodeKind;
+
+/**
+ * Every node of one compilation unit, stored as parallel arrays instead of
+ * objects. The nodes are numbered in document order, so that every subtree
+ * is a range of numbers: the first child of a node follows it, and the next
+ * sibling of a node follows its subtree. Every node also knows the number of
+ * its parent, and the numbers of its children are grouped by parent, so that
+ * the n-th child of a node is found in constant time. The string values are
+ * kept once in a sorted table. The nodes of every kind and of every value are indexed, so
+ * that the nodes of a kind or of a value within a subtree are found by
+ * binary searches. The summary of every subtree is computed once, children
+ * first, when the store is created.
+ * 
+ * @author xagnetti
+ */
+final class NodeStore
+{
+   /**
+    * Copies a tree of nodes into arrays, in document order, and gives every
+    * distinct value an id.
+    */
+   private static final class NodeCopier
+   {
+      private final int[]                  columns;
+      private final int[]                  ends;
+      private final byte[]                 kinds;
+      private final int[]                  lines;
+      private final int[]                  parents;
+      private final int[]                  valueIds;
+      private final Map< String, Integer > valueIdsByValue;
+
+      private NodeCopier( final int size )
+      {
+         columns = new int[ size ];
+         ends = new int[ size ];
+         kinds = new byte[ size ];
+         lines = new int[ size ];
+         parents = new int[ size ];
+         valueIds = new int[ size ];
+         valueIdsByValue = new HashMap< String, Integer >();
+      }
+
+      /**
+       * Sorts the values, and renumbers their ids accordingly.
+       * 
+       * @return the store of the copied nodes
+       */
+      private NodeStore createStore()
+      {
+         final String[] values = valueIdsByValue.keySet().toArray( new String[ valueIdsByValue.size() ] );
+
+         Arrays.sort( values );
+         final int[] sortedValueIds = new int[ values.length ];
+
+         for ( int valueId = 0; valueId < values.length; valueId++ )
+         {
+            sortedValueIds[ valueIdsByValue.get( values[ valueId ] ) ] = valueId;
+         }
+         for ( int index = 0; index < valueIds.length; index++ )
+         {
+            if ( valueIds[ index ] >= 0 )
+            {
+               valueIds[ index ] = sortedValueIds[ valueIds[ index ] ];
+            }
+         }
+         return new NodeStore( kinds, lines, columns, valueIds, values, ends, parents );
+      }
+
+      private int storeNode( final IParserNode node,
+                             final int index,
+                             final int parent )
+      {
+         final String value = node.getStringValue();
+         int end = index + 1;
+
+         kinds[ index ] = ( byte ) node.getId().ordinal();
+         parents[ index ] = parent;
+         lines[ index ] = node.getLine();
+         columns[ index ] = node.getColumn();
+         if ( value == null )
+         {
+            valueIds[ index ] = -1;
+         }
+         else
+         {
+            Integer valueId = valueIdsByValue.get( value );
+
+            if ( valueId == null )
+            {
+               valueId = valueIdsByValue.size();
+               valueIdsByValue.put( value,
+                                    valueId );
+            }
+            valueIds[ index ] = valueId;
+         }
+         for ( int childIndex = 0; childIndex < node.numChildren(); childIndex++ )
+         {
+            end = storeNode( node.getChild( childIndex ),
+                             end,
+                             index );
+         }
+         ends[ index ] = end;
+         return end;
+      }
+   }
+
+   private static final Set< NodeKind > CONTROL_STATEMENTS = EnumSet.of( NodeKind.IF,
+                                                                         NodeKind.FOR,
+                                                                         NodeKind.FOREACH,
+                                                                         NodeKind.FORIN,
+                                                                         NodeKind.WHILE,
+                                                                         NodeKind.DO,
+                                                                         NodeKind.SWITCH,
+                                                                         NodeKind.TRY );
+   private static final NodeKind[]      KINDS              = NodeKind.values();
+
+   /**
+    * @param root
+    * @return a compact copy of the given tree, viewed from its root
+    */
+   static IParserNode compact( final IParserNode root )
+   {
+      final NodeCopier copier = new NodeCopier( countNodes( root ) );
+
+      copier.storeNode( root,
+                        0,
+                        -1 );
+      return new StoredNode( copier.createStore(), 0 );
+   }
+
+   private static int countNodes( final IParserNode node )
+   {
+      int count = 1;
+
+      for ( int index = 0; index < node.numChildren(); index++ )
+      {
+         count += countNodes( node.getChild( index ) );
+      }
+      return count;
+   }
+
+   private static int findPosition( final int[] nodes,
+                                    final int start,
+                                    final int end,
+                                    final int index )
+   {
+      int low = start;
+      int high = end;
+
+      while ( low < high )
+      {
+         final int middle = ( low + high ) >>> 1;
+
+         if ( nodes[ middle ] < index )
+         {
+            low = middle + 1;
+         }
+         else
+         {
+            high = middle;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * The numbers of the children of every node, grouped by parent, in
+    * document order
+    */
+   private final int[]    children;
+   /**
+    * Offset of the children of every node in children, followed by the number
+    * of children
+    */
+   private final int[]    childStarts;
+   private final int[]    columns;
+   private final int[]    decisionPointNbs;
+   /**
+    * Number following the last node of the subtree of every node
+    */
+   private final int[]    ends;
+   private final byte[]   kinds;
+   /**
+    * Offset of the nodes of every kind in nodesByKind, followed by the number
+    * of nodes
+    */
+   private final int[]    kindStarts;
+   private final int[]    lines;
+   private final int[]    nestingDepths;
+   /**
+    * The numbers of the nodes, grouped by kind, in document order
+    */
+   private final int[]    nodesByKind;
+   /**
+    * The numbers of the nodes having a value, grouped by value, in document
+    * order
+    */
+   private final int[]    nodesByValue;
+   /**
+    * Number of the parent of every node, or -1 for the root
+    */
+   private final int[]    parents;
+   private final int[]    statementNbs;
+   private final int[]    valueIds;
+   private final String[] values;
+   /**
+    * Offset of the nodes of every value in nodesByValue, followed by the
+    * number of nodes having a value
+    */
+   private final int[]    valueStarts;
+
+   /**
+    * Indexes the given nodes, and computes the summary of every subtree,
+    * children first.
+    * 
+    * @param kindsToBeSet the ordinal of the kind of every node
+    * @param linesToBeSet
+    * @param columnsToBeSet
+    * @param valueIdsToBeSet the id of the value of every node in the values,
+    *           or -1
+    * @param valuesToBeSet the sorted values
+    * @param endsToBeSet
+    * @param parentsToBeSet
+    */
+   NodeStore( final byte[] kindsToBeSet,
+              final int[] linesToBeSet,
+              final int[] columnsToBeSet,
+              final int[] valueIdsToBeSet,
+              final String[] valuesToBeSet,
+              final int[] endsToBeSet,
+              final int[] parentsToBeSet )
+   {
+      final int size = kindsToBeSet.length;
+
+      kinds = kindsToBeSet;
+      lines = linesToBeSet;
+      columns = columnsToBeSet;
+      valueIds = valueIdsToBeSet;
+      values = valuesToBeSet;
+      ends = endsToBeSet;
+      parents = parentsToBeSet;
+      kindStarts = new int[ KINDS.length + 1 ];
+      valueStarts = new int[ values.length + 1 ];
+      childStarts = new int[ size + 1 ];
+      for ( int index = 0; index < size; index++ )
+      {
+         kindStarts[ kinds[ index ] + 1 ]++;
+         if ( valueIds[ index ] >= 0 )
+         {
+            valueStarts[ valueIds[ index ] + 1 ]++;
+         }
+         if ( parents[ index ] >= 0 )
+         {
+            childStarts[ parents[ index ] + 1 ]++;
+         }
+      }
+      for ( int kind = 0; kind < KINDS.length; kind++ )
+      {
+         kindStarts[ kind + 1 ] += kindStarts[ kind ];
+      }
+      for ( int valueId = 0; valueId < values.length; valueId++ )
+      {
+         valueStarts[ valueId + 1 ] += valueStarts[ valueId ];
+      }
+      for ( int index = 0; index < size; index++ )
+      {
+         childStarts[ index + 1 ] += childStarts[ index ];
+      }
+      nodesByKind = new int[ size ];
+      nodesByValue = new int[ valueStarts[ values.length ] ];
+      children = new int[ childStarts[ size ] ];
+      final int[] nextKindPositions = kindStarts.clone();
+      final int[] nextValuePositions = valueStarts.clone();
+      final int[] nextChildPositions = childStarts.clone();
+
+      for ( int index = 0; index < size; index++ )
+      {
+         nodesByKind[ nextKindPositions[ kinds[ index ] ]++ ] = index;
+         if ( valueIds[ index ] >= 0 )
+         {
+            nodesByValue[ nextValuePositions[ valueIds[ index ] ]++ ] = index;
+         }
+         if ( parents[ index ] >= 0 )
+         {
+            children[ nextChildPositions[ parents[ index ] ]++ ] = index;
+         }
+      }
+      decisionPointNbs = new int[ size ];
+      nestingDepths = new int[ size ];
+      statementNbs = new int[ size ];
+      for ( int index = size - 1; index >= 0; index-- )
+      {
+         summarize( index );
+      }
+   }
+
+   /**
+    * @param index
+    * @return the cyclomatic complexity of the given node's subtree
+    */
+   int computeCyclomaticComplexity( final int index )
+   {
+      return decisionPointNbs[ index ];
+   }
+
+   /**
+    * @param kind
+    * @param start
+    * @param end
+    * @return the number of nodes of the given kind between the given numbers
+    */
+   int countNodes( final NodeKind kind,
+                   final int start,
+                   final int end )
+   {
+      return findKindPosition( kind,
+                               end )
+            - findKindPosition( kind,
+                                start );
+   }
+
+   /**
+    * @param index
+    * @param ancestorKinds
+    * @return the number of the nearest ancestor of the given node which is of
+    *         one of the given kinds, or -1
+    */
+   int findAncestor( final int index,
+                     final NodeKind[] ancestorKinds )
+   {
+      int ancestor = parents[ index ];
+
+      while ( ancestor >= 0
+            && !isOfOneKind( ancestor,
+                             ancestorKinds ) )
+      {
+         ancestor = parents[ ancestor ];
+      }
+      return ancestor;
+   }
+
+   /**
+    * @param kind
+    * @param start
+    * @param end
+    * @return the nodes of the given kind between the given numbers, in
+    *         document order
+    */
+   List< IParserNode > findNodes( final NodeKind kind,
+                                  final int start,
+                                  final int end )
+   {
+      final int first = findKindPosition( kind,
+                                          start );
+      final int last = findKindPosition( kind,
+                                         end );
+      final List< IParserNode > found = new ArrayList< IParserNode >( last
+            - first );
+
+      for ( int position = first; position < last; position++ )
+      {
+         found.add( new StoredNode( this, nodesByKind[ position ] ) );
+      }
+      return found;
+   }
+
+   /**
+    * @param value
+    * @param start
+    * @param end
+    * @return the nodes of the given value between the given numbers, in
+    *         document order
+    */
+   List< IParserNode > findNodes( final String value,
+                                  final int start,
+                                  final int end )
+   {
+      final int valueId = value == null ? -1
+                                       : Arrays.binarySearch( values,
+                                                              value );
+      final List< IParserNode > found = new ArrayList< IParserNode >();
+
+      if ( valueId >= 0 )
+      {
+         final int last = findValuePosition( valueId,
+                                             end );
+
+         for ( int position = findValuePosition( valueId,
+                                                 start ); position < last; position++ )
+         {
+            found.add( new StoredNode( this, nodesByValue[ position ] ) );
+         }
+      }
+      return found;
+   }
+
+   /**
+    * Merges the nodes of the given values, and drops the ones nested in a
+    * node already found.
+    * 
+    * @param names
+    * @param start
+    * @param end
+    * @return the outermost nodes of one of the given values between the given
+    *         numbers, in document order
+    */
+   List< IParserNode > findOutermostNodes( final String[] names,
+                                           final int start,
+                                           final int end )
+   {
+      final boolean[] isFound = new boolean[ end
+            - start ];
+      final List< IParserNode > found = new ArrayList< IParserNode >();
+
+      for ( final String name : names )
+      {
+         final int valueId = Arrays.binarySearch( values,
+                                                  name );
+
+         if ( valueId >= 0 )
+         {
+            final int last = findValuePosition( valueId,
+                                                end );
+
+            for ( int position = findValuePosition( valueId,
+                                                    start ); position < last; position++ )
+            {
+               isFound[ nodesByValue[ position ]
+                     - start ] = true;
+            }
+         }
+      }
+      int current = start;
+
+      while ( current < end )
+      {
+         if ( isFound[ current
+               - start ] )
+         {
+            found.add( new StoredNode( this, current ) );
+            current = ends[ current ];
+         }
+         else
+         {
+            current++;
+         }
+      }
+      return found;
+   }
+
+   /**
+    * @param index
+    * @param childIndex
+    * @return the number of the given child of the given node, or -1
+    */
+   int getChild( final int index,
+                 final int childIndex )
+   {
+      if ( childIndex < 0
+            || childIndex >= numChildren( index ) )
+      {
+         return -1;
+      }
+      return children[ childStarts[ index ]
+            + childIndex ];
+   }
+
+   int getColumn( final int index )
+   {
+      return columns[ index ];
+   }
+
+   /**
+    * @param index
+    * @return the number following the last node of the given node's subtree
+    */
+   int getEnd( final int index )
+   {
+      return ends[ index ];
+   }
+
+   NodeKind getKind( final int index )
+   {
+      return KINDS[ kinds[ index ] ];
+   }
+
+   int getLine( final int index )
+   {
+      return lines[ index ];
+   }
+
+   /**
+    * @param index
+    * @return the greatest number of nested control statements in the given
+    *         node's subtree
+    */
+   int getNestingDepth( final int index )
+   {
+      return nestingDepths[ index ];
+   }
+
+   /**
+    * @param index
+    * @return the number of the given node's parent, or -1 for the root
+    */
+   int getParent( final int index )
+   {
+      return parents[ index ];
+   }
+
+   /**
+    * @param index
+    * @return the number of children starting on a new line in the given
+    *         node's subtree
+    */
+   int getStatementNb( final int index )
+   {
+      return statementNbs[ index ];
+   }
+
+   String getValue( final int index )
+   {
+      final int valueId = valueIds[ index ];
+
+      return valueId < 0 ? null
+                        : values[ valueId ];
+   }
+
+   /**
+    * @param index
+    * @return the id of the given node's value in the sorted values, or -1
+    */
+   int getValueId( final int index )
+   {
+      return valueIds[ index ];
+   }
+
+   /**
+    * @return the sorted values, which must not be modified
+    */
+   String[] getValues()
+   {
+      return values;
+   }
+
+   int numChildren( final int index )
+   {
+      return childStarts[ index + 1 ]
+            - childStarts[ index ];
+   }
+
+   /**
+    * @param index
+    * @return the number of decision points of the given node itself: one for
+    *         a loop or a case, and one for a condition plus one for every AND
+    *         and OR node in it
+    */
+   private int countOwnDecisionPoints( final int index )
+   {
+      final NodeKind kind = getKind( index );
+      final int condition = index + 1;
+
+      if ( kind == NodeKind.FOREACH
+            || kind == NodeKind.FORIN || kind == NodeKind.CASE || kind == NodeKind.DEFAULT )
+      {
+         return 1;
+      }
+      if ( ( kind == NodeKind.IF
+            || kind == NodeKind.WHILE || kind == NodeKind.FOR )
+            && condition < ends[ index ] )
+      {
+         return 1
+               + countNodes( NodeKind.AND,
+                             condition,
+                             ends[ condition ] ) + countNodes( NodeKind.OR,
+                                                               condition,
+                                                               ends[ condition ] );
+      }
+      return 0;
+   }
+
+   /**
+    * @param kind
+    * @param index
+    * @return the position in nodesByKind of the first node of the given kind
+    *         numbered from the given index
+    */
+   private int findKindPosition( final NodeKind kind,
+                                 final int index )
+   {
+      return findPosition( nodesByKind,
+                           kindStarts[ kind.ordinal() ],
+                           kindStarts[ kind.ordinal() + 1 ],
+                           index );
+   }
+
+   /**
+    * @param valueId
+    * @param index
+    * @return the position in nodesByValue of the first node of the given
+    *         value numbered from the given index
+    */
+   private int findValuePosition( final int valueId,
+                                  final int index )
+   {
+      return findPosition( nodesByValue,
+                           valueStarts[ valueId ],
+                           valueStarts[ valueId + 1 ],
+                           index );
+   }
+
+   private boolean isOfOneKind( final int index,
+                                final NodeKind[] candidateKinds )
+   {
+      for ( final NodeKind kind : candidateKinds )
+      {
+         if ( kinds[ index ] == kind.ordinal() )
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Computes the summary of the given node's subtree from the ones of its
+    * children. A child counts as a statement if it starts on another line
+    * than the previous child.
+    * 
+    * @param index
+    */
+   private void summarize( final int index )
+   {
+      int nestingDepth = 0;
+      int previousChild = index + 1;
+      int statementNb = 0;
+
+      decisionPointNbs[ index ] = countOwnDecisionPoints( index );
+      for ( int child = index + 1; child < ends[ index ]; child = ends[ child ] )
+      {
+         if ( lines[ child ] != lines[ previousChild ] )
+         {
+            statementNb++;
+         }
+         statementNb += statementNbs[ child ];
+         nestingDepth = Math.max( nestingDepth,
+                                  nestingDepths[ child ] );
+         decisionPointNbs[ index ] += decisionPointNbs[ child ];
+         previousChild = child;
+      }
+      nestingDepths[ index ] = CONTROL_STATEMENTS.contains( KINDS[ kinds[ index ] ] ) ? nestingDepth + 1
+                                                                                      : nestingDepth;
+      statementNbs[ index ] = statementNb;
+   }
+}
@@ -0,0 +1,330 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+/**
+ * Checks the syntax of an ActionScript regular expression literal, in one
+ * pass over the scanned buffer: groups and character classes must be closed,
+ * escapes must be complete, and every quantifier must follow something to
+ * repeat. Nothing is compiled, and no exception is thrown for a division.
+ * 
+ * @author xagnetti
+ */
+final class RegExpLiteralRecognizer
+{
+   /**
+    * The slashes are recognized as ordinary characters, so that a leading
+    * quantifier repeats the opening one.
+    * 
+    * @param buffer
+    * @param start offset of the opening slash
+    * @param end offset following the closing slash
+    * @return true if the literal is a valid pattern
+    */
+   static boolean isWellFormed( final char[] buffer,
+                                final int start,
+                                final int end )
+   {
+      return new RegExpLiteralRecognizer( buffer, start, end ).recognizePattern();
+   }
+
+   private static boolean isDecimalChar( final char character )
+   {
+      return character >= '0'
+            && character <= '9';
+   }
+
+   private final char[] buffer;
+   private boolean      canBeQuantified;
+   private int          depth;
+   private final int    end;
+   private int          position;
+
+   private RegExpLiteralRecognizer( final char[] bufferToBeSet,
+                                    final int startToBeSet,
+                                    final int endToBeSet )
+   {
+      buffer = bufferToBeSet;
+      position = startToBeSet;
+      end = endToBeSet;
+   }
+
+   private boolean consume( final char expected )
+   {
+      if ( position < end
+            && buffer[ position ] == expected )
+      {
+         position++;
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * @return the value of the decimal number at the current position, -1 if
+    *         there is none
+    */
+   private int consumeNumber()
+   {
+      final int start = position;
+      int value = 0;
+
+      while ( position < end
+            && isDecimalChar( buffer[ position ] ) )
+      {
+         value = Math.min( value
+                                 * 10 + buffer[ position ] - '0',
+                           Integer.MAX_VALUE / 10 );
+         position++;
+      }
+      return position > start ? value
+                              : -1;
+   }
+
+   /**
+    * {n}, {n,} or {n,m}. Any other brace is a literal character.
+    */
+   private boolean recognizeBrace()
+   {
+      final int start = position;
+
+      position++;
+      final int minimum = consumeNumber();
+      int maximum = minimum;
+
+      if ( minimum >= 0
+            && consume( ',' ) )
+      {
+         maximum = position < end
+               && buffer[ position ] == '}' ? Integer.MAX_VALUE
+                                           : consumeNumber();
+      }
+      if ( maximum < 0
+            || !consume( '}' ) )
+      {
+         position = start + 1;
+         canBeQuantified = true;
+         return true;
+      }
+      return maximum >= minimum
+            && recognizeQuantifier();
+   }
+
+   /**
+    * [...], where a closing bracket right after the opening one, or after a
+    * negation, is a literal.
+    */
+   private boolean recognizeCharacterClass()
+   {
+      position++;
+      consume( '^' );
+      int previousCharacter = -1;
+      boolean isRange = false;
+      boolean isFirst = true;
+
+      while ( position < end
+            && ( isFirst || buffer[ position ] != ']' ) )
+      {
+         int currentCharacter = buffer[ position++ ];
+
+         if ( currentCharacter == '\\' )
+         {
+            if ( position >= end )
+            {
+               return false;
+            }
+            final char escaped = buffer[ position++ ];
+
+            currentCharacter = Character.isLetterOrDigit( escaped ) ? -1
+                                                                   : escaped;
+         }
+         if ( isRange )
+         {
+            if ( previousCharacter >= 0
+                  && currentCharacter >= 0 && currentCharacter < previousCharacter )
+            {
+               return false;
+            }
+            isRange = false;
+            previousCharacter = -1;
+         }
+         else if ( currentCharacter == '-'
+               && previousCharacter >= 0 && position < end && buffer[ position ] != ']' )
+         {
+            isRange = true;
+         }
+         else
+         {
+            previousCharacter = currentCharacter;
+         }
+         isFirst = false;
+      }
+      return consume( ']' );
+   }
+
+   private boolean recognizeGroupName()
+   {
+      final int start = position;
+
+      while ( position < end
+            && ( Character.isLetterOrDigit( buffer[ position ] ) || buffer[ position ] == '_' ) )
+      {
+         position++;
+      }
+      return position > start
+            && consume( '>' );
+   }
+
+   /**
+    * (, (?:, (?=, (?!, (?>, (?<=, (?<!, (?<name>, (?P<name> or an inline
+    * option group such as (?i) or (?s-x:
+    */
+   private boolean recognizeGroupStart()
+   {
+      position++;
+      if ( consume( '?' ) )
+      {
+         if ( consume( ':' )
+               || consume( '=' ) || consume( '!' ) || consume( '>' ) )
+         {
+            depth++;
+            return true;
+         }
+         if ( consume( '<' ) )
+         {
+            return ( consume( '=' ) || consume( '!' ) || recognizeGroupName() )
+                  && ++depth > 0;
+         }
+         if ( consume( 'P' ) )
+         {
+            return consume( '<' )
+                  && recognizeGroupName() && ++depth > 0;
+         }
+         return recognizeOptions();
+      }
+      depth++;
+      return true;
+   }
+
+   /**
+    * Inline options, which either apply to the rest of the enclosing group,
+    * as in (?i), or open a group, as in (?i:
+    */
+   private boolean recognizeOptions()
+   {
+      while ( position < end
+            && "dimsuxJUX-".indexOf( buffer[ position ] ) >= 0 )
+      {
+         position++;
+      }
+      if ( consume( ')' ) )
+      {
+         return true;
+      }
+      if ( consume( ':' ) )
+      {
+         depth++;
+         return true;
+      }
+      return false;
+   }
+
+   private boolean recognizePattern()
+   {
+      while ( position < end )
+      {
+         final char currentCharacter = buffer[ position ];
+         boolean isRecognized = true;
+
+         switch ( currentCharacter )
+         {
+         case '\\':
+            position += 2;
+            isRecognized = position <= end;
+            canBeQuantified = true;
+            break;
+         case '[':
+            isRecognized = recognizeCharacterClass();
+            canBeQuantified = true;
+            break;
+         case '(':
+            isRecognized = recognizeGroupStart();
+            canBeQuantified = false;
+            break;
+         case ')':
+            position++;
+            isRecognized = depth-- > 0;
+            canBeQuantified = true;
+            break;
+         case '*':
+         case '+':
+         case '?':
+            position++;
+            isRecognized = recognizeQuantifier();
+            break;
+         case '{':
+            isRecognized = recognizeBrace();
+            break;
+         case '|':
+            position++;
+            canBeQuantified = false;
+            break;
+         default:
+            position++;
+            canBeQuantified = true;
+            break;
+         }
+         if ( !isRecognized )
+         {
+            return false;
+         }
+      }
+      return depth == 0;
+   }
+
+   /**
+    * The quantifier itself has been consumed. It may be followed by a lazy or
+    * a possessive mark.
+    */
+   private boolean recognizeQuantifier()
+   {
+      if ( !canBeQuantified )
+      {
+         return false;
+      }
+      if ( !consume( '?' ) )
+      {
+         consume( '+' );
+      }
+      canBeQuantified = false;
+      return true;
+   }
+}
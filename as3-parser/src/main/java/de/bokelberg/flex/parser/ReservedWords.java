@@ -0,0 +1,242 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+import com.adobe.ac.pmd.parser.KeyWords;
+import com.adobe.ac.pmd.parser.Operators;
+
+/**
+ * Perfect hash table of the keywords and operators texts. The multiplier of
+ * the hash function is searched once, so that every text gets its own slot,
+ * and a token is then classified with one hash and at most one comparison.
+ * 
+ * @author xagnetti
+ */
+final class ReservedWords
+{
+   private static final int         BITS;
+   private static final KeyWords[]  KEYWORDS;
+   private static final int         MAX_LENGTH;
+   private static final int         MULTIPLIER;
+   private static final Operators[] OPERATORS;
+   private static final int         SPREAD = 0x9E3779B9;
+   private static final String[]    TEXTS;
+
+   static
+   {
+      final KeyWords[] keywords = KeyWords.values();
+      final Operators[] operators = Operators.values();
+      final String[] texts = new String[ keywords.length
+            + operators.length ];
+      int maxLength = 0;
+
+      for ( int index = 0; index < texts.length; index++ )
+      {
+         texts[ index ] = index < keywords.length ? keywords[ index ].toString()
+                                                 : operators[ index
+                                                       - keywords.length ].toString();
+         maxLength = Math.max( maxLength,
+                               texts[ index ].length() );
+      }
+      int bits = 32 - Integer.numberOfLeadingZeros( texts.length * 16 - 1 );
+      int multiplier = findMultiplier( texts,
+                                       bits );
+
+      while ( multiplier == 0 )
+      {
+         bits++;
+         multiplier = findMultiplier( texts,
+                                      bits );
+      }
+      BITS = bits;
+      MULTIPLIER = multiplier;
+      MAX_LENGTH = maxLength;
+      KEYWORDS = new KeyWords[ 1 << bits ];
+      OPERATORS = new Operators[ 1 << bits ];
+      TEXTS = new String[ 1 << bits ];
+      for ( int index = 0; index < texts.length; index++ )
+      {
+         final int slot = computeSlot( computeHash( texts[ index ],
+                                                    multiplier ),
+                                       bits );
+
+         TEXTS[ slot ] = texts[ index ];
+         if ( index < keywords.length )
+         {
+            KEYWORDS[ slot ] = keywords[ index ];
+         }
+         else
+         {
+            OPERATORS[ slot ] = operators[ index
+                  - keywords.length ];
+         }
+      }
+   }
+
+   /**
+    * @param buffer
+    * @param start
+    * @param length
+    * @return the slot of the given characters, -1 if they are neither a
+    *         keyword nor an operator
+    */
+   static int find( final char[] buffer,
+                    final int start,
+                    final int length )
+   {
+      if ( length > MAX_LENGTH )
+      {
+         return -1;
+      }
+      int hash = 0;
+
+      for ( int index = start; index < start
+            + length; index++ )
+      {
+         hash = hash
+               * MULTIPLIER + buffer[ index ];
+      }
+      final int slot = computeSlot( hash,
+                                    BITS );
+      final String candidate = TEXTS[ slot ];
+
+      if ( candidate == null
+            || candidate.length() != length )
+      {
+         return -1;
+      }
+      for ( int index = 0; index < length; index++ )
+      {
+         if ( candidate.charAt( index ) != buffer[ start
+               + index ] )
+         {
+            return -1;
+         }
+      }
+      return slot;
+   }
+
+   /**
+    * @param text
+    * @return the slot of the given text, -1 if it is neither a keyword nor an
+    *         operator
+    */
+   static int find( final String text )
+   {
+      if ( text == null
+            || text.length() > MAX_LENGTH )
+      {
+         return -1;
+      }
+      final int slot = computeSlot( computeHash( text,
+                                                 MULTIPLIER ),
+                                    BITS );
+
+      return text.equals( TEXTS[ slot ] ) ? slot
+                                         : -1;
+   }
+
+   /**
+    * @param slot
+    * @return the keyword found at the given slot, null if none
+    */
+   static KeyWords getKeyWord( final int slot )
+   {
+      return slot < 0 ? null
+                     : KEYWORDS[ slot ];
+   }
+
+   /**
+    * @param slot
+    * @return the operator found at the given slot, null if none
+    */
+   static Operators getOperator( final int slot )
+   {
+      return slot < 0 ? null
+                     : OPERATORS[ slot ];
+   }
+
+   private static int computeHash( final String text,
+                                   final int multiplier )
+   {
+      int hash = 0;
+
+      for ( int index = 0; index < text.length(); index++ )
+      {
+         hash = hash
+               * multiplier + text.charAt( index );
+      }
+      return hash;
+   }
+
+   private static int computeSlot( final int hash,
+                                   final int bits )
+   {
+      return hash
+            * SPREAD >>> 32 - bits;
+   }
+
+   /**
+    * @param texts
+    * @param bits
+    * @return an odd multiplier giving a distinct slot to every text, 0 if
+    *         none has been found
+    */
+   private static int findMultiplier( final String[] texts,
+                                      final int bits )
+   {
+      for ( int multiplier = 1; multiplier < 1 << 16; multiplier += 2 )
+      {
+         final boolean[] used = new boolean[ 1 << bits ];
+         boolean isPerfect = true;
+
+         for ( int index = 0; index < texts.length
+               && isPerfect; index++ )
+         {
+            final int slot = computeSlot( computeHash( texts[ index ],
+                                                       multiplier ),
+                                          bits );
+
+            isPerfect = !used[ slot ];
+            used[ slot ] = true;
+         }
+         if ( isPerfect )
+         {
+            return multiplier;
+         }
+      }
+      return 0;
+   }
+
+   private ReservedWords()
+   {
+   }
+}
@@ -0,0 +1,150 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.adobe.ac.pmd.parser.ITokenStream;
+import com.adobe.ac.pmd.parser.KeyWords;
+import com.adobe.ac.pmd.parser.Operators;
+import com.adobe.ac.pmd.parser.TokenFilter;
+import com.adobe.ac.pmd.parser.TokenKind;
+
+import de.bokelberg.flex.parser.AS3Scanner.Token;
+
+/**
+ * Token stream reading the scanner lazily. The scanner refills a single token
+ * which refers to the scanned buffer, so that no token is allocated, its text
+ * is built only if the reader asks for it, and the filtered tokens are skipped
+ * from their kind, keyword and line, without looking at their text.
+ * 
+ * @author xagnetti
+ */
+final class ScannerTokenStream implements ITokenStream
+{
+   private Token                    current;
+   private final Set< TokenFilter > filters;
+   /**
+    * Line of the last import or package keyword, when its line is skipped
+    */
+   private int                      ignoredLine;
+   private final AS3Scanner         scanner;
+
+   /**
+    * @param scannerToBeSet
+    * @param filtersToBeSet
+    */
+   ScannerTokenStream( final AS3Scanner scannerToBeSet,
+                       final Set< TokenFilter > filtersToBeSet )
+   {
+      scanner = scannerToBeSet;
+      scanner.reuseToken();
+      filters = filtersToBeSet.isEmpty() ? EnumSet.noneOf( TokenFilter.class )
+                                        : EnumSet.copyOf( filtersToBeSet );
+   }
+
+   public int getColumn()
+   {
+      return current.getColumn();
+   }
+
+   public int getEnd()
+   {
+      return current.getEnd();
+   }
+
+   public KeyWords getKeyWord()
+   {
+      return current.getKeyWord();
+   }
+
+   public TokenKind getKind()
+   {
+      return current.getKind();
+   }
+
+   public int getLine()
+   {
+      return current.getLine();
+   }
+
+   public Operators getOperator()
+   {
+      return current.getOperator();
+   }
+
+   public int getStart()
+   {
+      return current.getStart();
+   }
+
+   public String getText()
+   {
+      return current.getText();
+   }
+
+   public boolean next()
+   {
+      current = scanner.moveToNextToken();
+      while ( current != null
+            && current.getKeyWord() != KeyWords.EOF && isSkipped() )
+      {
+         current = scanner.moveToNextToken();
+      }
+      if ( current != null
+            && current.getKeyWord() == KeyWords.EOF )
+      {
+         current = null;
+      }
+      return current != null;
+   }
+
+   private boolean isSkipped()
+   {
+      if ( current.getKind() == TokenKind.COMMENT
+            && filters.contains( TokenFilter.COMMENTS ) || current.getKind() == TokenKind.NEW_LINE
+            && filters.contains( TokenFilter.NEW_LINES ) )
+      {
+         return true;
+      }
+      if ( filters.contains( TokenFilter.IMPORT_AND_PACKAGE_LINES ) )
+      {
+         if ( current.getKeyWord() == KeyWords.IMPORT
+               || current.getKeyWord() == KeyWords.PACKAGE )
+         {
+            ignoredLine = current.getLine();
+         }
+         return ignoredLine == current.getLine();
+      }
+      return false;
+   }
+}
@@ -0,0 +1,316 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.ISubtreeSummary;
+import com.adobe.ac.pmd.parser.NodeKind;
+
+/**
+ * Flyweight view of a node held by a NodeStore. Views are created on demand,
+ * and two views of the same node are equal.
+ * 
+ * @author xagnetti
+ */
+final class StoredNode implements IParserNode
+{
+   private final class Children extends AbstractList< IParserNode >
+   {
+      private final int size = store.numChildren( index );
+
+      @Override
+      public IParserNode get( final int childIndex )
+      {
+         final IParserNode child = getChild( childIndex );
+
+         if ( child == null )
+         {
+            throw new IndexOutOfBoundsException( Integer.toString( childIndex ) );
+         }
+         return child;
+      }
+
+      @Override
+      public Iterator< IParserNode > iterator()
+      {
+         return new Iterator< IParserNode >()
+         {
+            private int child = index + 1;
+
+            public boolean hasNext()
+            {
+               return child < store.getEnd( index );
+            }
+
+            public IParserNode next()
+            {
+               if ( !hasNext() )
+               {
+                  throw new NoSuchElementException();
+               }
+               final IParserNode result = new StoredNode( store, child );
+
+               child = store.getEnd( child );
+               return result;
+            }
+
+            public void remove()
+            {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size()
+      {
+         return size;
+      }
+   }
+
+   private final class Summary implements ISubtreeSummary
+   {
+      public boolean contains( final NodeKind kind )
+      {
+         return countNodeFromType( kind ) > 0;
+      }
+
+      public int getDecisionPointNb()
+      {
+         return store.computeCyclomaticComplexity( index );
+      }
+
+      public int getNestingDepth()
+      {
+         return store.getNestingDepth( index );
+      }
+
+      public int getNodeNb()
+      {
+         return store.getEnd( index )
+               - index;
+      }
+
+      public int getStatementNb()
+      {
+         return store.getStatementNb( index );
+      }
+   }
+
+   private final int       index;
+   private final NodeStore store;
+
+   StoredNode( final NodeStore storeToBeSet,
+               final int indexToBeSet )
+   {
+      store = storeToBeSet;
+      index = indexToBeSet;
+   }
+
+   public int computeCyclomaticComplexity()
+   {
+      return store.computeCyclomaticComplexity( index );
+   }
+
+   public int countNodeFromType( final NodeKind type )
+   {
+      return store.countNodes( type,
+                               index,
+                               store.getEnd( index ) );
+   }
+
+   @Override
+   public boolean equals( final Object other )
+   {
+      return other instanceof StoredNode
+            && ( ( StoredNode ) other ).store == store && ( ( StoredNode ) other ).index == index;
+   }
+
+   public IParserNode findAncestor( final NodeKind... kinds )
+   {
+      final int ancestor = store.findAncestor( index,
+                                               kinds );
+
+      return ancestor < 0 ? null
+                         : new StoredNode( store, ancestor );
+   }
+
+   public List< IParserNode > findNodesFromType( final NodeKind type )
+   {
+      return store.findNodes( type,
+                              index,
+                              store.getEnd( index ) );
+   }
+
+   public List< IParserNode > findNodesFromValue( final String value )
+   {
+      return store.findNodes( value,
+                              index,
+                              store.getEnd( index ) );
+   }
+
+   public List< IParserNode > findPrimaryStatementsFromNameInChildren( final String[] names )
+   {
+      return store.findOutermostNodes( names,
+                                       index,
+                                       store.getEnd( index ) );
+   }
+
+   public IParserNode getChild( final int childIndex )
+   {
+      final int child = store.getChild( index,
+                                        childIndex );
+
+      return child < 0 ? null
+                      : new StoredNode( store, child );
+   }
+
+   public List< IParserNode > getChildren()
+   {
+      return store.getEnd( index ) == index + 1 ? null
+                                               : new Children();
+   }
+
+   public int getColumn()
+   {
+      return store.getColumn( index );
+   }
+
+   public NodeKind getId()
+   {
+      return store.getKind( index );
+   }
+
+   /**
+    * The last child of the last child, and so on, is the last node of the
+    * subtree.
+    */
+   public IParserNode getLastChild()
+   {
+      final int last = store.getEnd( index ) - 1;
+
+      return last == index ? null
+                          : new StoredNode( store, last );
+   }
+
+   public int getLine()
+   {
+      return store.getLine( index );
+   }
+
+   public IParserNode getParent()
+   {
+      final int parent = store.getParent( index );
+
+      return parent < 0 ? null
+                       : new StoredNode( store, parent );
+   }
+
+   public String getStringValue()
+   {
+      return store.getValue( index );
+   }
+
+   public ISubtreeSummary getSummary()
+   {
+      return new Summary();
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return store.hashCode()
+            * 31 + index;
+   }
+
+   public boolean is( final NodeKind expectedType ) // NOPMD
+   {
+      return store.getKind( index ) == expectedType;
+   }
+
+   public boolean isInside( final NodeKind... kinds )
+   {
+      return store.findAncestor( index,
+                                 kinds ) >= 0;
+   }
+
+   public int numChildren()
+   {
+      return store.numChildren( index );
+   }
+
+   @Override
+   public String toString()
+   {
+      final StringBuilder buffer = new StringBuilder();
+
+      appendTo( index,
+                buffer );
+      return buffer.toString();
+   }
+
+   int getIndex()
+   {
+      return index;
+   }
+
+   NodeStore getStore()
+   {
+      return store;
+   }
+
+   private void appendTo( final int current,
+                          final StringBuilder buffer )
+   {
+      final String value = store.getValue( current );
+
+      if ( value == null )
+      {
+         buffer.append( store.getKind( current ) );
+      }
+      else
+      {
+         buffer.append( value );
+      }
+      buffer.append( ' ' );
+      for ( int child = current + 1; child < store.getEnd( current ); child = store.getEnd( child ) )
+      {
+         appendTo( child,
+                   buffer );
+         buffer.append( ' ' );
+      }
+   }
+}
@@ -0,0 +1,155 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+/**
+ * Interns the text of the identifiers, keywords and operators found by one
+ * scanner, straight from its character buffer, so that a repeated symbol is
+ * materialized as a String only once.
+ * 
+ * @author xagnetti
+ */
+final class SymbolTable
+{
+   private static final int INITIAL_CAPACITY = 256;
+
+   private static int computeHash( final char[] buffer,
+                                   final int start,
+                                   final int length )
+   {
+      int hash = 0;
+
+      for ( int index = start; index < start
+            + length; index++ )
+      {
+         hash = 31
+               * hash + buffer[ index ];
+      }
+      return hash;
+   }
+
+   private static boolean matches( final String symbol,
+                                   final char[] buffer,
+                                   final int start,
+                                   final int length )
+   {
+      if ( symbol.length() != length )
+      {
+         return false;
+      }
+      for ( int index = 0; index < length; index++ )
+      {
+         if ( symbol.charAt( index ) != buffer[ start
+               + index ] )
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private int[]    hashes;
+   private int      size;
+   private String[] symbols;
+
+   SymbolTable()
+   {
+      hashes = new int[ INITIAL_CAPACITY ];
+      symbols = new String[ INITIAL_CAPACITY ];
+   }
+
+   /**
+    * @param buffer
+    * @param start
+    * @param length
+    * @return the unique String holding the given characters
+    */
+   String intern( final char[] buffer,
+                  final int start,
+                  final int length )
+   {
+      final int hash = computeHash( buffer,
+                                    start,
+                                    length );
+      final int mask = symbols.length - 1;
+      int slot = hash
+            & mask;
+
+      while ( symbols[ slot ] != null )
+      {
+         if ( hashes[ slot ] == hash
+               && matches( symbols[ slot ],
+                           buffer,
+                           start,
+                           length ) )
+         {
+            return symbols[ slot ];
+         }
+         slot = ( slot + 1 )
+               & mask;
+      }
+      final String symbol = new String( buffer, start, length );
+
+      symbols[ slot ] = symbol;
+      hashes[ slot ] = hash;
+      if ( ++size * 2 > symbols.length )
+      {
+         grow();
+      }
+      return symbol;
+   }
+
+   private void grow()
+   {
+      final int[] oldHashes = hashes;
+      final String[] oldSymbols = symbols;
+      final int mask = oldSymbols.length * 2 - 1;
+
+      hashes = new int[ oldSymbols.length * 2 ];
+      symbols = new String[ oldSymbols.length * 2 ];
+      for ( int index = 0; index < oldSymbols.length; index++ )
+      {
+         if ( oldSymbols[ index ] != null )
+         {
+            int slot = oldHashes[ index ]
+                  & mask;
+
+            while ( symbols[ slot ] != null )
+            {
+               slot = ( slot + 1 )
+                     & mask;
+            }
+            symbols[ slot ] = oldSymbols[ index ];
+            hashes[ slot ] = oldHashes[ index ];
+         }
+      }
+   }
+}
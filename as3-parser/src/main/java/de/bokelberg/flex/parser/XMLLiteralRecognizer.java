@@ -0,0 +1,805 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+/**
+ * Checks that an E4X literal is well formed, in one pass over the scanned
+ * buffer, without building any tree nor copying any text. Beside the XML
+ * syntax (declaration, elements, attributes, references, CDATA sections,
+ * comments and processing instructions), {} bindings are accepted as tag
+ * names, attribute values and in text content. Every check works on its own
+ * instance, so that files can be scanned concurrently.
+ * 
+ * @author xagnetti
+ */
+final class XMLLiteralRecognizer
+{
+   private static final String   CDATA_START           = "<![CDATA[";
+   private static final String   COMMENT_START         = "<!--";
+   private static final int      INITIAL_DEPTH         = 8;
+   private static final String[] PREDEFINED_ENTITIES   = new String[]
+                                                       { "amp",
+               "apos",
+               "gt",
+               "lt",
+               "quot" };
+   private static final String   XML_DECLARATION_START = "<?xml";
+
+   /**
+    * @param buffer
+    * @param start offset of the opening '<'
+    * @param end offset following the closing '>'
+    * @return true if the characters between start and end form a well formed
+    *         literal
+    */
+   static boolean isWellFormed( final char[] buffer,
+                                final int start,
+                                final int end )
+   {
+      return new XMLLiteralRecognizer( buffer, start, end ).recognizeDocument();
+   }
+
+   private static boolean isLegalCharacter( final int codePoint )
+   {
+      return codePoint == 0x9
+            || codePoint == 0xA || codePoint == 0xD || codePoint >= 0x20 && codePoint <= 0xD7FF
+            || codePoint >= 0xE000 && codePoint <= 0xFFFD || codePoint >= 0x10000 && codePoint <= 0x10FFFF;
+   }
+
+   private static boolean isNameCharacter( final char character )
+   {
+      return isNameStartCharacter( character )
+            || character >= '0' && character <= '9' || character == '-' || character == '.'
+            || character == '\u00B7' || character > 0x7F && Character.isLetterOrDigit( character )
+            || Character.getType( character ) == Character.NON_SPACING_MARK
+            || Character.getType( character ) == Character.COMBINING_SPACING_MARK;
+   }
+
+   private static boolean isNameStartCharacter( final char character )
+   {
+      return character >= 'a'
+            && character <= 'z' || character >= 'A' && character <= 'Z' || character == '_'
+            || character == ':' || character > 0x7F && Character.isLetter( character );
+   }
+
+   private static boolean isWhitespace( final char character )
+   {
+      return character == ' '
+            || character == '\t' || character == '\n' || character == '\r';
+   }
+
+   private int[]        attributes = new int[ INITIAL_DEPTH * 2 ];
+   private int          attributesNb;
+   private final char[] buffer;
+   private int          depth;
+   private final int    end;
+   private int[]        openTags   = new int[ INITIAL_DEPTH * 2 ];
+   private int          position;
+
+   private XMLLiteralRecognizer( final char[] bufferToBeSet,
+                                 final int startToBeSet,
+                                 final int endToBeSet )
+   {
+      buffer = bufferToBeSet;
+      position = startToBeSet;
+      end = endToBeSet;
+   }
+
+   private boolean addAttribute( final int nameStart,
+                                 final int nameLength )
+   {
+      for ( int index = 0; index < attributesNb; index++ )
+      {
+         if ( regionMatches( attributes[ index * 2 ],
+                             attributes[ index * 2 + 1 ],
+                             nameStart,
+                             nameLength ) )
+         {
+            return false;
+         }
+      }
+      if ( attributesNb * 2 == attributes.length )
+      {
+         attributes = grow( attributes );
+      }
+      attributes[ attributesNb * 2 ] = nameStart;
+      attributes[ attributesNb * 2 + 1 ] = nameLength;
+      attributesNb++;
+      return true;
+   }
+
+   private boolean consume( final char expected )
+   {
+      if ( position < end
+            && buffer[ position ] == expected )
+      {
+         position++;
+         return true;
+      }
+      return false;
+   }
+
+   private int[] grow( final int[] array )
+   {
+      final int[] grown = new int[ array.length * 2 ];
+
+      System.arraycopy( array,
+                        0,
+                        grown,
+                        0,
+                        array.length );
+      return grown;
+   }
+
+   private boolean lookingAt( final String expected )
+   {
+      if ( end
+            - position < expected.length() )
+      {
+         return false;
+      }
+      for ( int index = 0; index < expected.length(); index++ )
+      {
+         if ( buffer[ position
+               + index ] != expected.charAt( index ) )
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private boolean lookingAtIgnoringCase( final int start,
+                                          final int length,
+                                          final String expected )
+   {
+      if ( length != expected.length() )
+      {
+         return false;
+      }
+      for ( int index = 0; index < length; index++ )
+      {
+         if ( Character.toLowerCase( buffer[ start
+               + index ] ) != expected.charAt( index ) )
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * @return the number of characters of the legal character at the current
+    *         position, 0 if it is not a legal XML character
+    */
+   private int measureCharacter()
+   {
+      final char character = buffer[ position ];
+
+      if ( Character.isHighSurrogate( character ) )
+      {
+         return position + 1 < end
+               && Character.isLowSurrogate( buffer[ position + 1 ] ) ? 2
+                                                                   : 0;
+      }
+      return isLegalCharacter( character ) ? 1
+                                          : 0;
+   }
+
+   private boolean recognizeAttributeValue()
+   {
+      if ( position >= end )
+      {
+         return false;
+      }
+      final char quote = buffer[ position ];
+
+      if ( quote == '{' )
+      {
+         return recognizeBinding();
+      }
+      if ( quote != '"'
+            && quote != '\'' )
+      {
+         return false;
+      }
+      position++;
+      while ( position < end
+            && buffer[ position ] != quote )
+      {
+         if ( buffer[ position ] == '<' )
+         {
+            return false;
+         }
+         if ( buffer[ position ] == '&' )
+         {
+            if ( !recognizeReference() )
+            {
+               return false;
+            }
+         }
+         else if ( !skipCharacter() )
+         {
+            return false;
+         }
+      }
+      return consume( quote );
+   }
+
+   /**
+    * A binding is a {} enclosed ActionScript expression, which is not
+    * checked, but whose braces must be balanced.
+    */
+   private boolean recognizeBinding()
+   {
+      int level = 0;
+
+      do
+      {
+         if ( position >= end )
+         {
+            return false;
+         }
+         if ( buffer[ position ] == '{' )
+         {
+            level++;
+         }
+         else if ( buffer[ position ] == '}' )
+         {
+            level--;
+         }
+         position++;
+      }
+      while ( level > 0 );
+      return true;
+   }
+
+   private boolean recognizeCDataSection()
+   {
+      position += CDATA_START.length();
+      while ( !lookingAt( "]]>" ) )
+      {
+         if ( position >= end
+               || !skipCharacter() )
+         {
+            return false;
+         }
+      }
+      position += 3;
+      return true;
+   }
+
+   private boolean recognizeComment()
+   {
+      position += COMMENT_START.length();
+      while ( !lookingAt( "--" ) )
+      {
+         if ( position >= end
+               || !skipCharacter() )
+         {
+            return false;
+         }
+      }
+      position += 2;
+      return consume( '>' );
+   }
+
+   /**
+    * @return true if the content of the root element is well formed, up to
+    *         its end tag
+    */
+   private boolean recognizeContent()
+   {
+      while ( depth > 0 )
+      {
+         if ( position >= end )
+         {
+            return false;
+         }
+         final char character = buffer[ position ];
+         boolean isRecognized;
+
+         if ( character == '<' )
+         {
+            isRecognized = recognizeMarkup();
+         }
+         else if ( character == '&' )
+         {
+            isRecognized = recognizeReference();
+         }
+         else if ( character == '{' )
+         {
+            isRecognized = recognizeBinding();
+         }
+         else
+         {
+            isRecognized = !lookingAt( "]]>" )
+                  && skipCharacter();
+         }
+         if ( !isRecognized )
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private boolean recognizeDocument()
+   {
+      if ( lookingAt( XML_DECLARATION_START )
+            && position + XML_DECLARATION_START.length() < end
+            && isWhitespace( buffer[ position
+                  + XML_DECLARATION_START.length() ] )
+            && !recognizeXMLDeclaration() )
+      {
+         return false;
+      }
+      if ( !skipMiscellaneous()
+            || !lookingAt( "<" ) || lookingAt( "<!" ) || lookingAt( "</" ) || !recognizeStartTag() )
+      {
+         return false;
+      }
+      return recognizeContent()
+            && skipMiscellaneous() && position == end;
+   }
+
+   private boolean recognizeEndTag()
+   {
+      position += 2;
+      final int nameStart = position;
+
+      if ( !recognizeTagName()
+            || depth == 0 )
+      {
+         return false;
+      }
+      final int nameLength = position
+            - nameStart;
+
+      depth--;
+      if ( !regionMatches( openTags[ depth * 2 ],
+                           openTags[ depth * 2 + 1 ],
+                           nameStart,
+                           nameLength ) )
+      {
+         return false;
+      }
+      skipWhitespaces();
+      return consume( '>' );
+   }
+
+   /**
+    * @return true if the markup starting at the current '<' is well formed
+    */
+   private boolean recognizeMarkup()
+   {
+      if ( lookingAt( "</" ) )
+      {
+         return recognizeEndTag();
+      }
+      if ( lookingAt( COMMENT_START ) )
+      {
+         return recognizeComment();
+      }
+      if ( lookingAt( CDATA_START ) )
+      {
+         return recognizeCDataSection();
+      }
+      if ( lookingAt( "<?" ) )
+      {
+         return recognizeProcessingInstruction();
+      }
+      return !lookingAt( "<!" )
+            && recognizeStartTag();
+   }
+
+   private boolean recognizeName()
+   {
+      if ( position >= end
+            || !isNameStartCharacter( buffer[ position ] ) )
+      {
+         return false;
+      }
+      position++;
+      while ( position < end
+            && isNameCharacter( buffer[ position ] ) )
+      {
+         position++;
+      }
+      return true;
+   }
+
+   private boolean recognizeProcessingInstruction()
+   {
+      position += 2;
+      final int targetStart = position;
+
+      if ( !recognizeName()
+            || lookingAtIgnoringCase( targetStart,
+                                      position
+                                            - targetStart,
+                                      "xml" ) )
+      {
+         return false;
+      }
+      if ( lookingAt( "?>" ) )
+      {
+         position += 2;
+         return true;
+      }
+      if ( position >= end
+            || !isWhitespace( buffer[ position ] ) )
+      {
+         return false;
+      }
+      while ( !lookingAt( "?>" ) )
+      {
+         if ( position >= end
+               || !skipCharacter() )
+         {
+            return false;
+         }
+      }
+      position += 2;
+      return true;
+   }
+
+   private boolean recognizeQuotedValue()
+   {
+      if ( position >= end
+            || buffer[ position ] != '"' && buffer[ position ] != '\'' )
+      {
+         return false;
+      }
+      final char quote = buffer[ position++ ];
+
+      while ( position < end
+            && buffer[ position ] != quote )
+      {
+         if ( !skipCharacter() )
+         {
+            return false;
+         }
+      }
+      return consume( quote );
+   }
+
+   /**
+    * Either a predefined entity, or a decimal or hexadecimal character
+    * reference.
+    */
+   private boolean recognizeReference()
+   {
+      position++;
+      if ( consume( '#' ) )
+      {
+         final int radix = consume( 'x' ) ? 16
+                                         : 10;
+         final int digitsStart = position;
+         int codePoint = 0;
+
+         while ( position < end
+               && Character.digit( buffer[ position ],
+                                   radix ) >= 0 )
+         {
+            codePoint = Math.min( codePoint
+                                        * radix + Character.digit( buffer[ position ],
+                                                                   radix ),
+                                  Character.MAX_CODE_POINT + 1 );
+            position++;
+         }
+         return position > digitsStart
+               && isLegalCharacter( codePoint ) && consume( ';' );
+      }
+      final int nameStart = position;
+
+      if ( !recognizeName() )
+      {
+         return false;
+      }
+      for ( final String entity : PREDEFINED_ENTITIES )
+      {
+         if ( regionMatches( entity,
+                             nameStart,
+                             position
+                                   - nameStart ) )
+         {
+            return consume( ';' );
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Recognizes a start or an empty element tag, pushing the former on the
+    * open tags stack.
+    */
+   private boolean recognizeStartTag()
+   {
+      position++;
+      final int nameStart = position;
+
+      if ( !recognizeTagName() )
+      {
+         return false;
+      }
+      final int nameLength = position
+            - nameStart;
+
+      attributesNb = 0;
+      for ( ;; )
+      {
+         final boolean isSeparated = skipWhitespaces();
+
+         if ( lookingAt( "/>" ) )
+         {
+            position += 2;
+            return true;
+         }
+         if ( consume( '>' ) )
+         {
+            if ( depth * 2 == openTags.length )
+            {
+               openTags = grow( openTags );
+            }
+            openTags[ depth * 2 ] = nameStart;
+            openTags[ depth * 2 + 1 ] = nameLength;
+            depth++;
+            return true;
+         }
+         final int attributeStart = position;
+
+         if ( !isSeparated
+               || !recognizeName() || !addAttribute( attributeStart,
+                                                     position
+                                                           - attributeStart ) )
+         {
+            return false;
+         }
+         skipWhitespaces();
+         if ( !consume( '=' ) )
+         {
+            return false;
+         }
+         skipWhitespaces();
+         if ( !recognizeAttributeValue() )
+         {
+            return false;
+         }
+      }
+   }
+
+   private boolean recognizeTagName()
+   {
+      return position < end
+            && buffer[ position ] == '{' ? recognizeBinding()
+                                        : recognizeName();
+   }
+
+   /**
+    * The declaration must have a version, may have an encoding and a
+    * standalone pseudo attributes, in that order. As the literal is already
+    * decoded, the encoding name is not checked.
+    */
+   private boolean recognizeXMLDeclaration()
+   {
+      position += XML_DECLARATION_START.length();
+      if ( !recognizeXMLDeclarationAttribute( "version" ) )
+      {
+         return false;
+      }
+      final int versionStart = position;
+
+      if ( !recognizeQuotedValue() )
+      {
+         return false;
+      }
+      final int versionLength = position
+            - versionStart - 2;
+
+      if ( !regionMatches( "1.0",
+                           versionStart + 1,
+                           versionLength )
+            && !regionMatches( "1.1",
+                               versionStart + 1,
+                               versionLength ) )
+      {
+         return false;
+      }
+      int mark = position;
+
+      if ( recognizeXMLDeclarationAttribute( "encoding" ) )
+      {
+         if ( !recognizeQuotedValue() )
+         {
+            return false;
+         }
+         mark = position;
+      }
+      else
+      {
+         position = mark;
+      }
+      if ( recognizeXMLDeclarationAttribute( "standalone" ) )
+      {
+         final int standaloneStart = position;
+
+         if ( !recognizeQuotedValue() )
+         {
+            return false;
+         }
+         final int length = position
+               - standaloneStart - 2;
+
+         if ( !regionMatches( "yes",
+                              standaloneStart + 1,
+                              length )
+               && !regionMatches( "no",
+                                  standaloneStart + 1,
+                                  length ) )
+         {
+            return false;
+         }
+      }
+      else
+      {
+         position = mark;
+      }
+      skipWhitespaces();
+      if ( !lookingAt( "?>" ) )
+      {
+         return false;
+      }
+      position += 2;
+      return true;
+   }
+
+   /**
+    * @param name
+    * @return true if the current position is a whitespace followed by the
+    *         given pseudo attribute name and an equal sign
+    */
+   private boolean recognizeXMLDeclarationAttribute( final String name )
+   {
+      if ( !skipWhitespaces()
+            || !lookingAt( name ) )
+      {
+         return false;
+      }
+      position += name.length();
+      skipWhitespaces();
+      if ( !consume( '=' ) )
+      {
+         return false;
+      }
+      skipWhitespaces();
+      return true;
+   }
+
+   private boolean regionMatches( final int firstStart,
+                                  final int firstLength,
+                                  final int secondStart,
+                                  final int secondLength )
+   {
+      if ( firstLength != secondLength )
+      {
+         return false;
+      }
+      for ( int index = 0; index < firstLength; index++ )
+      {
+         if ( buffer[ firstStart
+               + index ] != buffer[ secondStart
+               + index ] )
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private boolean regionMatches( final String expected,
+                                  final int start,
+                                  final int length )
+   {
+      if ( length != expected.length()
+            || start + length > end )
+      {
+         return false;
+      }
+      for ( int index = 0; index < length; index++ )
+      {
+         if ( buffer[ start
+               + index ] != expected.charAt( index ) )
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * @return false if the current character is not a legal XML character
+    */
+   private boolean skipCharacter()
+   {
+      final int length = measureCharacter();
+
+      position += length;
+      return length > 0;
+   }
+
+   /**
+    * Skips the whitespaces, comments and processing instructions allowed
+    * around the root element.
+    * 
+    * @return false if one of them is not well formed
+    */
+   private boolean skipMiscellaneous()
+   {
+      for ( ;; )
+      {
+         skipWhitespaces();
+         if ( lookingAt( COMMENT_START ) )
+         {
+            if ( !recognizeComment() )
+            {
+               return false;
+            }
+         }
+         else if ( lookingAt( "<?" ) )
+         {
+            if ( !recognizeProcessingInstruction() )
+            {
+               return false;
+            }
+         }
+         else
+         {
+            return true;
+         }
+      }
+   }
+
+   /**
+    * @return true if at least one whitespace has been skipped
+    */
+   private boolean skipWhitespaces()
+   {
+      final int start = position;
+
+      while ( position < end
+            && isWhitespace( buffer[ position ] ) )
+      {
+         position++;
+      }
+      return position > start;
+   }
+}
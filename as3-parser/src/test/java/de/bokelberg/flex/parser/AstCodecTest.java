@@ -0,0 +1,185 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import org.junit.Test;
+
+import com.adobe.ac.pmd.AstAssert;
+import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.NodeKind;
+import com.adobe.ac.pmd.parser.exceptions.TokenException;
+
+public class AstCodecTest extends AbstractAs3ParserTest
+{
+   private static void assertDecodingFails( final byte[] bytes )
+   {
+      try
+      {
+         AstCodec.decode( bytes );
+         fail();
+      }
+      catch ( final IOException e )
+      {
+         assertNotNull( e.getMessage() );
+      }
+   }
+
+   /**
+    * @param valueIdBytes
+    * @param lengthBytes
+    * @return the bytes of an ast made of a single node, whose value id and
+    *         length are encoded in the given bytes
+    */
+   private static byte[] encodeSingleNode( final byte[] valueIdBytes,
+                                           final byte[] lengthBytes )
+   {
+      final byte[] header = new byte[]
+      { 'A',
+                  'S',
+                  'T',
+                  AstCodec.VERSION,
+                  0,
+                  1,
+                  0,
+                  0,
+                  0 };
+      final byte[] bytes = new byte[ header.length
+            + valueIdBytes.length + lengthBytes.length ];
+
+      System.arraycopy( header,
+                        0,
+                        bytes,
+                        0,
+                        header.length );
+      System.arraycopy( valueIdBytes,
+                        0,
+                        bytes,
+                        header.length,
+                        valueIdBytes.length );
+      System.arraycopy( lengthBytes,
+                        0,
+                        bytes,
+                        header.length
+                              + valueIdBytes.length,
+                        lengthBytes.length );
+      return bytes;
+   }
+
+   @Test
+   public void testCorruptedBytes() throws IOException,
+                                   URISyntaxException,
+                                   TokenException
+   {
+      final byte[] bytes = AstCodec.encode( asp.buildAst( getClass().getResource( "/examples/FlexPMD115.as" )
+                                                                    .toURI()
+                                                                    .getPath() ) );
+      final byte[] truncatedBytes = new byte[ bytes.length - 1 ];
+      final byte[] otherVersionBytes = bytes.clone();
+
+      System.arraycopy( bytes,
+                        0,
+                        truncatedBytes,
+                        0,
+                        truncatedBytes.length );
+      otherVersionBytes[ 3 ]++;
+      assertDecodingFails( truncatedBytes );
+      assertDecodingFails( otherVersionBytes );
+      assertDecodingFails( new byte[ 0 ] );
+   }
+
+   @Test
+   public void testNegativeNumbers() throws IOException
+   {
+      final byte[] minusOne = new byte[]
+      { ( byte ) 0xFF,
+                  ( byte ) 0xFF,
+                  ( byte ) 0xFF,
+                  ( byte ) 0xFF,
+                  0x0F };
+
+      assertEquals( 0,
+                    AstCodec.decode( encodeSingleNode( new byte[]
+                    { 0 },
+                                                       new byte[]
+                                                       { 1 } ) ).numChildren() );
+      assertDecodingFails( encodeSingleNode( minusOne,
+                                             new byte[]
+                                             { 1 } ) );
+      assertDecodingFails( encodeSingleNode( new byte[]
+                                             { 0 },
+                                             minusOne ) );
+   }
+
+   @Test
+   public void testRoundTrip() throws IOException,
+                              URISyntaxException,
+                              TokenException
+   {
+      final IParserNode ast = asp.buildAst( getClass().getResource( "/examples/JPEGEncoder.as" )
+                                                      .toURI()
+                                                      .getPath() );
+      final IParserNode decodedAst = AstCodec.decode( AstCodec.encode( ast ) );
+      final IParserNode decodedIf = decodedAst.findNodesFromType( NodeKind.IF ).get( 0 );
+
+      AstAssert.assertSameTree( ast,
+                                decodedAst );
+      assertEquals( ast.toString(),
+                    decodedAst.toString() );
+      assertEquals( ast.computeCyclomaticComplexity(),
+                    decodedAst.computeCyclomaticComplexity() );
+      assertEquals( ast.getSummary().getStatementNb(),
+                    decodedAst.getSummary().getStatementNb() );
+      assertEquals( ast.findNodesFromValue( "i" ).size(),
+                    decodedAst.findNodesFromValue( "i" ).size() );
+      assertTrue( decodedIf.isInside( NodeKind.FUNCTION ) );
+      assertNull( decodedAst.getParent() );
+   }
+
+   @Test
+   public void testRoundTripOfSubtree() throws IOException,
+                                       URISyntaxException,
+                                       TokenException
+   {
+      final IParserNode function = asp.buildAst( getClass().getResource( "/examples/JPEGEncoder.as" )
+                                                           .toURI()
+                                                           .getPath() )
+                                      .findNodesFromType( NodeKind.FUNCTION )
+                                      .get( 0 );
+      final IParserNode decodedFunction = AstCodec.decode( AstCodec.encode( function ) );
+
+      AstAssert.assertSameTree( function,
+                                decodedFunction );
+      assertNull( decodedFunction.getParent() );
+   }
+}
@@ -0,0 +1,178 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.adobe.ac.pmd.parser.ITokenStream;
+import com.adobe.ac.pmd.parser.KeyWords;
+import com.adobe.ac.pmd.parser.Operators;
+import com.adobe.ac.pmd.parser.TokenFilter;
+import com.adobe.ac.pmd.parser.TokenKind;
+
+public class ScannerTokenStreamTest
+{
+   private static final String[] LINES = new String[]
+                                       { "package com.adobe.ac // comment",
+               "{",
+               "   import flash.events.Event;",
+               "   /* multiple",
+               "      lines */ var a : int = 1;",
+               "}" };
+
+   private static String readTexts( final Set< TokenFilter > filters )
+   {
+      final ITokenStream stream = new AS3Parser().tokenize( LINES,
+                                                            filters );
+      final StringBuffer buffer = new StringBuffer();
+
+      while ( stream.next() )
+      {
+         buffer.append( stream.getKind() == TokenKind.NEW_LINE ? "\\n"
+                                                               : stream.getText() );
+         buffer.append( ' ' );
+      }
+      return buffer.toString().trim();
+   }
+
+   @Test
+   public void testAllFilters()
+   {
+      assertEquals( "{ var a : int = 1 ; }",
+                    readTexts( EnumSet.allOf( TokenFilter.class ) ) );
+   }
+
+   @Test
+   public void testCommentsFilter()
+   {
+      assertEquals( "package com . adobe . ac \\n { \\n import flash . events . Event ; \\n var a : int = 1 ; \\n } \\n",
+                    readTexts( EnumSet.of( TokenFilter.COMMENTS ) ) );
+   }
+
+   @Test
+   public void testEndOfStream()
+   {
+      final ITokenStream stream = new AS3Parser().tokenize( new String[]
+                                                            { "" },
+                                                            EnumSet.allOf( TokenFilter.class ) );
+
+      assertFalse( stream.next() );
+      assertFalse( stream.next() );
+   }
+
+   @Test
+   public void testNoFilter()
+   {
+      assertEquals( "package com . adobe . ac // comment \\n { \\n import flash . events . Event ; \\n "
+                          + "/* multiple\n      lines */ var a : int = 1 ; \\n } \\n",
+                    readTexts( EnumSet.noneOf( TokenFilter.class ) ) );
+   }
+
+   @Test
+   public void testReusedToken()
+   {
+      final AS3Scanner scanner = new AS3Scanner();
+
+      scanner.setLines( LINES );
+      scanner.reuseToken();
+
+      final AS3Scanner.Token first = scanner.moveToNextToken();
+
+      assertEquals( "package",
+                    first.getText() );
+      assertSame( first,
+                  scanner.moveToNextToken() );
+      assertEquals( "com",
+                    first.getText() );
+   }
+
+   @Test
+   public void testTokenOffsets()
+   {
+      final ITokenStream stream = new AS3Parser().tokenize( LINES,
+                                                            EnumSet.of( TokenFilter.COMMENTS,
+                                                                        TokenFilter.NEW_LINES ) );
+
+      assertTrue( stream.next() );
+      assertEquals( 0,
+                    stream.getStart() );
+      assertEquals( 7,
+                    stream.getEnd() );
+
+      assertTrue( stream.next() );
+      assertEquals( 8,
+                    stream.getStart() );
+      assertEquals( 11,
+                    stream.getEnd() );
+   }
+
+   @Test
+   public void testTokenProperties()
+   {
+      final ITokenStream stream = new AS3Parser().tokenize( LINES,
+                                                            EnumSet.of( TokenFilter.COMMENTS,
+                                                                        TokenFilter.NEW_LINES ) );
+
+      assertTrue( stream.next() );
+      assertEquals( KeyWords.PACKAGE,
+                    stream.getKeyWord() );
+      assertEquals( TokenKind.KEYWORD,
+                    stream.getKind() );
+      assertEquals( 1,
+                    stream.getLine() );
+      assertEquals( 1,
+                    stream.getColumn() );
+
+      assertTrue( stream.next() );
+      assertEquals( TokenKind.IDENTIFIER,
+                    stream.getKind() );
+      assertEquals( "com",
+                    stream.getText() );
+      assertEquals( 9,
+                    stream.getColumn() );
+
+      assertTrue( stream.next() );
+      assertEquals( Operators.DOT,
+                    stream.getOperator() );
+      assertEquals( TokenKind.OPERATOR,
+                    stream.getKind() );
+      assertEquals( 12,
+                    stream.getColumn() );
+   }
+}
@@ -0,0 +1,218 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.ISubtreeSummary;
+import com.adobe.ac.pmd.parser.NodeKind;
+import com.adobe.ac.pmd.parser.exceptions.TokenException;
+
+public class StoredNodeTest extends AbstractAs3ParserTest
+{
+   private static void assertSameChildren( final IParserNode expected,
+                                           final IParserNode actual )
+   {
+      assertEquals( expected.numChildren(),
+                    actual.numChildren() );
+      for ( int childIndex = 0; childIndex < expected.numChildren(); childIndex++ )
+      {
+         assertEquals( expected.getChild( childIndex ).toString(),
+                       actual.getChild( childIndex ).toString() );
+         assertEquals( actual,
+                       actual.getChild( childIndex ).getParent() );
+         assertSameChildren( expected.getChild( childIndex ),
+                             actual.getChild( childIndex ) );
+      }
+   }
+
+   private Node        node;
+   private IParserNode storedNode;
+
+   @Override
+   @Before
+   public void setUp()
+   {
+      super.setUp();
+
+      scn.setLines( new String[]
+      { "{",
+                  "public function foo( a : int ) : void { if ( a > 0 && a < 2 ) { trace( a ); } }",
+                  "private var b : int = 1;",
+                  "}",
+                  "__END__" } );
+      try
+      {
+         asp.nextToken();
+         asp.nextToken(); // skip {
+         node = asp.parseClassContent();
+      }
+      catch ( final TokenException e )
+      {
+         fail( e.getMessage() );
+      }
+      storedNode = NodeStore.compact( node );
+   }
+
+   @Test
+   public void testChildren()
+   {
+      assertEquals( node.numChildren(),
+                    storedNode.numChildren() );
+      assertEquals( node.getChildren().size(),
+                    storedNode.getChildren().size() );
+      assertNull( storedNode.getChild( storedNode.numChildren() ) );
+      assertNull( storedNode.getLastChild().getChildren() );
+      assertEquals( storedNode.getChild( 0 ),
+                    storedNode.getChildren().get( 0 ) );
+      assertFalse( storedNode.getChild( 0 ).equals( storedNode.getChild( 1 ) ) );
+      assertNull( storedNode.getChild( -1 ) );
+      assertSameChildren( node,
+                          storedNode );
+   }
+
+   @Test
+   public void testComputations()
+   {
+      assertEquals( node.computeCyclomaticComplexity(),
+                    storedNode.computeCyclomaticComplexity() );
+      assertEquals( node.countNodeFromType( NodeKind.CALL ),
+                    storedNode.countNodeFromType( NodeKind.CALL ) );
+      assertEquals( node.findPrimaryStatementsFromNameInChildren( new String[]
+                    { "trace" } ).size(),
+                    storedNode.findPrimaryStatementsFromNameInChildren( new String[]
+                    { "trace" } ).size() );
+   }
+
+   @Test
+   public void testFindNodesFromType()
+   {
+      final IParserNode function = storedNode.getChild( 0 );
+      final List< IParserNode > relations = function.findNodesFromType( NodeKind.RELATION );
+
+      assertEquals( 2,
+                    relations.size() );
+      assertTrue( relations.get( 0 ).getColumn() < relations.get( 1 ).getColumn() );
+      assertEquals( node.findNodesFromType( NodeKind.CALL ).size(),
+                    storedNode.findNodesFromType( NodeKind.CALL ).size() );
+      assertEquals( 1,
+                    storedNode.findNodesFromType( NodeKind.CONTENT ).size() );
+      assertTrue( storedNode.getChild( 1 ).findNodesFromType( NodeKind.CALL ).isEmpty() );
+   }
+
+   @Test
+   public void testFindNodesFromValue()
+   {
+      final List< IParserNode > usages = storedNode.findNodesFromValue( "a" );
+
+      assertEquals( node.findNodesFromValue( "a" ).size(),
+                    usages.size() );
+      assertEquals( 4,
+                    usages.size() );
+      assertTrue( usages.get( 0 ).getColumn() < usages.get( 3 ).getColumn() );
+      assertTrue( storedNode.getChild( 1 ).findNodesFromValue( "a" ).isEmpty() );
+      assertTrue( storedNode.findNodesFromValue( "unknown" ).isEmpty() );
+      assertTrue( storedNode.findNodesFromValue( null ).isEmpty() );
+   }
+
+   @Test
+   public void testParents()
+   {
+      final IParserNode relation = storedNode.findNodesFromType( NodeKind.RELATION ).get( 0 );
+      final IParserNode builtRelation = node.findNodesFromType( NodeKind.RELATION ).get( 0 );
+
+      assertNull( storedNode.getParent() );
+      assertEquals( storedNode,
+                    storedNode.getChild( 0 ).getParent() );
+      assertEquals( NodeKind.AND,
+                    relation.getParent().getId() );
+      assertEquals( NodeKind.IF,
+                    relation.findAncestor( NodeKind.WHILE,
+                                           NodeKind.IF ).getId() );
+      assertEquals( storedNode.getChild( 0 ),
+                    relation.findAncestor( NodeKind.FUNCTION ) );
+      assertTrue( relation.isInside( NodeKind.FUNCTION ) );
+      assertFalse( relation.isInside( NodeKind.WHILE ) );
+      assertFalse( storedNode.getChild( 1 ).isInside( NodeKind.FUNCTION ) );
+      assertNull( node.getParent() );
+      assertEquals( NodeKind.AND,
+                    builtRelation.getParent().getId() );
+      assertEquals( node.getChild( 0 ),
+                    builtRelation.findAncestor( NodeKind.FUNCTION ) );
+      assertFalse( builtRelation.isInside( NodeKind.WHILE ) );
+   }
+
+   @Test
+   public void testSummary()
+   {
+      final ISubtreeSummary summary = storedNode.getSummary();
+      final ISubtreeSummary functionSummary = storedNode.getChild( 0 ).getSummary();
+
+      assertEquals( storedNode.computeCyclomaticComplexity(),
+                    summary.getDecisionPointNb() );
+      assertEquals( 2,
+                    functionSummary.getDecisionPointNb() );
+      assertEquals( 1,
+                    functionSummary.getNestingDepth() );
+      assertEquals( 0,
+                    storedNode.getChild( 1 ).getSummary().getNestingDepth() );
+      assertEquals( 1,
+                    summary.getStatementNb() );
+      assertEquals( 0,
+                    functionSummary.getStatementNb() );
+      assertEquals( node.getSummary().getNodeNb(),
+                    summary.getNodeNb() );
+      assertEquals( 1,
+                    storedNode.getLastChild().getSummary().getNodeNb() );
+      assertTrue( functionSummary.contains( NodeKind.IF ) );
+      assertFalse( functionSummary.contains( NodeKind.WHILE ) );
+      assertFalse( storedNode.getChild( 1 ).getSummary().contains( NodeKind.IF ) );
+   }
+
+   @Test
+   public void testValues()
+   {
+      assertEquals( node.toString(),
+                    storedNode.toString() );
+      assertEquals( node.getLastChild().getLine(),
+                    storedNode.getLastChild().getLine() );
+      assertEquals( node.getLastChild().getColumn(),
+                    storedNode.getLastChild().getColumn() );
+      assertEquals( node.getLastChild().getStringValue(),
+                    storedNode.getLastChild().getStringValue() );
+      assertTrue( storedNode.is( NodeKind.CONTENT ) );
+      assertFalse( storedNode.is( null ) );
+   }
+}
@@ -38,6 +38,7 @@ import org.junit.Test;
 
 import com.adobe.ac.pmd.files.impl.FileUtils;
 import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.exceptions.InterruptedParsingException;
 import com.adobe.ac.pmd.parser.exceptions.TokenException;
 
 public class TestAS3Parser extends AbstractAs3ParserTest
@@ -86,4 +87,24 @@ public class TestAS3Parser extends AbstractAs3ParserTest
                     flexPmd62.getChild( 0 ).getChild( 0 ).getStringValue() );
 
    }
+
+   @Test
+   public void testBuildAstWhenInterrupted() throws IOException,
+                                            URISyntaxException,
+                                            TokenException
+   {
+      Thread.currentThread().interrupt();
+      try
+      {
+         asp.buildAst( getClass().getResource( "/examples/JPEGEncoder.as" ).toURI().getPath() );
+         fail();
+      }
+      catch ( final InterruptedParsingException e )
+      {
+      }
+      finally
+      {
+         Thread.interrupted();
+      }
+   }
 }
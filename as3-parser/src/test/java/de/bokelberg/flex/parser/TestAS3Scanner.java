@@ -32,6 +32,10 @@ package de.bokelberg.flex.parser;
 
 import org.junit.Test;
 
+import com.adobe.ac.pmd.parser.KeyWords;
+import com.adobe.ac.pmd.parser.Operators;
+import com.adobe.ac.pmd.parser.TokenKind;
+
 import de.bokelberg.flex.parser.AS3Scanner.Token;
 
 public class TestAS3Scanner extends AbstractAs3ParserTest
@@ -269,6 +273,38 @@ public class TestAS3Scanner extends AbstractAs3ParserTest
       }
    }
 
+   @Test
+   public void testRegExp()
+   {
+      final String[] lines = new String[]
+      { "a = /b+/",
+                  "c( /(d)/, /e/ )",
+                  "f / g / h",
+                  "i = /(/" };
+      scn.setLines( lines );
+
+      assertText( "a" );
+      assertText( "=" );
+      assertText( "/b+/" );
+      assertText( "\n" );
+      assertText( "c" );
+      assertText( "(" );
+      assertText( "/(d)/" );
+      assertText( "," );
+      assertText( "/e/" );
+      assertText( ")" );
+      assertText( "\n" );
+      assertText( "f" );
+      assertText( "/" );
+      assertText( "g" );
+      assertText( "/" );
+      assertText( "h" );
+      assertText( "\n" );
+      assertText( "i" );
+      assertText( "=" );
+      assertText( "/" );
+   }
+
    @Test
    public void testSingleCharacterSymbols()
    {
@@ -327,6 +363,88 @@ public class TestAS3Scanner extends AbstractAs3ParserTest
                   lines[ 2 ] );
    }
 
+   @Test
+   public void testTokenKinds()
+   {
+      scn.setLines( new String[]
+      { "var a = 1 eq b; // c",
+                  "/* d */ \"e\" ~" } );
+
+      assertKind( TokenKind.KEYWORD,
+                  KeyWords.VAR,
+                  null );
+      assertKind( TokenKind.IDENTIFIER,
+                  null,
+                  null );
+      assertKind( TokenKind.OPERATOR,
+                  null,
+                  Operators.EQUAL );
+      assertKind( TokenKind.LITERAL,
+                  null,
+                  null );
+      assertKind( TokenKind.OPERATOR,
+                  null,
+                  Operators.DOUBLE_EQUAL_AS2 );
+      assertKind( TokenKind.IDENTIFIER,
+                  null,
+                  null );
+      assertKind( TokenKind.OPERATOR,
+                  null,
+                  Operators.SEMI_COLUMN );
+      assertKind( TokenKind.COMMENT,
+                  null,
+                  null );
+      assertKind( TokenKind.NEW_LINE,
+                  null,
+                  null );
+      assertKind( TokenKind.COMMENT,
+                  null,
+                  null );
+      assertKind( TokenKind.LITERAL,
+                  null,
+                  null );
+      assertKind( TokenKind.OPERATOR,
+                  null,
+                  null );
+      assertKind( TokenKind.NEW_LINE,
+                  null,
+                  null );
+      assertKind( TokenKind.KEYWORD,
+                  KeyWords.EOF,
+                  null );
+   }
+
+   @Test
+   public void testTokenOffsets()
+   {
+      scn.setLines( new String[]
+      { "var a = a;" } );
+
+      final Token varToken = scn.nextToken();
+      final Token firstA = scn.nextToken();
+
+      assertEquals( 0,
+                    varToken.getStart() );
+      assertEquals( 3,
+                    varToken.getEnd() );
+      assertEquals( 4,
+                    firstA.getStart() );
+      assertEquals( 5,
+                    firstA.getEnd() );
+      assertText( "=" );
+
+      final Token secondA = scn.nextToken();
+
+      assertEquals( 8,
+                    secondA.getStart() );
+      assertSame( firstA.getText(),
+                  secondA.getText() );
+      assertEquals( -1,
+                    new Token( "a",
+                               1,
+                               1 ).getStart() );
+   }
+
    @Test
    public void testXML()
    {
@@ -343,6 +461,36 @@ public class TestAS3Scanner extends AbstractAs3ParserTest
       }
    }
 
+   @Test
+   public void testXMLWithBindings()
+   {
+      final String[] lines = new String[]
+      { "<a b={c}>{d && e}</a>",
+                  "<a b=c/>" };
+      scn.setLines( lines );
+
+      assertText( lines[ 0 ] );
+      assertText( "\n" );
+      assertText( "<" );
+   }
+
+   private void assertKind( final TokenKind kind,
+                            final KeyWords keyword,
+                            final Operators operator )
+   {
+      final Token token = scn.nextToken();
+
+      assertEquals( token.getText(),
+                    kind,
+                    token.getKind() );
+      assertEquals( token.getText(),
+                    keyword,
+                    token.getKeyWord() );
+      assertEquals( token.getText(),
+                    operator,
+                    token.getOperator() );
+   }
+
    private void assertText( final String text )
    {
       assertText( "",
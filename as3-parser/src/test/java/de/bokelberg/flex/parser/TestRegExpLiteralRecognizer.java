@@ -0,0 +1,104 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestRegExpLiteralRecognizer extends TestCase
+{
+   @Test
+   public void testCharacterClasses()
+   {
+      assertWellFormed( "/[a-z_$]/" );
+      assertWellFormed( "/[]a]/" );
+      assertWellFormed( "/[^\\]\\/]/" );
+      assertWellFormed( "/[a-]/" );
+      assertMalformed( "/[a-z/" );
+      assertMalformed( "/[z-a]/" );
+   }
+
+   @Test
+   public void testEscapes()
+   {
+      assertWellFormed( "/\\d\\s\\w\\.\\(\\[\\{\\*/" );
+      assertWellFormed( "/\\//" );
+      assertMalformed( "/a\\" );
+   }
+
+   @Test
+   public void testGroups()
+   {
+      assertWellFormed( "/(a|b)(?:c)(?=d)(?!e)/" );
+      assertWellFormed( "/(?<=a)(?<!b)(?P<c>d)(?<e>f)/" );
+      assertWellFormed( "/(?i)a(?s-x:b)/" );
+      assertMalformed( "/(a/" );
+      assertMalformed( "/a)/" );
+      assertMalformed( "/(?#a)/" );
+      assertMalformed( "/(?P<>a)/" );
+   }
+
+   @Test
+   public void testQuantifiers()
+   {
+      assertWellFormed( "/a*b+?c?+/" );
+      assertWellFormed( "/a{2}b{2,}c{2,3}/" );
+      assertWellFormed( "/a{b}{,2}/" );
+      assertWellFormed( "/*a/" );
+      assertMalformed( "/a**/" );
+      assertMalformed( "/(*a)/" );
+      assertMalformed( "/a|+b/" );
+      assertMalformed( "/a{3,2}/" );
+   }
+
+   private void assertMalformed( final String literal )
+   {
+      assertFalse( literal,
+                   isWellFormed( literal ) );
+   }
+
+   private void assertWellFormed( final String literal )
+   {
+      assertTrue( literal,
+                  isWellFormed( literal ) );
+   }
+
+   private boolean isWellFormed( final String literal )
+   {
+      final char[] buffer = ( " "
+            + literal + " " ).toCharArray();
+
+      return RegExpLiteralRecognizer.isWellFormed( buffer,
+                                                   1,
+                                                   buffer.length - 1 );
+   }
+}
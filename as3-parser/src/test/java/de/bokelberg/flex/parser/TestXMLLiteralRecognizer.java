@@ -0,0 +1,110 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.bokelberg.flex.parser;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestXMLLiteralRecognizer extends TestCase
+{
+   @Test
+   public void testBindings()
+   {
+      assertWellFormed( "<a b={c}/>" );
+      assertWellFormed( "<a>{b && c < d}</a>" );
+      assertWellFormed( "<{a} b=\"c\">d</{a}>" );
+      assertMalformed( "<a b={c/>" );
+      assertMalformed( "<{a}></{b}>" );
+   }
+
+   @Test
+   public void testElements()
+   {
+      assertWellFormed( "<a/>" );
+      assertWellFormed( "<a b=\"c\" d='e'>f<g/></a >" );
+      assertWellFormed( "<mx:Button label=\"&amp;&#65;&#x42;\"/>" );
+      assertMalformed( "<a>" );
+      assertMalformed( "<a></b>" );
+      assertMalformed( "<a><b></a></b>" );
+      assertMalformed( "<a b=c/>" );
+      assertMalformed( "<a b=\"c\" b=\"d\"/>" );
+      assertMalformed( "<a b=\"<\"/>" );
+      assertMalformed( "<a b=\"c\"d=\"e\"/>" );
+      assertMalformed( "<a/><b/>" );
+      assertMalformed( "<>" );
+   }
+
+   @Test
+   public void testMarkup()
+   {
+      assertWellFormed( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<a/>" );
+      assertWellFormed( "<a><![CDATA[<&]]><!-- b - c --><?d e?></a>" );
+      assertMalformed( "<?xml encoding=\"UTF-8\"?><a/>" );
+      assertMalformed( "<a><?xml version=\"1.0\"?></a>" );
+      assertMalformed( "<a><!-- b -- c --></a>" );
+      assertMalformed( "<a><![CDATA[b</a>" );
+      assertMalformed( "<!DOCTYPE a><a/>" );
+   }
+
+   @Test
+   public void testText()
+   {
+      assertWellFormed( "<a>b &lt; c</a>" );
+      assertMalformed( "<a>b & c</a>" );
+      assertMalformed( "<a>&b;</a>" );
+      assertMalformed( "<a>&#0;</a>" );
+      assertMalformed( "<a>]]></a>" );
+      assertMalformed( "<a>\u0001</a>" );
+   }
+
+   private void assertMalformed( final String literal )
+   {
+      assertFalse( literal,
+                   isWellFormed( literal ) );
+   }
+
+   private void assertWellFormed( final String literal )
+   {
+      assertTrue( literal,
+                  isWellFormed( literal ) );
+   }
+
+   private boolean isWellFormed( final String literal )
+   {
+      final char[] buffer = ( " "
+            + literal + " " ).toCharArray();
+
+      return XMLLiteralRecognizer.isWellFormed( buffer,
+                                                1,
+                                                buffer.length - 1 );
+   }
+}
@@ -0,0 +1,292 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.ncss.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Content of a source file, decoded once into a single character buffer.
+ * Byte order marks are removed, every line terminator is replaced by a single
+ * '\n', and the lines are exposed through an offset table, so that no String
+ * is created until a line is actually requested.
+ * 
+ * @author xagnetti
+ */
+public final class FileContent
+{
+   /**
+    * Content without any line
+    */
+   public static final FileContent EMPTY             = new FileContent( new char[ 0 ], new int[ 1 ] );
+   private static final char       BYTE_ORDER_MARK   = '\uFEFF';
+   private static final Charset    CHARSET           = Charset.forName( "UTF-8" );
+   /**
+    * Files bigger than this size, in bytes, are memory-mapped instead of
+    * being copied on the heap before decoding.
+    */
+   private static final long       MAPPING_THRESHOLD = 1024 * 1024;
+
+   /**
+    * @param file
+    * @return
+    * @throws IOException
+    */
+   public static FileContent read( final File file ) throws IOException
+   {
+      final FileInputStream stream = new FileInputStream( file );
+
+      try
+      {
+         return index( decode( readBytes( stream.getChannel() ) ) );
+      }
+      finally
+      {
+         stream.close();
+      }
+   }
+
+   private static CharBuffer decode( final ByteBuffer bytes ) throws IOException
+   {
+      final CharsetDecoder decoder = CHARSET.newDecoder()
+                                            .onMalformedInput( CodingErrorAction.REPLACE )
+                                            .onUnmappableCharacter( CodingErrorAction.REPLACE );
+
+      return decoder.decode( bytes );
+   }
+
+   /**
+    * Removes the byte order marks and normalizes the line terminators in
+    * place, while recording where every line starts. Lines are split as
+    * BufferedReader.readLine() does. A last line without terminator is given
+    * a virtual one, so that every line ends one character before the start
+    * of the next one.
+    */
+   private static FileContent index( final CharBuffer decoded )
+   {
+      final char[] chars = decoded.array();
+      final int end = decoded.arrayOffset()
+            + decoded.limit();
+      final int start = decoded.arrayOffset()
+            + decoded.position();
+      int[] lineOffsets = new int[ 16 ];
+      int linesNb = 0;
+      int length = 0;
+      boolean pendingLine = false;
+
+      for ( int index = start; index < end; index++ )
+      {
+         final char currentCharacter = chars[ index ];
+
+         if ( currentCharacter == '\n'
+               || currentCharacter == '\r' )
+         {
+            if ( currentCharacter == '\r'
+                  && index + 1 < end && chars[ index + 1 ] == '\n' )
+            {
+               index++;
+            }
+            chars[ length++ ] = '\n';
+            lineOffsets = addLineStart( lineOffsets,
+                                        ++linesNb,
+                                        length );
+            pendingLine = false;
+         }
+         else
+         {
+            pendingLine = true;
+            if ( currentCharacter != BYTE_ORDER_MARK )
+            {
+               chars[ length++ ] = currentCharacter;
+            }
+         }
+      }
+      if ( pendingLine )
+      {
+         lineOffsets = addLineStart( lineOffsets,
+                                     ++linesNb,
+                                     length + 1 );
+      }
+      final int[] trimmedOffsets = new int[ linesNb + 1 ];
+
+      System.arraycopy( lineOffsets,
+                        0,
+                        trimmedOffsets,
+                        0,
+                        linesNb + 1 );
+      return new FileContent( chars, trimmedOffsets );
+   }
+
+   private static int[] addLineStart( final int[] lineOffsets,
+                                    final int lineIndex,
+                                    final int offset )
+   {
+      int[] offsets = lineOffsets;
+
+      if ( lineIndex == offsets.length )
+      {
+         offsets = new int[ offsets.length * 2 ];
+         System.arraycopy( lineOffsets,
+                           0,
+                           offsets,
+                           0,
+                           lineOffsets.length );
+      }
+      offsets[ lineIndex ] = offset;
+      return offsets;
+   }
+
+   private static ByteBuffer readBytes( final FileChannel channel ) throws IOException
+   {
+      final long size = channel.size();
+
+      if ( size > MAPPING_THRESHOLD )
+      {
+         return channel.map( FileChannel.MapMode.READ_ONLY,
+                             0,
+                             size );
+      }
+      final ByteBuffer bytes = ByteBuffer.allocate( ( int ) size );
+      int readBytesNb = 0;
+
+      while ( bytes.hasRemaining()
+            && readBytesNb >= 0 )
+      {
+         readBytesNb = channel.read( bytes );
+      }
+      bytes.flip();
+      return bytes;
+   }
+
+   private final char[] chars;
+   private final int[]  lineOffsets;
+
+   private FileContent( final char[] charsToBeSet,
+                        final int[] lineOffsetsToBeSet )
+   {
+      chars = charsToBeSet;
+      lineOffsets = lineOffsetsToBeSet;
+   }
+
+   /**
+    * @param lineIndex starting at 1
+    * @return
+    */
+   public String getLineAt( final int lineIndex )
+   {
+      if ( lineIndex < 1
+            || lineIndex > getLinesNb() )
+      {
+         throw new IndexOutOfBoundsException( "line "
+               + lineIndex + " does not exist" );
+      }
+      return new String( chars, lineOffsets[ lineIndex - 1 ], lineOffsets[ lineIndex ]
+            - lineOffsets[ lineIndex - 1 ] - 1 );
+   }
+
+   /**
+    * @return the shared character buffer. It must not be modified. Every line
+    *         is followed by '\n', but the last one when the file does not end
+    *         with a line terminator: this line only has a virtual terminator,
+    *         so the end of its offset range is one character past the
+    *         content, and may be past the end of the array. The array may
+    *         also be longer than the content. Only the characters before
+    *         getLineOffsets()[ getLinesNb() ] - 1 belong to the file, and
+    *         buffer[ lineOffsets[ i ] - 1 ] must not be read for the last
+    *         line.
+    */
+   public char[] getBuffer()
+   {
+      return chars; // NOPMD
+   }
+
+   /**
+    * @return the offset of every line start in the buffer, followed by the
+    *         offset of the end of the content plus one, as if the last line
+    *         were always terminated. It must not be modified.
+    */
+   public int[] getLineOffsets()
+   {
+      return lineOffsets; // NOPMD
+   }
+
+   /**
+    * @return a read-only view on the lines, which are created on demand
+    */
+   public List< String > getLines()
+   {
+      return new AbstractList< String >()
+      {
+         @Override
+         public String get( final int index )
+         {
+            return getLineAt( index + 1 );
+         }
+
+         @Override
+         public int size()
+         {
+            return getLinesNb();
+         }
+      };
+   }
+
+   /**
+    * @return
+    */
+   public String[] getLinesArray()
+   {
+      final String[] lines = new String[ getLinesNb() ];
+
+      for ( int lineIndex = 0; lineIndex < lines.length; lineIndex++ )
+      {
+         lines[ lineIndex ] = getLineAt( lineIndex + 1 );
+      }
+      return lines;
+   }
+
+   /**
+    * @return
+    */
+   public int getLinesNb()
+   {
+      return lineOffsets.length - 1;
+   }
+}
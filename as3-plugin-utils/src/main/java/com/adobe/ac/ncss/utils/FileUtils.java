@@ -30,13 +30,9 @@
  */
 package com.adobe.ac.ncss.utils;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -123,20 +119,9 @@ public final class FileUtils
    {
       final List< String > result = new ArrayList< String >();
 
-      BufferedReader inReader = null;
       try
       {
-         final Reader reader = new InputStreamReader( new FileInputStream( file ), "UTF-8" );
-         inReader = new BufferedReader( reader );
-
-         String line = readLine( inReader );
-
-         while ( line != null )
-         {
-            result.add( line );
-            line = readLine( inReader );
-         }
-         inReader.close();
+         result.addAll( FileContent.read( file ).getLines() );
       }
       catch ( final IOException e )
       {
@@ -186,18 +171,6 @@ public final class FileUtils
                                 "" );
    }
 
-   private static String readLine( final BufferedReader inReader ) throws IOException
-   {
-      final String line = inReader.readLine();
-
-      if ( line != null )
-      {
-         return line.replaceAll( "\uFEFF",
-                                 "" );
-      }
-      return null;
-   }
-
    /* remove trailing whitespace */
    private static String rtrim( final String source )
    {
@@ -0,0 +1,268 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Identifies the build a class has been loaded from, so that a cache written
+ * by a build is not replayed by another one.
+ * 
+ * @author xagnetti
+ */
+public final class CodeSourceUtils
+{
+   private static final char[] HEXA_DIGITS = "0123456789abcdef".toCharArray();
+   private static final String UNKNOWN     = "unknown";
+
+   /**
+    * @param loadedClass
+    * @return the MD5 digest of the jar the class has been loaded from, or of
+    *         the class files of its package if it has been loaded from a
+    *         folder. Unlike the identity, the digest does not depend on where
+    *         the build is installed, so that two copies of the same jar share
+    *         it.
+    */
+   public static String computeDigest( final Class< ? > loadedClass )
+   {
+      final CodeSource codeSource = loadedClass.getProtectionDomain().getCodeSource();
+
+      if ( codeSource == null
+            || codeSource.getLocation() == null )
+      {
+         return loadedClass.getName();
+      }
+      try
+      {
+         final MessageDigest digest = MessageDigest.getInstance( "MD5" );
+
+         for ( final File digestedFile : listDigestedFiles( loadedClass,
+                                                            new File( codeSource.getLocation().toURI() ) ) )
+         {
+            digest.update( digestedFile.getName().getBytes( "UTF-8" ) );
+            update( digest,
+                    digestedFile );
+         }
+         return toHexa( digest.digest() );
+      }
+      catch ( final NoSuchAlgorithmException e )
+      {
+         throw new IllegalStateException( e );
+      }
+      catch ( final URISyntaxException e )
+      {
+         return computeIdentity( loadedClass );
+      }
+      catch ( final IllegalArgumentException e )
+      {
+         return computeIdentity( loadedClass );
+      }
+      catch ( final IOException e )
+      {
+         return computeIdentity( loadedClass );
+      }
+   }
+
+   /**
+    * @param loadedClass
+    * @return the location, size and modification time of the jar the class
+    *         has been loaded from, or of the class file itself if it has been
+    *         loaded from a folder. A rebuilt jar or class gives a new identity,
+    *         even if its version has not changed.
+    */
+   public static String computeIdentity( final Class< ? > loadedClass )
+   {
+      final CodeSource codeSource = loadedClass.getProtectionDomain().getCodeSource();
+
+      if ( codeSource == null
+            || codeSource.getLocation() == null )
+      {
+         return loadedClass.getName();
+      }
+      final URL location = codeSource.getLocation();
+
+      try
+      {
+         final File identifiedFile = findIdentifiedFile( loadedClass,
+                                                         new File( location.toURI() ) );
+
+         return identifiedFile.getPath()
+               + "|" + identifiedFile.length() + "|" + identifiedFile.lastModified();
+      }
+      catch ( final URISyntaxException e )
+      {
+         return location.toString();
+      }
+      catch ( final IllegalArgumentException e )
+      {
+         return location.toString();
+      }
+   }
+
+   /**
+    * @param loadedClass
+    * @param groupId
+    * @param artifactId
+    * @return the version of the given Maven artifact, read from the
+    *         pom.properties which Maven packages in the jar, "unknown" if the
+    *         class has not been loaded from a Maven jar
+    */
+   public static String getArtifactVersion( final Class< ? > loadedClass,
+                                            final String groupId,
+                                            final String artifactId )
+   {
+      final InputStream stream = loadedClass.getResourceAsStream( "/META-INF/maven/"
+            + groupId + "/" + artifactId + "/pom.properties" );
+      String version = UNKNOWN;
+
+      if ( stream != null )
+      {
+         try
+         {
+            final Properties properties = new Properties();
+
+            properties.load( stream );
+            version = properties.getProperty( "version",
+                                              UNKNOWN );
+         }
+         catch ( final IOException e )
+         {
+            version = UNKNOWN;
+         }
+         finally
+         {
+            close( stream );
+         }
+      }
+      return version;
+   }
+
+   /**
+    * @param bytes
+    * @return the lower case hexadecimal form of the given bytes, such as a
+    *         digest
+    */
+   public static String toHexa( final byte[] bytes )
+   {
+      final char[] chars = new char[ bytes.length * 2 ];
+
+      for ( int i = 0; i < bytes.length; i++ )
+      {
+         chars[ i * 2 ] = HEXA_DIGITS[ bytes[ i ] >> 4 & 0xF ];
+         chars[ i * 2 + 1 ] = HEXA_DIGITS[ bytes[ i ] & 0xF ];
+      }
+      return new String( chars );
+   }
+
+   private static void close( final InputStream stream )
+   {
+      try
+      {
+         stream.close();
+      }
+      catch ( final IOException e )
+      {
+      }
+   }
+
+   private static File findIdentifiedFile( final Class< ? > loadedClass,
+                                           final File source )
+   {
+      if ( source.isDirectory() )
+      {
+         return new File( source, loadedClass.getName().replace( '.',
+                                                                 '/' )
+               + ".class" );
+      }
+      return source;
+   }
+
+   private static File[] listDigestedFiles( final Class< ? > loadedClass,
+                                            final File source )
+   {
+      if ( source.isDirectory() )
+      {
+         final File[] classFiles = findIdentifiedFile( loadedClass,
+                                                       source ).getParentFile().listFiles( new FilenameFilter()
+         {
+            public boolean accept( final File directory,
+                                   final String name )
+            {
+               return name.endsWith( ".class" );
+            }
+         } );
+
+         Arrays.sort( classFiles );
+         return classFiles;
+      }
+      return new File[]
+      { source };
+   }
+
+   private static void update( final MessageDigest digest,
+                               final File digestedFile ) throws IOException
+   {
+      final InputStream stream = new FileInputStream( digestedFile );
+
+      try
+      {
+         final byte[] bytes = new byte[ 8192 ];
+         int readBytesNb = stream.read( bytes );
+
+         while ( readBytesNb >= 0 )
+         {
+            digest.update( bytes,
+                           0,
+                           readBytesNb );
+            readBytesNb = stream.read( bytes );
+         }
+      }
+      finally
+      {
+         close( stream );
+      }
+   }
+
+   private CodeSourceUtils()
+   {
+   }
+}
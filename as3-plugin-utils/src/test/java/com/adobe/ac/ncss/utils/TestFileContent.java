@@ -0,0 +1,122 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.ncss.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class TestFileContent extends TestCase
+{
+   private static FileContent read( final String text ) throws IOException
+   {
+      final File file = File.createTempFile( "FileContent",
+                                             ".as" );
+      final FileOutputStream stream = new FileOutputStream( file );
+
+      file.deleteOnExit();
+      try
+      {
+         stream.write( text.getBytes( "UTF-8" ) );
+      }
+      finally
+      {
+         stream.close();
+      }
+      return FileContent.read( file );
+   }
+
+   @Test
+   public void testByteOrderMarkIsRemoved() throws IOException
+   {
+      final FileContent content = read( "\uFEFFpackage\n{\n}" );
+
+      assertEquals( 3,
+                    content.getLinesNb() );
+      assertEquals( "package",
+                    content.getLineAt( 1 ) );
+   }
+
+   @Test
+   public void testEmptyFile() throws IOException
+   {
+      assertEquals( 0,
+                    read( "" ).getLinesNb() );
+      assertEquals( 0,
+                    FileContent.EMPTY.getLines().size() );
+   }
+
+   @Test
+   public void testLinesAreSplitAsBufferedReaderDoes() throws IOException
+   {
+      assertEquals( Arrays.asList( new String[]
+                    { "a",
+                                "",
+                                "b",
+                                "c" } ),
+                    read( "a\n\r\nb\rc\n" ).getLines() );
+      assertEquals( Arrays.asList( new String[]
+                    { "a",
+                                "" } ),
+                    Arrays.asList( read( "a\n\n" ).getLinesArray() ) );
+   }
+
+   @Test
+   public void testReadSameLinesAsReadFile() throws IOException
+   {
+      final File file = new File( "./src/test/resources/com/adobe/ac/ncss/mxml/IterationsList.mxml" );
+
+      assertEquals( 75,
+                    FileContent.read( file ).getLinesNb() );
+      assertEquals( FileUtils.readFile( file ),
+                    FileContent.read( file ).getLines() );
+   }
+
+   @Test
+   public void testUnknownLine() throws IOException
+   {
+      try
+      {
+         read( "a" ).getLineAt( 2 );
+         fail();
+      }
+      catch ( final IndexOutOfBoundsException e )
+      {
+         assertEquals( "line 2 does not exist",
+                       e.getMessage() );
+      }
+   }
+}
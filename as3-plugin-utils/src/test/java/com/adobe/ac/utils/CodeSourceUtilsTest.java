@@ -0,0 +1,90 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CodeSourceUtilsTest
+{
+   @Test
+   public void testComputeDigest()
+   {
+      final String digest = CodeSourceUtils.computeDigest( CodeSourceUtils.class );
+
+      assertEquals( 32,
+                    digest.length() );
+      assertEquals( digest,
+                    CodeSourceUtils.computeDigest( CodeSourceUtils.class ) );
+      assertEquals( digest,
+                    CodeSourceUtils.computeDigest( StackTraceUtils.class ) );
+      assertEquals( "java.lang.String",
+                    CodeSourceUtils.computeDigest( String.class ) );
+   }
+
+   @Test
+   public void testComputeIdentity()
+   {
+      final String identity = CodeSourceUtils.computeIdentity( CodeSourceUtils.class );
+
+      assertTrue( identity.contains( "CodeSourceUtils" )
+            || identity.contains( ".jar" ) );
+      assertEquals( identity,
+                    CodeSourceUtils.computeIdentity( CodeSourceUtils.class ) );
+      assertEquals( "java.lang.String",
+                    CodeSourceUtils.computeIdentity( String.class ) );
+   }
+
+   @Test
+   public void testGetArtifactVersion()
+   {
+      assertEquals( "unknown",
+                    CodeSourceUtils.getArtifactVersion( CodeSourceUtils.class,
+                                                        "com.adobe.ac",
+                                                        "nonExistingArtifact" ) );
+   }
+
+   @Test
+   public void testToHexa()
+   {
+      assertEquals( "",
+                    CodeSourceUtils.toHexa( new byte[ 0 ] ) );
+      assertEquals( "00017f80ff",
+                    CodeSourceUtils.toHexa( new byte[]
+                    { 0,
+                                1,
+                                127,
+                                ( byte ) 128,
+                                ( byte ) 255 } ) );
+   }
+}
@@ -40,13 +40,17 @@ import com.adobe.ac.pmd.FlexPmdViolations;
 import com.adobe.ac.pmd.LoggerUtils;
 import com.adobe.ac.pmd.engines.FlexPmdXmlEngine;
 import com.adobe.ac.pmd.engines.PmdEngineUtils;
+import com.adobe.ac.pmd.files.FileSetUtils;
 
 public class FlexPmdAntTask extends Task // NO_UCD
 {
+   private File    astCacheDirectory;
+   private File    cacheFile;
    private boolean failOnError;
    private boolean failOnRuleViolation;
    private File    outputDirectory;
    private String  packageToExclude;
+   private int     parseTimeout = FileSetUtils.DEFAULT_PARSING_TIMEOUT;
    private File    ruleSet;
    private File    sourceDirectory;
 
@@ -59,10 +63,16 @@ public class FlexPmdAntTask extends Task // NO_UCD
 
          new LoggerUtils().loadConfiguration();
 
-         final FlexPmdXmlEngine engine = new FlexPmdXmlEngine( new FlexPmdParameters( packageToExclude,
-                                                                                      outputDirectory,
-                                                                                      ruleSet,
-                                                                                      sourceDirectory ) );
+         final FlexPmdParameters parameters = new FlexPmdParameters( packageToExclude,
+                                                                     outputDirectory,
+                                                                     ruleSet,
+                                                                     sourceDirectory );
+
+         parameters.setParseTimeout( parseTimeout );
+         parameters.setCacheFile( cacheFile );
+         parameters.setAstCacheDirectory( astCacheDirectory );
+
+         final FlexPmdXmlEngine engine = new FlexPmdXmlEngine( parameters );
          final FlexPmdViolations violations = new FlexPmdViolations();
 
          engine.executeReport( violations );
@@ -93,6 +103,16 @@ public class FlexPmdAntTask extends Task // NO_UCD
       return packageToExclude;
    }
 
+   public final void setAstCacheDirectory( final File astCacheDirectoryToBeSet )
+   {
+      astCacheDirectory = astCacheDirectoryToBeSet;
+   }
+
+   public final void setCacheFile( final File cacheFileToBeSet )
+   {
+      cacheFile = cacheFileToBeSet;
+   }
+
    public final void setFailOnError( final boolean failOnErrorToBeSet )
    {
       failOnError = failOnErrorToBeSet;
@@ -113,6 +133,11 @@ public class FlexPmdAntTask extends Task // NO_UCD
       packageToExclude = packageToExcludeToBeSet;
    }
 
+   public final void setParseTimeout( final int parseTimeoutToBeSet )
+   {
+      parseTimeout = parseTimeoutToBeSet;
+   }
+
    public final void setRuleSet( final File ruleSetToBeSet )
    {
       ruleSet = ruleSetToBeSet;
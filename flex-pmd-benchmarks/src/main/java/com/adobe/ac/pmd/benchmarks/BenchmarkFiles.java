@@ -0,0 +1,163 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import net.sourceforge.pmd.PMDException;
+
+import com.adobe.ac.ncss.utils.FileContent;
+import com.adobe.ac.pmd.files.FileSetUtils;
+import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.files.IMxmlFile;
+import com.adobe.ac.pmd.files.impl.FileUtils;
+import com.adobe.ac.pmd.nodes.IPackage;
+
+/**
+ * Input shared by the benchmarks: the Flex files of flex-pmd-test-resources,
+ * unpacked by the build, so that every run measures the same sources.
+ */
+final class BenchmarkFiles
+{
+   /**
+    * System property overriding the benchmarked source directory
+    */
+   static final String         SOURCE_PROPERTY = "flexpmd.benchmarks.source";
+   private static final String DEFAULT_SOURCE  = "target/generated-resources/test";
+   private static final int    PARSING_THREADS = 1;
+
+   /**
+    * @return the files of the benchmarked source directory, sorted by
+    *         qualified name
+    * @throws PMDException
+    */
+   static Map< String, IFlexFile > computeFiles() throws PMDException
+   {
+      return new TreeMap< String, IFlexFile >( FileUtils.computeFilesList( getSourceDirectory(),
+                                                                           null,
+                                                                           "",
+                                                                           new ArrayList< String >() ) );
+   }
+
+   /**
+    * @return the files of the benchmarked source directory which are parsed
+    *         without errors, so that the failing files of the test resources
+    *         do not weigh on the measures
+    * @throws PMDException
+    */
+   static Map< String, IFlexFile > computeParsedFiles() throws PMDException
+   {
+      final Map< String, IFlexFile > files = computeFiles();
+      final Map< String, IPackage > asts = FileSetUtils.computeAsts( files,
+                                                                     PARSING_THREADS );
+      final Map< String, IFlexFile > parsedFiles = new LinkedHashMap< String, IFlexFile >();
+
+      for ( final Entry< String, IFlexFile > entry : files.entrySet() )
+      {
+         if ( asts.containsKey( entry.getKey() ) )
+         {
+            parsedFiles.put( entry.getKey(),
+                             entry.getValue() );
+         }
+      }
+      return parsedFiles;
+   }
+
+   /**
+    * @return the benchmarked source directory
+    */
+   static File getSourceDirectory()
+   {
+      final File directory = new File( System.getProperty( SOURCE_PROPERTY,
+                                                           DEFAULT_SOURCE ) );
+
+      if ( !directory.isDirectory() )
+      {
+         throw new IllegalStateException( directory.getAbsolutePath()
+               + " is not a directory. Run \"mvn -Pbenchmarks package\" first, or set -D" + SOURCE_PROPERTY );
+      }
+      return directory;
+   }
+
+   /**
+    * Reads the ActionScript files up front, so that their content is kept in
+    * memory during the measures.
+    * 
+    * @param files
+    * @return the contents of the ActionScript files, by file path
+    */
+   static Map< String, FileContent > loadAs3Contents( final Collection< IFlexFile > files )
+   {
+      final Map< String, FileContent > contents = new LinkedHashMap< String, FileContent >();
+
+      for ( final IFlexFile file : files )
+      {
+         if ( !( file instanceof IMxmlFile ) )
+         {
+            contents.put( file.getFilePath(),
+                          file.getContent() );
+         }
+      }
+      return contents;
+   }
+
+   /**
+    * Extracts the script blocks up front, so that they are kept in memory
+    * during the measures.
+    * 
+    * @param files
+    * @return the script blocks of the MXML files, by file path
+    */
+   static Map< String, String[] > loadScriptBlocks( final Collection< IFlexFile > files )
+   {
+      final Map< String, String[] > scriptBlocks = new LinkedHashMap< String, String[] >();
+
+      for ( final IFlexFile file : files )
+      {
+         if ( file instanceof IMxmlFile )
+         {
+            scriptBlocks.put( file.getFilePath(),
+                              ( ( IMxmlFile ) file ).getScriptBlock() );
+         }
+      }
+      return scriptBlocks;
+   }
+
+   private BenchmarkFiles()
+   {
+   }
+}
@@ -0,0 +1,84 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Runs the benchmarks of this package with the
+ * GC profiler, which reports the allocations per operation
+ * (gc.alloc.rate.norm), and writes the results in JSON, so that two runs can
+ * be compared. The usual JMH options are accepted, for instance
+ * "java -jar target/benchmarks.jar ParserBenchmark -f 2".
+ */
+public final class FlexPmdBenchmarks
+{
+   private static final String RESULT_FILE = "target/jmh-result.json";
+
+   /**
+    * @param args JMH command line options
+    * @throws CommandLineOptionException
+    * @throws RunnerException
+    */
+   public static void main( final String[] args ) throws CommandLineOptionException,
+                                                 RunnerException
+   {
+      final CommandLineOptions commandLine = new CommandLineOptions( args );
+      final ChainedOptionsBuilder options = new OptionsBuilder().parent( commandLine )
+                                                                .addProfiler( GCProfiler.class );
+
+      if ( commandLine.getIncludes().isEmpty() )
+      {
+         options.include( FlexPmdBenchmarks.class.getPackage().getName()
+               + "\\..*Benchmark" );
+      }
+      if ( !commandLine.getResult().hasValue() )
+      {
+         options.result( RESULT_FILE );
+      }
+      if ( !commandLine.getResultFormat().hasValue() )
+      {
+         options.resultFormat( ResultFormatType.JSON );
+      }
+      new Runner( options.build() ).run();
+   }
+
+   private FlexPmdBenchmarks()
+   {
+   }
+}
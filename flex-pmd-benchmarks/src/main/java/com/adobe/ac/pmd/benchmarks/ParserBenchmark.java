@@ -0,0 +1,121 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.PMDException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.adobe.ac.ncss.utils.FileContent;
+import com.adobe.ac.pmd.files.FileSetUtils;
+import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.nodes.impl.NodeFactory;
+import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.exceptions.TokenException;
+
+import de.bokelberg.flex.parser.AS3Parser;
+
+/**
+ * Builds the ASTs of the test resources, and their package nodes.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 10, time = 1 )
+@Fork( 1 )
+public class ParserBenchmark
+{
+   private Map< String, FileContent > as3Contents;
+   private List< IParserNode >        asts;
+   private Map< String, String[] >    scriptBlocks;
+
+   /**
+    * @param blackhole
+    * @throws TokenException
+    */
+   @Benchmark
+   public void buildAst( final Blackhole blackhole ) throws TokenException
+   {
+      for ( final Entry< String, FileContent > entry : as3Contents.entrySet() )
+      {
+         blackhole.consume( new AS3Parser().buildAst( entry.getKey(),
+                                                      entry.getValue() ) );
+      }
+      for ( final Entry< String, String[] > entry : scriptBlocks.entrySet() )
+      {
+         blackhole.consume( new AS3Parser().buildAst( entry.getKey(),
+                                                      entry.getValue() ) );
+      }
+   }
+
+   /**
+    * @param blackhole
+    */
+   @Benchmark
+   public void createPackage( final Blackhole blackhole )
+   {
+      for ( final IParserNode ast : asts )
+      {
+         blackhole.consume( NodeFactory.createPackage( ast ) );
+      }
+   }
+
+   @Setup
+   public void loadFiles() throws PMDException
+   {
+      final Map< String, IFlexFile > files = BenchmarkFiles.computeParsedFiles();
+
+      as3Contents = BenchmarkFiles.loadAs3Contents( files.values() );
+      scriptBlocks = BenchmarkFiles.loadScriptBlocks( files.values() );
+      asts = new ArrayList< IParserNode >();
+      for ( final IFlexFile file : files.values() )
+      {
+         asts.add( FileSetUtils.buildAst( file ) );
+      }
+   }
+}
@@ -0,0 +1,161 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.PMDException;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleReference;
+import net.sourceforge.pmd.RuleSetFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.adobe.ac.pmd.files.FileSetUtils;
+import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.nodes.IPackage;
+import com.adobe.ac.pmd.rules.core.IFlexAstRule;
+import com.adobe.ac.pmd.rules.core.IFlexRule;
+
+/**
+ * Runs the rules of a category of flex-pmd-ruleset against the parsed files
+ * of the test resources. The ASTs are built beforehand, so that only the
+ * rules are measured.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 10, time = 1 )
+@Fork( 1 )
+public class RuleCategoryBenchmark
+{
+   private static final int    PARSING_THREADS = 1;
+   private static final String RULESETS_PATH   = "/com/adobe/ac/pmd/rulesets/";
+
+   /**
+    * Name of the ruleset of the category, in com/adobe/ac/pmd/rulesets
+    */
+   @Param(
+   { "architecture",
+               "asdocs",
+               "basic_mxml",
+               "binding",
+               "cairngorm",
+               "component",
+               "css",
+               "empty",
+               "event",
+               "indentation",
+               "maintanability",
+               "multitouch",
+               "naming",
+               "parsley",
+               "performance",
+               "security",
+               "sizing",
+               "style",
+               "switches",
+               "unittest",
+               "unused" } )
+   public String                    category;
+   private Map< String, IPackage >  asts;
+   private Map< String, IFlexFile > files;
+   private List< IFlexRule >        rules;
+
+   @Setup
+   public void loadCategory() throws PMDException,
+                             IOException
+   {
+      files = BenchmarkFiles.computeFiles();
+      asts = FileSetUtils.computeAsts( files,
+                                       PARSING_THREADS );
+      rules = new ArrayList< IFlexRule >();
+
+      final InputStream ruleSetStream = getClass().getResourceAsStream( RULESETS_PATH
+            + category + ".xml" );
+
+      try
+      {
+         for ( Rule rule : new RuleSetFactory().createRuleSet( ruleSetStream ).getRules() )
+         {
+            while ( rule instanceof RuleReference )
+            {
+               rule = ( ( RuleReference ) rule ).getRule();
+            }
+            rules.add( ( IFlexRule ) rule );
+         }
+      }
+      finally
+      {
+         ruleSetStream.close();
+      }
+   }
+
+   /**
+    * @return the number of violations found
+    */
+   @Benchmark
+   public int processFiles()
+   {
+      int violationsNb = 0;
+
+      for ( final Entry< String, IPackage > entry : asts.entrySet() )
+      {
+         final IFlexFile file = files.get( entry.getKey() );
+
+         for ( final IFlexRule rule : rules )
+         {
+            violationsNb += rule.processFile( file,
+                                              rule instanceof IFlexAstRule ? entry.getValue()
+                                                                          : null,
+                                              files ).size();
+         }
+      }
+      return violationsNb;
+   }
+}
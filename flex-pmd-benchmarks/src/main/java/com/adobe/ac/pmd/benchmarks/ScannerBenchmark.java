@@ -0,0 +1,161 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.benchmarks;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.PMDException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.adobe.ac.ncss.utils.FileContent;
+import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.parser.ITokenStream;
+import com.adobe.ac.pmd.parser.KeyWords;
+import com.adobe.ac.pmd.parser.TokenFilter;
+
+import de.bokelberg.flex.parser.AS3Parser;
+import de.bokelberg.flex.parser.AS3Scanner;
+import de.bokelberg.flex.parser.AS3Scanner.Token;
+
+/**
+ * Tokenizes every file of the test resources, ActionScript files and MXML
+ * script blocks.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 10, time = 1 )
+@Fork( 1 )
+public class ScannerBenchmark
+{
+   private static final Set< TokenFilter > CPD_FILTERS = EnumSet.allOf( TokenFilter.class );
+
+   private static int scanAll( final AS3Scanner scanner )
+   {
+      int tokensNb = 0;
+      Token token = scanner.moveToNextToken();
+
+      while ( token != null
+            && token.getKeyWord() != KeyWords.EOF )
+      {
+         tokensNb++;
+         token = scanner.moveToNextToken();
+      }
+      return tokensNb;
+   }
+
+   private static void streamAll( final ITokenStream stream,
+                                  final Blackhole blackhole )
+   {
+      while ( stream.next() )
+      {
+         blackhole.consume( stream.getText() );
+      }
+   }
+
+   private Map< String, FileContent > as3Contents;
+   private Map< String, String[] >    scriptBlocks;
+
+   @Setup
+   public void loadFiles() throws PMDException
+   {
+      final Map< String, IFlexFile > files = BenchmarkFiles.computeFiles();
+
+      as3Contents = BenchmarkFiles.loadAs3Contents( files.values() );
+      scriptBlocks = BenchmarkFiles.loadScriptBlocks( files.values() );
+   }
+
+   /**
+    * Scans every token, without building their text.
+    * 
+    * @return the number of scanned tokens
+    */
+   @Benchmark
+   public int scan()
+   {
+      int tokensNb = 0;
+
+      for ( final FileContent content : as3Contents.values() )
+      {
+         final AS3Scanner scanner = new AS3Scanner();
+
+         scanner.setContent( content );
+         tokensNb += scanAll( scanner );
+      }
+      for ( final String[] lines : scriptBlocks.values() )
+      {
+         final AS3Scanner scanner = new AS3Scanner();
+
+         scanner.setLines( lines );
+         tokensNb += scanAll( scanner );
+      }
+      return tokensNb;
+   }
+
+   /**
+    * Streams the tokens kept by CPD, together with their text.
+    * 
+    * @param blackhole
+    */
+   @Benchmark
+   public void tokenizeForCpd( final Blackhole blackhole )
+   {
+      final AS3Parser parser = new AS3Parser();
+
+      for ( final FileContent content : as3Contents.values() )
+      {
+         streamAll( parser.tokenize( content,
+                                     CPD_FILTERS ),
+                    blackhole );
+      }
+      for ( final String[] lines : scriptBlocks.values() )
+      {
+         streamAll( parser.tokenize( lines,
+                                     CPD_FILTERS ),
+                    blackhole );
+      }
+   }
+}
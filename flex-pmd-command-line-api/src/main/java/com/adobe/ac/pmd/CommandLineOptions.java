@@ -32,9 +32,12 @@ package com.adobe.ac.pmd;
 
 public enum CommandLineOptions implements ICommandLineOptions
 {
+   AST_CACHE_DIRECTORY("astCacheDirectory"),
+   CACHE_FILE("cacheFile"),
    EXLUDE_PACKAGE("excludePackage"),
    MXML_FACTOR("mxmlFactor"),
    OUTPUT("outputDirectory"),
+   PARSE_TIMEOUT("parseTimeout"),
    RULE_SET("ruleSet"),
    SOURCE_DIRECTORY("sourceDirectory");
 
@@ -79,14 +79,17 @@ public final class FlexPMD // NO_UCD
       config = parseCommandLineArguments( args,
                                           jsap );
 
-      if ( !config.success() )
+      final boolean areOptionsCorrect = config.success()
+            && isParseTimeoutCorrect( getParameterValue( CommandLineOptions.PARSE_TIMEOUT ) );
+
+      if ( !areOptionsCorrect )
       {
          LOGGER.log( Level.SEVERE,
                      "Usage: java "
                            + FlexPMD.class.getName() + " " + jsap.getUsage() );
       }
 
-      return config.success();
+      return areOptionsCorrect;
    }
 
    static String getParameterValue( final CommandLineOptions option )
@@ -99,7 +102,9 @@ public final class FlexPMD // NO_UCD
                                                      URISyntaxException,
                                                      IOException
    {
-      if ( areCommandLineOptionsCorrect( args ) )
+      final boolean areOptionsCorrect = areCommandLineOptionsCorrect( args );
+
+      if ( areOptionsCorrect )
       {
          final String rulesetRef = getParameterValue( CommandLineOptions.RULE_SET );
          final String excludePackage = getParameterValue( CommandLineOptions.EXLUDE_PACKAGE );
@@ -115,12 +120,51 @@ public final class FlexPMD // NO_UCD
                                                                                        : new File( rulesetRef ),
                                                                      sourceDirectory,
                                                                      sourceList );
+         final String parseTimeout = getParameterValue( CommandLineOptions.PARSE_TIMEOUT );
+         final String cacheFile = getParameterValue( CommandLineOptions.CACHE_FILE );
+         final String astCacheDirectory = getParameterValue( CommandLineOptions.AST_CACHE_DIRECTORY );
+
+         if ( parseTimeout != null )
+         {
+            parameters.setParseTimeout( Integer.parseInt( parseTimeout ) );
+         }
+         if ( cacheFile != null )
+         {
+            parameters.setCacheFile( new File( cacheFile ) );
+         }
+         if ( astCacheDirectory != null )
+         {
+            parameters.setAstCacheDirectory( new File( astCacheDirectory ) );
+         }
          final FlexPmdXmlEngine engine = new FlexPmdXmlEngine( parameters );
 
          engine.executeReport( new FlexPmdViolations() );
       }
 
-      return config.success();
+      return areOptionsCorrect;
+   }
+
+   private static boolean isParseTimeoutCorrect( final String parseTimeout )
+   {
+      if ( parseTimeout == null )
+      {
+         return true;
+      }
+      try
+      {
+         if ( Integer.parseInt( parseTimeout ) >= 1 )
+         {
+            return true;
+         }
+      }
+      catch ( final NumberFormatException e )
+      {
+         LOGGER.fine( e.getMessage() );
+      }
+      LOGGER.log( Level.SEVERE,
+                  "The parsing timeout must be a number of seconds, at least 1, and not "
+                        + parseTimeout );
+      return false;
    }
 
    private static JSAPResult parseCommandLineArguments( final String[] args,
@@ -138,6 +182,15 @@ public final class FlexPMD // NO_UCD
       CommandLineUtils.registerParameter( jsap,
                                           CommandLineOptions.EXLUDE_PACKAGE,
                                           false );
+      CommandLineUtils.registerParameter( jsap,
+                                          CommandLineOptions.PARSE_TIMEOUT,
+                                          false );
+      CommandLineUtils.registerParameter( jsap,
+                                          CommandLineOptions.CACHE_FILE,
+                                          false );
+      CommandLineUtils.registerParameter( jsap,
+                                          CommandLineOptions.AST_CACHE_DIRECTORY,
+                                          false );
 
       return jsap.parse( args );
    }
@@ -81,6 +81,40 @@ public class FlexPMDTest extends FlexPmdTestBase
                   "sourceDirectory",
                   "-o",
                   "target" } ) );
+
+      assertTrue( FlexPMD.areCommandLineOptionsCorrect( new String[]
+      { "-s",
+                  "sourceDirectory",
+                  "-o",
+                  "target",
+                  "-p",
+                  "10",
+                  "-c",
+                  "target/flexpmd.cache",
+                  "-a",
+                  "target/asts" } ) );
+      assertEquals( "10",
+                    FlexPMD.getParameterValue( CommandLineOptions.PARSE_TIMEOUT ) );
+      assertEquals( "target/flexpmd.cache",
+                    FlexPMD.getParameterValue( CommandLineOptions.CACHE_FILE ) );
+      assertEquals( "target/asts",
+                    FlexPMD.getParameterValue( CommandLineOptions.AST_CACHE_DIRECTORY ) );
+
+      assertFalse( FlexPMD.areCommandLineOptionsCorrect( new String[]
+      { "-s",
+                  "sourceDirectory",
+                  "-o",
+                  "target",
+                  "-p",
+                  "0" } ) );
+
+      assertFalse( FlexPMD.areCommandLineOptionsCorrect( new String[]
+      { "-s",
+                  "sourceDirectory",
+                  "-o",
+                  "target",
+                  "-p",
+                  "ten" } ) );
    }
 
    @Test
@@ -33,12 +33,17 @@ package com.adobe.ac.pmd;
 import java.io.File;
 import java.util.List;
 
+import com.adobe.ac.pmd.files.FileSetUtils;
+
 public class FlexPmdParameters
 {
+   private File               astCacheDirectory;
+   private File               cacheFile;
    private final String       excludePackage;
    private final boolean      failOnError;
    private final boolean      failOnRuleViolation;
    private final File         outputDirectory;
+   private int                parseTimeout;
    private final File         ruleSet;
    private final File         source;
    private final List< File > sourceList;
@@ -72,6 +77,7 @@ public class FlexPmdParameters
       failOnError = failOnErrorToBeSet;
       failOnRuleViolation = failOnRuleViolationToBeSet;
       outputDirectory = outputDirectoryToBeSet;
+      parseTimeout = FileSetUtils.DEFAULT_PARSING_TIMEOUT;
       ruleSet = ruleSetToBeSet;
       source = sourceToBeSet;
       sourceList = sourceListToBeSet;
@@ -100,6 +106,24 @@ public class FlexPmdParameters
             sourceListToBeSet );
    }
 
+   /**
+    * @return the folder where the ASTs are cached between two runs, null if
+    *         the cache is disabled
+    */
+   public final File getAstCacheDirectory()
+   {
+      return astCacheDirectory;
+   }
+
+   /**
+    * @return the file where the violations are cached between two runs, null
+    *         if the cache is disabled
+    */
+   public final File getCacheFile()
+   {
+      return cacheFile;
+   }
+
    public final String getExcludePackage()
    {
       return excludePackage;
@@ -110,6 +134,14 @@ public class FlexPmdParameters
       return outputDirectory;
    }
 
+   /**
+    * @return the parsing budget of a single file, in seconds
+    */
+   public final int getParseTimeout()
+   {
+      return parseTimeout;
+   }
+
    public final File getRuleSet()
    {
       return ruleSet;
@@ -134,4 +166,36 @@ public class FlexPmdParameters
    {
       return failOnRuleViolation;
    }
+
+   /**
+    * @param astCacheDirectoryToBeSet the folder where the ASTs are cached
+    *           between two runs, null to disable the cache
+    */
+   public final void setAstCacheDirectory( final File astCacheDirectoryToBeSet )
+   {
+      astCacheDirectory = astCacheDirectoryToBeSet;
+   }
+
+   /**
+    * @param cacheFileToBeSet the file where the violations are cached between
+    *           two runs, null to disable the cache
+    */
+   public final void setCacheFile( final File cacheFileToBeSet )
+   {
+      cacheFile = cacheFileToBeSet;
+   }
+
+   /**
+    * @param parseTimeoutToBeSet the parsing budget of a single file, in
+    *           seconds, at least 1
+    */
+   public final void setParseTimeout( final int parseTimeoutToBeSet )
+   {
+      if ( parseTimeoutToBeSet < 1 )
+      {
+         throw new IllegalArgumentException( "The parsing timeout must be at least 1 s, and not "
+               + parseTimeoutToBeSet );
+      }
+      parseTimeout = parseTimeoutToBeSet;
+   }
 }
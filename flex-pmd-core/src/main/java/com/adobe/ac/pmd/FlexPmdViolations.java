@@ -32,13 +32,20 @@ package com.adobe.ac.pmd;
 
 import java.io.File;
 import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -47,16 +54,123 @@ import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleReference;
 import net.sourceforge.pmd.RuleSet;
 
+import com.adobe.ac.pmd.files.AstCache;
 import com.adobe.ac.pmd.files.FileSetUtils;
+import com.adobe.ac.pmd.files.IAstListener;
 import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.files.LiteralSet;
 import com.adobe.ac.pmd.files.impl.FileUtils;
 import com.adobe.ac.pmd.nodes.IPackage;
+import com.adobe.ac.pmd.rules.core.AbstractFlexRule;
+import com.adobe.ac.pmd.rules.core.AbstractRegexpBasedRule;
 import com.adobe.ac.pmd.rules.core.IFlexAstRule;
 import com.adobe.ac.pmd.rules.core.IFlexRule;
 import com.adobe.ac.utils.StackTraceUtils;
 
 public class FlexPmdViolations implements Serializable
 {
+   /**
+    * Runs the whole ruleset on one file, with the rules owned by the current
+    * worker.
+    */
+   private final class FileProcessor implements Callable< FileViolations >
+   {
+      private final IPackage                        ast;
+      private final IFlexFile                       file;
+      private final AtomicLongArray                 ruleDurations;
+      private final ThreadLocal< List< IFlexRule >> workerRules;
+
+      private FileProcessor( final IFlexFile fileToBeSet,
+                             final IPackage astToBeSet,
+                             final ThreadLocal< List< IFlexRule >> workerRulesToBeSet,
+                             final AtomicLongArray ruleDurationsToBeSet )
+      {
+         file = fileToBeSet;
+         ast = astToBeSet;
+         workerRules = workerRulesToBeSet;
+         ruleDurations = ruleDurationsToBeSet;
+      }
+
+      public FileViolations call()
+      {
+         final FileViolations fileViolations = new FileViolations( file );
+         int ruleIndex = 0;
+
+         for ( final IFlexRule currentRule : workerRules.get() )
+         {
+            final long startTime = ruleDurations == null ? 0
+                                                        : System.nanoTime();
+
+            processFile( currentRule,
+                         ruleIndex,
+                         ast,
+                         fileViolations );
+            if ( ruleDurations != null )
+            {
+               ruleDurations.addAndGet( ruleIndex,
+                                        System.nanoTime()
+                                              - startTime );
+            }
+            ruleIndex++;
+         }
+         return fileViolations;
+      }
+
+      private void processFile( final IFlexRule currentRule,
+                                final int ruleIndex,
+                                final IPackage ast,
+                                final FileViolations fileViolations )
+      {
+         try
+         {
+            final List< IFlexViolation > foundViolations = currentRule.processFile( file,
+                                                                                    currentRule instanceof IFlexAstRule ? ast
+                                                                                                                       : null,
+                                                                                    files );
+
+            if ( !foundViolations.isEmpty() )
+            {
+               if ( fileViolations.violations.isEmpty() )
+               {
+                  fileViolations.firstViolatedRuleIndex = ruleIndex;
+               }
+               fileViolations.violations.addAll( foundViolations );
+            }
+         }
+         catch ( final Exception e )
+         {
+            LOGGER.warning( StackTraceUtils.print( file.getFullyQualifiedName(),
+                                                   e ) );
+         }
+      }
+   }
+
+   /**
+    * Violations found in one file, with the index of the first rule which
+    * found some.
+    */
+   private static final class FileViolations
+   {
+      private final IFlexFile              file;
+      private int                          firstViolatedRuleIndex;
+      private final List< IFlexViolation > violations;
+
+      private FileViolations( final IFlexFile fileToBeSet )
+      {
+         file = fileToBeSet;
+         violations = new ArrayList< IFlexViolation >();
+      }
+
+      private FileViolations( final IFlexFile fileToBeSet,
+                              final int firstViolatedRuleIndexToBeSet,
+                              final List< IFlexViolation > violationsToBeSet )
+      {
+         file = fileToBeSet;
+         firstViolatedRuleIndex = firstViolatedRuleIndexToBeSet;
+         violations = violationsToBeSet;
+      }
+   }
+
    private static final Logger                            LOGGER;
 
    /**
@@ -69,25 +183,115 @@ public class FlexPmdViolations implements Serializable
       LOGGER = Logger.getLogger( FlexPmdViolations.class.getName() );
    }
 
-   private Map< String, IPackage >                        asts;
    private Map< String, IFlexFile >                       files;
    private boolean                                        hasBeenComputed;
+   private LiteralSet                                     regexpLiterals;
+   private final Map< String, Set< String >>              ruleExcludes;
    private final Map< String, IFlexRule >                 rules;
    private final Map< IFlexRule, Long >                   ruleSpeeds;
+   private final int                                      threadsNb;
+   private final List< IFlexFile >                        timedOutFiles;
    private final Map< IFlexFile, List< IFlexViolation > > violations;
 
    public FlexPmdViolations()
+   {
+      this( Runtime.getRuntime().availableProcessors() );
+   }
+
+   /**
+    * @param threadsNbToBeSet number of threads used to build the ASTs and to
+    *           process the rules
+    */
+   public FlexPmdViolations( final int threadsNbToBeSet )
    {
       violations = new LinkedHashMap< IFlexFile, List< IFlexViolation > >();
       rules = new LinkedHashMap< String, IFlexRule >();
+      ruleExcludes = new HashMap< String, Set< String >>();
       ruleSpeeds = new LinkedHashMap< IFlexRule, Long >();
       hasBeenComputed = false;
+      threadsNb = threadsNbToBeSet;
+      timedOutFiles = new ArrayList< IFlexFile >();
    }
 
    public final void computeViolations( final File source,
                                         final List< File > sourceList,
                                         final RuleSet ruleSet,
                                         final String packageToExclude ) throws PMDException
+   {
+      computeViolations( source,
+                         sourceList,
+                         ruleSet,
+                         packageToExclude,
+                         FileSetUtils.DEFAULT_PARSING_TIMEOUT );
+   }
+
+   /**
+    * @param source
+    * @param sourceList
+    * @param ruleSet
+    * @param packageToExclude
+    * @param parseTimeout parsing budget of a single file, in seconds
+    * @throws PMDException
+    */
+   public final void computeViolations( final File source,
+                                        final List< File > sourceList,
+                                        final RuleSet ruleSet,
+                                        final String packageToExclude,
+                                        final int parseTimeout ) throws PMDException
+   {
+      computeViolations( source,
+                         sourceList,
+                         ruleSet,
+                         packageToExclude,
+                         parseTimeout,
+                         null );
+   }
+
+   /**
+    * @param source
+    * @param sourceList
+    * @param ruleSet
+    * @param packageToExclude
+    * @param parseTimeout parsing budget of a single file, in seconds
+    * @param cacheFile file where the violations of the unchanged files are
+    *           kept between two runs, null to disable the cache
+    * @throws PMDException
+    */
+   public final void computeViolations( final File source,
+                                        final List< File > sourceList,
+                                        final RuleSet ruleSet,
+                                        final String packageToExclude,
+                                        final int parseTimeout,
+                                        final File cacheFile ) throws PMDException
+   {
+      computeViolations( source,
+                         sourceList,
+                         ruleSet,
+                         packageToExclude,
+                         parseTimeout,
+                         cacheFile,
+                         null );
+   }
+
+   /**
+    * @param source
+    * @param sourceList
+    * @param ruleSet
+    * @param packageToExclude
+    * @param parseTimeout parsing budget of a single file, in seconds
+    * @param cacheFile file where the violations of the unchanged files are
+    *           kept between two runs, null to disable the cache
+    * @param astCacheDirectory folder where the ASTs of the parsed files are
+    *           kept between two runs, null to disable the cache
+    * @throws PMDException
+    */
+   public final void computeViolations( final File source,
+                                        final List< File > sourceList,
+                                        final RuleSet ruleSet,
+                                        final String packageToExclude,
+                                        final int parseTimeout,
+                                        final File cacheFile,
+                                        final File astCacheDirectory ) throws PMDException
    {
       hasBeenComputed = true;
 
@@ -98,12 +302,41 @@ public class FlexPmdViolations implements Serializable
                        sourceList,
                        packageToExclude,
                        ruleSet.getExcludePatterns() );
-         computeAsts();
-         processRules();
+
+         final Map< IFlexFile, String > contentHashes = new HashMap< IFlexFile, String >();
+         final ViolationsCache cache = cacheFile == null ? null
+                                                        : ViolationsCache.load( cacheFile,
+                                                                                ViolationsCache.computeFingerprint( rules.values(),
+                                                                                                                    ruleExcludes,
+                                                                                                                    files ) );
+         final Map< IFlexFile, FileViolations > cachedViolations = replayCache( cache,
+                                                                                contentHashes );
+
+         processFiles( computeFilesToProcess( cachedViolations ),
+                       parseTimeout,
+                       astCacheDirectory == null ? null
+                                                : new AstCache( astCacheDirectory ),
+                       cachedViolations,
+                       cache,
+                       contentHashes );
          sortViolations();
+         if ( cache != null )
+         {
+            cache.save( cacheFile,
+                        files );
+         }
       }
    }
 
+   /**
+    * @return the files which have not been analyzed because their parsing
+    *         took longer than the parsing budget
+    */
+   public final List< IFlexFile > getTimedOutFiles()
+   {
+      return timedOutFiles;
+   }
+
    public final Map< IFlexFile, List< IFlexViolation >> getViolations()
    {
       return violations;
@@ -114,15 +347,19 @@ public class FlexPmdViolations implements Serializable
       return hasBeenComputed;
    }
 
-   private void computeAsts() throws PMDException
+   private Map< String, IFlexFile > computeFilesToProcess( final Map< IFlexFile, FileViolations > cachedViolations )
    {
-      LOGGER.info( "computing Asts" );
-
-      final long startTime = System.currentTimeMillis();
-      asts = FileSetUtils.computeAsts( files );
+      final Map< String, IFlexFile > filesToProcess = new LinkedHashMap< String, IFlexFile >();
 
-      LOGGER.info( "computed Asts in "
-            + ( System.currentTimeMillis() - startTime ) + " ms" );
+      for ( final Entry< String, IFlexFile > fileEntry : files.entrySet() )
+      {
+         if ( !cachedViolations.containsKey( fileEntry.getValue() ) )
+         {
+            filesToProcess.put( fileEntry.getKey(),
+                                fileEntry.getValue() );
+         }
+      }
+      return filesToProcess;
    }
 
    private void computeFiles( final File source,
@@ -162,87 +399,275 @@ public class FlexPmdViolations implements Serializable
                && !excludes.isEmpty() )
          {
             flexRule.setExcludes( excludes );
+            ruleExcludes.put( flexRule.getRuleName(),
+                              excludes );
          }
          rules.put( flexRule.getRuleName(),
                     flexRule );
       }
+      regexpLiterals = AbstractRegexpBasedRule.shareRequiredLiterals( rules.values() );
 
       LOGGER.info( "computed RulesList in "
             + ( System.currentTimeMillis() - startTime ) + " ms" );
    }
 
-   private void processFile( final IFlexRule currentRule,
-                             final IFlexFile currentFile )
+   private IFlexRule cloneRule( final IFlexRule rule )
    {
       try
       {
-         final String fullyQualifiedName = currentFile.getFullyQualifiedName();
-         final IPackage ast = currentRule instanceof IFlexAstRule ? asts.get( fullyQualifiedName )
-                                                                 : null;
-         final List< IFlexViolation > foundViolations = currentRule.processFile( currentFile,
-                                                                                 ast,
-                                                                                 files );
-
-         if ( !foundViolations.isEmpty() )
+         final IFlexRule clone = rule.getClass().getDeclaredConstructor().newInstance();
+
+         clone.setName( rule.getName() );
+         clone.setSince( rule.getSince() );
+         clone.setRuleClass( rule.getRuleClass() );
+         clone.setRuleSetName( rule.getRuleSetName() );
+         clone.setMessage( rule.getMessage() );
+         clone.setDescription( rule.getDescription() );
+         for ( final String example : rule.getExamples() )
          {
-            if ( violations.containsKey( currentFile ) )
-            {
-               violations.get( currentFile ).addAll( foundViolations );
-            }
-            else
-            {
-               violations.put( currentFile,
-                               foundViolations );
-            }
+            clone.addExample( example );
+         }
+         clone.setExternalInfoUrl( rule.getExternalInfoUrl() );
+         clone.setPriority( rule.getPriority() );
+         clone.addProperties( rule.getProperties() );
+         if ( ruleExcludes.containsKey( rule.getRuleName() ) )
+         {
+            clone.setExcludes( ruleExcludes.get( rule.getRuleName() ) );
          }
+         if ( clone instanceof AbstractRegexpBasedRule )
+         {
+            ( ( AbstractRegexpBasedRule ) clone ).useSharedLiterals( regexpLiterals );
+         }
+         return clone;
+      }
+      catch ( final InstantiationException e )
+      {
+         throw new IllegalStateException( "Unable to clone the rule "
+               + rule.getRuleName(), e );
       }
-      catch ( final Exception e )
+      catch ( final IllegalAccessException e )
       {
-         LOGGER.warning( StackTraceUtils.print( currentFile.getFullyQualifiedName(),
-                                                e ) );
+         throw new IllegalStateException( "Unable to clone the rule "
+               + rule.getRuleName(), e );
       }
+      catch ( final InvocationTargetException e )
+      {
+         throw new IllegalStateException( "Unable to clone the rule "
+               + rule.getRuleName(), e.getCause() );
+      }
+      catch ( final NoSuchMethodException e )
+      {
+         throw new IllegalStateException( "Unable to clone the rule "
+               + rule.getRuleName(), e );
+      }
+   }
+
+   /**
+    * @return the rules of a worker. Thread-safe rules are shared by every
+    *         worker, whereas the other ones, which keep their per-file state
+    *         in their own fields, are copied so that each worker owns them.
+    *         A rule which does not extend AbstractFlexRule is always copied.
+    */
+   private List< IFlexRule > cloneRules()
+   {
+      final List< IFlexRule > clones = new ArrayList< IFlexRule >( rules.size() );
+
+      for ( final IFlexRule rule : rules.values() )
+      {
+         final boolean isShared = rule instanceof AbstractFlexRule
+               && ( ( AbstractFlexRule ) rule ).isThreadSafe();
+
+         clones.add( isShared ? rule
+                             : cloneRule( rule ) );
+      }
+      return clones;
    }
 
-   private void processRule( final IFlexRule currentRule )
+   private void logRuleSpeeds( final AtomicLongArray ruleDurations )
    {
-      LOGGER.fine( "Processing "
-            + currentRule.getRuleName() + "..." );
+      int ruleIndex = 0;
 
-      for ( final Entry< String, IFlexFile > currentFileEntry : files.entrySet() )
+      for ( final Entry< String, IFlexRule > currentRuleEntry : rules.entrySet() )
       {
-         processFile( currentRule,
-                      currentFileEntry.getValue() );
+         final long ellapsedTime = TimeUnit.NANOSECONDS.toMillis( ruleDurations.get( ruleIndex++ ) );
+
+         LOGGER.fine( "rule "
+               + currentRuleEntry.getKey() + " computed in " + ellapsedTime + "ms" );
+         if ( LOGGER.isLoggable( Level.FINER ) )
+         {
+            ruleSpeeds.put( currentRuleEntry.getValue(),
+                            ellapsedTime );
+         }
       }
    }
 
-   private void processRule( final String currentRuleName,
-                             final IFlexRule currentRule )
+   /**
+    * Streams the files through the parsing threads: each worker builds the AST
+    * of one file, runs the whole ruleset on it, and releases it before moving
+    * to the next file. At most one AST per worker is alive at any time. The
+    * violations are then gathered in the same order as a rule after rule
+    * processing would have produced.
+    * 
+    * @param filesToProcess files which are not found in the cache
+    * @param parseTimeout parsing budget of a single file, in seconds
+    * @param astCache null if the AST cache is disabled
+    * @param cachedViolations violations of the unchanged files, which are not
+    *           processed again
+    * @param cache null if the cache is disabled
+    * @param contentHashes
+    * @throws PMDException
+    */
+   private void processFiles( final Map< String, IFlexFile > filesToProcess,
+                              final int parseTimeout,
+                              final AstCache astCache,
+                              final Map< IFlexFile, FileViolations > cachedViolations,
+                              final ViolationsCache cache,
+                              final Map< IFlexFile, String > contentHashes ) throws PMDException
    {
+      LOGGER.info( "processing files" );
+
       final long startTime = System.currentTimeMillis();
+      final Map< IFlexFile, FileViolations > processedViolations = new ConcurrentHashMap< IFlexFile, FileViolations >();
+      final ThreadLocal< List< IFlexRule >> workerRules = new ThreadLocal< List< IFlexRule >>()
+      {
+         @Override
+         protected List< IFlexRule > initialValue()
+         {
+            return cloneRules();
+         }
+      };
+      final AtomicLongArray ruleDurations = LOGGER.isLoggable( Level.FINE ) ? new AtomicLongArray( rules.size() )
+                                                                            : null;
+
+      FileSetUtils.computeAsts( filesToProcess,
+                                threadsNb,
+                                parseTimeout,
+                                timedOutFiles,
+                                astCache,
+                                new IAstListener()
+                                {
+                                   public void astBuilt( final IFlexFile file,
+                                                         final IPackage packageNode )
+                                   {
+                                      processedViolations.put( file,
+                                                               new FileProcessor( file,
+                                                                                  packageNode,
+                                                                                  workerRules,
+                                                                                  ruleDurations ).call() );
+                                   }
+                                } );
+      for ( final IFlexFile file : filesToProcess.values() )
+      {
+         if ( !processedViolations.containsKey( file ) )
+         {
+            processedViolations.put( file,
+                                     new FileProcessor( file, null, workerRules, ruleDurations ).call() );
+         }
+      }
+      LOGGER.info( "processed "
+            + filesToProcess.size() + " files in " + ( System.currentTimeMillis() - startTime ) + " ms with "
+            + threadsNb + " threads" );
+
+      collectViolations( processedViolations,
+                         cachedViolations,
+                         cache,
+                         contentHashes );
+      if ( ruleDurations != null )
+      {
+         logRuleSpeeds( ruleDurations );
+      }
+   }
 
-      processRule( currentRule );
-      final long ellapsedTime = System.currentTimeMillis()
-            - startTime;
+   /**
+    * A file is put in the violations map by the first rule violated in it, so
+    * that the map keeps the order of the serial rule after rule processing.
+    * 
+    * @param processedViolations
+    * @param cachedViolations
+    * @param cache
+    * @param contentHashes
+    */
+   private void collectViolations( final Map< IFlexFile, FileViolations > processedViolations,
+                                   final Map< IFlexFile, FileViolations > cachedViolations,
+                                   final ViolationsCache cache,
+                                   final Map< IFlexFile, String > contentHashes )
+   {
+      final List< List< FileViolations >> violationsByFirstRule = new ArrayList< List< FileViolations >>( rules.size() );
 
-      if ( LOGGER.isLoggable( Level.FINE ) )
+      for ( int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++ )
       {
-         LOGGER.fine( "rule "
-               + currentRuleName + " computed in " + ellapsedTime + "ms" );
+         violationsByFirstRule.add( new ArrayList< FileViolations >() );
       }
-      if ( LOGGER.isLoggable( Level.FINER ) )
+      for ( final IFlexFile file : files.values() )
       {
-         ruleSpeeds.put( currentRule,
-                         ellapsedTime );
+         final FileViolations fileViolations = cachedViolations.containsKey( file ) ? cachedViolations.get( file )
+                                                                                   : processedViolations.get( file );
+
+         if ( cache != null
+               && fileViolations != null && !cachedViolations.containsKey( file ) && !timedOutFiles.contains( file )
+               && contentHashes.get( file ) != null )
+         {
+            cache.put( file,
+                       contentHashes.get( file ),
+                       fileViolations.firstViolatedRuleIndex,
+                       fileViolations.violations );
+         }
+         if ( fileViolations != null
+               && !fileViolations.violations.isEmpty() )
+         {
+            violationsByFirstRule.get( fileViolations.firstViolatedRuleIndex ).add( fileViolations );
+         }
+      }
+      for ( final List< FileViolations > filesViolations : violationsByFirstRule )
+      {
+         for ( final FileViolations fileViolations : filesViolations )
+         {
+            violations.put( fileViolations.file,
+                            fileViolations.violations );
+         }
       }
    }
 
-   private void processRules()
+   /**
+    * @param cache null if the cache is disabled
+    * @param contentHashes filled with the content hash of every file
+    * @return the violations of the files which have not changed since the
+    *         cache has been written
+    */
+   private Map< IFlexFile, FileViolations > replayCache( final ViolationsCache cache,
+                                                         final Map< IFlexFile, String > contentHashes )
    {
-      for ( final Entry< String, IFlexRule > currentRuleEntry : rules.entrySet() )
+      final Map< IFlexFile, FileViolations > cachedViolations = new HashMap< IFlexFile, FileViolations >();
+
+      if ( cache != null )
       {
-         processRule( currentRuleEntry.getKey(),
-                      currentRuleEntry.getValue() );
+         for ( final IFlexFile file : files.values() )
+         {
+            final String contentHash = ViolationsCache.computeContentHash( file );
+            final ViolationsCache.CachedFile cachedFile = contentHash == null ? null
+                                                                             : cache.get( file,
+                                                                                          contentHash );
+
+            contentHashes.put( file,
+                               contentHash );
+            if ( cachedFile != null )
+            {
+               final List< IFlexViolation > replayedViolations = cachedFile.getViolations( file,
+                                                                                           rules );
+
+               if ( replayedViolations != null )
+               {
+                  cachedViolations.put( file,
+                                        new FileViolations( file,
+                                                            cachedFile.getFirstViolatedRuleIndex(),
+                                                            replayedViolations ) );
+               }
+            }
+         }
+         LOGGER.info( cachedViolations.size()
+               + " files out of " + files.size() + " have been found in the cache" );
       }
+      return cachedViolations;
    }
 
    private void sortViolations()
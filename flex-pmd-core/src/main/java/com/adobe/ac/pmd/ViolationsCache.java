@@ -0,0 +1,415 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.rules.core.AbstractFlexRule;
+import com.adobe.ac.pmd.rules.core.IFlexRule;
+import com.adobe.ac.pmd.rules.core.Violation;
+import com.adobe.ac.pmd.rules.core.ViolationPosition;
+import com.adobe.ac.utils.CodeSourceUtils;
+import com.adobe.ac.utils.StackTraceUtils;
+
+import de.bokelberg.flex.parser.AS3Parser;
+
+/**
+ * On-disk cache of the violations found per file. An entry is reused only if
+ * the file content has not changed, and if the cache has been written by the
+ * same build of FlexPMD and of the rules, with the same ruleset on the same
+ * set of files (some rules look up the other files of the source path).
+ * 
+ * @author xagnetti
+ */
+final class ViolationsCache implements Serializable
+{
+   /**
+    * Violations found in one file, as they were before being sorted.
+    */
+   static final class CachedFile implements Serializable
+   {
+      private static final long              serialVersionUID = 2870651324158734318L;
+      private final String                   contentHash;
+      private final int                      firstViolatedRuleIndex;
+      private final List< CachedViolation > violations;
+
+      private CachedFile( final String contentHashToBeSet,
+                          final int firstViolatedRuleIndexToBeSet,
+                          final List< IFlexViolation > violationsToBeSet )
+      {
+         contentHash = contentHashToBeSet;
+         firstViolatedRuleIndex = firstViolatedRuleIndexToBeSet;
+         violations = new ArrayList< CachedViolation >( violationsToBeSet.size() );
+
+         for ( final IFlexViolation violation : violationsToBeSet )
+         {
+            violations.add( new CachedViolation( violation ) );
+         }
+      }
+
+      /**
+       * @return the index of the first rule which found violations
+       */
+      int getFirstViolatedRuleIndex()
+      {
+         return firstViolatedRuleIndex;
+      }
+
+      /**
+       * @param file
+       * @param rules the loaded rules, by name
+       * @return the replayed violations, null if one of the rules is missing
+       */
+      List< IFlexViolation > getViolations( final IFlexFile file,
+                                            final Map< String, IFlexRule > rules )
+      {
+         final List< IFlexViolation > replayedViolations = new ArrayList< IFlexViolation >( violations.size() );
+
+         for ( final CachedViolation violation : violations )
+         {
+            final IFlexRule rule = rules.get( violation.ruleName );
+
+            if ( rule == null )
+            {
+               return null;
+            }
+            replayedViolations.add( new Violation( ViolationPosition.create( violation.beginLine,
+                                                                             violation.endLine,
+                                                                             violation.beginColumn,
+                                                                             violation.endColumn ),
+                                                   rule,
+                                                   file,
+                                                   violation.message ) );
+         }
+         return replayedViolations;
+      }
+   }
+
+   private static final class CachedViolation implements Serializable
+   {
+      private static final long serialVersionUID = -6417905440624355744L;
+      private final int         beginColumn;
+      private final int         beginLine;
+      private final int         endColumn;
+      private final int         endLine;
+      private final String      message;
+      private final String      ruleName;
+
+      private CachedViolation( final IFlexViolation violation )
+      {
+         beginColumn = violation.getBeginColumn();
+         beginLine = violation.getBeginLine();
+         endColumn = violation.getEndColumn();
+         endLine = violation.getEndLine();
+         message = violation.getDescription();
+         ruleName = ( ( IFlexRule ) violation.getRule() ).getRuleName();
+      }
+   }
+
+   private static final String     CACHE_VERSION    = "1";
+   /**
+    * Classes of the modules the violations depend on, besides the rules
+    */
+   private static final Class< ? >[] ENGINE_CLASSES   = new Class< ? >[]
+                                                      { ViolationsCache.class,
+               AbstractFlexRule.class,
+               IFlexFile.class,
+               AS3Parser.class };
+   private static final String     GROUP_ID         = "com.adobe.ac";
+   private static final Logger     LOGGER           = Logger.getLogger( ViolationsCache.class.getName() );
+   private static final long       serialVersionUID = -1339167604394624779L;
+
+   /**
+    * @param file
+    * @return the MD5 of the file content, null if it can not be read
+    */
+   static String computeContentHash( final IFlexFile file )
+   {
+      final byte[] buffer = new byte[ 8192 ];
+      InputStream stream = null;
+
+      try
+      {
+         final MessageDigest digest = MessageDigest.getInstance( "MD5" );
+         int readBytes;
+
+         stream = new FileInputStream( file.getFilePath() );
+         readBytes = stream.read( buffer );
+         while ( readBytes != -1 )
+         {
+            digest.update( buffer,
+                           0,
+                           readBytes );
+            readBytes = stream.read( buffer );
+         }
+         return CodeSourceUtils.toHexa( digest.digest() );
+      }
+      catch ( final IOException e )
+      {
+         LOGGER.warning( StackTraceUtils.print( file.getFilePath(),
+                                                e ) );
+      }
+      catch ( final NoSuchAlgorithmException e )
+      {
+         LOGGER.warning( StackTraceUtils.print( e ) );
+      }
+      finally
+      {
+         close( stream );
+      }
+      return null;
+   }
+
+   /**
+    * @param rules the rules in their processing order
+    * @param ruleExcludes the exclusion patterns by rule name
+    * @param files the analyzed files
+    * @return a digest of everything, but the file contents, that the found
+    *         violations depend on: the FlexPMD version, the jars or class files
+    *         of the engine and of every rule, the ruleset and the files list
+    */
+   static String computeFingerprint( final Collection< IFlexRule > rules,
+                                     final Map< String, Set< String >> ruleExcludes,
+                                     final Map< String, IFlexFile > files )
+   {
+      final StringBuffer buffer = new StringBuffer( CACHE_VERSION );
+
+      buffer.append( '\n' ).append( CodeSourceUtils.getArtifactVersion( ViolationsCache.class,
+                                                                        GROUP_ID,
+                                                                        "flex-pmd-core" ) );
+      for ( final Class< ? > engineClass : ENGINE_CLASSES )
+      {
+         buffer.append( '\n' ).append( CodeSourceUtils.computeIdentity( engineClass ) );
+      }
+      for ( final IFlexRule rule : rules )
+      {
+         buffer.append( '\n' ).append( rule.getClass().getName() );
+         buffer.append( '|' ).append( CodeSourceUtils.computeIdentity( rule.getClass() ) );
+         buffer.append( '|' ).append( rule.getName() );
+         buffer.append( '|' ).append( rule.getRuleSetName() );
+         buffer.append( '|' ).append( rule.getMessage() );
+         buffer.append( '|' ).append( rule.getDescription() );
+         buffer.append( '|' ).append( rule.getExternalInfoUrl() );
+         buffer.append( '|' ).append( rule.getPriority() );
+         buffer.append( '|' ).append( new TreeMap< Object, Object >( rule.getProperties() ) );
+         if ( ruleExcludes.containsKey( rule.getRuleName() ) )
+         {
+            buffer.append( '|' ).append( new TreeSet< String >( ruleExcludes.get( rule.getRuleName() ) ) );
+         }
+      }
+      for ( final String fileName : new TreeSet< String >( files.keySet() ) )
+      {
+         buffer.append( '\n' ).append( fileName );
+      }
+      try
+      {
+         return CodeSourceUtils.toHexa( MessageDigest.getInstance( "MD5" ).digest( buffer.toString()
+                                                                                         .getBytes( "UTF-8" ) ) );
+      }
+      catch ( final IOException e )
+      {
+         throw new IllegalStateException( e );
+      }
+      catch ( final NoSuchAlgorithmException e )
+      {
+         throw new IllegalStateException( e );
+      }
+   }
+
+   /**
+    * @param cacheFile
+    * @param fingerprint
+    * @return the cache stored in the given file, or an empty one if it does
+    *         not exist, can not be read or has been written with another
+    *         fingerprint
+    */
+   static ViolationsCache load( final File cacheFile,
+                                final String fingerprint )
+   {
+      if ( cacheFile.exists() )
+      {
+         ObjectInputStream stream = null;
+
+         try
+         {
+            stream = new ObjectInputStream( new FileInputStream( cacheFile ) );
+
+            final ViolationsCache cache = ( ViolationsCache ) stream.readObject();
+
+            if ( fingerprint.equals( cache.fingerprint ) )
+            {
+               return cache;
+            }
+            LOGGER.info( "The ruleset or the files list has changed, ignoring the cache "
+                  + cacheFile.getAbsolutePath() );
+         }
+         catch ( final IOException e )
+         {
+            LOGGER.warning( StackTraceUtils.print( cacheFile.getAbsolutePath(),
+                                                   e ) );
+         }
+         catch ( final ClassNotFoundException e )
+         {
+            LOGGER.warning( StackTraceUtils.print( cacheFile.getAbsolutePath(),
+                                                   e ) );
+         }
+         catch ( final ClassCastException e )
+         {
+            LOGGER.warning( StackTraceUtils.print( cacheFile.getAbsolutePath(),
+                                                   e ) );
+         }
+         finally
+         {
+            close( stream );
+         }
+      }
+      return new ViolationsCache( fingerprint );
+   }
+
+   private static void close( final Closeable stream )
+   {
+      if ( stream != null )
+      {
+         try
+         {
+            stream.close();
+         }
+         catch ( final IOException e )
+         {
+            LOGGER.warning( StackTraceUtils.print( e ) );
+         }
+      }
+   }
+
+   private final Map< String, CachedFile > entries;
+   private final String                    fingerprint;
+
+   private ViolationsCache( final String fingerprintToBeSet )
+   {
+      fingerprint = fingerprintToBeSet;
+      entries = new HashMap< String, CachedFile >();
+   }
+
+   /**
+    * @param file
+    * @param contentHash
+    * @return the cached violations of the file, null if the file has changed
+    *         or has never been analyzed
+    */
+   CachedFile get( final IFlexFile file,
+                   final String contentHash )
+   {
+      final CachedFile entry = entries.get( file.getFilePath() );
+
+      return entry != null
+            && entry.contentHash.equals( contentHash ) ? entry
+                                                      : null;
+   }
+
+   /**
+    * @param file
+    * @param contentHash
+    * @param firstViolatedRuleIndex
+    * @param violations the violations found in rule order
+    */
+   void put( final IFlexFile file,
+             final String contentHash,
+             final int firstViolatedRuleIndex,
+             final List< IFlexViolation > violations )
+   {
+      entries.put( file.getFilePath(),
+                   new CachedFile( contentHash, firstViolatedRuleIndex, violations ) );
+   }
+
+   /**
+    * Keeps only the entries of the given files, and writes the cache.
+    * 
+    * @param cacheFile
+    * @param files
+    */
+   void save( final File cacheFile,
+              final Map< String, IFlexFile > files )
+   {
+      final Set< String > filePaths = new TreeSet< String >();
+
+      for ( final IFlexFile file : files.values() )
+      {
+         filePaths.add( file.getFilePath() );
+      }
+      entries.keySet().retainAll( filePaths );
+
+      final File parentDirectory = cacheFile.getAbsoluteFile().getParentFile();
+
+      if ( parentDirectory != null
+            && !parentDirectory.exists() && !parentDirectory.mkdirs() )
+      {
+         LOGGER.warning( "Unable to create the cache folder "
+               + parentDirectory.getAbsolutePath() );
+         return;
+      }
+      ObjectOutputStream stream = null;
+
+      try
+      {
+         stream = new ObjectOutputStream( new FileOutputStream( cacheFile ) );
+         stream.writeObject( this );
+      }
+      catch ( final IOException e )
+      {
+         LOGGER.warning( StackTraceUtils.print( cacheFile.getAbsolutePath(),
+                                                e ) );
+      }
+      finally
+      {
+         close( stream );
+      }
+   }
+}
@@ -49,6 +49,7 @@ import org.codehaus.plexus.util.IOUtil;
 import com.adobe.ac.pmd.FlexPmdParameters;
 import com.adobe.ac.pmd.FlexPmdViolations;
 import com.adobe.ac.pmd.IFlexViolation;
+import com.adobe.ac.pmd.files.IFlexFile;
 import com.adobe.ac.utils.StackTraceUtils;
 
 public abstract class AbstractFlexPmdEngine
@@ -83,8 +84,11 @@ public abstract class AbstractFlexPmdEngine
       return temporaryRuleset;
    }
 
+   private final File         astCacheDirectory;
+   private final File         cacheFile;
    private final File         outputDirectory;
    private final String       packageToExclude;
+   private final int          parseTimeout;
    private RuleSet            ruleSet;
    private final File         source;
    private final List< File > sourceList;
@@ -97,6 +101,9 @@ public abstract class AbstractFlexPmdEngine
       sourceList = parameters.getSourceList();
       outputDirectory = parameters.getOutputDirectory();
       packageToExclude = parameters.getExcludePackage();
+      parseTimeout = parameters.getParseTimeout();
+      cacheFile = parameters.getCacheFile();
+      astCacheDirectory = parameters.getAstCacheDirectory();
       try
       {
          ruleSet = loadRuleset( parameters.getRuleSet() );
@@ -138,6 +145,7 @@ public abstract class AbstractFlexPmdEngine
             computeViolations( flexPmdViolations );
          }
          computeViolationNumber( flexPmdViolations );
+         logTimedOutFiles( flexPmdViolations );
          writeAnyReport( flexPmdViolations );
       }
    }
@@ -161,7 +169,10 @@ public abstract class AbstractFlexPmdEngine
       flexPmdViolations.computeViolations( source,
                                            sourceList,
                                            ruleSet,
-                                           packageToExclude );
+                                           packageToExclude,
+                                           parseTimeout,
+                                           cacheFile,
+                                           astCacheDirectory );
       final long ellapsedTime = System.currentTimeMillis()
             - startTime;
       LOGGER.info( "It took "
@@ -198,6 +209,22 @@ public abstract class AbstractFlexPmdEngine
       return loadedRuleSet;
    }
 
+   private void logTimedOutFiles( final FlexPmdViolations flexPmdViolations )
+   {
+      if ( !flexPmdViolations.getTimedOutFiles().isEmpty() )
+      {
+         final StringBuffer buffer = new StringBuffer( "Files whose AST rules were skipped because their parsing took more than "
+               + parseTimeout + " s:" );
+
+         for ( final IFlexFile file : flexPmdViolations.getTimedOutFiles() )
+         {
+            buffer.append( "\n   "
+                  + file.getFilePath() );
+         }
+         LOGGER.warning( buffer.toString() );
+      }
+   }
+
    private void writeAnyReport( final FlexPmdViolations flexPmdViolations ) throws PMDException
    {
       long startTime;
@@ -76,6 +76,8 @@ public class FlexPmdXmlEngine extends AbstractFlexPmdEngine
 
          writter = new OutputStreamWriter( new FileOutputStream( filePath ), "UTF-8" );
          writeReportHeader( writter );
+         writeTimedOutFiles( pmd,
+                             writter );
          writeFileViolations( pmd,
                               writter );
          writeReportFooter( writter );
@@ -182,4 +184,30 @@ public class FlexPmdXmlEngine extends AbstractFlexPmdEngine
       writter.write( "<pmd version=\"4.2.1\" timestamp=\""
             + new Date().toString() + "\">" + getNewLine() );
    }
+
+   /**
+    * The timed-out files are written as a comment, so that the report still
+    * validates against the PMD schema.
+    * 
+    * @param pmd
+    * @param writter
+    * @throws IOException
+    */
+   private void writeTimedOutFiles( final FlexPmdViolations pmd,
+                                    final Writer writter ) throws IOException
+   {
+      if ( !pmd.getTimedOutFiles().isEmpty() )
+      {
+         writter.write( "   <!-- Files whose AST rules were skipped because their parsing timed out:"
+               + getNewLine() );
+         for ( final IFlexFile timedOutFile : pmd.getTimedOutFiles() )
+         {
+            writter.write( "        "
+                  + timedOutFile.getFilePath().replace( "--",
+                                                        "- -" ) + getNewLine() );
+         }
+         writter.write( "   -->"
+               + getNewLine() );
+      }
+   }
 }
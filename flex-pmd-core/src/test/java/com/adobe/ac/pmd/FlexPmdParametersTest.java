@@ -58,4 +58,21 @@ public class FlexPmdParametersTest
       Assert.assertEquals( sourceList,
                            parameters.getSourceList() );
    }
+
+   @Test
+   public void testSetParseTimeout()
+   {
+      final FlexPmdParameters parameters = new FlexPmdParameters( "", true, true, null, null, null );
+
+      parameters.setParseTimeout( 1 );
+
+      Assert.assertEquals( 1,
+                           parameters.getParseTimeout() );
+   }
+
+   @Test( expected = IllegalArgumentException.class )
+   public void testSetParseTimeoutToZero()
+   {
+      new FlexPmdParameters( "", true, true, null, null, null ).setParseTimeout( 0 );
+   }
 }
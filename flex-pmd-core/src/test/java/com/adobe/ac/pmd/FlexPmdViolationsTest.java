@@ -0,0 +1,126 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import junit.framework.Assert;
+import net.sourceforge.pmd.PMDException;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSetFactory;
+
+import org.junit.Test;
+
+import com.adobe.ac.pmd.files.FileSetUtils;
+import com.adobe.ac.pmd.files.IFlexFile;
+
+public class FlexPmdViolationsTest
+{
+   @Test
+   public void testComputeViolationsInParallel() throws URISyntaxException,
+                                                PMDException
+   {
+      final File sourceDirectory = new File( getClass().getResource( "/test" ).toURI().getPath() );
+      final List< String > serialViolations = computeViolations( sourceDirectory,
+                                                                 1 );
+
+      Assert.assertFalse( serialViolations.isEmpty() );
+      Assert.assertEquals( serialViolations,
+                           computeViolations( sourceDirectory,
+                                              4 ) );
+   }
+
+   @Test
+   public void testComputeViolationsWithCache() throws URISyntaxException,
+                                               PMDException,
+                                               IOException
+   {
+      final File sourceDirectory = new File( getClass().getResource( "/test" ).toURI().getPath() );
+      final File cacheFile = File.createTempFile( "flexpmd",
+                                                  ".cache" );
+      final List< String > expectedViolations = computeViolations( sourceDirectory,
+                                                                   1 );
+
+      cacheFile.delete();
+      cacheFile.deleteOnExit();
+
+      Assert.assertEquals( expectedViolations,
+                           computeViolations( sourceDirectory,
+                                              1,
+                                              cacheFile ) );
+      Assert.assertTrue( cacheFile.exists() );
+      Assert.assertEquals( expectedViolations,
+                           computeViolations( sourceDirectory,
+                                              1,
+                                              cacheFile ) );
+   }
+
+   private List< String > computeViolations( final File sourceDirectory,
+                                             final int threadsNb ) throws PMDException
+   {
+      return computeViolations( sourceDirectory,
+                                threadsNb,
+                                null );
+   }
+
+   private List< String > computeViolations( final File sourceDirectory,
+                                             final int threadsNb,
+                                             final File cacheFile ) throws PMDException
+   {
+      final InputStream ruleSetStream = getClass().getResourceAsStream( "/com/adobe/ac/pmd/default_flex.xml" );
+      final RuleSet ruleSet = new RuleSetFactory().createRuleSet( ruleSetStream );
+      final FlexPmdViolations flexPmdViolations = new FlexPmdViolations( threadsNb );
+      final List< String > violations = new ArrayList< String >();
+
+      flexPmdViolations.computeViolations( sourceDirectory,
+                                           null,
+                                           ruleSet,
+                                           "",
+                                           FileSetUtils.DEFAULT_PARSING_TIMEOUT,
+                                           cacheFile );
+      for ( final Entry< IFlexFile, List< IFlexViolation >> entry : flexPmdViolations.getViolations()
+                                                                                     .entrySet() )
+      {
+         for ( final IFlexViolation violation : entry.getValue() )
+         {
+            violations.add( violation.toXmlString( entry.getKey(),
+                                                   violation.getRule().getRuleSetName() ) );
+         }
+      }
+      return violations;
+   }
+}
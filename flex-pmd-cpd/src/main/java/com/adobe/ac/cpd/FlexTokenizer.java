@@ -31,7 +31,7 @@
 package com.adobe.ac.cpd;
 
 import java.io.File;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.Set;
 
 import net.sourceforge.pmd.cpd.SourceCode;
@@ -42,41 +42,24 @@ import net.sourceforge.pmd.cpd.Tokens;
 import com.adobe.ac.pmd.files.IFlexFile;
 import com.adobe.ac.pmd.files.IMxmlFile;
 import com.adobe.ac.pmd.files.impl.FileUtils;
-import com.adobe.ac.pmd.parser.KeyWords;
+import com.adobe.ac.pmd.parser.ITokenStream;
 import com.adobe.ac.pmd.parser.Operators;
+import com.adobe.ac.pmd.parser.TokenFilter;
 
 import de.bokelberg.flex.parser.AS3Parser;
-import de.bokelberg.flex.parser.AS3Scanner;
-import de.bokelberg.flex.parser.AS3Scanner.Token;
 
 public class FlexTokenizer implements Tokenizer
 {
-   public static final int            DEFAULT_MINIMUM_TOKENS = 25;
-   private static final Set< String > IGNORED_TOKENS;
-   private static final Set< String > IGNORING_LINE_TOKENS;
+   public static final int                 DEFAULT_MINIMUM_TOKENS = 25;
+   private static final Set< TokenFilter > FILTERS                = EnumSet.allOf( TokenFilter.class );
+   private static final Set< Operators >   IGNORED_OPERATORS      = EnumSet.of( Operators.SEMI_COLUMN,
+                                                                                Operators.LEFT_CURLY_BRACKET,
+                                                                                Operators.RIGHT_CURLY_BRACKET );
 
-   static
+   private static boolean isTokenIgnored( final ITokenStream stream )
    {
-      IGNORED_TOKENS = new HashSet< String >();
-      IGNORED_TOKENS.add( Operators.SEMI_COLUMN.toString() );
-      IGNORED_TOKENS.add( Operators.LEFT_CURLY_BRACKET.toString() );
-      IGNORED_TOKENS.add( Operators.RIGHT_CURLY_BRACKET.toString() );
-      IGNORED_TOKENS.add( AS3Parser.NEW_LINE );
-      IGNORING_LINE_TOKENS = new HashSet< String >();
-      IGNORING_LINE_TOKENS.add( KeyWords.IMPORT.toString() );
-      IGNORING_LINE_TOKENS.add( KeyWords.PACKAGE.toString() );
-   }
-
-   private static boolean isTokenIgnored( final String tokenText )
-   {
-      return IGNORED_TOKENS.contains( tokenText )
-            || tokenText.startsWith( AS3Parser.MULTIPLE_LINES_COMMENT )
-            || tokenText.startsWith( AS3Parser.SINGLE_LINE_COMMENT );
-   }
-
-   private static boolean isTokenIgnoringLine( final String tokenText )
-   {
-      return IGNORING_LINE_TOKENS.contains( tokenText );
+      return stream.getOperator() != null
+            && IGNORED_OPERATORS.contains( stream.getOperator() );
    }
 
    public void tokenize( final SourceCode tokens,
@@ -84,35 +67,16 @@ public class FlexTokenizer implements Tokenizer
    {
       try
       {
-         final AS3Scanner scanner = initializeScanner( tokens );
-         Token currentToken = scanner.moveToNextToken();
-         int inImportLine = 0;
+         final ITokenStream stream = initializeStream( tokens );
 
-         while ( currentToken != null
-               && currentToken.getText().compareTo( KeyWords.EOF.toString() ) != 0 )
+         while ( stream.next() )
          {
-            final String currentTokenText = currentToken.getText();
-            final int currentTokenLine = currentToken.getLine();
-
-            if ( !isTokenIgnored( currentTokenText ) )
+            if ( !isTokenIgnored( stream ) )
             {
-               if ( isTokenIgnoringLine( currentTokenText ) )
-               {
-                  inImportLine = currentTokenLine;
-               }
-               else
-               {
-                  if ( inImportLine == 0
-                        || inImportLine != currentTokenLine )
-                  {
-                     inImportLine = 0;
-                     tokenEntries.add( new TokenEntry( currentTokenText, // NOPMD
-                                                       tokens.getFileName(),
-                                                       currentTokenLine ) );
-                  }
-               }
+               tokenEntries.add( new TokenEntry( stream.getText(), // NOPMD
+                                                 tokens.getFileName(),
+                                                 stream.getLine() ) );
             }
-            currentToken = scanner.moveToNextToken();
          }
       }
       catch ( final Exception e )
@@ -124,10 +88,9 @@ public class FlexTokenizer implements Tokenizer
       }
    }
 
-   private AS3Scanner initializeScanner( final SourceCode tokens )
+   private ITokenStream initializeStream( final SourceCode tokens )
    {
-      final AS3Scanner scanner = new AS3Scanner();
-
+      final AS3Parser parser = new AS3Parser();
       final IFlexFile flexFile = FileUtils.create( new File( tokens.getFileName() ),
                                                    new File( "" ) );
 
@@ -135,12 +98,10 @@ public class FlexTokenizer implements Tokenizer
       {
          final IMxmlFile mxml = ( IMxmlFile ) flexFile;
 
-         scanner.setLines( mxml.getScriptBlock() );
-      }
-      else
-      {
-         scanner.setLines( tokens.getCode().toArray( new String[ tokens.getCode().size() ] ) );
+         return parser.tokenize( mxml.getScriptBlock(),
+                                 FILTERS );
       }
-      return scanner;
+      return parser.tokenize( flexFile.getContent(),
+                              FILTERS );
    }
 }
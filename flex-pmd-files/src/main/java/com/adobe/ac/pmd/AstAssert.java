@@ -0,0 +1,97 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd;
+
+import com.adobe.ac.pmd.parser.IParserNode;
+
+/**
+ * Assertions on the asts built by the parser, shared by the test cases of the
+ * parser and of the rules.
+ * 
+ * @author xagnetti
+ */
+public final class AstAssert // NO_UCD
+{
+   /**
+    * Checks that both trees have the same nodes, with the same kinds,
+    * positions and values.
+    * 
+    * @param expected
+    * @param actual
+    */
+   public static void assertSameTree( final IParserNode expected,
+                                      final IParserNode actual )
+   {
+      assertSameProperty( "kind",
+                          expected,
+                          expected.getId(),
+                          actual.getId() );
+      assertSameProperty( "line",
+                          expected,
+                          expected.getLine(),
+                          actual.getLine() );
+      assertSameProperty( "column",
+                          expected,
+                          expected.getColumn(),
+                          actual.getColumn() );
+      assertSameProperty( "value",
+                          expected,
+                          expected.getStringValue(),
+                          actual.getStringValue() );
+      assertSameProperty( "children number",
+                          expected,
+                          expected.numChildren(),
+                          actual.numChildren() );
+      for ( int index = 0; index < expected.numChildren(); index++ )
+      {
+         assertSameTree( expected.getChild( index ),
+                         actual.getChild( index ) );
+      }
+   }
+
+   private static void assertSameProperty( final String property,
+                                           final IParserNode expected,
+                                           final Object expectedValue,
+                                           final Object actualValue )
+   {
+      if ( expectedValue == null ? actualValue != null
+                                : !expectedValue.equals( actualValue ) )
+      {
+         throw new AssertionError( "The "
+               + property + " of the node " + expected.getId() + " at line " + expected.getLine()
+               + " is not correct expected:<" + expectedValue + "> but was:<" + actualValue + ">" );
+      }
+   }
+
+   private AstAssert()
+   {
+   }
+}
@@ -32,6 +32,8 @@ package com.adobe.ac.pmd.files;
 
 import java.util.Set;
 
+import com.adobe.ac.ncss.utils.FileContent;
+
 /**
  * @author xagnetti
  */
@@ -45,6 +47,16 @@ public interface IFlexFile
    boolean contains( final String stringToLookup,
                      final Set< Integer > linesToBeIgnored );
 
+   /**
+    * @param identifier
+    * @param linesToBeIgnored
+    * @return true if the identifier occurs as a whole word on a line which is
+    *         not to be ignored. Unlike contains, "name" is not found in
+    *         "rename".
+    */
+   boolean containsIdentifier( final String identifier,
+                               final Set< Integer > linesToBeIgnored );
+
    /**
     * @return
     */
@@ -60,6 +72,11 @@ public interface IFlexFile
     */
    String getCommentOpeningTag();
 
+   /**
+    * @return the decoded content of the file, shared with the parser
+    */
+   FileContent getContent();
+
    /**
     * @return java.io.File name
     */
@@ -105,4 +122,27 @@ public interface IFlexFile
     * @return true if the file is a MXML file
     */
    boolean isMxml();
+
+   /**
+    * @param lineIndex starting at 1
+    * @param shortRuleName rule name without package nor "Rule" suffix, as
+    *           computed by SuppressionIndex.computeShortRuleName
+    * @return true if a NO PMD marker on this line suppresses the given rule
+    */
+   boolean isRuleSuppressed( final int lineIndex,
+                             final String shortRuleName );
+
+   /**
+    * All the literals of the set are searched on the first call, so that the
+    * following calls with the same set do not scan the file again.
+    * 
+    * @param literals
+    * @param literalIndex index of the searched literal in the set
+    * @param fromLineIndex starting at 1
+    * @return the index of the first line, from the given one, which contains
+    *         the literal, -1 if none does
+    */
+   int nextLineContaining( final LiteralSet literals,
+                           final int literalIndex,
+                           final int fromLineIndex );
 }
\ No newline at end of file
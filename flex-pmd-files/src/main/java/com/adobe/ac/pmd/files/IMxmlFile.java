@@ -30,6 +30,13 @@
  */
 package com.adobe.ac.pmd.files;
 
+import java.io.IOException;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
 /**
  * @author xagnetti
  */
@@ -45,6 +52,19 @@ public interface IMxmlFile extends IFlexFile
     */
    int getBeginningScriptBlock();
 
+   /**
+    * The file is parsed once, and its DOM is shared by the rules processing
+    * the file. It must not be modified.
+    * 
+    * @return the DOM of the file, namespace aware
+    * @throws ParserConfigurationException
+    * @throws SAXException
+    * @throws IOException
+    */
+   Document getDocument() throws ParserConfigurationException,
+                         SAXException,
+                         IOException;
+
    /**
     * @return
     */
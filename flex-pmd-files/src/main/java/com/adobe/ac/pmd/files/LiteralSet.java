@@ -0,0 +1,238 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.files;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import com.adobe.ac.ncss.utils.FileContent;
+
+/**
+ * Literals searched all at once in the lines of a file. They are compiled
+ * into an Aho-Corasick automaton, so that one pass over the content finds the
+ * lines containing each of them, whatever the number of literals.
+ * 
+ * @author xagnetti
+ */
+public final class LiteralSet
+{
+   private static final int ROOT = 0;
+
+   private final char[]         charClasses;
+   private final List< String > literals;
+   private final int[][]        outputs;
+   private final int[][]        transitions;
+
+   /**
+    * @param literalsToBeSet non empty literals, which can not contain any line
+    *           terminator
+    */
+   public LiteralSet( final List< String > literalsToBeSet )
+   {
+      literals = new ArrayList< String >( literalsToBeSet );
+      charClasses = new char[ Character.MAX_VALUE + 1 ];
+
+      final int classesNb = computeCharClasses();
+      final List< int[] > gotos = new ArrayList< int[] >();
+      final List< List< Integer >> matches = new ArrayList< List< Integer >>();
+
+      addState( gotos,
+                matches,
+                classesNb );
+      for ( int literalIndex = 0; literalIndex < literals.size(); literalIndex++ )
+      {
+         addLiteral( gotos,
+                     matches,
+                     classesNb,
+                     literalIndex );
+      }
+      transitions = gotos.toArray( new int[ gotos.size() ][] );
+      outputs = new int[ transitions.length ][];
+      computeFailures( matches );
+   }
+
+   /**
+    * @param content
+    * @return for each literal, in the order of the list given at construction,
+    *         the indexes, starting at 1, of the lines which contain it
+    */
+   public BitSet[] findLines( final FileContent content )
+   {
+      final BitSet[] lines = new BitSet[ literals.size() ];
+      final char[] buffer = content.getBuffer();
+      final int[] lineOffsets = content.getLineOffsets();
+
+      for ( int literalIndex = 0; literalIndex < lines.length; literalIndex++ )
+      {
+         lines[ literalIndex ] = new BitSet();
+      }
+      for ( int lineIndex = 1; lineIndex < lineOffsets.length; lineIndex++ )
+      {
+         final int lineEnd = lineOffsets[ lineIndex ] - 1;
+         int state = ROOT;
+
+         for ( int offset = lineOffsets[ lineIndex - 1 ]; offset < lineEnd; offset++ )
+         {
+            state = transitions[ state ][ charClasses[ buffer[ offset ] ] ];
+            if ( outputs[ state ] != null )
+            {
+               for ( final int literalIndex : outputs[ state ] )
+               {
+                  lines[ literalIndex ].set( lineIndex );
+               }
+            }
+         }
+      }
+      return lines;
+   }
+
+   /**
+    * @param literal
+    * @return the index of the literal in the list given at construction, -1 if
+    *         it is not part of the set
+    */
+   public int indexOf( final String literal )
+   {
+      return literals.indexOf( literal );
+   }
+
+   private void addLiteral( final List< int[] > gotos,
+                            final List< List< Integer >> matches,
+                            final int classesNb,
+                            final int literalIndex )
+   {
+      final String literal = literals.get( literalIndex );
+      int state = ROOT;
+
+      for ( int charIndex = 0; charIndex < literal.length(); charIndex++ )
+      {
+         final char charClass = charClasses[ literal.charAt( charIndex ) ];
+
+         if ( gotos.get( state )[ charClass ] == ROOT )
+         {
+            gotos.get( state )[ charClass ] = addState( gotos,
+                                                        matches,
+                                                        classesNb );
+         }
+         state = gotos.get( state )[ charClass ];
+      }
+      matches.get( state ).add( literalIndex );
+   }
+
+   private int addState( final List< int[] > gotos,
+                         final List< List< Integer >> matches,
+                         final int classesNb )
+   {
+      gotos.add( new int[ classesNb ] );
+      matches.add( new ArrayList< Integer >() );
+      return gotos.size() - 1;
+   }
+
+   /**
+    * Every character found in a literal gets its own class. The class 0
+    * stands for all the other characters.
+    * 
+    * @return the number of classes
+    */
+   private int computeCharClasses()
+   {
+      int classesNb = 1;
+
+      for ( final String literal : literals )
+      {
+         for ( int charIndex = 0; charIndex < literal.length(); charIndex++ )
+         {
+            final char character = literal.charAt( charIndex );
+
+            if ( charClasses[ character ] == 0 )
+            {
+               charClasses[ character ] = ( char ) classesNb++;
+            }
+         }
+      }
+      return classesNb;
+   }
+
+   /**
+    * Turns the trie into a deterministic automaton, breadth first: a missing
+    * transition follows the one of the longest proper suffix which is in the
+    * trie, and a state outputs the literals of that suffix as well.
+    * 
+    * @param matches literals ending on each state of the trie
+    */
+   private void computeFailures( final List< List< Integer >> matches )
+   {
+      final int[] failures = new int[ transitions.length ];
+      final Queue< Integer > states = new LinkedList< Integer >();
+
+      states.add( ROOT );
+      while ( !states.isEmpty() )
+      {
+         final int state = states.remove();
+
+         for ( int charClass = 0; charClass < transitions[ state ].length; charClass++ )
+         {
+            final int child = transitions[ state ][ charClass ];
+
+            if ( child == ROOT )
+            {
+               transitions[ state ][ charClass ] = transitions[ failures[ state ] ][ charClass ];
+            }
+            else
+            {
+               failures[ child ] = state == ROOT ? ROOT
+                                                : transitions[ failures[ state ] ][ charClass ];
+               matches.get( child ).addAll( matches.get( failures[ child ] ) );
+               states.add( child );
+            }
+         }
+         outputs[ state ] = toArray( matches.get( state ) );
+      }
+   }
+
+   private int[] toArray( final List< Integer > literalIndexes )
+   {
+      if ( literalIndexes.isEmpty() )
+      {
+         return null;
+      }
+      final int[] array = new int[ literalIndexes.size() ];
+
+      for ( int index = 0; index < array.length; index++ )
+      {
+         array[ index ] = literalIndexes.get( index );
+      }
+      return array;
+   }
+}
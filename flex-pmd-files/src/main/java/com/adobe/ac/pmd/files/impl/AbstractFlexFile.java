@@ -32,18 +32,24 @@ package com.adobe.ac.pmd.files.impl;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.lang.ref.SoftReference;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Logger;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.adobe.ac.ncss.utils.FileContent;
 import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.files.LiteralSet;
 import com.adobe.ac.utils.StackTraceUtils;
 
 /**
- * Abstract class representing a Flex File (either MXML or AS)
+ * Abstract class representing a Flex File (either MXML or AS). The content is
+ * read on first access only, and is softly referenced, so that the garbage
+ * collector can drop it under memory pressure. It is then read again on the
+ * next access.
  * 
  * @author xagnetti
  */
@@ -89,10 +95,14 @@ abstract class AbstractFlexFile implements IFlexFile
       return line.contains( search );
    }
 
-   private final String         className;
-   private final File           file;
-   private final List< String > lines;
-   private final String         packageName;
+   private final String                      className;
+   private SoftReference< FileContent >      contentReference;
+   private final File                        file;
+   private SoftReference< IdentifierIndex >  identifierIndexReference;
+   private LiteralSet                        indexedLiterals;
+   private SoftReference< BitSet[] >         literalLinesReference;
+   private final String                      packageName;
+   private SoftReference< SuppressionIndex > suppressionIndexReference;
 
    /**
     * @param underlyingFile
@@ -111,20 +121,6 @@ abstract class AbstractFlexFile implements IFlexFile
                                         rootPath,
                                         className,
                                         System.getProperty( "file.separator" ) );
-      lines = new ArrayList< String >();
-      try
-      {
-         String[] linesArray;
-         linesArray = FileUtils.readLines( underlyingFile );
-         for ( final String string : linesArray )
-         {
-            lines.add( string );
-         }
-      }
-      catch ( final IOException e )
-      {
-         LOGGER.warning( StackTraceUtils.print( e ) );
-      }
    }
 
    /*
@@ -137,7 +133,7 @@ abstract class AbstractFlexFile implements IFlexFile
       int lineIndex = 1;
       boolean found = false;
 
-      for ( final String line : lines )
+      for ( final String line : getLines() )
       {
          if ( doesCurrentLineContain( line,
                                       stringToLookup )
@@ -151,6 +147,20 @@ abstract class AbstractFlexFile implements IFlexFile
       return found;
    }
 
+   /**
+    * The identifiers are indexed on the first call, and the index is softly
+    * referenced, as the content is.
+    * 
+    * @see com.adobe.ac.pmd.files.IFlexFile#containsIdentifier(java.lang.String,
+    *      java.util.Set)
+    */
+   public final boolean containsIdentifier( final String identifier,
+                                            final Set< Integer > linesToBeIgnored )
+   {
+      return getIdentifierIndex().contains( identifier,
+                                            linesToBeIgnored );
+   }
+
    /*
     * (non-Javadoc)
     * @see java.lang.Object#equals(java.lang.Object)
@@ -183,6 +193,24 @@ abstract class AbstractFlexFile implements IFlexFile
     */
    public abstract String getCommentOpeningTag();
 
+   /**
+    * The content is read again if it has been dropped under memory pressure.
+    * 
+    * @see com.adobe.ac.pmd.files.IFlexFile#getContent()
+    */
+   public final synchronized FileContent getContent()
+   {
+      FileContent content = contentReference == null ? null
+                                                     : contentReference.get();
+
+      if ( content == null )
+      {
+         content = readContent();
+         contentReference = new SoftReference< FileContent >( content );
+      }
+      return content;
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.files.IFlexFile#getFilename()
@@ -219,7 +247,7 @@ abstract class AbstractFlexFile implements IFlexFile
     */
    public String getLineAt( final int lineIndex )
    {
-      return lines.get( lineIndex - 1 );
+      return getContent().getLineAt( lineIndex );
    }
 
    /*
@@ -228,7 +256,7 @@ abstract class AbstractFlexFile implements IFlexFile
     */
    public final List< String > getLines()
    {
-      return lines;
+      return getContent().getLines();
    }
 
    /*
@@ -237,7 +265,7 @@ abstract class AbstractFlexFile implements IFlexFile
     */
    public int getLinesNb()
    {
-      return lines.size();
+      return getContent().getLinesNb();
    }
 
    /*
@@ -270,4 +298,87 @@ abstract class AbstractFlexFile implements IFlexFile
     * @see com.adobe.ac.pmd.files.IFlexFile#isMxml()
     */
    public abstract boolean isMxml();
+
+   /**
+    * The markers are scanned on the first call, and the result is softly
+    * referenced, as the content is.
+    * 
+    * @see com.adobe.ac.pmd.files.IFlexFile#isRuleSuppressed(int,
+    *      java.lang.String)
+    */
+   public final boolean isRuleSuppressed( final int lineIndex,
+                                          final String shortRuleName )
+   {
+      return getSuppressionIndex().isRuleSuppressed( lineIndex,
+                                                     shortRuleName );
+   }
+
+   /**
+    * The lines of every literal of the set are found in one pass, and softly
+    * referenced until another set is searched.
+    * 
+    * @see com.adobe.ac.pmd.files.IFlexFile#nextLineContaining(com.adobe.ac.pmd.files.LiteralSet,
+    *      int, int)
+    */
+   public final int nextLineContaining( final LiteralSet literals,
+                                        final int literalIndex,
+                                        final int fromLineIndex )
+   {
+      return getLiteralLines( literals )[ literalIndex ].nextSetBit( fromLineIndex );
+   }
+
+   private synchronized IdentifierIndex getIdentifierIndex()
+   {
+      IdentifierIndex index = identifierIndexReference == null ? null
+                                                              : identifierIndexReference.get();
+
+      if ( index == null )
+      {
+         index = new IdentifierIndex( getContent() );
+         identifierIndexReference = new SoftReference< IdentifierIndex >( index );
+      }
+      return index;
+   }
+
+   private synchronized BitSet[] getLiteralLines( final LiteralSet literals )
+   {
+      BitSet[] lines = literals != indexedLiterals
+            || literalLinesReference == null ? null
+                                            : literalLinesReference.get();
+
+      if ( lines == null )
+      {
+         lines = literals.findLines( getContent() );
+         indexedLiterals = literals;
+         literalLinesReference = new SoftReference< BitSet[] >( lines );
+      }
+      return lines;
+   }
+
+   private synchronized SuppressionIndex getSuppressionIndex()
+   {
+      SuppressionIndex index = suppressionIndexReference == null ? null
+                                                                : suppressionIndexReference.get();
+
+      if ( index == null )
+      {
+         index = new SuppressionIndex( getContent(),
+                                       getSingleLineComment() );
+         suppressionIndexReference = new SoftReference< SuppressionIndex >( index );
+      }
+      return index;
+   }
+
+   private FileContent readContent()
+   {
+      try
+      {
+         return FileContent.read( file );
+      }
+      catch ( final IOException e )
+      {
+         LOGGER.warning( StackTraceUtils.print( e ) );
+      }
+      return FileContent.EMPTY;
+   }
 }
@@ -49,6 +49,9 @@ import com.adobe.ac.pmd.files.IFlexFile;
 public final class FileUtils
 {
    /**
+    * The files are filtered on their qualified name only, so that the excluded
+    * files are never read.
+    * 
     * @param source
     * @param sourceList
     * @param packageToExclude
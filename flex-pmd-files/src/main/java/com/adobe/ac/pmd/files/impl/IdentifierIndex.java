@@ -0,0 +1,132 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.files.impl;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.adobe.ac.ncss.utils.FileContent;
+
+/**
+ * Inverted index of the identifiers of a file, built in one pass over its
+ * buffer. Every whole word made of letters, digits, '_' and '$' is mapped to
+ * the lines where it occurs, so that looking for a name does not scan the
+ * lines again.
+ * 
+ * @author xagnetti
+ */
+final class IdentifierIndex
+{
+   private static boolean isIdentifierCharacter( final char character )
+   {
+      return Character.isLetterOrDigit( character )
+            || character == '_' || character == '$';
+   }
+
+   private final Map< String, BitSet > linesByIdentifier;
+
+   /**
+    * @param content
+    */
+   IdentifierIndex( final FileContent content )
+   {
+      final char[] buffer = content.getBuffer();
+      final int[] lineOffsets = content.getLineOffsets();
+
+      linesByIdentifier = new HashMap< String, BitSet >();
+      for ( int lineIndex = 1; lineIndex < lineOffsets.length; lineIndex++ )
+      {
+         final int lineEnd = lineOffsets[ lineIndex ] - 1;
+         int position = lineOffsets[ lineIndex - 1 ];
+
+         while ( position < lineEnd )
+         {
+            final int start = position;
+
+            while ( position < lineEnd
+                  && isIdentifierCharacter( buffer[ position ] ) )
+            {
+               position++;
+            }
+            if ( position > start )
+            {
+               addOccurrence( new String( buffer, start, position
+                     - start ),
+                              lineIndex );
+            }
+            else
+            {
+               position++;
+            }
+         }
+      }
+   }
+
+   /**
+    * @param identifier
+    * @param linesToBeIgnored
+    * @return true if the identifier occurs as a whole word on a line, starting
+    *         at 1, which is not to be ignored
+    */
+   boolean contains( final String identifier,
+                     final Set< Integer > linesToBeIgnored )
+   {
+      final BitSet lines = linesByIdentifier.get( identifier );
+
+      if ( lines != null )
+      {
+         for ( int lineIndex = lines.nextSetBit( 0 ); lineIndex >= 0; lineIndex = lines.nextSetBit( lineIndex + 1 ) )
+         {
+            if ( !linesToBeIgnored.contains( lineIndex ) )
+            {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   private void addOccurrence( final String identifier,
+                               final int lineIndex )
+   {
+      BitSet lines = linesByIdentifier.get( identifier );
+
+      if ( lines == null )
+      {
+         lines = new BitSet();
+         linesByIdentifier.put( identifier,
+                                lines );
+      }
+      lines.set( lineIndex );
+   }
+}
@@ -30,10 +30,24 @@
  */
 package com.adobe.ac.pmd.files.impl;
 
+import java.io.CharArrayReader;
 import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import com.adobe.ac.ncss.utils.FileContent;
 import com.adobe.ac.pmd.files.IMxmlFile;
 
 /**
@@ -41,12 +55,82 @@ import com.adobe.ac.pmd.files.IMxmlFile;
  */
 class MxmlFile extends AbstractFlexFile implements IMxmlFile
 {
-   private static final String METADATA_TAG    = "Metadata";
-   private String[]            actualScriptBlock;
-   private int                 endLine;
-   private boolean             mainApplication = false;
-   private String[]            scriptBlock;
-   private int                 startLine;
+   /**
+    * Script block extracted from the file content, and dropped together with
+    * it.
+    */
+   private static final class ScriptBlock
+   {
+      private String[] actualScriptBlock;
+      private int      endLine;
+      private String[] scriptBlock;
+      private int      startLine;
+   }
+
+   /**
+    * Document builders are not thread-safe, but can parse several documents
+    * in sequence.
+    */
+   private static final ThreadLocal< DocumentBuilder > DOCUMENT_BUILDER      = new ThreadLocal< DocumentBuilder >();
+   private static final Pattern                        ENCODING_DECLARATION  = Pattern.compile( "<\\?xml[^>]*encoding\\s*=\\s*[\"']([^\"']*)[\"']" );
+   private static final String                         METADATA_TAG          = "Metadata";
+   /**
+    * Character the UTF-8 decoder puts in place of the malformed bytes.
+    */
+   private static final char                           REPLACEMENT_CHARACTER = '\uFFFD';
+
+   private static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException
+   {
+      DocumentBuilder builder = DOCUMENT_BUILDER.get();
+
+      if ( builder == null )
+      {
+         final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+         factory.setNamespaceAware( true );
+         builder = factory.newDocumentBuilder();
+         DOCUMENT_BUILDER.set( builder );
+      }
+      return builder;
+   }
+
+   /**
+    * The content has been decoded as UTF-8, so it can only stand for the file
+    * if the prolog declares no other encoding, and if no malformed byte has
+    * been replaced while decoding.
+    * 
+    * @param content
+    * @param length number of characters of the content
+    * @return
+    */
+   private static boolean isDecodedAsDeclared( final FileContent content,
+                                               final int length )
+   {
+      if ( content.getLinesNb() > 0 )
+      {
+         final Matcher matcher = ENCODING_DECLARATION.matcher( content.getLineAt( 1 ) );
+
+         if ( matcher.lookingAt()
+               && !"UTF-8".equalsIgnoreCase( matcher.group( 1 ) ) && !"UTF8".equalsIgnoreCase( matcher.group( 1 ) ) )
+         {
+            return false;
+         }
+      }
+      final char[] buffer = content.getBuffer();
+
+      for ( int index = 0; index < length; index++ )
+      {
+         if ( buffer[ index ] == REPLACEMENT_CHARACTER )
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private SoftReference< Document >    documentReference;
+   private Boolean                      mainApplication;
+   private SoftReference< ScriptBlock > scriptBlockReference;
 
    /**
     * @param file
@@ -56,12 +140,6 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
                        final File rootDirectory )
    {
       super( file, rootDirectory );
-
-      computeIfIsMainApplication();
-      if ( getLinesNb() > 0 )
-      {
-         extractScriptBlock();
-      }
    }
 
    /*
@@ -70,7 +148,7 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
     */
    public final String[] getActualScriptBlock()
    {
-      return actualScriptBlock; // NOPMD
+      return getScriptBlockContent().actualScriptBlock; // NOPMD
    }
 
    /*
@@ -79,7 +157,7 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
     */
    public int getBeginningScriptBlock()
    {
-      return startLine;
+      return getScriptBlockContent().startLine;
    }
 
    /*
@@ -102,13 +180,32 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
       return "<!--";
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.files.IMxmlFile#getDocument()
+    */
+   public final synchronized Document getDocument() throws ParserConfigurationException,
+                                                   SAXException,
+                                                   IOException
+   {
+      Document document = documentReference == null ? null
+                                                    : documentReference.get();
+
+      if ( document == null )
+      {
+         document = parseDocument();
+         documentReference = new SoftReference< Document >( document );
+      }
+      return document;
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.files.IMxmlFile#getEndingScriptBlock()
     */
    public int getEndingScriptBlock()
    {
-      return endLine;
+      return getScriptBlockContent().endLine;
    }
 
    /*
@@ -117,7 +214,7 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
     */
    public final String[] getScriptBlock()
    {
-      return scriptBlock; // NOPMD by xagnetti on 7/7/09 3:15 PM
+      return getScriptBlockContent().scriptBlock; // NOPMD by xagnetti on 7/7/09 3:15 PM
    }
 
    /*
@@ -134,8 +231,12 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
     * @see com.adobe.ac.pmd.files.impl.AbstractFlexFile#isMainApplication()
     */
    @Override
-   public final boolean isMainApplication()
+   public final synchronized boolean isMainApplication()
    {
+      if ( mainApplication == null )
+      {
+         mainApplication = computeIfIsMainApplication();
+      }
       return mainApplication;
    }
 
@@ -149,17 +250,17 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
       return true;
    }
 
-   private void computeIfIsMainApplication()
+   private boolean computeIfIsMainApplication()
    {
       for ( final String line : getLines() )
       {
          if ( line.contains( "Application " )
                && line.charAt( 0 ) == '<' )
          {
-            mainApplication = true;
-            break;
+            return true;
          }
       }
+      return false;
    }
 
    private int computeScriptOffSet( final int startingLineIndex )
@@ -185,9 +286,9 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
             || closeMxmlComment;
    }
 
-   private void copyScriptLinesKeepingOriginalLineIndices()
+   private void copyScriptLinesKeepingOriginalLineIndices( final ScriptBlock block )
    {
-      final List< String > scriptLines = extractScriptLines();
+      final List< String > scriptLines = extractScriptLines( block );
       final List< String > metaDataLines = extractMetaDataLines();
       final String packageLine = "package "
             + getPackageName() + "{";
@@ -224,7 +325,7 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
 
       scriptLines.set( scriptLines.size() - 1,
                        "}}" );
-      scriptBlock = scriptLines.toArray( new String[ scriptLines.size() ] );
+      block.scriptBlock = scriptLines.toArray( new String[ scriptLines.size() ] );
    }
 
    private List< String > extractMetaDataLines()
@@ -264,11 +365,10 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
       return metaDataLines;
    }
 
-   private void extractScriptBlock()
+   private ScriptBlock extractScriptBlock()
    {
+      final ScriptBlock block = new ScriptBlock();
       int currentLineIndex = 0;
-      startLine = 0;
-      endLine = 0;
 
       for ( final String line : getLines() )
       {
@@ -276,26 +376,29 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
          {
             if ( line.contains( "</" ) )
             {
-               endLine = currentLineIndex
+               block.endLine = currentLineIndex
                      - ( getLines().get( currentLineIndex - 1 ).contains( "]]>" ) ? 1
                                                                                  : 0 );
                break;
             }
             else if ( line.contains( "<" ) )
             {
-               startLine = currentLineIndex
+               block.startLine = currentLineIndex
                      + computeScriptOffSet( currentLineIndex );
             }
          }
          currentLineIndex++;
       }
 
-      copyScriptLinesKeepingOriginalLineIndices();
+      copyScriptLinesKeepingOriginalLineIndices( block );
+      return block;
    }
 
-   private List< String > extractScriptLines()
+   private List< String > extractScriptLines( final ScriptBlock block )
    {
       final List< String > scriptLines = new ArrayList< String >();
+      final int startLine = block.startLine;
+      final int endLine = block.endLine;
 
       for ( int j = 0; j < startLine; j++ )
       {
@@ -303,8 +406,8 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
       }
       if ( startLine < endLine )
       {
-         actualScriptBlock = getLines().subList( startLine,
-                                                 endLine ).toArray( new String[ endLine
+         block.actualScriptBlock = getLines().subList( startLine,
+                                                       endLine ).toArray( new String[ endLine
                - startLine ] );
          scriptLines.addAll( new ArrayList< String >( getLines().subList( startLine,
                                                                           endLine ) ) );
@@ -316,6 +419,24 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
       return scriptLines;
    }
 
+   /**
+    * Extracts the script block on first access, and again once it has been
+    * dropped under memory pressure.
+    */
+   private synchronized ScriptBlock getScriptBlockContent()
+   {
+      ScriptBlock block = scriptBlockReference == null ? null
+                                                      : scriptBlockReference.get();
+
+      if ( block == null )
+      {
+         block = getLines().isEmpty() ? new ScriptBlock()
+                                     : extractScriptBlock();
+         scriptBlockReference = new SoftReference< ScriptBlock >( block );
+      }
+      return block;
+   }
+
    private int getFirstMetaDataLine( final List< String > lines )
    {
       for ( int i = 0; i < lines.size(); i++ )
@@ -345,4 +466,30 @@ class MxmlFile extends AbstractFlexFile implements IMxmlFile
    // }
    // return buffer + " ";
    // }
+
+   /**
+    * Parses the content already read by the file, instead of reading the file
+    * again. A file which is not faithfully decoded as UTF-8 is parsed from its
+    * bytes, so that the XML parser honors the encoding of its prolog.
+    */
+   private Document parseDocument() throws ParserConfigurationException,
+                                   SAXException,
+                                   IOException
+   {
+      final FileContent content = getContent();
+      final int[] lineOffsets = content.getLineOffsets();
+      final int length = Math.max( 0,
+                                   lineOffsets[ lineOffsets.length - 1 ] - 1 );
+      final File file = new File( getFilePath() );
+
+      if ( !isDecodedAsDeclared( content,
+                                 length ) )
+      {
+         return getDocumentBuilder().parse( file );
+      }
+      final InputSource source = new InputSource( new CharArrayReader( content.getBuffer(), 0, length ) );
+
+      source.setSystemId( file.toURI().toString() );
+      return getDocumentBuilder().parse( source );
+   }
 }
@@ -0,0 +1,228 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.files.impl;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.adobe.ac.ncss.utils.FileContent;
+
+/**
+ * NO PMD markers of a file, scanned once. A line ending with a marker
+ * suppresses every rule, otherwise the line suppresses the rules whose names
+ * are contained in the text following its marker. Only the lines containing
+ * "PMD" are split into Strings.
+ * 
+ * @author xagnetti
+ */
+public final class SuppressionIndex
+{
+   private static final String[] COMMENT_TOKENS = { "<!--", "//" };
+   private static final String   MARKER_KEYWORD = "PMD";
+   private static final String[] MARKERS        = { " No PMD", " NO PMD", " NOPMD", "NOPMD" };
+
+   /**
+    * @param ruleName qualified or simple name of a rule, with or without its
+    *           "Rule" suffix
+    * @return the name by which the rule is referred to after a marker
+    */
+   public static String computeShortRuleName( final String ruleName )
+   {
+      final String name = ruleName.replace( "Rule",
+                                            "" );
+
+      return name.contains( "." ) ? StringUtils.substringAfterLast( name,
+                                                                    "." )
+                                 : name;
+   }
+
+   /**
+    * @param line
+    * @param commentToken the single line comment token of the file
+    * @param shortRuleName as computed by computeShortRuleName
+    * @return true if the line suppresses the given rule
+    */
+   public static boolean isRuleSuppressed( final String line,
+                                           final String commentToken,
+                                           final String shortRuleName )
+   {
+      if ( !containsMarker( line ) )
+      {
+         return false;
+      }
+      final String strippedLine = computeStrippedLine( line,
+                                                       commentToken );
+
+      return endsWithMarker( strippedLine )
+            || strippedLine.contains( shortRuleName );
+   }
+
+   private static String computeStrippedLine( final String line,
+                                              final String commentToken )
+   {
+      int markerIndex = line.indexOf( commentToken
+            + " N" );
+
+      if ( markerIndex <= 0 )
+      {
+         markerIndex = line.indexOf( commentToken
+               + "N" );
+      }
+      return markerIndex > 0 ? StringUtils.strip( line.substring( markerIndex ) )
+                            : line;
+   }
+
+   private static boolean containsMarker( final String line )
+   {
+      for ( final String commentToken : COMMENT_TOKENS )
+      {
+         for ( final String marker : MARKERS )
+         {
+            if ( line.contains( commentToken
+                  + marker ) )
+            {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   private static boolean endsWithMarker( final String strippedLine )
+   {
+      for ( final String commentToken : COMMENT_TOKENS )
+      {
+         for ( final String marker : MARKERS )
+         {
+            if ( strippedLine.endsWith( commentToken
+                  + marker ) )
+            {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   private static boolean lineContainsKeyword( final char[] buffer,
+                                               final int lineStart,
+                                               final int lineEnd )
+   {
+      final int keywordLength = MARKER_KEYWORD.length();
+
+      for ( int start = lineStart; start
+            + keywordLength <= lineEnd; start++ )
+      {
+         int matchedLength = 0;
+
+         while ( matchedLength < keywordLength
+               && buffer[ start + matchedLength ] == MARKER_KEYWORD.charAt( matchedLength ) )
+         {
+            matchedLength++;
+         }
+         if ( matchedLength == keywordLength )
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private final BitSet                 linesSuppressingAllRules;
+   private final Map< Integer, String > strippedLinesByIndex;
+
+   /**
+    * @param content
+    * @param commentToken the single line comment token of the file
+    */
+   SuppressionIndex( final FileContent content,
+                     final String commentToken )
+   {
+      final char[] buffer = content.getBuffer();
+      final int[] lineOffsets = content.getLineOffsets();
+
+      linesSuppressingAllRules = new BitSet();
+      strippedLinesByIndex = new HashMap< Integer, String >();
+      for ( int lineIndex = 1; lineIndex < lineOffsets.length; lineIndex++ )
+      {
+         if ( lineContainsKeyword( buffer,
+                                   lineOffsets[ lineIndex - 1 ],
+                                   lineOffsets[ lineIndex ] - 1 ) )
+         {
+            addLine( content.getLineAt( lineIndex ),
+                     lineIndex,
+                     commentToken );
+         }
+      }
+   }
+
+   /**
+    * @param lineIndex starting at 1
+    * @param shortRuleName as computed by computeShortRuleName
+    * @return true if the given line suppresses the given rule
+    */
+   boolean isRuleSuppressed( final int lineIndex,
+                             final String shortRuleName )
+   {
+      if ( linesSuppressingAllRules.get( lineIndex ) )
+      {
+         return true;
+      }
+      final String strippedLine = strippedLinesByIndex.get( lineIndex );
+
+      return strippedLine != null
+            && strippedLine.contains( shortRuleName );
+   }
+
+   private void addLine( final String line,
+                         final int lineIndex,
+                         final String commentToken )
+   {
+      if ( containsMarker( line ) )
+      {
+         final String strippedLine = computeStrippedLine( line,
+                                                          commentToken );
+
+         if ( endsWithMarker( strippedLine ) )
+         {
+            linesSuppressingAllRules.set( lineIndex );
+         }
+         else
+         {
+            strippedLinesByIndex.put( lineIndex,
+                                      strippedLine );
+         }
+      }
+   }
+}
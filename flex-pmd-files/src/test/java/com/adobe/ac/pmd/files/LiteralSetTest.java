@@ -0,0 +1,121 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.files;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.adobe.ac.ncss.utils.FileContent;
+import com.adobe.ac.pmd.FlexPmdTestBase;
+
+public class LiteralSetTest extends FlexPmdTestBase
+{
+   private static final List< String > LITERALS = Arrays.asList( "Alert.show",
+                                                                 "function",
+                                                                 "unction",
+                                                                 "on",
+                                                                 "private var",
+                                                                 "var",
+                                                                 "==",
+                                                                 "=",
+                                                                 "<mx:",
+                                                                 "\t" );
+
+   @Test
+   public void testFindLines()
+   {
+      final LiteralSet literals = new LiteralSet( LITERALS );
+
+      for ( final IFlexFile file : getTestFiles().values() )
+      {
+         final FileContent content = file.getContent();
+         final BitSet[] lines = literals.findLines( content );
+
+         for ( int literalIndex = 0; literalIndex < LITERALS.size(); literalIndex++ )
+         {
+            final BitSet expectedLines = new BitSet();
+
+            for ( int lineIndex = 1; lineIndex <= content.getLinesNb(); lineIndex++ )
+            {
+               if ( content.getLineAt( lineIndex ).contains( LITERALS.get( literalIndex ) ) )
+               {
+                  expectedLines.set( lineIndex );
+               }
+            }
+            assertEquals( file.getFilename()
+                                + " / " + LITERALS.get( literalIndex ),
+                          expectedLines,
+                          lines[ literalIndex ] );
+         }
+      }
+   }
+
+   @Test
+   public void testIndexOf()
+   {
+      final LiteralSet literals = new LiteralSet( LITERALS );
+
+      assertEquals( 2,
+                    literals.indexOf( "unction" ) );
+      assertEquals( -1,
+                    literals.indexOf( "Alert" ) );
+   }
+
+   @Test
+   public void testNextLineContaining()
+   {
+      final LiteralSet literals = new LiteralSet( LITERALS );
+      final IFlexFile file = getTestFiles().get( "AbstractRowData.as" );
+      final int literalIndex = literals.indexOf( "function" );
+      int lineIndex = file.nextLineContaining( literals,
+                                               literalIndex,
+                                               1 );
+
+      for ( int expectedLineIndex = 1; expectedLineIndex <= file.getLinesNb(); expectedLineIndex++ )
+      {
+         if ( file.getLineAt( expectedLineIndex ).contains( "function" ) )
+         {
+            assertEquals( expectedLineIndex,
+                          lineIndex );
+            lineIndex = file.nextLineContaining( literals,
+                                                 literalIndex,
+                                                 lineIndex + 1 );
+         }
+      }
+      assertEquals( -1,
+                    lineIndex );
+   }
+}
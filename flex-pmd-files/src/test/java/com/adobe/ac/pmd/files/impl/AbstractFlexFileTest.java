@@ -35,7 +35,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.util.HashSet;
 import java.util.Set;
@@ -45,6 +49,7 @@ import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.adobe.ac.ncss.utils.FileContent;
 import com.adobe.ac.pmd.FlexPmdTestBase;
 import com.adobe.ac.pmd.files.IAs3File;
 import com.adobe.ac.pmd.files.IMxmlFile;
@@ -64,6 +69,15 @@ public class AbstractFlexFileTest extends FlexPmdTestBase
       mxml = ( IMxmlFile ) getTestFiles().get( "com.adobe.ac.ncss.mxml.IterationsList.mxml" );
    }
 
+   @Test
+   public void testComputeShortRuleName()
+   {
+      assertEquals( "AlertShow",
+                    SuppressionIndex.computeShortRuleName( "com.adobe.ac.pmd.rules.maintanability.AlertShowRule" ) );
+      assertEquals( "AlertShow",
+                    SuppressionIndex.computeShortRuleName( "AlertShow" ) );
+   }
+
    @Test
    public void testContains()
    {
@@ -76,6 +90,20 @@ public class AbstractFlexFileTest extends FlexPmdTestBase
                                                      114 ) ) );
    }
 
+   @Test
+   public void testContainsIdentifier()
+   {
+      assertTrue( as3.containsIdentifier( "logger",
+                                          buildSetContaining( 0 ) ) );
+      assertTrue( as3.contains( "logge",
+                                buildSetContaining( 0 ) ) );
+      assertFalse( as3.containsIdentifier( "logge",
+                                           buildSetContaining( 0 ) ) );
+      assertFalse( as3.containsIdentifier( "addEventListener",
+                                           buildSetContaining( 109,
+                                                               114 ) ) );
+   }
+
    @Test
    public void testEquals()
    {
@@ -157,6 +185,80 @@ public class AbstractFlexFileTest extends FlexPmdTestBase
       assertTrue( mxml.isMxml() );
    }
 
+   @Test
+   public void testIsRuleSuppressed()
+   {
+      assertTrue( mxml.isRuleSuppressed( 84,
+                                         "UseObjectType" ) );
+      assertFalse( mxml.isRuleSuppressed( 84,
+                                          "AlertShow" ) );
+      assertTrue( mxml.isRuleSuppressed( 86,
+                                         "AlertShow" ) );
+      assertFalse( mxml.isRuleSuppressed( 85,
+                                          "UseObjectType" ) );
+      assertFalse( as3.isRuleSuppressed( 1,
+                                         "AlertShow" ) );
+   }
+
+   @Test
+   public void testIsRuleSuppressedByContainedRuleName() throws IOException
+   {
+      final String[] lines = { "var a : Object; // NOPMD AlertShowRule",
+                  "var b : Object; // NOPMD TooLongFunctionName",
+                  "var c : Object; // NOPMD UseObjectType,AlertShow",
+                  "var d : Object; // NOPMD no UseObjectTypes here",
+                  "var e : Object; // NOPMD AlertShow" };
+      final File file = File.createTempFile( "Suppressed",
+                                             ".as" );
+      final OutputStream stream = new FileOutputStream( file );
+
+      try
+      {
+         for ( final String line : lines )
+         {
+            stream.write( ( line + "\n" ).getBytes( "UTF-8" ) );
+         }
+      }
+      finally
+      {
+         stream.close();
+      }
+      try
+      {
+         final SuppressionIndex index = new SuppressionIndex( FileContent.read( file ),
+                                                              "//" );
+
+         for ( final String shortRuleName : new String[]
+         { "AlertShow",
+                     "TooLongFunction",
+                     "UseObjectType" } )
+         {
+            for ( int lineIndex = 1; lineIndex <= lines.length; lineIndex++ )
+            {
+               assertEquals( lines[ lineIndex - 1 ]
+                                   + " / " + shortRuleName,
+                             lines[ lineIndex - 1 ].contains( shortRuleName ),
+                             index.isRuleSuppressed( lineIndex,
+                                                     shortRuleName ) );
+               assertEquals( lines[ lineIndex - 1 ].contains( shortRuleName ),
+                             SuppressionIndex.isRuleSuppressed( lines[ lineIndex - 1 ],
+                                                                "//",
+                                                                shortRuleName ) );
+            }
+         }
+         assertTrue( index.isRuleSuppressed( 2,
+                                             "TooLongFunction" ) );
+         assertTrue( index.isRuleSuppressed( 4,
+                                             "UseObjectType" ) );
+         assertFalse( index.isRuleSuppressed( 5,
+                                              "UseObjectType" ) );
+      }
+      finally
+      {
+         assertTrue( file.delete() );
+      }
+   }
+
    private Set< Integer > buildSetContaining( final int... lines )
    {
 
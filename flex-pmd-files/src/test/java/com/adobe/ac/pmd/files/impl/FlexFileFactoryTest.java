@@ -30,9 +30,12 @@
  */
 package com.adobe.ac.pmd.files.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 
 import org.junit.Test;
 
@@ -58,6 +61,31 @@ public class FlexFileFactoryTest extends FlexPmdTestBase
                           new File( "" ) ) instanceof IMxmlFile );
    }
 
+   @Test
+   public void testCreateDoesNotReadTheFile() throws IOException
+   {
+      final File sourceFile = File.createTempFile( "Lazy",
+                                                   ".as" );
+
+      sourceFile.deleteOnExit();
+      final IFlexFile file = create( sourceFile,
+                                     sourceFile.getParentFile() );
+      final FileWriter writer = new FileWriter( sourceFile );
+
+      try
+      {
+         writer.write( "package\n{\n}\n" );
+      }
+      finally
+      {
+         writer.close();
+      }
+      assertEquals( 3,
+                    file.getLinesNb() );
+      assertEquals( "{",
+                    file.getLineAt( 2 ) );
+   }
+
    private IFlexFile create( final File sourceFile,
                              final File sourceDirectory )
    {
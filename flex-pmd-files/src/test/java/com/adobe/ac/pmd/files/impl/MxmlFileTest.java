@@ -31,9 +31,20 @@
 package com.adobe.ac.pmd.files.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.xml.parsers.ParserConfigurationException;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
 
 import com.adobe.ac.pmd.FlexPmdTestBase;
 import com.adobe.ac.pmd.files.IMxmlFile;
@@ -55,6 +66,50 @@ public class MxmlFileTest extends FlexPmdTestBase
                     Integer.valueOf( data.getActualScriptBlock().length ) );
    }
 
+   @Test
+   public void testGetDocument() throws ParserConfigurationException,
+                                SAXException,
+                                IOException
+   {
+      final Document document = data.getDocument();
+
+      assertEquals( 2,
+                    document.getElementsByTagNameNS( "http://www.adobe.com/2006/mxml",
+                                                     "Script" ).getLength() );
+      assertSame( document,
+                  data.getDocument() );
+   }
+
+   @Test
+   public void testGetDocumentWithDeclaredEncoding() throws ParserConfigurationException,
+                                                    SAXException,
+                                                    IOException
+   {
+      final File file = File.createTempFile( "Latin1",
+                                             ".mxml" );
+      final OutputStream stream = new FileOutputStream( file );
+
+      try
+      {
+         stream.write( "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<mx:Application xmlns:mx=\"http://www.adobe.com/2006/mxml\" label=\"caf\u00e9\"/>".getBytes( "ISO-8859-1" ) );
+      }
+      finally
+      {
+         stream.close();
+      }
+      try
+      {
+         assertEquals( "caf\u00e9",
+                       new MxmlFile( file, file.getParentFile() ).getDocument()
+                                                                 .getDocumentElement()
+                                                                 .getAttribute( "label" ) );
+      }
+      finally
+      {
+         assertTrue( file.delete() );
+      }
+   }
+
    @Test
    public void testGetSingleLineComment()
    {
@@ -66,6 +66,7 @@ import com.adobe.ac.pmd.LoggerUtils;
 import com.adobe.ac.pmd.engines.AbstractFlexPmdEngine;
 import com.adobe.ac.pmd.engines.FlexPmdXmlEngine;
 import com.adobe.ac.pmd.engines.PmdEngineUtils;
+import com.adobe.ac.pmd.files.FileSetUtils;
 
 abstract class AbstractFlexPmdMojo extends AbstractMavenReport
 {
@@ -80,6 +81,22 @@ abstract class AbstractFlexPmdMojo extends AbstractMavenReport
                                        FlexPmdReportMojo.class.getClassLoader() ); // NOPMD
    }
 
+   /**
+    * Folder where the ASTs of the parsed files are kept between two builds,
+    * and shared with FlexMetrics. The cache is disabled if not set.
+    * 
+    * @parameter expression="${flexpmd.astCacheDirectory}"
+    */
+   private File         astCacheDirectory;
+
+   /**
+    * File where the violations of the unchanged files are kept between two
+    * builds. The cache is disabled if not set.
+    * 
+    * @parameter expression="${flexpmd.cacheFile}"
+    */
+   private File         cacheFile;
+
    /**
     * Location of the file.
     * 
@@ -109,6 +126,14 @@ abstract class AbstractFlexPmdMojo extends AbstractMavenReport
     */
    private File         outputDirectory;
 
+   /**
+    * Parsing budget of a single file, in seconds. The AST rules are skipped on
+    * the files taking longer, which are listed in the report.
+    * 
+    * @parameter expression="${flexpmd.parseTimeout}"
+    */
+   private int          parseTimeout;
+
    /**
     * @parameter expression="${project}"
     * @required
@@ -150,6 +175,7 @@ abstract class AbstractFlexPmdMojo extends AbstractMavenReport
    {
       super();
       excludePackage = "";
+      parseTimeout = FileSetUtils.DEFAULT_PARSING_TIMEOUT;
    }
 
    public AbstractFlexPmdMojo( final MavenProject projectToBeSet,
@@ -164,6 +190,9 @@ abstract class AbstractFlexPmdMojo extends AbstractMavenReport
       failOnError = parameters.isFailOnError();
       failOnRuleViolation = parameters.isFailOnRuleViolation();
       excludePackage = parameters.getExcludePackage();
+      parseTimeout = parameters.getParseTimeout();
+      cacheFile = parameters.getCacheFile();
+      astCacheDirectory = parameters.getAstCacheDirectory();
    }
 
    public final String getDescription( final Locale locale )
@@ -194,14 +223,26 @@ abstract class AbstractFlexPmdMojo extends AbstractMavenReport
             + sourceDirectory );
       getLog().info( "   ruleSetURL      "
             + url );
+      getLog().info( "   parseTimeout    "
+            + parseTimeout );
+      getLog().info( "   cacheFile       "
+            + cacheFile );
+      getLog().info( "   astCacheDir     "
+            + astCacheDirectory );
       try
       {
-         final AbstractFlexPmdEngine engine = new FlexPmdXmlEngine( new FlexPmdParameters( excludePackage,
-                                                                                           failOnError,
-                                                                                           failOnRuleViolation,
-                                                                                           outputDirectory,
-                                                                                           getRuleSet(),
-                                                                                           sourceDirectory ) );
+         final FlexPmdParameters parameters = new FlexPmdParameters( excludePackage,
+                                                                     failOnError,
+                                                                     failOnRuleViolation,
+                                                                     outputDirectory,
+                                                                     getRuleSet(),
+                                                                     sourceDirectory );
+
+         parameters.setParseTimeout( parseTimeout );
+         parameters.setCacheFile( cacheFile );
+         parameters.setAstCacheDirectory( astCacheDirectory );
+
+         final AbstractFlexPmdEngine engine = new FlexPmdXmlEngine( parameters );
          final FlexPmdViolations violations = new FlexPmdViolations();
          engine.executeReport( violations );
 
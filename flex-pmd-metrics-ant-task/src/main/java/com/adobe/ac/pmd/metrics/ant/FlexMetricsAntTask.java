@@ -42,6 +42,8 @@ import com.adobe.ac.pmd.metrics.engine.FlexMetrics;
 
 public class FlexMetricsAntTask extends Task
 {
+   private File   astCacheDirectory;
+
    private double mxmlFactor;
 
    private File   outputFile;
@@ -56,7 +58,7 @@ public class FlexMetricsAntTask extends Task
 
       try
       {
-         new FlexMetrics( sourceDirectory, mxmlFactor ).execute( outputFile );
+         new FlexMetrics( sourceDirectory, mxmlFactor, astCacheDirectory ).execute( outputFile );
       }
       catch ( final DocumentException e )
       {
@@ -68,6 +70,11 @@ public class FlexMetricsAntTask extends Task
       }
    }
 
+   public final void setAstCacheDirectory( final File astCacheDirectoryToBeSet )
+   {
+      astCacheDirectory = astCacheDirectoryToBeSet;
+   }
+
    public void setMxmlFactor( final double mxmlFactorToBeSet )
    {
       this.mxmlFactor = mxmlFactorToBeSet;
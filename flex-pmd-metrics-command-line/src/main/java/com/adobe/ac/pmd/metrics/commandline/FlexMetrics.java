@@ -103,6 +103,7 @@ public final class FlexMetrics
       {
          final File sourceDirectory = new File( getParameterValue( CommandLineOptions.SOURCE_DIRECTORY ) );
          final File outputDirectory = new File( getParameterValue( CommandLineOptions.OUTPUT ) );
+         final String astCacheDirectory = getParameterValue( CommandLineOptions.AST_CACHE_DIRECTORY );
          double mxmlFactor = 0;
          try
          {
@@ -112,7 +113,10 @@ public final class FlexMetrics
          {
          }
 
-         new com.adobe.ac.pmd.metrics.engine.FlexMetrics( sourceDirectory, mxmlFactor ).execute( outputDirectory );
+         new com.adobe.ac.pmd.metrics.engine.FlexMetrics( sourceDirectory,
+                                                          mxmlFactor,
+                                                          astCacheDirectory == null ? null
+                                                                                   : new File( astCacheDirectory ) ).execute( outputDirectory );
       }
 
       return config.success();
@@ -130,6 +134,9 @@ public final class FlexMetrics
       CommandLineUtils.registerParameter( jsap,
                                           CommandLineOptions.OUTPUT,
                                           true );
+      CommandLineUtils.registerParameter( jsap,
+                                          CommandLineOptions.AST_CACHE_DIRECTORY,
+                                          false );
 
       return jsap.parse( args );
    }
@@ -64,6 +64,14 @@ public final class FlexMetricsReportMojo extends AbstractMavenReport
       return ResourceBundle.getBundle( "flexMetrics" ); // NOPMD
    }
 
+   /**
+    * Folder where the ASTs of the parsed files are kept between two builds,
+    * and shared with FlexPMD. The cache is disabled if not set.
+    * 
+    * @parameter expression="${flexpmd.astCacheDirectory}"
+    */
+   private File                 astCacheDirectory;
+
    /**
     * Specifies the maximum number of lines to take into account into the
     * reports.
@@ -359,7 +367,7 @@ public final class FlexMetricsReportMojo extends AbstractMavenReport
                + buildOutputFile() );
       }
       // run javaNCss and produce an temp xml file
-      new NcssExecuter( sourceDirectory, buildOutputFile(), mxmlFactor ).execute();
+      new NcssExecuter( sourceDirectory, buildOutputFile(), mxmlFactor, astCacheDirectory ).execute();
       if ( !isTempReportGenerated() )
       {
          throw new MavenReportException( "Can't process temp ncss xml file." );
@@ -56,6 +56,7 @@ import com.adobe.ac.pmd.metrics.engine.FlexMetrics;
 
 public final class NcssExecuter
 {
+   private final File   astCacheDirectory;
    private final double mxmlFactor;
    private final File   outputDirectory;
    private final File   sourceLocation;
@@ -63,16 +64,25 @@ public final class NcssExecuter
    public NcssExecuter( final File sourceLocationToBeSet,
                         final File outputDirectoryToBeSet,
                         final double mxmlFactorToBeSet )
+   {
+      this( sourceLocationToBeSet, outputDirectoryToBeSet, mxmlFactorToBeSet, null );
+   }
+
+   public NcssExecuter( final File sourceLocationToBeSet,
+                        final File outputDirectoryToBeSet,
+                        final double mxmlFactorToBeSet,
+                        final File astCacheDirectoryToBeSet )
    {
       sourceLocation = sourceLocationToBeSet;
       outputDirectory = outputDirectoryToBeSet;
       mxmlFactor = mxmlFactorToBeSet;
+      astCacheDirectory = astCacheDirectoryToBeSet;
    }
 
    public void execute() throws MavenReportException,
                         DocumentException,
                         IOException
    {
-      new FlexMetrics( sourceLocation, mxmlFactor ).execute( outputDirectory );
+      new FlexMetrics( sourceLocation, mxmlFactor, astCacheDirectory ).execute( outputDirectory );
    }
 }
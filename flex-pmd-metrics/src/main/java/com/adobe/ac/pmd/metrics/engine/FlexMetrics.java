@@ -31,6 +31,7 @@
 package com.adobe.ac.pmd.metrics.engine;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -40,6 +41,7 @@ import net.sourceforge.pmd.PMDException;
 
 import com.adobe.ac.ncss.filters.FlexFilter;
 import com.adobe.ac.ncss.utils.FileUtils;
+import com.adobe.ac.pmd.files.AstCache;
 import com.adobe.ac.pmd.files.FileSetUtils;
 import com.adobe.ac.pmd.files.IFlexFile;
 import com.adobe.ac.pmd.metrics.AverageClassMetrics;
@@ -63,10 +65,24 @@ public final class FlexMetrics extends AbstractMetrics
 
    public FlexMetrics( final File sourceDirectoryPath,
                        final double mxmlFactorToBeSet )
+   {
+      this( sourceDirectoryPath, mxmlFactorToBeSet, null );
+   }
+
+   /**
+    * @param sourceDirectoryPath
+    * @param mxmlFactorToBeSet
+    * @param astCacheDirectory folder where the ASTs of the parsed files are
+    *           kept between two runs, and shared with FlexPMD. null to disable
+    *           the cache
+    */
+   public FlexMetrics( final File sourceDirectoryPath,
+                       final double mxmlFactorToBeSet,
+                       final File astCacheDirectory )
    {
       super( sourceDirectoryPath );
 
-      asts = initAst();
+      asts = initAst( astCacheDirectory );
       mxmlFactor = mxmlFactorToBeSet;
    }
 
@@ -134,7 +150,7 @@ public final class FlexMetrics extends AbstractMetrics
       return metrics;
    }
 
-   private Map< String, IPackage > initAst()
+   private Map< String, IPackage > initAst( final File astCacheDirectory )
    {
       Map< String, IPackage > result = new LinkedHashMap< String, IPackage >();
       try
@@ -142,7 +158,12 @@ public final class FlexMetrics extends AbstractMetrics
          result = FileSetUtils.computeAsts( com.adobe.ac.pmd.files.impl.FileUtils.computeFilesList( getSourceDirectory(),
                                                                                                     null,
                                                                                                     "",
-                                                                                                    null ) );
+                                                                                                    null ),
+                                            Runtime.getRuntime().availableProcessors(),
+                                            FileSetUtils.DEFAULT_PARSING_TIMEOUT,
+                                            new ArrayList< IFlexFile >(),
+                                            astCacheDirectory == null ? null
+                                                                     : new AstCache( astCacheDirectory ) );
       }
       catch ( final PMDException e )
       {
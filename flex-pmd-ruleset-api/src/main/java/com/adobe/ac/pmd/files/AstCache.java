@@ -0,0 +1,318 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.files;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.NodeKind;
+import com.adobe.ac.utils.CodeSourceUtils;
+import com.adobe.ac.utils.StackTraceUtils;
+
+import de.bokelberg.flex.parser.AS3Parser;
+import de.bokelberg.flex.parser.AstCodec;
+
+/**
+ * On-disk cache of the encoded ASTs, which FlexPMD and FlexMetrics can share
+ * between their runs. An AST is stored under the digest of the parsed
+ * content, of the codec format and of the parser build, so that an entry is
+ * never stale: a changed file or a rebuilt parser simply looks up another
+ * entry. The least recently used entries are evicted once the cache holds
+ * more than its maximum number of entries.
+ * 
+ * @author xagnetti
+ */
+public final class AstCache
+{
+   /**
+    * Default maximum number of entries kept in the cache folder.
+    */
+   public static final int     DEFAULT_MAXIMUM_ENTRIES = 10000;
+   private static final String EXTENSION               = ".ast";
+   private static final Logger LOGGER                  = Logger.getLogger( AstCache.class.getName() );
+   /**
+    * Version and content digest of the parser and of its node kinds. A
+    * rebuilt parser changes the digest even if its version has not changed.
+    */
+   private static final String PARSER_BUILD            = CodeSourceUtils.getArtifactVersion( AS3Parser.class,
+                                                                                              "com.adobe.ac",
+                                                                                              "as3-parser" )
+         + "|" + CodeSourceUtils.computeDigest( AS3Parser.class ) + "|"
+         + CodeSourceUtils.computeDigest( NodeKind.class );
+
+   /**
+    * @param file
+    * @return the digest of the content which is parsed, of the codec format,
+    *         and of the parser build
+    */
+   static String computeKey( final IFlexFile file )
+   {
+      try
+      {
+         final MessageDigest digest = MessageDigest.getInstance( "MD5" );
+
+         digest.update( ( byte ) AstCodec.VERSION );
+         update( digest,
+                 PARSER_BUILD.toCharArray(),
+                 PARSER_BUILD.length() );
+         if ( file instanceof IMxmlFile )
+         {
+            for ( final String line : ( ( IMxmlFile ) file ).getScriptBlock() )
+            {
+               final char[] chars = line.toCharArray();
+
+               update( digest,
+                       chars,
+                       chars.length );
+               digest.update( ( byte ) '\n' );
+            }
+         }
+         else
+         {
+            final int[] lineOffsets = file.getContent().getLineOffsets();
+
+            update( digest,
+                    file.getContent().getBuffer(),
+                    Math.max( 0,
+                              lineOffsets[ lineOffsets.length - 1 ] - 1 ) );
+         }
+         return CodeSourceUtils.toHexa( digest.digest() );
+      }
+      catch ( final NoSuchAlgorithmException e )
+      {
+         throw new IllegalStateException( e );
+      }
+   }
+
+   private static byte[] read( final File entry ) throws IOException
+   {
+      final byte[] bytes = new byte[ ( int ) entry.length() ];
+      final DataInputStream stream = new DataInputStream( new FileInputStream( entry ) );
+
+      try
+      {
+         stream.readFully( bytes );
+      }
+      finally
+      {
+         stream.close();
+      }
+      return bytes;
+   }
+
+   /**
+    * The buffer of a content is larger than the content itself, and ends with
+    * a virtual terminator; only its first characters are hashed.
+    * 
+    * @param digest
+    * @param chars
+    * @param length number of characters to hash
+    */
+   private static void update( final MessageDigest digest,
+                               final char[] chars,
+                               final int length )
+   {
+      final ByteBuffer bytes = ByteBuffer.allocate( length * 2 );
+
+      bytes.asCharBuffer().put( chars,
+                                0,
+                                length );
+      digest.update( bytes );
+   }
+
+   private final File directory;
+   private final int  maximumEntriesNb;
+
+   /**
+    * @param directoryToBeSet the folder of the entries, created on the first
+    *           stored AST
+    */
+   public AstCache( final File directoryToBeSet )
+   {
+      this( directoryToBeSet, DEFAULT_MAXIMUM_ENTRIES );
+   }
+
+   /**
+    * @param directoryToBeSet the folder of the entries, created on the first
+    *           stored AST
+    * @param maximumEntriesNbToBeSet number of entries kept once the older
+    *           ones have been evicted
+    */
+   public AstCache( final File directoryToBeSet,
+                    final int maximumEntriesNbToBeSet )
+   {
+      directory = directoryToBeSet;
+      maximumEntriesNb = maximumEntriesNbToBeSet;
+   }
+
+   /**
+    * Deletes the least recently used entries beyond the maximum number of
+    * entries. An entry is touched whenever it is read, so that the entries of
+    * the files still analyzed are kept.
+    */
+   void evictOldEntries()
+   {
+      final File[] entries = directory.listFiles( new FilenameFilter()
+      {
+         public boolean accept( final File entriesDirectory,
+                                final String name )
+         {
+            return name.endsWith( EXTENSION );
+         }
+      } );
+
+      if ( entries != null
+            && entries.length > maximumEntriesNb )
+      {
+         final Map< File, Long > lastUses = new HashMap< File, Long >();
+
+         for ( final File entry : entries )
+         {
+            lastUses.put( entry,
+                          entry.lastModified() );
+         }
+         Arrays.sort( entries,
+                      new Comparator< File >()
+                      {
+                         public int compare( final File firstEntry,
+                                             final File secondEntry )
+                         {
+                            return lastUses.get( firstEntry ).compareTo( lastUses.get( secondEntry ) );
+                         }
+                      } );
+         for ( int i = 0; i < entries.length
+               - maximumEntriesNb; i++ )
+         {
+            if ( !entries[ i ].delete() )
+            {
+               LOGGER.fine( "Unable to evict "
+                     + entries[ i ].getAbsolutePath() );
+            }
+         }
+      }
+   }
+
+   /**
+    * @param key
+    * @return the cached AST, null if there is none or if it can not be read
+    */
+   IParserNode get( final String key )
+   {
+      final File entry = new File( directory, key
+            + EXTENSION );
+
+      if ( entry.isFile() )
+      {
+         try
+         {
+            final IParserNode ast = AstCodec.decode( read( entry ) );
+
+            entry.setLastModified( System.currentTimeMillis() );
+            return ast;
+         }
+         catch ( final IOException e )
+         {
+            LOGGER.warning( StackTraceUtils.print( entry.getAbsolutePath(),
+                                                   e ) );
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Writes the entry in a temporary file first, so that a concurrent reader
+    * never sees a partial entry.
+    * 
+    * @param key
+    * @param ast
+    */
+   void put( final String key,
+             final IParserNode ast )
+   {
+      if ( !directory.isDirectory()
+            && !directory.mkdirs() && !directory.isDirectory() )
+      {
+         LOGGER.warning( "Unable to create the AST cache folder "
+               + directory.getAbsolutePath() );
+         return;
+      }
+      File temporaryEntry = null;
+
+      try
+      {
+         temporaryEntry = File.createTempFile( key,
+                                               ".tmp",
+                                               directory );
+         final OutputStream stream = new FileOutputStream( temporaryEntry );
+
+         try
+         {
+            stream.write( AstCodec.encode( ast ) );
+         }
+         finally
+         {
+            stream.close();
+         }
+         if ( temporaryEntry.renameTo( new File( directory, key
+               + EXTENSION ) ) )
+         {
+            temporaryEntry = null;
+         }
+      }
+      catch ( final IOException e )
+      {
+         LOGGER.warning( StackTraceUtils.print( directory.getAbsolutePath(),
+                                                e ) );
+      }
+      finally
+      {
+         if ( temporaryEntry != null
+               && !temporaryEntry.delete() )
+         {
+            temporaryEntry.deleteOnExit();
+         }
+      }
+   }
+}
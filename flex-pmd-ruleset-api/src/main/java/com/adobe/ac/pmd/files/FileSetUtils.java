@@ -32,24 +32,32 @@ package com.adobe.ac.pmd.files;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
-import java.util.List;
+import java.util.LinkedList;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import net.sourceforge.pmd.PMDException;
 
 import com.adobe.ac.pmd.nodes.IPackage;
 import com.adobe.ac.pmd.nodes.impl.NodeFactory;
-import com.adobe.ac.pmd.parser.IAS3Parser;
 import com.adobe.ac.pmd.parser.IParserNode;
 import com.adobe.ac.pmd.parser.exceptions.TokenException;
 
@@ -60,8 +68,162 @@ import de.bokelberg.flex.parser.AS3Parser;
  */
 public final class FileSetUtils
 {
-   private static final ThreadPoolExecutor EXECUTOR = ( ThreadPoolExecutor ) Executors.newFixedThreadPool( 5 );
-   private static final Logger             LOGGER   = Logger.getLogger( FileSetUtils.class.getName() );
+   /**
+    * Builds the AST of one file, and hands the created package to the
+    * listener. A watchdog interrupts the parsing once the file has exceeded
+    * its budget, so that the parser stops at its next cancellation check.
+    */
+   private static final class AstBuilder implements Callable< Object >
+   {
+      private final AstCache                 astCache;
+      private final IFlexFile                file;
+      private Future< Object >               future;
+      private final IAstListener             listener;
+      private boolean                        parsed;
+      private volatile long                  startTime;
+      private boolean                        timedOut;
+      private final long                     timeout;
+      private final ScheduledExecutorService watchdog;
+      private Thread                         worker;
+
+      private AstBuilder( final IFlexFile fileToBeSet,
+                          final AstCache astCacheToBeSet,
+                          final IAstListener listenerToBeSet,
+                          final long timeoutToBeSet,
+                          final ScheduledExecutorService watchdogToBeSet )
+      {
+         file = fileToBeSet;
+         astCache = astCacheToBeSet;
+         listener = listenerToBeSet;
+         timeout = timeoutToBeSet;
+         watchdog = watchdogToBeSet;
+      }
+
+      /**
+       * Returns nothing, so that the futures never retain the built ASTs.
+       */
+      public Object call() throws PMDException
+      {
+         startTime = System.currentTimeMillis();
+         start();
+
+         final ScheduledFuture< ? > interruption = watchdog.schedule( new Runnable()
+         {
+            public void run()
+            {
+               interrupt();
+            }
+         },
+                                                                      timeout,
+                                                                      TimeUnit.MILLISECONDS );
+         IPackage packageNode;
+
+         try
+         {
+            packageNode = NodeFactory.createPackage( buildAst( file,
+                                                               astCache ) );
+         }
+         finally
+         {
+            interruption.cancel( false );
+            stop();
+         }
+         if ( !isTimedOut() )
+         {
+            listener.astBuilt( file,
+                               packageNode );
+         }
+         return null;
+      }
+
+      private long computeRemainingTime()
+      {
+         return startTime == 0 ? timeout
+                              : startTime
+                                    + timeout - System.currentTimeMillis();
+      }
+
+      /**
+       * Once the parsing is over, the budget no longer applies, even if the
+       * listener is still running.
+       */
+      private synchronized void interrupt()
+      {
+         if ( !parsed )
+         {
+            timedOut = true;
+            if ( worker != null )
+            {
+               worker.interrupt();
+            }
+         }
+      }
+
+      private synchronized boolean isParsed()
+      {
+         return parsed;
+      }
+
+      private boolean isStarted()
+      {
+         return startTime != 0;
+      }
+
+      private synchronized boolean isTimedOut()
+      {
+         return timedOut;
+      }
+
+      private void submitTo( final ExecutorService executor )
+      {
+         future = executor.submit( this );
+      }
+
+      private synchronized void start()
+      {
+         worker = Thread.currentThread();
+      }
+
+      /**
+       * Clears a late interruption, so that the pooled thread can parse the
+       * next file.
+       */
+      private synchronized void stop()
+      {
+         parsed = true;
+         worker = null;
+         Thread.interrupted();
+      }
+   }
+
+   /**
+    * Creates daemon threads, so that a pending parsing never prevents the JVM
+    * from exiting.
+    */
+   private static final class ParserThreadFactory implements ThreadFactory
+   {
+      private final AtomicInteger threadsNb = new AtomicInteger();
+
+      public Thread newThread( final Runnable runnable )
+      {
+         final Thread thread = new Thread( runnable, "FlexPMD-parser-"
+               + threadsNb.incrementAndGet() );
+
+         thread.setDaemon( true );
+         return thread;
+      }
+   }
+
+   /**
+    * Default parsing budget of a single file, in seconds.
+    */
+   public static final int     DEFAULT_PARSING_TIMEOUT = 5;
+   private static final Logger LOGGER                  = Logger.getLogger( FileSetUtils.class.getName() );
+   /**
+    * Number of files submitted ahead per parsing thread. The pending builders
+    * are bounded by the pool size, not by the project size.
+    */
+   private static final int    QUEUED_FILES_PER_THREAD = 2;
 
    /**
     * @param file
@@ -69,12 +231,27 @@ public final class FileSetUtils
     * @throws PMDException
     */
    public static IParserNode buildAst( final IFlexFile file ) throws PMDException
+   {
+      return buildAst( file,
+                       null );
+   }
+
+   /**
+    * @param file
+    * @param astCache the AST is read from this cache if it has already been
+    *           built, null to always parse the file
+    * @return
+    * @throws PMDException
+    */
+   public static IParserNode buildAst( final IFlexFile file,
+                                       final AstCache astCache ) throws PMDException
    {
       IParserNode rootNode = null;
 
       try
       {
-         rootNode = tryToBuildAst( file );
+         rootNode = tryToBuildAst( file,
+                                   astCache );
       }
       catch ( final IOException e )
       {
@@ -100,62 +277,238 @@ public final class FileSetUtils
                                                                      InterruptedException,
                                                                      ExecutionException
    {
-      final List< Callable< Object >> toRun = new ArrayList< Callable< Object >>();
-      toRun.add( new Callable< Object >()
-      {
-         public Object call() throws PMDException
-         {
-            return buildAst( file );
-         }
-      } );
-      final List< Future< Object >> futures = EXECUTOR.invokeAll( toRun,
-                                                                  5,
-                                                                  TimeUnit.SECONDS );
-      return ( IParserNode ) futures.get( 0 ).get();
+      return buildThreadedAst( file,
+                               DEFAULT_PARSING_TIMEOUT );
    }
 
    /**
-    * @param files
+    * @param file
+    * @param parsingTimeout parsing budget of the file, in seconds
     * @return
     * @throws PMDException
+    * @throws InterruptedException
+    * @throws ExecutionException
+    * @throws CancellationException if the parsing took more than the given
+    *            budget
     */
-   public static Map< String, IPackage > computeAsts( final Map< String, IFlexFile > files ) throws PMDException
+   public static IParserNode buildThreadedAst( final IFlexFile file,
+                                               final int parsingTimeout ) throws PMDException,
+                                                                         InterruptedException,
+                                                                         ExecutionException
    {
-      final Map< String, IPackage > asts = new LinkedHashMap< String, IPackage >();
+      final ExecutorService executor = Executors.newSingleThreadExecutor( new ParserThreadFactory() );
 
-      for ( final Entry< String, IFlexFile > fileEntry : files.entrySet() )
+      try
       {
-         final IFlexFile file = fileEntry.getValue();
-
+         final Future< IParserNode > future = executor.submit( new Callable< IParserNode >()
+         {
+            public IParserNode call() throws PMDException
+            {
+               return buildAst( file );
+            }
+         } );
          try
          {
-            final IParserNode node = buildThreadedAst( file );
-
-            asts.put( file.getFullyQualifiedName(),
-                      NodeFactory.createPackage( node ) );
+            return future.get( parsingTimeout,
+                               TimeUnit.SECONDS );
          }
-         catch ( final InterruptedException e )
+         catch ( final TimeoutException e )
          {
-            LOGGER.warning( buildLogMessage( file,
-                                             e.getMessage() ) );
+            future.cancel( true );
+            throw new CancellationException( "parsing took more than "
+                  + parsingTimeout + " s" );
          }
-         catch ( final NoClassDefFoundError e )
+      }
+      finally
+      {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * Builds the ASTs of the given files, using as many threads as available
+    * processors.
+    * 
+    * @param files
+    * @return the packages, in the same order as the given files
+    * @throws PMDException
+    */
+   public static Map< String, IPackage > computeAsts( final Map< String, IFlexFile > files ) throws PMDException
+   {
+      return computeAsts( files,
+                          Runtime.getRuntime().availableProcessors() );
+   }
+
+   /**
+    * @param files
+    * @param threadsNb number of parsing threads
+    * @return the packages, in the same order as the given files
+    * @throws PMDException
+    */
+   public static Map< String, IPackage > computeAsts( final Map< String, IFlexFile > files,
+                                                      final int threadsNb ) throws PMDException
+   {
+      return computeAsts( files,
+                          threadsNb,
+                          DEFAULT_PARSING_TIMEOUT,
+                          new ArrayList< IFlexFile >() );
+   }
+
+   /**
+    * Builds the ASTs of the given files in parallel. Every file is parsed at
+    * most once, and the failing files are logged and skipped. A file whose
+    * parsing exceeds the given budget is interrupted, and added to the
+    * timed-out files.
+    * 
+    * @param files
+    * @param threadsNb number of parsing threads
+    * @param parsingTimeout parsing budget of a single file, in seconds
+    * @param timedOutFiles collects the files whose parsing has been
+    *           interrupted
+    * @return the packages, in the same order as the given files
+    * @throws PMDException
+    */
+   public static Map< String, IPackage > computeAsts( final Map< String, IFlexFile > files,
+                                                      final int threadsNb,
+                                                      final int parsingTimeout,
+                                                      final Collection< IFlexFile > timedOutFiles ) throws PMDException
+   {
+      return computeAsts( files,
+                          threadsNb,
+                          parsingTimeout,
+                          timedOutFiles,
+                          ( AstCache ) null );
+   }
+
+   /**
+    * @param files
+    * @param threadsNb number of parsing threads
+    * @param parsingTimeout parsing budget of a single file, in seconds
+    * @param timedOutFiles collects the files whose parsing has been
+    *           interrupted
+    * @param astCache the ASTs of the unchanged files are read from this
+    *           cache, null to parse every file
+    * @return the packages, in the same order as the given files
+    * @throws PMDException
+    */
+   public static Map< String, IPackage > computeAsts( final Map< String, IFlexFile > files,
+                                                      final int threadsNb,
+                                                      final int parsingTimeout,
+                                                      final Collection< IFlexFile > timedOutFiles,
+                                                      final AstCache astCache ) throws PMDException
+   {
+      final Map< String, IPackage > builtAsts = new ConcurrentHashMap< String, IPackage >();
+
+      computeAsts( files,
+                   threadsNb,
+                   parsingTimeout,
+                   timedOutFiles,
+                   astCache,
+                   new IAstListener()
+                   {
+                      public void astBuilt( final IFlexFile file,
+                                            final IPackage packageNode )
+                      {
+                         builtAsts.put( file.getFullyQualifiedName(),
+                                        packageNode );
+                      }
+                   } );
+      return sortAsts( files,
+                       builtAsts );
+   }
+
+   /**
+    * Builds the ASTs of the given files in parallel, and streams them to the
+    * given listener instead of keeping them. The failing and the timed-out
+    * files never reach the listener. Only a few files per thread are submitted
+    * ahead, and a file is forgotten as soon as its AST has been handed over.
+    * 
+    * @param files
+    * @param threadsNb number of parsing threads
+    * @param parsingTimeout parsing budget of a single file, in seconds
+    * @param timedOutFiles collects the files whose parsing has been
+    *           interrupted
+    * @param listener
+    * @throws PMDException
+    */
+   public static void computeAsts( final Map< String, IFlexFile > files,
+                                   final int threadsNb,
+                                   final int parsingTimeout,
+                                   final Collection< IFlexFile > timedOutFiles,
+                                   final IAstListener listener ) throws PMDException
+   {
+      computeAsts( files,
+                   threadsNb,
+                   parsingTimeout,
+                   timedOutFiles,
+                   null,
+                   listener );
+   }
+
+   /**
+    * Streams the ASTs to the given listener, as the previous method does. The
+    * ASTs of the unchanged files are read from the given cache, which is
+    * trimmed to its maximum number of entries once all the files are built.
+    * 
+    * @param files
+    * @param threadsNb number of parsing threads
+    * @param parsingTimeout parsing budget of a single file, in seconds
+    * @param timedOutFiles collects the files whose parsing has been
+    *           interrupted
+    * @param astCache null to parse every file
+    * @param listener
+    * @throws PMDException
+    */
+   public static void computeAsts( final Map< String, IFlexFile > files,
+                                   final int threadsNb,
+                                   final int parsingTimeout,
+                                   final Collection< IFlexFile > timedOutFiles,
+                                   final AstCache astCache,
+                                   final IAstListener listener ) throws PMDException
+   {
+      final int poolSize = Math.max( 1,
+                                     threadsNb );
+      final int queueSize = poolSize
+            * QUEUED_FILES_PER_THREAD;
+      final ExecutorService executor = new ThreadPoolExecutor( poolSize,
+                                                               poolSize,
+                                                               0,
+                                                               TimeUnit.MILLISECONDS,
+                                                               new ArrayBlockingQueue< Runnable >( queueSize ),
+                                                               new ParserThreadFactory() );
+      final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor( new ParserThreadFactory() );
+      final long timeout = TimeUnit.SECONDS.toMillis( parsingTimeout );
+      final Queue< AstBuilder > pendingBuilders = new LinkedList< AstBuilder >();
+
+      try
+      {
+         for ( final IFlexFile file : files.values() )
          {
-            LOGGER.warning( buildLogMessage( file,
-                                             e.getMessage() ) );
+            if ( pendingBuilders.size() == queueSize )
+            {
+               collectAst( pendingBuilders.poll(),
+                           timedOutFiles );
+            }
+            final AstBuilder builder = new AstBuilder( file, astCache, listener, timeout, watchdog );
+
+            builder.submitTo( executor );
+            pendingBuilders.add( builder );
          }
-         catch ( final ExecutionException e )
+         while ( !pendingBuilders.isEmpty() )
          {
-            LOGGER.warning( buildLogMessage( file,
-                                             e.getMessage() ) );
+            collectAst( pendingBuilders.poll(),
+                        timedOutFiles );
          }
-         catch ( final CancellationException e )
+         if ( astCache != null )
          {
-            LOGGER.warning( buildLogMessage( file,
-                                             e.getMessage() ) );
+            astCache.evictOldEntries();
          }
       }
-      return asts;
+      finally
+      {
+         executor.shutdownNow();
+         watchdog.shutdownNow();
+      }
    }
 
    /**
@@ -170,11 +523,19 @@ public final class FileSetUtils
             + file.getFullyQualifiedName() + ", an error occured: " + message;
    }
 
-   private static IParserNode tryToBuildAst( final IFlexFile file ) throws IOException,
-                                                                   TokenException
+   private static void collectAst( final AstBuilder builder,
+                                   final Collection< IFlexFile > timedOutFiles )
+   {
+      if ( !waitForAst( builder ) )
+      {
+         timedOutFiles.add( builder.file );
+      }
+   }
+
+   private static IParserNode parse( final IFlexFile file ) throws TokenException
    {
       IParserNode rootNode;
-      final IAS3Parser parser = new AS3Parser();
+      final AS3Parser parser = new AS3Parser();
       if ( file instanceof IMxmlFile )
       {
          rootNode = parser.buildAst( file.getFilePath(),
@@ -182,11 +543,126 @@ public final class FileSetUtils
       }
       else
       {
-         rootNode = parser.buildAst( file.getFilePath() );
+         rootNode = parser.buildAst( file.getFilePath(),
+                                     file.getContent() );
+      }
+      return rootNode;
+   }
+
+   private static Map< String, IPackage > sortAsts( final Map< String, IFlexFile > files,
+                                                    final Map< String, IPackage > builtAsts )
+   {
+      final Map< String, IPackage > asts = new LinkedHashMap< String, IPackage >();
+
+      for ( final IFlexFile file : files.values() )
+      {
+         final IPackage packageNode = builtAsts.get( file.getFullyQualifiedName() );
+
+         if ( packageNode != null )
+         {
+            asts.put( file.getFullyQualifiedName(),
+                      packageNode );
+         }
+      }
+      return asts;
+   }
+
+   private static IParserNode tryToBuildAst( final IFlexFile file,
+                                             final AstCache astCache ) throws IOException,
+                                                                      TokenException
+   {
+      if ( astCache == null )
+      {
+         return parse( file );
+      }
+      final String key = AstCache.computeKey( file );
+      IParserNode rootNode = astCache.get( key );
+
+      if ( rootNode == null )
+      {
+         rootNode = parse( file );
+         astCache.put( key,
+                       rootNode );
       }
       return rootNode;
    }
 
+   /**
+    * The future is never cancelled, as its worker may already be running the
+    * listener. Only the parsing is interrupted, under the lock of the builder.
+    * 
+    * @param builder
+    * @return false if the parsing of the file has timed out
+    */
+   private static boolean waitForAst( final AstBuilder builder )
+   {
+      final Future< Object > future = builder.future;
+
+      try
+      {
+         while ( true )
+         {
+            try
+            {
+               if ( builder.isParsed() )
+               {
+                  future.get();
+                  break;
+               }
+               future.get( Math.max( 1,
+                                     builder.computeRemainingTime() ),
+                           TimeUnit.MILLISECONDS );
+               break;
+            }
+            catch ( final TimeoutException e )
+            {
+               if ( !builder.isParsed()
+                     && builder.isStarted()
+                     && builder.computeRemainingTime() <= 0 )
+               {
+                  builder.interrupt();
+                  if ( builder.isTimedOut() )
+                  {
+                     break;
+                  }
+               }
+            }
+         }
+      }
+      catch ( final InterruptedException e )
+      {
+         Thread.currentThread().interrupt();
+         LOGGER.warning( buildLogMessage( builder.file,
+                                          e.getMessage() ) );
+      }
+      catch ( final NoClassDefFoundError e )
+      {
+         LOGGER.warning( buildLogMessage( builder.file,
+                                          e.getMessage() ) );
+      }
+      catch ( final ExecutionException e )
+      {
+         if ( !builder.isTimedOut() )
+         {
+            LOGGER.warning( buildLogMessage( builder.file,
+                                             e.getMessage() ) );
+         }
+      }
+      catch ( final CancellationException e )
+      {
+         LOGGER.warning( buildLogMessage( builder.file,
+                                          e.getMessage() ) );
+      }
+      if ( builder.isTimedOut() )
+      {
+         LOGGER.warning( buildLogMessage( builder.file,
+                                          "parsing took more than "
+                                                + builder.timeout + " ms, and has been interrupted" ) );
+         return false;
+      }
+      return true;
+   }
+
    private FileSetUtils()
    {
    }
@@ -33,6 +33,7 @@ package com.adobe.ac.pmd.nodes;
 import java.util.List;
 
 import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.ISubtreeSummary;
 
 /**
  * Node representing a class. It contains different lists (constants, variables,
@@ -58,6 +59,12 @@ public interface IClass extends IVisible, IMetaDataListHolder, INamableNode, IAs
     */
    IParserNode getBlock();
 
+   /**
+    * @return the summary of the class block, or null if the class has no
+    *         block
+    */
+   ISubtreeSummary getBlockSummary();
+
    /**
     * @return
     */
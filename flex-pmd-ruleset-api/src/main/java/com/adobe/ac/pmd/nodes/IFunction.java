@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.ISubtreeSummary;
 
 /**
  * Node representing a Function It contains the function name, its parameters,
@@ -64,6 +65,12 @@ public interface IFunction extends IVisible, IMetaDataListHolder, INamableNode,
     */
    IParserNode getBody();
 
+   /**
+    * @return the summary of the function body, or null if the function has no
+    *         body
+    */
+   ISubtreeSummary getBodySummary();
+
    /**
     * @return
     */
@@ -46,6 +46,7 @@ import com.adobe.ac.pmd.nodes.IMetaData;
 import com.adobe.ac.pmd.nodes.MetaData;
 import com.adobe.ac.pmd.nodes.Modifier;
 import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.ISubtreeSummary;
 import com.adobe.ac.pmd.parser.NodeKind;
 
 /**
@@ -228,6 +229,16 @@ class ClassNode extends AbstractNode implements IClass
       return block;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.nodes.IClass#getBlockSummary()
+    */
+   public final ISubtreeSummary getBlockSummary()
+   {
+      return block == null ? null
+                          : block.getSummary();
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.nodes.IClass#getConstants()
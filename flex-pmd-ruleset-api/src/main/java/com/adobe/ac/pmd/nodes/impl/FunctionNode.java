@@ -45,6 +45,7 @@ import com.adobe.ac.pmd.nodes.IParameter;
 import com.adobe.ac.pmd.nodes.MetaData;
 import com.adobe.ac.pmd.nodes.Modifier;
 import com.adobe.ac.pmd.parser.IParserNode;
+import com.adobe.ac.pmd.parser.ISubtreeSummary;
 import com.adobe.ac.pmd.parser.KeyWords;
 import com.adobe.ac.pmd.parser.NodeKind;
 
@@ -213,6 +214,16 @@ class FunctionNode extends AbstractNode implements IFunction
       return body;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.nodes.IFunction#getBodySummary()
+    */
+   public ISubtreeSummary getBodySummary()
+   {
+      return body == null ? null
+                         : body.getSummary();
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.nodes.IFunction#getCyclomaticComplexity()
@@ -300,7 +311,8 @@ class FunctionNode extends AbstractNode implements IFunction
     */
    public int getStatementNbInBody()
    {
-      return 1 + getStatementInNode( body );
+      return body == null ? 1
+                         : 1 + body.getSummary().getStatementNb();
    }
 
    /*
@@ -433,26 +445,4 @@ class FunctionNode extends AbstractNode implements IFunction
          }
       }
    }
-
-   private int getStatementInNode( final IParserNode node )
-   {
-      int statementNb = 0;
-
-      if ( node != null
-            && node.numChildren() != 0 )
-      {
-         int lastLine = node.getChild( 0 ).getLine();
-         for ( final IParserNode childContent : node.getChildren() )
-         {
-            if ( childContent.getLine() != lastLine )
-            {
-               lastLine = childContent.getLine();
-               statementNb++;
-            }
-            statementNb += getStatementInNode( childContent );
-         }
-      }
-
-      return statementNb;
-   }
 }
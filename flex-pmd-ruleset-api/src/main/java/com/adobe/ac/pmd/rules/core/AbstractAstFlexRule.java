@@ -30,10 +30,15 @@
  */
 package com.adobe.ac.pmd.rules.core;
 
-import java.util.ArrayList;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import com.adobe.ac.pmd.IFlexViolation;
@@ -86,7 +91,9 @@ public abstract class AbstractAstFlexRule extends AbstractFlexRule implements IF
       void visitExpression( final IParserNode ast );
    }
 
-   private static final Logger LOGGER = Logger.getLogger( AbstractAstFlexRule.class.getName() );
+   private static final Logger                    LOGGER         = Logger.getLogger( AbstractAstFlexRule.class.getName() );
+   private static final Map< Class< ? >, Boolean > VISITING_RULES = new ConcurrentHashMap< Class< ? >, Boolean >();
+   private static final Set< String >              VISIT_HOOKS    = computeVisitHooks();
 
    /**
     * @param functionNode
@@ -120,16 +127,48 @@ public abstract class AbstractAstFlexRule extends AbstractFlexRule implements IF
       return fieldNode.getChild( 0 ).getChild( 1 );
    }
 
-   private final List< IFlexViolation > violations;
+   private static Set< String > computeVisitHooks()
+   {
+      final Set< String > hooks = new HashSet< String >();
+
+      for ( final Method method : AbstractAstFlexRule.class.getDeclaredMethods() )
+      {
+         if ( method.getName().startsWith( "visit" )
+               && isOverridable( method ) )
+         {
+            hooks.add( method.getName() );
+         }
+      }
+      return hooks;
+   }
+
+   private static boolean isOverridable( final Method method )
+   {
+      final int modifiers = method.getModifiers();
+
+      return !Modifier.isPrivate( modifiers )
+            && !Modifier.isStatic( modifiers ) && !Modifier.isFinal( modifiers );
+   }
 
    /**
-    * 
+    * @param ruleClass
+    * @return true if the given rule class, or one of its parent classes,
+    *         overrides one of the visit hooks
     */
-   public AbstractAstFlexRule()
+   private static boolean overridesAVisitHook( final Class< ? > ruleClass )
    {
-      super();
-
-      violations = new ArrayList< IFlexViolation >();
+      for ( Class< ? > currentClass = ruleClass; currentClass != AbstractAstFlexRule.class; currentClass = currentClass.getSuperclass() )
+      {
+         for ( final Method method : currentClass.getDeclaredMethods() )
+         {
+            if ( VISIT_HOOKS.contains( method.getName() )
+                  && !Modifier.isPrivate( method.getModifiers() ) && !Modifier.isStatic( method.getModifiers() ) )
+            {
+               return true;
+            }
+         }
+      }
+      return false;
    }
 
    /*
@@ -256,7 +295,7 @@ public abstract class AbstractAstFlexRule extends AbstractFlexRule implements IF
     */
    protected final IFlexViolation addViolation( final ViolationPosition violationPosition )
    {
-      return addViolation( violations,
+      return addViolation( getContext().getViolations(),
                            violationPosition );
    }
 
@@ -342,7 +381,8 @@ public abstract class AbstractAstFlexRule extends AbstractFlexRule implements IF
    }
 
    /**
-    * Find violations in the current file
+    * Find violations in the current file. The AST is walked only if the rule
+    * overrides one of the visit hooks, as the walk does nothing otherwise.
     */
    @Override
    protected final List< IFlexViolation > findViolationsInCurrentFile()
@@ -351,7 +391,10 @@ public abstract class AbstractAstFlexRule extends AbstractFlexRule implements IF
       {
          if ( getCurrentPackageNode() != null )
          {
-            visitCompilationUnit( getCurrentPackageNode().getInternalNode() );
+            if ( isVisitingTheAst() )
+            {
+               visitCompilationUnit( getCurrentPackageNode().getInternalNode() );
+            }
             findViolations( getCurrentPackageNode() );
          }
       }
@@ -361,11 +404,7 @@ public abstract class AbstractAstFlexRule extends AbstractFlexRule implements IF
                + getCurrentFile().getFilePath() );
          LOGGER.warning( StackTraceUtils.print( e ) );
       }
-      final List< IFlexViolation > copy = new ArrayList< IFlexViolation >( violations );
-
-      violations.clear();
-
-      return copy;
+      return getContext().getViolations();
    }
 
    /**
@@ -763,7 +802,7 @@ public abstract class AbstractAstFlexRule extends AbstractFlexRule implements IF
 
    private boolean isAlreadyViolationAdded( final IParserNode nodeToBeAdded )
    {
-      for ( final IFlexViolation violation : violations )
+      for ( final IFlexViolation violation : getContext().getViolations() )
       {
          if ( violation.getBeginLine() == nodeToBeAdded.getLine()
                && violation.getBeginColumn() == nodeToBeAdded.getColumn() )
@@ -774,6 +813,19 @@ public abstract class AbstractAstFlexRule extends AbstractFlexRule implements IF
       return false;
    }
 
+   private boolean isVisitingTheAst()
+   {
+      Boolean isVisiting = VISITING_RULES.get( getClass() );
+
+      if ( isVisiting == null )
+      {
+         isVisiting = overridesAVisitHook( getClass() );
+         VISITING_RULES.put( getClass(),
+                             isVisiting );
+      }
+      return isVisiting;
+   }
+
    private boolean isNodeNavigable( final IParserNode node )
    {
       return node != null
@@ -30,11 +30,16 @@
  */
 package com.adobe.ac.pmd.rules.core;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
@@ -48,6 +53,7 @@ import org.apache.commons.lang.StringUtils;
 
 import com.adobe.ac.pmd.IFlexViolation;
 import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.files.impl.SuppressionIndex;
 import com.adobe.ac.pmd.nodes.IPackage;
 import com.adobe.ac.pmd.rules.core.thresholded.IThresholdedRule;
 
@@ -60,15 +66,49 @@ import com.adobe.ac.pmd.rules.core.thresholded.IThresholdedRule;
  */
 public abstract class AbstractFlexRule extends CommonAbstractRule implements IFlexRule
 {
-   protected static final String    MAXIMUM            = "maximum";
-   protected static final String    MINIMUM            = "minimum";
-   private static final String      AS3_COMMENT_TOKEN  = "//";
-   private static final Logger      LOGGER             = Logger.getLogger( AbstractFlexRule.class.getName() );
-   private static final String      MXML_COMMENT_TOKEN = "<!--";
-   private IFlexFile                currentFile;
-   private IPackage                 currentPackageNode;
-   private Set< String >            excludes;
-   private Map< String, IFlexFile > filesInSourcePath;
+   protected static final String                   MAXIMUM           = "maximum";
+   protected static final String                   MINIMUM           = "minimum";
+   private static final Logger                     LOGGER            = Logger.getLogger( AbstractFlexRule.class.getName() );
+   /**
+    * Base classes whose instance fields are safe to share between threads
+    */
+   private static final Set< Class< ? >>           THREAD_SAFE_BASES = new HashSet< Class< ? >>( Arrays.< Class< ? >> asList( AbstractRegexpBasedRule.class,
+                                                                                                                              AbstractXpathRelatedRule.class ) );
+   private static final Map< Class< ? >, Boolean > THREAD_SAFE_RULES = new ConcurrentHashMap< Class< ? >, Boolean >();
+
+   /**
+    * @param ruleClass
+    * @return true if neither the given rule class, nor one of its parent
+    *         classes declares an instance field, apart from the base classes
+    *         which keep their per-file state in the execution context.
+    */
+   private static boolean declaresNoInstanceField( final Class< ? > ruleClass )
+   {
+      for ( Class< ? > currentClass = ruleClass; currentClass != AbstractFlexRule.class; currentClass = currentClass.getSuperclass() )
+      {
+         if ( !THREAD_SAFE_BASES.contains( currentClass ) )
+         {
+            for ( final Field field : currentClass.getDeclaredFields() )
+            {
+               if ( !Modifier.isStatic( field.getModifiers() )
+                     && !field.isSynthetic() )
+               {
+                  return false;
+               }
+            }
+         }
+      }
+      return true;
+   }
+
+   private final ThreadLocal< FlexRuleContext > context;
+   private Set< String >                        excludes;
+   /**
+    * Parsed on the first violation, and reset when the message or the
+    * description changes
+    */
+   private volatile MessageTemplate             messageTemplate;
+   private final String                         shortRuleName;
 
    /**
     * 
@@ -77,6 +117,8 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
    {
       super();
 
+      context = new ThreadLocal< FlexRuleContext >();
+      shortRuleName = SuppressionIndex.computeShortRuleName( getRuleName() );
       setDefaultPriority();
    }
 
@@ -114,20 +156,57 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
    {
       List< IFlexViolation > violations = new ArrayList< IFlexViolation >();
 
-      currentFile = file;
-      filesInSourcePath = files;
-      currentPackageNode = packageNode;
-
-      if ( isConcernedByTheCurrentFile()
-            && !isFileExcluded( file ) )
+      context.set( new FlexRuleContext( file,
+                                         packageNode,
+                                         files,
+                                         createState() ) );
+      try
       {
-         onRuleStart();
-         violations = findViolationsInCurrentFile();
+         if ( isConcernedByTheCurrentFile()
+               && !isFileExcluded( file ) )
+         {
+            onRuleStart();
+            violations = findViolationsInCurrentFile();
+         }
+      }
+      finally
+      {
+         context.remove();
       }
 
       return violations;
    }
 
+   /**
+    * @return true if the rule keeps no state outside of its execution context,
+    *         so that the same instance can process several files at the same
+    *         time
+    */
+   public final boolean isThreadSafe()
+   {
+      Boolean isThreadSafe = THREAD_SAFE_RULES.get( getClass() );
+
+      if ( isThreadSafe == null )
+      {
+         isThreadSafe = declaresNoInstanceField( getClass() );
+         THREAD_SAFE_RULES.put( getClass(),
+                                isThreadSafe );
+      }
+      return isThreadSafe;
+   }
+
+   /*
+    * (non-Javadoc)
+    * @see net.sourceforge.pmd.CommonAbstractRule#setDescription(java.lang.String)
+    */
+   @Override
+   public void setDescription( final String description )
+   {
+      super.setDescription( description );
+
+      messageTemplate = null;
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.rules.core.IFlexRule#setExcludes(java.util.Set)
@@ -137,33 +216,27 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
       excludes = excludesToBeSet;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see net.sourceforge.pmd.CommonAbstractRule#setMessage(java.lang.String)
+    */
+   @Override
+   public void setMessage( final String message )
+   {
+      super.setMessage( message );
+
+      messageTemplate = null;
+   }
+
    /**
     * @param violatedLine
     * @return
     */
    boolean isViolationIgnored( final String violatedLine )
    {
-      final boolean containsNoPmd = lineContainsNoPmd( violatedLine,
-                                                       MXML_COMMENT_TOKEN )
-            || lineContainsNoPmd( violatedLine,
-                                  AS3_COMMENT_TOKEN );
-
-      if ( !containsNoPmd )
-      {
-         return false;
-      }
-      final String name = getRuleName().replaceAll( "Rule",
-                                                    "" );
-      final String ruleName = name.contains( "." ) ? StringUtils.substringAfterLast( name,
-                                                                                     "." )
-                                                  : name;
-      final String strippedLine = computeStrippedLine( violatedLine );
-      return strippedLineContainsNoPmdAndRuleName( MXML_COMMENT_TOKEN,
-                                                   ruleName,
-                                                   strippedLine )
-            || strippedLineContainsNoPmdAndRuleName( AS3_COMMENT_TOKEN,
-                                                     ruleName,
-                                                     strippedLine );
+      return SuppressionIndex.isRuleSuppressed( violatedLine,
+                                                getCurrentFile().getSingleLineComment(),
+                                                shortRuleName );
    }
 
    /**
@@ -174,7 +247,7 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
    protected final IFlexViolation addViolation( final List< IFlexViolation > violations,
                                                 final ViolationPosition position )
    {
-      final IFlexViolation violation = new Violation( position, this, getCurrentFile() );
+      final IFlexViolation violation = new Violation( position, this, getCurrentFile(), getMessageTemplate() );
       final int beginLine = position.getBeginLine();
 
       prettyPrintMessage( violation );
@@ -186,7 +259,8 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
       }
       else if ( beginLine <= getCurrentFile().getLinesNb() )
       {
-         if ( isViolationIgnored( getCurrentFile().getLineAt( beginLine ) ) )
+         if ( getCurrentFile().isRuleSuppressed( beginLine,
+                                                 shortRuleName ) )
          {
             LOGGER.info( getRuleName()
                   + " has been ignored in " + getCurrentFile().getFilename() + " (" + beginLine + ")" );
@@ -216,17 +290,37 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
       return violation;
    }
 
+   /**
+    * Creates the state this rule keeps while walking one file, available
+    * through getContext().getRuleState().
+    * 
+    * @return a new state for the current file, null if the rule keeps none
+    */
+   protected Object createState()
+   {
+      return null;
+   }
+
    /**
     * @return
     */
    protected abstract List< IFlexViolation > findViolationsInCurrentFile();
 
+   /**
+    * @return the execution context of the file processed by the current
+    *         thread
+    */
+   protected final FlexRuleContext getContext()
+   {
+      return context.get();
+   }
+
    /**
     * @return the current file under investigation
     */
    protected IFlexFile getCurrentFile()
    {
-      return currentFile;
+      return getContext().getFile();
    }
 
    /**
@@ -234,7 +328,7 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
     */
    protected final IPackage getCurrentPackageNode()
    {
-      return currentPackageNode;
+      return getContext().getPackageNode();
    }
 
    /**
@@ -247,7 +341,7 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
     */
    protected final Map< String, IFlexFile > getFilesInSourcePath()
    {
-      return filesInSourcePath;
+      return getContext().getFilesInSourcePath();
    }
 
    /**
@@ -279,27 +373,6 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
    {
    }
 
-   private String computeStrippedLine( final String violatedLine )
-   {
-      final String comment_token = getCurrentFile().isMxml() ? MXML_COMMENT_TOKEN
-                                                            : AS3_COMMENT_TOKEN;
-      String strippedLine = violatedLine;
-
-      if ( violatedLine.indexOf( comment_token
-            + " N" ) > 0 )
-      {
-         strippedLine = StringUtils.strip( violatedLine.substring( violatedLine.indexOf( comment_token
-               + " N" ) ) );
-      }
-      else if ( violatedLine.indexOf( comment_token
-            + "N" ) > 0 )
-      {
-         strippedLine = StringUtils.strip( violatedLine.substring( violatedLine.indexOf( comment_token
-               + "N" ) ) );
-      }
-      return strippedLine;
-   }
-
    private boolean isFileExcluded( final IFlexFile file )
    {
       if ( excludes != null )
@@ -318,20 +391,25 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
       return false;
    }
 
-   private boolean lineContainsNoPmd( final String violatedLine,
-                                      final String comment_token )
+   private MessageTemplate getMessageTemplate()
    {
-      return violatedLine.contains( comment_token
-            + " No PMD" )
-            || violatedLine.contains( comment_token
-                  + " NO PMD" ) || violatedLine.contains( comment_token
-                  + " NOPMD" ) || violatedLine.contains( comment_token
-                  + "NOPMD" );
+      MessageTemplate template = messageTemplate;
+
+      if ( template == null )
+      {
+         template = new MessageTemplate( getMessage() == null ? ""
+                                                             : getMessage(),
+                                         getDescription() == null ? null
+                                                                 : ". "
+                                                                       + getDescription() );
+         messageTemplate = template;
+      }
+      return template;
    }
 
    private void prettyPrintMessage( final IFlexViolation violation )
    {
-      final int nbOfBraces = violation.getRuleMessage().split( "\\{" ).length - 1;
+      final int nbOfBraces = getMessageTemplate().getOpeningBracesNb();
 
       if ( this instanceof IThresholdedRule )
       {
@@ -342,27 +420,10 @@ public abstract class AbstractFlexRule extends CommonAbstractRule implements IFl
          violation.replacePlaceholderInMessage( String.valueOf( thresholdeRule.getActualValueForTheCurrentViolation() ),
                                                 nbOfBraces - 1 );
       }
-      if ( getDescription() != null )
-      {
-         violation.appendToMessage( ". " );
-         violation.appendToMessage( getDescription() );
-      }
    }
 
    private void setDefaultPriority()
    {
       setPriority( Integer.valueOf( getDefaultPriority().toString() ) );
    }
-
-   private boolean strippedLineContainsNoPmdAndRuleName( final String comment_token,
-                                                         final String ruleName,
-                                                         final String strippedLine )
-   {
-      return strippedLine.endsWith( comment_token
-            + " No PMD" )
-            || strippedLine.endsWith( comment_token
-                  + " NO PMD" ) || strippedLine.endsWith( comment_token
-                  + " NOPMD" ) || strippedLine.endsWith( comment_token
-                  + "NOPMD" ) || strippedLine.contains( ruleName );
-   }
 }
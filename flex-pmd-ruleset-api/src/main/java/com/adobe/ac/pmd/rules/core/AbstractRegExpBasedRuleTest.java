@@ -30,12 +30,20 @@
  */
 package com.adobe.ac.pmd.rules.core;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import junit.framework.Assert;
 
 import org.junit.Test;
 
+import com.adobe.ac.pmd.IFlexViolation;
+
 public abstract class AbstractRegExpBasedRuleTest extends AbstractFlexRuleTest
 {
    @Test
@@ -76,6 +84,27 @@ public abstract class AbstractRegExpBasedRuleTest extends AbstractFlexRuleTest
       }
    }
 
+   @Test
+   public void testProcessFilesWithSharedLiterals()
+   {
+      final AbstractRegexpBasedRule sharedRule = getRegexpBasedRule();
+      final AbstractRegexpBasedRule rule = getRegexpBasedRule();
+
+      AbstractRegexpBasedRule.shareRequiredLiterals( Arrays.asList( sharedRule ) );
+      for ( final String resourcePath : getTestFiles().keySet() )
+      {
+         if ( !getIgnoreFiles().contains( resourcePath ) )
+         {
+            assertEquals( "Violated lines of "
+                                + resourcePath,
+                          computeViolatedLines( rule,
+                                                resourcePath ),
+                          computeViolatedLines( sharedRule,
+                                                resourcePath ) );
+         }
+      }
+   }
+
    protected abstract String[] getMatchableLines();
 
    protected abstract AbstractRegexpBasedRule getRegexpBasedRule();
@@ -87,4 +116,18 @@ public abstract class AbstractRegExpBasedRuleTest extends AbstractFlexRuleTest
    }
 
    protected abstract String[] getUnmatchableLines();
+
+   private List< Integer > computeViolatedLines( final AbstractRegexpBasedRule rule,
+                                                 final String resourcePath )
+   {
+      final List< Integer > lines = new ArrayList< Integer >();
+
+      for ( final IFlexViolation violation : rule.processFile( getTestFiles().get( resourcePath ),
+                                                               null,
+                                                               getTestFiles() ) )
+      {
+         lines.add( violation.getBeginLine() );
+      }
+      return lines;
+   }
 }
\ No newline at end of file
@@ -31,18 +31,104 @@
 package com.adobe.ac.pmd.rules.core;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.adobe.ac.ncss.utils.FileContent;
 import com.adobe.ac.pmd.IFlexViolation;
+import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.files.LiteralSet;
 
 /**
  * @author xagnetti
  */
 public abstract class AbstractRegexpBasedRule extends AbstractFlexRule
 {
-   private Pattern pattern;
+   /**
+    * Immutable compiled form of getRegexp(), so that it can be replaced while
+    * other threads are using the previous one.
+    */
+   private static final class CompiledRegexp
+   {
+      private final Pattern    pattern;
+      private final String     regexp;
+      /**
+       * Literal contained by every matching line, null if the expression has
+       * none
+       */
+      private final String     requiredLiteral;
+      /**
+       * Index of the required literal in the shared literals
+       */
+      private final int        sharedLiteralIndex;
+      /**
+       * Literals of all the regexp rules of the ruleset, null if the rule is
+       * not part of one
+       */
+      private final LiteralSet sharedLiterals;
+
+      private CompiledRegexp( final String regexpToBeSet )
+      {
+         regexp = regexpToBeSet;
+         pattern = Pattern.compile( regexpToBeSet );
+         requiredLiteral = RegexpLiterals.findRequiredLiteral( regexpToBeSet );
+         sharedLiterals = null;
+         sharedLiteralIndex = -1;
+      }
+
+      private CompiledRegexp( final CompiledRegexp compiled,
+                              final LiteralSet sharedLiteralsToBeSet,
+                              final int sharedLiteralIndexToBeSet )
+      {
+         regexp = compiled.regexp;
+         pattern = compiled.pattern;
+         requiredLiteral = compiled.requiredLiteral;
+         sharedLiterals = sharedLiteralsToBeSet;
+         sharedLiteralIndex = sharedLiteralIndexToBeSet;
+      }
+   }
+
+   /**
+    * Gathers the literals required by the given regexp rules into one set, so
+    * that the lines of a file are scanned once for all of them, instead of
+    * once per rule. The other rules are ignored.
+    * 
+    * @param rules
+    * @return the shared literals, to be given to the copies of these rules
+    *         through useSharedLiterals
+    */
+   public static LiteralSet shareRequiredLiterals( final Collection< ? extends IFlexRule > rules )
+   {
+      final List< String > literals = new ArrayList< String >();
+
+      for ( final IFlexRule rule : rules )
+      {
+         if ( rule instanceof AbstractRegexpBasedRule )
+         {
+            final String literal = ( ( AbstractRegexpBasedRule ) rule ).getCompiledRegexp().requiredLiteral;
+
+            if ( literal != null
+                  && !literals.contains( literal ) )
+            {
+               literals.add( literal );
+            }
+         }
+      }
+      final LiteralSet sharedLiterals = new LiteralSet( literals );
+
+      for ( final IFlexRule rule : rules )
+      {
+         if ( rule instanceof AbstractRegexpBasedRule )
+         {
+            ( ( AbstractRegexpBasedRule ) rule ).useSharedLiterals( sharedLiterals );
+         }
+      }
+      return sharedLiterals;
+   }
+
+   private volatile CompiledRegexp compiledRegexp;
 
    /**
     * 
@@ -54,11 +140,12 @@ public abstract class AbstractRegexpBasedRule extends AbstractFlexRule
    }
 
    /**
-    * 
+    * Compiles getRegexp(). It is compiled again by the rule only if its
+    * expression changes.
     */
    public final void compilePattern()
    {
-      pattern = Pattern.compile( getRegexp() );
+      compiledRegexp = new CompiledRegexp( getRegexp() );
    }
 
    /*
@@ -69,30 +156,73 @@ public abstract class AbstractRegexpBasedRule extends AbstractFlexRule
    @Override
    public final List< IFlexViolation > findViolationsInCurrentFile()
    {
-      compilePattern();
       final List< IFlexViolation > violations = new ArrayList< IFlexViolation >();
+      final CompiledRegexp currentRegexp = getCompiledRegexp();
 
-      if ( "".compareTo( getRegexp() ) != 0 )
+      if ( "".compareTo( currentRegexp.regexp ) != 0 )
       {
-         for ( int i = 1; i <= getCurrentFile().getLinesNb(); i++ )
+         final Matcher matcher = currentRegexp.pattern.matcher( "" );
+         final IFlexFile file = getCurrentFile();
+
+         if ( currentRegexp.sharedLiterals == null )
+         {
+            final FileContent content = file.getContent();
+            final int[] lineOffsets = content.getLineOffsets();
+
+            for ( int i = 1; i <= content.getLinesNb(); i++ )
+            {
+               if ( currentRegexp.requiredLiteral == null
+                     || RegexpLiterals.contains( content.getBuffer(),
+                                                 lineOffsets[ i - 1 ],
+                                                 lineOffsets[ i ] - 1,
+                                                 currentRegexp.requiredLiteral ) )
+               {
+                  findViolationInLine( violations,
+                                       matcher,
+                                       i );
+               }
+            }
+         }
+         else
          {
-            final String line = getCurrentFile().getLineAt( i );
+            int lineIndex = file.nextLineContaining( currentRegexp.sharedLiterals,
+                                                     currentRegexp.sharedLiteralIndex,
+                                                     1 );
 
-            if ( isCurrentLineConcerned( line )
-                  && doesCurrentLineMacthes( line ) && isViolationDetectedOnThisMatchingLine( line )
-                  && !isComment( line ) )
+            while ( lineIndex != -1 )
             {
-               addViolation( violations,
-                             ViolationPosition.create( i,
-                                                       i,
-                                                       0,
-                                                       line.length() ) );
+               findViolationInLine( violations,
+                                    matcher,
+                                    lineIndex );
+               lineIndex = file.nextLineContaining( currentRegexp.sharedLiterals,
+                                                    currentRegexp.sharedLiteralIndex,
+                                                    lineIndex + 1 );
             }
          }
       }
       return violations;
    }
 
+   /**
+    * Makes the rule look up its required literal in literals shared with the
+    * other regexp rules, as computed by shareRequiredLiterals. The rule keeps
+    * scanning the lines on its own if the set does not contain its literal, or
+    * once its expression changes.
+    * 
+    * @param sharedLiterals
+    */
+   public final void useSharedLiterals( final LiteralSet sharedLiterals )
+   {
+      final CompiledRegexp currentRegexp = getCompiledRegexp();
+      final int literalIndex = currentRegexp.requiredLiteral == null ? -1
+                                                                    : sharedLiterals.indexOf( currentRegexp.requiredLiteral );
+
+      if ( literalIndex != -1 )
+      {
+         compiledRegexp = new CompiledRegexp( currentRegexp, sharedLiterals, literalIndex );
+      }
+   }
+
    /**
     * @param line
     * @return
@@ -117,9 +247,7 @@ public abstract class AbstractRegexpBasedRule extends AbstractFlexRule
     */
    protected final Matcher getMatcher( final String line )
    {
-      final Matcher matcher = pattern.matcher( line );
-
-      return matcher;
+      return compiledRegexp.pattern.matcher( line );
    }
 
    /**
@@ -137,4 +265,34 @@ public abstract class AbstractRegexpBasedRule extends AbstractFlexRule
     * @return
     */
    protected abstract boolean isViolationDetectedOnThisMatchingLine( final String line );
+
+   private void findViolationInLine( final List< IFlexViolation > violations,
+                                     final Matcher matcher,
+                                     final int lineIndex )
+   {
+      final String line = getCurrentFile().getLineAt( lineIndex );
+
+      if ( isCurrentLineConcerned( line )
+            && matcher.reset( line ).matches() && isViolationDetectedOnThisMatchingLine( line ) && !isComment( line ) )
+      {
+         addViolation( violations,
+                       ViolationPosition.create( lineIndex,
+                                                 lineIndex,
+                                                 0,
+                                                 line.length() ) );
+      }
+   }
+
+   /**
+    * @return the compiled form of the current getRegexp(), which is compiled
+    *         again if the expression has changed
+    */
+   private CompiledRegexp getCompiledRegexp()
+   {
+      if ( !getRegexp().equals( compiledRegexp.regexp ) )
+      {
+         compilePattern();
+      }
+      return compiledRegexp;
+   }
 }
\ No newline at end of file
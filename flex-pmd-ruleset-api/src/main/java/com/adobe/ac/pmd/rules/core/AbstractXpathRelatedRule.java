@@ -42,10 +42,9 @@ import java.util.logging.Logger;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.NamespaceContext;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
@@ -53,6 +52,7 @@ import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
 import com.adobe.ac.pmd.IFlexViolation;
+import com.adobe.ac.pmd.files.IMxmlFile;
 import com.adobe.ac.utils.StackTraceUtils;
 
 /**
@@ -63,7 +63,7 @@ public abstract class AbstractXpathRelatedRule extends AbstractFlexRule
    /**
     * @author xagnetti
     */
-   public class NamespaceContextMap implements NamespaceContext
+   public static class NamespaceContextMap implements NamespaceContext
    {
       private final Map< String, String > prefixMap;
 
@@ -143,6 +143,22 @@ public abstract class AbstractXpathRelatedRule extends AbstractFlexRule
 
    protected static final Logger LOGGER = Logger.getLogger( AbstractXpathRelatedRule.class.getName() );
 
+   /**
+    * XPath objects are not thread-safe, but can be shared by the rules of a
+    * thread.
+    */
+   private static final ThreadLocal< XPath > XPATH = new ThreadLocal< XPath >()
+   {
+      @Override
+      protected XPath initialValue()
+      {
+         final XPath xPath = XPathFactory.newInstance().newXPath();
+
+         xPath.setNamespaceContext( new NamespaceContextMap( "mx", "http://www.adobe.com/2006/mxml" ) );
+         return xPath;
+      }
+   };
+
    private static Map< String, String > toMap( final String... mappingPairs )
    {
       final Map< String, String > prefixMappings = new LinkedHashMap< String, String >( mappingPairs.length / 2 );
@@ -154,6 +170,12 @@ public abstract class AbstractXpathRelatedRule extends AbstractFlexRule
       return prefixMappings;
    }
 
+   /**
+    * XPath expressions are not thread-safe either, so that each thread compiles
+    * its own.
+    */
+   private final ThreadLocal< XPathExpression > compiledExpression = new ThreadLocal< XPathExpression >();
+
    /**
     * @param doc
     * @param xPath
@@ -175,8 +197,8 @@ public abstract class AbstractXpathRelatedRule extends AbstractFlexRule
 
       try
       {
-         final Document doc = buildDocument();
-         final XPath xPath = buildXPath();
+         final Document doc = ( ( IMxmlFile ) getCurrentFile() ).getDocument();
+         final XPath xPath = XPATH.get();
 
          onEvaluated( violations,
                       doc,
@@ -211,6 +233,23 @@ public abstract class AbstractXpathRelatedRule extends AbstractFlexRule
       return violations;
    }
 
+   /**
+    * @return the expression of getXPathExpression(), compiled the first time
+    *         the current thread uses it
+    * @throws XPathExpressionException
+    */
+   protected final XPathExpression getCompiledXPathExpression() throws XPathExpressionException
+   {
+      XPathExpression expression = compiledExpression.get();
+
+      if ( expression == null )
+      {
+         expression = XPATH.get().compile( getXPathExpression() );
+         compiledExpression.set( expression );
+      }
+      return expression;
+   }
+
    /**
     * @return
     */
@@ -236,23 +275,4 @@ public abstract class AbstractXpathRelatedRule extends AbstractFlexRule
    protected abstract void onEvaluated( final List< IFlexViolation > violations,
                                         final Document doc,
                                         final XPath xPath ) throws XPathExpressionException;
-
-   private Document buildDocument() throws ParserConfigurationException,
-                                   SAXException,
-                                   IOException
-   {
-      final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-      factory.setNamespaceAware( true );
-      final DocumentBuilder builder = factory.newDocumentBuilder();
-      return builder.parse( getCurrentFile().getFilePath() );
-   }
-
-   private XPath buildXPath()
-   {
-      final XPathFactory xPathFactory = XPathFactory.newInstance();
-      final XPath xPath = xPathFactory.newXPath();
-      xPath.setNamespaceContext( new NamespaceContextMap( "mx", "http://www.adobe.com/2006/mxml" ) );
-      return xPath;
-   }
-
-}
\ No newline at end of file
+}
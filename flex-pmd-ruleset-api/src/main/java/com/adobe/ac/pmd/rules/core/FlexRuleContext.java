@@ -0,0 +1,119 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.rules.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.adobe.ac.pmd.IFlexViolation;
+import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.nodes.IPackage;
+
+/**
+ * Execution context of a rule on one file. It holds the file under
+ * investigation, its AST, the files of the source path, the violations found
+ * so far, and the state the rule keeps while walking the file. A context is
+ * created for every processed file, and is only seen by the thread processing
+ * it, so that the rule instance itself can be shared between threads.
+ * 
+ * @author xagnetti
+ */
+public final class FlexRuleContext
+{
+   private final IFlexFile                file;
+   private final Map< String, IFlexFile > filesInSourcePath;
+   private final IPackage                 packageNode;
+   private final Object                   ruleState;
+   private final List< IFlexViolation >   violations;
+
+   /**
+    * @param fileToBeSet file under investigation
+    * @param packageNodeToBeSet its AST, null if the rule does not need it
+    * @param filesInSourcePathToBeSet project index
+    * @param ruleStateToBeSet state created by the rule for this file, null if
+    *           the rule does not keep any
+    */
+   public FlexRuleContext( final IFlexFile fileToBeSet,
+                           final IPackage packageNodeToBeSet,
+                           final Map< String, IFlexFile > filesInSourcePathToBeSet,
+                           final Object ruleStateToBeSet )
+   {
+      file = fileToBeSet;
+      packageNode = packageNodeToBeSet;
+      filesInSourcePath = filesInSourcePathToBeSet;
+      ruleState = ruleStateToBeSet;
+      violations = new ArrayList< IFlexViolation >();
+   }
+
+   /**
+    * @return the file under investigation
+    */
+   public IFlexFile getFile()
+   {
+      return file;
+   }
+
+   /**
+    * @return every file of the source path, indexed by their fully qualified
+    *         names
+    */
+   public Map< String, IFlexFile > getFilesInSourcePath()
+   {
+      return filesInSourcePath;
+   }
+
+   /**
+    * @return the AST of the file under investigation
+    */
+   public IPackage getPackageNode()
+   {
+      return packageNode;
+   }
+
+   /**
+    * @return the state the rule keeps while walking the file, as created by
+    *         AbstractFlexRule.createState(). It is discarded with the context
+    *         once the file is processed.
+    */
+   public Object getRuleState()
+   {
+      return ruleState;
+   }
+
+   /**
+    * @return the violations found so far on the file
+    */
+   public List< IFlexViolation > getViolations()
+   {
+      return violations;
+   }
+}
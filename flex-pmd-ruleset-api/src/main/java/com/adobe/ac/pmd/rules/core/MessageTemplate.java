@@ -0,0 +1,181 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.rules.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rule message parsed once into literal segments and {n} placeholders. A
+ * violation only keeps the values of its placeholders, and its message is
+ * rendered when a report asks for it.
+ * 
+ * @author xagnetti
+ */
+final class MessageTemplate
+{
+   /**
+    * Placeholders have at most this number of digits, so that their index
+    * fits into an int.
+    */
+   private static final int MAXIMUM_DIGITS_NB = 9;
+
+   private static int findPlaceholderEnd( final String message,
+                                          final int openingBraceIndex )
+   {
+      int index = openingBraceIndex + 1;
+
+      while ( index < message.length()
+            && Character.isDigit( message.charAt( index ) ) )
+      {
+         index++;
+      }
+      final int digitsNb = index
+            - openingBraceIndex - 1;
+
+      if ( digitsNb == 0
+            || digitsNb > MAXIMUM_DIGITS_NB || digitsNb > 1 && message.charAt( openingBraceIndex + 1 ) == '0'
+            || index == message.length() || message.charAt( index ) != '}' )
+      {
+         return -1;
+      }
+      return index;
+   }
+
+   private final int      openingBracesNb;
+   private final int[]    placeholders;
+   private final int      placeholdersRange;
+   private final String[] segments;
+   private final String   suffix;
+
+   /**
+    * @param message
+    * @param suffixToBeSet text appended as is after the message, may be null
+    */
+   MessageTemplate( final String message,
+                    final String suffixToBeSet )
+   {
+      final List< String > segmentsList = new ArrayList< String >();
+      final List< Integer > placeholdersList = new ArrayList< Integer >();
+      int bracesNb = 0;
+      int range = 0;
+      int segmentStart = 0;
+      int index = 0;
+
+      while ( index < message.length() )
+      {
+         int placeholderEnd = -1;
+
+         if ( message.charAt( index ) == '{' )
+         {
+            bracesNb++;
+            placeholderEnd = findPlaceholderEnd( message,
+                                                 index );
+         }
+         if ( placeholderEnd > 0 )
+         {
+            final int placeholder = Integer.parseInt( message.substring( index + 1,
+                                                                         placeholderEnd ) );
+
+            segmentsList.add( message.substring( segmentStart,
+                                                 index ) );
+            placeholdersList.add( placeholder );
+            range = Math.max( range,
+                              placeholder + 1 );
+            segmentStart = placeholderEnd + 1;
+            index = segmentStart;
+         }
+         else
+         {
+            index++;
+         }
+      }
+      segmentsList.add( message.substring( segmentStart ) );
+      suffix = suffixToBeSet;
+      openingBracesNb = bracesNb;
+      placeholdersRange = range;
+      segments = segmentsList.toArray( new String[ segmentsList.size() ] );
+      placeholders = new int[ placeholdersList.size() ];
+      for ( int i = 0; i < placeholders.length; i++ )
+      {
+         placeholders[ i ] = placeholdersList.get( i );
+      }
+   }
+
+   /**
+    * @return the number of opening braces in the message, whether they start
+    *         a placeholder or not
+    */
+   int getOpeningBracesNb()
+   {
+      return openingBracesNb;
+   }
+
+   /**
+    * @return the highest placeholder index plus one, which is the size of the
+    *         arguments array to give to render
+    */
+   int getPlaceholdersRange()
+   {
+      return placeholdersRange;
+   }
+
+   /**
+    * @param arguments values indexed by placeholder, may be null. A
+    *           placeholder without value is rendered as is.
+    * @return
+    */
+   String render( final String[] arguments )
+   {
+      final StringBuffer message = new StringBuffer( segments[ 0 ] );
+
+      for ( int i = 0; i < placeholders.length; i++ )
+      {
+         final int placeholder = placeholders[ i ];
+
+         if ( arguments == null
+               || arguments[ placeholder ] == null )
+         {
+            message.append( '{' ).append( placeholder ).append( '}' );
+         }
+         else
+         {
+            message.append( arguments[ placeholder ] );
+         }
+         message.append( segments[ i + 1 ] );
+      }
+      if ( suffix != null )
+      {
+         message.append( suffix );
+      }
+      return message.toString();
+   }
+}
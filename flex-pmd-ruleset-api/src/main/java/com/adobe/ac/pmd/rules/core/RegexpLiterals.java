@@ -0,0 +1,316 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.rules.core;
+
+/**
+ * Finds a literal which appears in every text matched by a regular
+ * expression, so that the lines which do not contain it are rejected without
+ * running the expression.
+ * 
+ * @author xagnetti
+ */
+final class RegexpLiterals
+{
+   /**
+    * Escapes standing for a class of characters or for a position
+    */
+   private static final String CLASS_ESCAPES = "dDsSwWbBtnrfaeAzZGhHvVR";
+
+   /**
+    * @param buffer
+    * @param start first character of the searched range
+    * @param end character following the searched range
+    * @param literal
+    * @return true if the range contains the literal
+    */
+   static boolean contains( final char[] buffer,
+                            final int start,
+                            final int end,
+                            final String literal )
+   {
+      final char first = literal.charAt( 0 );
+      final int lastStart = end
+            - literal.length();
+      boolean found = false;
+
+      for ( int index = start; index <= lastStart
+            && !found; index++ )
+      {
+         found = buffer[ index ] == first
+               && regionMatches( buffer, index, literal );
+      }
+      return found;
+   }
+
+   /**
+    * The search is conservative: expressions with alternations, inline flags,
+    * quotations or numeric escapes at the top level have no literal.
+    * 
+    * @param regexp
+    * @return the longest literal every match contains, null if none has been
+    *         found
+    */
+   static String findRequiredLiteral( final String regexp )
+   {
+      if ( regexp.contains( "(?" )
+            || regexp.contains( "\\Q" ) )
+      {
+         return null;
+      }
+      final StringBuffer current = new StringBuffer();
+      String longest = "";
+      boolean lastAtomIsLiteral = false;
+      int index = 0;
+
+      while ( index < regexp.length() )
+      {
+         final char character = regexp.charAt( index );
+         int next = index + 1;
+
+         if ( character == '\\' )
+         {
+            if ( next == regexp.length() )
+            {
+               return null;
+            }
+            final char escaped = regexp.charAt( next );
+
+            if ( CLASS_ESCAPES.indexOf( escaped ) != -1 )
+            {
+               longest = endRun( current,
+                                 longest );
+               lastAtomIsLiteral = false;
+            }
+            else if ( Character.isLetterOrDigit( escaped ) )
+            {
+               return null;
+            }
+            else
+            {
+               current.append( escaped );
+               lastAtomIsLiteral = true;
+            }
+            next++;
+         }
+         else if ( character == '['
+               || character == '(' )
+         {
+            next = character == '[' ? skipClass( regexp,
+                                                 index )
+                                   : skipGroup( regexp,
+                                                index );
+            if ( next == -1 )
+            {
+               return null;
+            }
+            longest = endRun( current,
+                              longest );
+            lastAtomIsLiteral = false;
+         }
+         else if ( character == '|'
+               || character == ')' )
+         {
+            return null;
+         }
+         else if ( character == '*'
+               || character == '?' || character == '{' )
+         {
+            if ( lastAtomIsLiteral )
+            {
+               current.setLength( current.length() - 1 );
+            }
+            if ( character == '{' )
+            {
+               next = regexp.indexOf( '}',
+                                      index ) + 1;
+               if ( next == 0 )
+               {
+                  return null;
+               }
+            }
+            next = skipQuantifierModifier( regexp,
+                                           next );
+            longest = endRun( current,
+                              longest );
+            lastAtomIsLiteral = false;
+         }
+         else if ( character == '+'
+               || character == '.' || character == '^' || character == '$' )
+         {
+            next = character == '+' ? skipQuantifierModifier( regexp,
+                                                              next )
+                                   : next;
+            longest = endRun( current,
+                              longest );
+            lastAtomIsLiteral = false;
+         }
+         else
+         {
+            current.append( character );
+            lastAtomIsLiteral = true;
+         }
+         index = next;
+      }
+      longest = endRun( current,
+                        longest );
+      return longest.length() == 0 ? null
+                                  : longest;
+   }
+
+   private static String endRun( final StringBuffer current,
+                                 final String longest )
+   {
+      final String run = current.length() > longest.length() ? current.toString()
+                                                             : longest;
+
+      current.setLength( 0 );
+      return run;
+   }
+
+   private static boolean regionMatches( final char[] buffer,
+                                         final int start,
+                                         final String literal )
+   {
+      boolean matches = true;
+
+      for ( int index = 1; index < literal.length()
+            && matches; index++ )
+      {
+         matches = buffer[ start
+               + index ] == literal.charAt( index );
+      }
+      return matches;
+   }
+
+   /**
+    * @return the index following the character class opened at the given
+    *         index, -1 if it is not closed
+    */
+   private static int skipClass( final String regexp,
+                                 final int start )
+   {
+      int index = start + 1;
+      int depth = 1;
+
+      if ( index < regexp.length()
+            && regexp.charAt( index ) == '^' )
+      {
+         index++;
+      }
+      if ( index < regexp.length()
+            && regexp.charAt( index ) == ']' )
+      {
+         index++;
+      }
+      while ( index < regexp.length()
+            && depth > 0 )
+      {
+         final char character = regexp.charAt( index );
+
+         if ( character == '\\' )
+         {
+            index++;
+         }
+         else if ( character == '[' )
+         {
+            depth++;
+         }
+         else if ( character == ']' )
+         {
+            depth--;
+         }
+         index++;
+      }
+      return depth == 0 ? index
+                       : -1;
+   }
+
+   /**
+    * @return the index following the group opened at the given index, -1 if
+    *         it is not closed
+    */
+   private static int skipGroup( final String regexp,
+                                 final int start )
+   {
+      int index = start + 1;
+      int depth = 1;
+
+      while ( index < regexp.length()
+            && depth > 0 )
+      {
+         final char character = regexp.charAt( index );
+
+         if ( character == '\\' )
+         {
+            index += 2;
+         }
+         else if ( character == '[' )
+         {
+            index = skipClass( regexp,
+                               index );
+            if ( index == -1 )
+            {
+               return -1;
+            }
+         }
+         else
+         {
+            if ( character == '(' )
+            {
+               depth++;
+            }
+            else if ( character == ')' )
+            {
+               depth--;
+            }
+            index++;
+         }
+      }
+      return depth == 0 ? index
+                       : -1;
+   }
+
+   /**
+    * @return the index following the lazy or possessive mark of a
+    *         quantifier, if any
+    */
+   private static int skipQuantifierModifier( final String regexp,
+                                              final int index )
+   {
+      return index < regexp.length()
+            && ( regexp.charAt( index ) == '?' || regexp.charAt( index ) == '+' ) ? index + 1
+                                                                                 : index;
+   }
+
+   private RegexpLiterals()
+   {
+   }
+}
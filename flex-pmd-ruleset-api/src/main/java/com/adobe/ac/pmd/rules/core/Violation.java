@@ -42,15 +42,17 @@ import com.adobe.ac.pmd.files.IFlexFile;
  */
 public final class Violation implements IFlexViolation
 {
-   public static final String RULESET_CREATOR_URL = "http://opensource.adobe.com/svn/opensource/"
-                                                        + "flexpmd/bin/flex-pmd-ruleset-creator.html?rule=";
-   private final int          beginColumn;
-   private final int          beginLine;
-   private int                endColumn;
-   private final int          endLine;
-   private final IFlexFile    file;
-   private final IFlexRule    rule;
-   private String             ruleMessage         = "";
+   public static final String    RULESET_CREATOR_URL = "http://opensource.adobe.com/svn/opensource/"
+                                                           + "flexpmd/bin/flex-pmd-ruleset-creator.html?rule=";
+   private final int             beginColumn;
+   private final int             beginLine;
+   private int                   endColumn;
+   private final int             endLine;
+   private final IFlexFile       file;
+   private String[]              messageArguments;
+   private String                messageSuffix;
+   private final MessageTemplate messageTemplate;
+   private final IFlexRule       rule;
 
    /**
     * @param position
@@ -60,6 +62,48 @@ public final class Violation implements IFlexViolation
    public Violation( final ViolationPosition position,
                      final IFlexRule violatedRule,
                      final IFlexFile violatedFile )
+   {
+      this( position,
+            violatedRule,
+            violatedFile,
+            new MessageTemplate( violatedRule == null
+                                       || violatedRule.getMessage() == null ? ""
+                                                                           : violatedRule.getMessage(),
+                                 null ) );
+   }
+
+   /**
+    * Recreates an already formatted violation, read from a cache for instance.
+    * 
+    * @param position
+    * @param violatedRule
+    * @param violatedFile
+    * @param ruleMessageToBeSet the complete message, as returned by
+    *           getDescription
+    */
+   public Violation( final ViolationPosition position,
+                     final IFlexRule violatedRule,
+                     final IFlexFile violatedFile,
+                     final String ruleMessageToBeSet )
+   {
+      this( position,
+            violatedRule,
+            violatedFile,
+            new MessageTemplate( ruleMessageToBeSet,
+                                 null ) );
+   }
+
+   /**
+    * @param position
+    * @param violatedRule
+    * @param violatedFile
+    * @param messageTemplateToBeSet the parsed message of the rule, shared by
+    *           all its violations
+    */
+   Violation( final ViolationPosition position,
+              final IFlexRule violatedRule,
+              final IFlexFile violatedFile,
+              final MessageTemplate messageTemplateToBeSet )
    {
       beginLine = position.getBeginLine();
       endLine = position.getEndLine();
@@ -67,12 +111,7 @@ public final class Violation implements IFlexViolation
       endColumn = position.getEndColumn();
       rule = violatedRule;
       file = violatedFile;
-
-      if ( violatedRule != null )
-      {
-         ruleMessage = violatedRule.getMessage() == null ? ""
-                                                        : violatedRule.getMessage();
-      }
+      messageTemplate = messageTemplateToBeSet;
    }
 
    /*
@@ -81,7 +120,9 @@ public final class Violation implements IFlexViolation
     */
    public void appendToMessage( final String messageToAppend )
    {
-      ruleMessage += messageToAppend;
+      messageSuffix = messageSuffix == null ? messageToAppend
+                                           : messageSuffix
+                                                 + messageToAppend;
    }
 
    /*
@@ -131,13 +172,19 @@ public final class Violation implements IFlexViolation
       return "";
    }
 
-   /*
-    * (non-Javadoc)
+   /**
+    * The message is rendered on each call, and is not retained by the
+    * violation.
+    * 
     * @see net.sourceforge.pmd.IRuleViolation#getDescription()
     */
    public String getDescription()
    {
-      return ruleMessage;
+      final String message = messageTemplate.render( messageArguments );
+
+      return messageSuffix == null ? message
+                                  : message
+                                        + messageSuffix;
    }
 
    /*
@@ -200,6 +247,8 @@ public final class Violation implements IFlexViolation
     */
    public String getRuleMessage()
    {
+      final String ruleMessage = getDescription();
+
       return ruleMessage.endsWith( "." ) ? ruleMessage.substring( 0,
                                                                   ruleMessage.length() - 1 )
                                         : ruleMessage;
@@ -232,9 +281,18 @@ public final class Violation implements IFlexViolation
    public void replacePlaceholderInMessage( final String replacement,
                                             final int index )
    {
-      ruleMessage = ruleMessage.replace( "{"
-                                               + index + "}",
-                                         replacement );
+      if ( index >= 0
+            && index < messageTemplate.getPlaceholdersRange() )
+      {
+         if ( messageArguments == null )
+         {
+            messageArguments = new String[ messageTemplate.getPlaceholdersRange() ];
+         }
+         if ( messageArguments[ index ] == null )
+         {
+            messageArguments[ index ] = replacement;
+         }
+      }
    }
 
    /*
@@ -30,21 +30,112 @@
  */
 package com.adobe.ac.pmd.files;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import junit.framework.Assert;
 import net.sourceforge.pmd.PMDException;
 
 import org.junit.Test;
 
+import com.adobe.ac.pmd.AstAssert;
 import com.adobe.ac.pmd.FlexPmdTestBase;
+import com.adobe.ac.pmd.nodes.IPackage;
+import com.adobe.ac.pmd.parser.IParserNode;
+
+import de.bokelberg.flex.parser.AstCodec;
 
 public class FileSetUtilsTest extends FlexPmdTestBase
 {
+   private static void deleteDirectory( final File directory )
+   {
+      for ( final File entry : directory.listFiles() )
+      {
+         Assert.assertTrue( entry.delete() );
+      }
+      Assert.assertTrue( directory.delete() );
+   }
+
    @Test
    public void buildAst() throws PMDException
    {
       FileSetUtils.buildAst( getTestFiles().get( "bug.Duane.mxml" ) );
    }
 
+   @Test
+   public void testAstCache() throws PMDException,
+                             IOException
+   {
+      final File directory = File.createTempFile( "asts",
+                                                  "" );
+      final IFlexFile file = getTestFiles().get( "AbstractRowData.as" );
+
+      final AstCache astCache = new AstCache( directory );
+
+      Assert.assertTrue( directory.delete() );
+      try
+      {
+         final IParserNode parsedAst = FileSetUtils.buildAst( file,
+                                                              astCache );
+
+         Assert.assertEquals( 1,
+                              directory.list().length );
+         AstAssert.assertSameTree( parsedAst,
+                                   FileSetUtils.buildAst( file,
+                                                          astCache ) );
+      }
+      finally
+      {
+         deleteDirectory( directory );
+      }
+   }
+
+   @Test
+   public void testAstCacheEviction() throws PMDException,
+                                     IOException
+   {
+      final File directory = File.createTempFile( "asts",
+                                                  "" );
+
+      Assert.assertTrue( directory.delete() );
+      try
+      {
+         final Map< String, IPackage > asts = FileSetUtils.computeAsts( getTestFiles(),
+                                                                       2,
+                                                                       FileSetUtils.DEFAULT_PARSING_TIMEOUT,
+                                                                       new ArrayList< IFlexFile >(),
+                                                                       new AstCache( directory, 3 ) );
+
+         Assert.assertTrue( asts.size() > 3 );
+         Assert.assertEquals( 3,
+                              directory.list().length );
+      }
+      finally
+      {
+         deleteDirectory( directory );
+      }
+   }
+
+   @Test
+   public void testAstCodecRoundTrip() throws PMDException,
+                                      IOException
+   {
+      for ( final IPackage packageNode : FileSetUtils.computeAsts( getTestFiles() ).values() )
+      {
+         final IParserNode ast = packageNode.getInternalNode();
+
+         AstAssert.assertSameTree( ast,
+                                   AstCodec.decode( AstCodec.encode( ast ) ) );
+      }
+   }
+
    @Test
    public void testBuildMessage()
    {
@@ -58,4 +149,55 @@ public class FileSetUtilsTest extends FlexPmdTestBase
    {
       FileSetUtils.computeAsts( getTestFiles() );
    }
+
+   @Test
+   public void testComputeAstsKeepsFilesOrder() throws PMDException
+   {
+      final Map< String, IPackage > serialAsts = FileSetUtils.computeAsts( getTestFiles(),
+                                                                           1 );
+      final Map< String, IPackage > parallelAsts = FileSetUtils.computeAsts( getTestFiles(),
+                                                                             4 );
+      final List< String > expectedKeys = new ArrayList< String >( getTestFiles().keySet() );
+      final Iterator< String > expectedKeysIterator = expectedKeys.iterator();
+
+      Assert.assertEquals( new ArrayList< String >( serialAsts.keySet() ),
+                           new ArrayList< String >( parallelAsts.keySet() ) );
+
+      for ( final String key : parallelAsts.keySet() )
+      {
+         String expectedKey = expectedKeysIterator.next();
+
+         while ( !expectedKey.equals( key ) )
+         {
+            expectedKey = expectedKeysIterator.next();
+         }
+      }
+   }
+
+   @Test
+   public void testComputeAstsWithListener() throws PMDException
+   {
+      final Map< String, IPackage > asts = FileSetUtils.computeAsts( getTestFiles(),
+                                                                     1 );
+      final Set< String > streamedFiles = Collections.synchronizedSet( new HashSet< String >() );
+      final List< IFlexFile > timedOutFiles = new ArrayList< IFlexFile >();
+
+      FileSetUtils.computeAsts( getTestFiles(),
+                                4,
+                                FileSetUtils.DEFAULT_PARSING_TIMEOUT,
+                                timedOutFiles,
+                                new IAstListener()
+                                {
+                                   public void astBuilt( final IFlexFile file,
+                                                         final IPackage packageNode )
+                                   {
+                                      Assert.assertNotNull( packageNode );
+                                      Assert.assertTrue( streamedFiles.add( file.getFullyQualifiedName() ) );
+                                   }
+                                } );
+
+      Assert.assertTrue( timedOutFiles.isEmpty() );
+      Assert.assertEquals( asts.keySet(),
+                           streamedFiles );
+   }
 }
@@ -30,8 +30,15 @@
  */
 package com.adobe.ac.pmd.rules.core;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import junit.framework.Assert;
 import net.sourceforge.pmd.PMDException;
@@ -39,8 +46,10 @@ import net.sourceforge.pmd.PMDException;
 import org.junit.Test;
 
 import com.adobe.ac.pmd.FlexPmdTestBase;
+import com.adobe.ac.pmd.IFlexViolation;
 import com.adobe.ac.pmd.files.FileSetUtils;
 import com.adobe.ac.pmd.files.IFlexFile;
+import com.adobe.ac.pmd.nodes.IPackage;
 import com.adobe.ac.pmd.nodes.impl.NodeFactory;
 import com.adobe.ac.pmd.parser.IParserNode;
 import com.adobe.ac.pmd.parser.NodeKind;
@@ -83,6 +92,19 @@ public class FlexRuleTest extends FlexPmdTestBase
       }
    }
 
+   public class StatefulEmptyIfStmtRule extends EmptyIfStmtRule
+   {
+      private int ifNb;
+
+      /**
+       * @return
+       */
+      public int getIfNb()
+      {
+         return ifNb;
+      }
+   }
+
    @Test
    public void testExclusions() throws PMDException
    {
@@ -105,4 +127,45 @@ public class FlexRuleTest extends FlexPmdTestBase
 
       Assert.assertTrue( noExclusionViolationsLength > exclusionViolationsLength );
    }
+
+   @Test
+   public void testIsThreadSafe()
+   {
+      Assert.assertTrue( new EmptyIfStmtRule().isThreadSafe() );
+      Assert.assertFalse( new StatefulEmptyIfStmtRule().isThreadSafe() );
+   }
+
+   @Test
+   public void testProcessFileFromSeveralThreads() throws PMDException,
+                                                  InterruptedException,
+                                                  ExecutionException
+   {
+      final AbstractFlexRule rule = new EmptyIfStmtRule();
+      final IFlexFile duaneMxml = getTestFiles().get( "bug.Duane.mxml" );
+      final IPackage packageNode = NodeFactory.createPackage( FileSetUtils.buildAst( duaneMxml ) );
+      final int expectedViolationsLength = rule.processFile( duaneMxml,
+                                                             packageNode,
+                                                             getTestFiles() ).size();
+      final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+      final List< Future< List< IFlexViolation >>> results = new ArrayList< Future< List< IFlexViolation >>>();
+
+      for ( int i = 0; i < 16; i++ )
+      {
+         results.add( executor.submit( new Callable< List< IFlexViolation > >()
+         {
+            public List< IFlexViolation > call()
+            {
+               return rule.processFile( duaneMxml,
+                                        packageNode,
+                                        getTestFiles() );
+            }
+         } ) );
+      }
+      executor.shutdown();
+      for ( final Future< List< IFlexViolation >> result : results )
+      {
+         Assert.assertEquals( expectedViolationsLength,
+                              result.get().size() );
+      }
+   }
 }
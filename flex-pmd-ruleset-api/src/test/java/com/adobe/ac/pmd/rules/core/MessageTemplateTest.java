@@ -0,0 +1,78 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.rules.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MessageTemplateTest
+{
+   private static final String MESSAGE = "{0} has {1} lines ({0} maximum {01}) {";
+
+   @Test
+   public void testGetOpeningBracesNb()
+   {
+      assertEquals( 0,
+                    new MessageTemplate( "",
+                                         null ).getOpeningBracesNb() );
+      assertEquals( 5,
+                    new MessageTemplate( MESSAGE,
+                                         null ).getOpeningBracesNb() );
+   }
+
+   @Test
+   public void testGetPlaceholdersRange()
+   {
+      assertEquals( 0,
+                    new MessageTemplate( "no placeholder {a}",
+                                         null ).getPlaceholdersRange() );
+      assertEquals( 3,
+                    new MessageTemplate( "{2} and {0}",
+                                         null ).getPlaceholdersRange() );
+   }
+
+   @Test
+   public void testRender()
+   {
+      final MessageTemplate template = new MessageTemplate( MESSAGE,
+                                                            ". Description" );
+
+      assertEquals( MESSAGE
+                          + ". Description",
+                    template.render( null ) );
+      assertEquals( "a has {1} lines (a maximum {01}) {. Description",
+                    template.render( new String[] { "a", null } ) );
+      assertEquals( "a has 12 lines (a maximum {01}) {",
+                    new MessageTemplate( MESSAGE,
+                                         null ).render( new String[] { "a", "12" } ) );
+   }
+}
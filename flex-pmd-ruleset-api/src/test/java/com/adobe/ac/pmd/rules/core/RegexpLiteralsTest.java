@@ -0,0 +1,95 @@
+/**
+ *    Copyright (c) 2009, Adobe Systems, Incorporated
+ *    All rights reserved.
+ *
+ *    Redistribution  and  use  in  source  and  binary  forms, with or without
+ *    modification,  are  permitted  provided  that  the  following  conditions
+ *    are met:
+ *
+ *      * Redistributions  of  source  code  must  retain  the  above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *      * Redistributions  in  binary  form  must reproduce the above copyright
+ *        notice,  this  list  of  conditions  and  the following disclaimer in
+ *        the    documentation   and/or   other  materials  provided  with  the
+ *        distribution.
+ *      * Neither the name of the Adobe Systems, Incorporated. nor the names of
+ *        its  contributors  may be used to endorse or promote products derived
+ *        from this software without specific prior written permission.
+ *
+ *    THIS  SOFTWARE  IS  PROVIDED  BY THE  COPYRIGHT  HOLDERS AND CONTRIBUTORS
+ *    "AS IS"  AND  ANY  EXPRESS  OR  IMPLIED  WARRANTIES,  INCLUDING,  BUT NOT
+ *    LIMITED  TO,  THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ *    PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER
+ *    OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,  INCIDENTAL,  SPECIAL,
+ *    EXEMPLARY,  OR  CONSEQUENTIAL  DAMAGES  (INCLUDING,  BUT  NOT  LIMITED TO,
+ *    PROCUREMENT  OF  SUBSTITUTE   GOODS  OR   SERVICES;  LOSS  OF  USE,  DATA,
+ *    OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *    LIABILITY,  WHETHER  IN  CONTRACT,  STRICT  LIABILITY, OR TORT (INCLUDING
+ *    NEGLIGENCE  OR  OTHERWISE)  ARISING  IN  ANY  WAY  OUT OF THE USE OF THIS
+ *    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.adobe.ac.pmd.rules.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RegexpLiteralsTest
+{
+   @Test
+   public void testContains()
+   {
+      final char[] buffer = "var a : int;\nvar b : int;".toCharArray();
+
+      assertTrue( RegexpLiterals.contains( buffer,
+                                           0,
+                                           12,
+                                           "int;" ) );
+      assertFalse( RegexpLiterals.contains( buffer,
+                                            0,
+                                            11,
+                                            "int;" ) );
+      assertTrue( RegexpLiterals.contains( buffer,
+                                           13,
+                                           25,
+                                           "var b" ) );
+      assertFalse( RegexpLiterals.contains( buffer,
+                                            13,
+                                            25,
+                                            "var a" ) );
+   }
+
+   @Test
+   public void testFindRequiredLiteral()
+   {
+      assertEquals( "ModelLocator",
+                    RegexpLiterals.findRequiredLiteral( ".*ModelLocator.*" ) );
+      assertEquals( "dispatchEvent",
+                    RegexpLiterals.findRequiredLiteral( ".*dispatchEvent *\\( *new Event\\( *(\"|\').*(\"|\') *\\) *\\).*" ) );
+      assertEquals( "=\"{",
+                    RegexpLiterals.findRequiredLiteral( ".*=\"\\{[^']([^\\}]*)[^']\\}\".*" ) );
+      assertEquals( ".allowDomain",
+                    RegexpLiterals.findRequiredLiteral( "\\s*([a-zA-Z]+)\\.allowDomain\\s*\\(\\s*['\"]\\*['\"]\\s*\\).*" ) );
+      assertEquals( "\t",
+                    RegexpLiterals.findRequiredLiteral( "^ *\t.*" ) );
+      assertEquals( "ab",
+                    RegexpLiterals.findRequiredLiteral( "ab+c?" ) );
+      assertEquals( "xy",
+                    RegexpLiterals.findRequiredLiteral( "a{2}xy" ) );
+   }
+
+   @Test
+   public void testFindRequiredLiteralWithoutLiteral()
+   {
+      assertNull( RegexpLiterals.findRequiredLiteral( "" ) );
+      assertNull( RegexpLiterals.findRequiredLiteral( ".*((mouseOut)|(rollOut)).*" ) );
+      assertNull( RegexpLiterals.findRequiredLiteral( "foo|bar" ) );
+      assertNull( RegexpLiterals.findRequiredLiteral( "(?i)foo" ) );
+      assertNull( RegexpLiterals.findRequiredLiteral( "\\Qfoo\\E" ) );
+      assertNull( RegexpLiterals.findRequiredLiteral( "\\x41bc" ) );
+      assertNull( RegexpLiterals.findRequiredLiteral( "a*" ) );
+   }
+}
@@ -124,6 +124,21 @@ public class TestAbstractAstFlexRule extends FlexPmdTestBase
       }
    }
 
+   public class InheritingRule extends AllRule
+   {
+   }
+
+   @Test
+   public void testInheritedVisit() throws PMDException
+   {
+      final AllRule rule = new InheritingRule();
+
+      processFile( rule,
+                   "com.adobe.ac.ncss.LongSwitch.as" );
+
+      Assert.assertTrue( rule.switchVisited );
+   }
+
    @Test
    public void testVisit() throws PMDException
    {
@@ -40,7 +40,10 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedRegexpBasedRule;
  */
 public class TooLongBindingExpressionRule extends AbstractMaximizedRegexpBasedRule // NO_UCD
 {
-   private int currentCount;
+   private static final class State
+   {
+      private int currentCount;
+   }
 
    /*
     * (non-Javadoc)
@@ -49,7 +52,7 @@ public class TooLongBindingExpressionRule extends AbstractMaximizedRegexpBasedRu
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return currentCount;
+      return getState().currentCount;
    }
 
    /*
@@ -63,6 +66,16 @@ public class TooLongBindingExpressionRule extends AbstractMaximizedRegexpBasedRu
       return 2;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#getDefaultPriority()
@@ -105,8 +118,10 @@ public class TooLongBindingExpressionRule extends AbstractMaximizedRegexpBasedRu
       final Matcher matcher = getMatcher( line );
 
       matcher.matches();
-      currentCount = countChar( matcher.group( 1 ),
-                                '.' );
+      final int currentCount = countChar( matcher.group( 1 ),
+                                          '.' );
+
+      getState().currentCount = currentCount;
       return matcher.matches()
             && currentCount > getThreshold();
    }
@@ -126,4 +141,9 @@ public class TooLongBindingExpressionRule extends AbstractMaximizedRegexpBasedRu
 
       return charCount;
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
@@ -36,7 +36,20 @@ package com.adobe.ac.pmd.rules.cairngorm;
 public class ModelLocatorReferencedMoreThanOncePerClassRule extends
                                                            ReferenceModelLocatorOutsideTheMainApplicationRule
 {
-   private int referencesPerFile;
+   private static final class State
+   {
+      private int referencesPerFile;
+   }
+
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
 
    /*
     * (non-Javadoc)
@@ -50,9 +63,9 @@ public class ModelLocatorReferencedMoreThanOncePerClassRule extends
       if ( !line.contains( "import" )
             && !line.contains( "return" ) )
       {
-         referencesPerFile++;
+         getState().referencesPerFile++;
       }
-      return referencesPerFile > 1;
+      return getState().referencesPerFile > 1;
    }
 
    /*
@@ -62,6 +75,11 @@ public class ModelLocatorReferencedMoreThanOncePerClassRule extends
    @Override
    protected final void onRuleStart()
    {
-      referencesPerFile = 0;
+      getState().referencesPerFile = 0;
+   }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
    }
 }
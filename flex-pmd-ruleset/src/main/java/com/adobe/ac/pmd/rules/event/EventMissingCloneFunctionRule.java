@@ -41,8 +41,6 @@ import com.adobe.ac.pmd.rules.core.ViolationPriority;
  */
 public class EventMissingCloneFunctionRule extends AbstractEventRelatedRule
 {
-   private IClass classNode = null;
-
    /*
     * (non-Javadoc)
     * @see
@@ -50,9 +48,8 @@ public class EventMissingCloneFunctionRule extends AbstractEventRelatedRule
     * .adobe.ac.pmd.nodes.IClass)
     */
    @Override
-   protected final void findViolations( final IClass classNodeToBeSet )
+   protected final void findViolations( final IClass classNode )
    {
-      classNode = classNodeToBeSet;
       if ( "Event".equals( classNode.getExtensionName() ) )
       {
          super.findViolations( classNode );
@@ -80,7 +77,7 @@ public class EventMissingCloneFunctionRule extends AbstractEventRelatedRule
       }
       if ( !cloneFound )
       {
-         addViolation( classNode );
+         addViolation( getCurrentPackageNode().getClassNode() );
       }
    }
 
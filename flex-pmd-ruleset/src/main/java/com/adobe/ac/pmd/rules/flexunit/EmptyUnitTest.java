@@ -60,23 +60,6 @@ public final class EmptyUnitTest extends AbstractAstFlexRule
                "assertEvents",
                "fail"                      };
 
-   private boolean               isExtendingTestCase;
-
-   /*
-    * (non-Javadoc)
-    * @see
-    * com.adobe.ac.pmd.rules.core.AbstractAstFlexRule#findViolations(com.adobe
-    * .ac.pmd.nodes.IClass)
-    */
-   @Override
-   protected void findViolations( final IClass classNode )
-   {
-      isExtendingTestCase = classNode.getExtensionName() != null
-            && classNode.getExtensionName().endsWith( "TestCase" );
-
-      super.findViolations( classNode );
-   }
-
    /*
     * (non-Javadoc)
     * @see
@@ -88,7 +71,7 @@ public final class EmptyUnitTest extends AbstractAstFlexRule
    {
       super.findViolations( function );
 
-      if ( isExtendingTestCase
+      if ( isExtendingTestCase( getCurrentPackageNode().getClassNode() )
             && function.getName().startsWith( "test" )
             && function.findPrimaryStatementInBody( ASSERTIONS ).isEmpty() )
       {
@@ -110,4 +93,10 @@ public final class EmptyUnitTest extends AbstractAstFlexRule
    {
       return ViolationPriority.NORMAL;
    }
+
+   private boolean isExtendingTestCase( final IClass classNode )
+   {
+      return classNode.getExtensionName() != null
+            && classNode.getExtensionName().endsWith( "TestCase" );
+   }
 }
@@ -39,8 +39,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
  */
 public class ExcessiveImportRule extends AbstractMaximizedAstFlexRule
 {
+   private static final class State
+   {
+      private int importNumber;
+   }
+
    private static final int DEFAULT_THRESHOLD = 15;
-   private int              importNumber;
 
    /*
     * (non-Javadoc)
@@ -50,7 +54,7 @@ public class ExcessiveImportRule extends AbstractMaximizedAstFlexRule
    @Override
    public final int getActualValueForTheCurrentViolation()
    {
-      return importNumber;
+      return getState().importNumber;
    }
 
    /*
@@ -65,6 +69,16 @@ public class ExcessiveImportRule extends AbstractMaximizedAstFlexRule
       return DEFAULT_THRESHOLD;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see
@@ -74,7 +88,9 @@ public class ExcessiveImportRule extends AbstractMaximizedAstFlexRule
    @Override
    protected final void findViolations( final IPackage packageNode )
    {
-      importNumber = packageNode.getImports().size();
+      final int importNumber = packageNode.getImports().size();
+
+      getState().importNumber = importNumber;
 
       if ( importNumber > getThreshold() )
       {
@@ -91,4 +107,9 @@ public class ExcessiveImportRule extends AbstractMaximizedAstFlexRule
    {
       return ViolationPriority.NORMAL;
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
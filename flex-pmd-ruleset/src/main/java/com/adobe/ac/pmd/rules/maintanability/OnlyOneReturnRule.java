@@ -39,7 +39,20 @@ import com.adobe.ac.pmd.rules.core.ViolationPriority;
  */
 public class OnlyOneReturnRule extends AbstractAstFlexRule
 {
-   private int returnStatement;
+   private static final class State
+   {
+      private int returnStatement;
+   }
+
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
 
    /*
     * (non-Javadoc)
@@ -62,7 +75,7 @@ public class OnlyOneReturnRule extends AbstractAstFlexRule
    protected void visitFunction( final IParserNode functionNode,
                                  final FunctionType type )
    {
-      returnStatement = 0;
+      getState().returnStatement = 0;
       super.visitFunction( functionNode,
                            type );
    }
@@ -76,11 +89,18 @@ public class OnlyOneReturnRule extends AbstractAstFlexRule
    @Override
    protected void visitReturn( final IParserNode ast )
    {
-      returnStatement++;
+      final int returnStatement = getState().returnStatement + 1;
+
+      getState().returnStatement = returnStatement;
 
       if ( returnStatement > 1 )
       {
          addViolation( ast );
       }
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
@@ -40,28 +40,6 @@ import com.adobe.ac.pmd.rules.core.ViolationPriority;
  */
 public class UseObjectTypeRule extends AbstractUseForbiddenTypeRule // NO_UCD
 {
-   private boolean isResponder;
-
-   /*
-    * (non-Javadoc)
-    * @seecom.adobe.ac.pmd.rules.maintanability.forbiddentypes.
-    * AbstractUseForbiddenTypeRule#findViolations(com.adobe.ac.pmd.nodes.IClass)
-    */
-   @Override
-   protected void findViolations( final IClass classNode )
-   {
-      for ( final IParserNode implementation : classNode.getImplementations() )
-      {
-         if ( "IResponder".equals( implementation.getStringValue() ) )
-         {
-            isResponder = true;
-            break;
-         }
-      }
-
-      super.findViolations( classNode );
-   }
-
    /*
     * (non-Javadoc)
     * @seecom.adobe.ac.pmd.rules.maintanability.forbiddentypes.
@@ -98,9 +76,21 @@ public class UseObjectTypeRule extends AbstractUseForbiddenTypeRule // NO_UCD
       return "Object";
    }
 
+   private boolean isResponder( final IClass classNode )
+   {
+      for ( final IParserNode implementation : classNode.getImplementations() )
+      {
+         if ( "IResponder".equals( implementation.getStringValue() ) )
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
    private boolean isResponderImplementation( final IFunction function )
    {
-      return isResponder
-            && ( function.getName().equals( "result" ) || function.getName().equals( "fault" ) );
+      return ( function.getName().equals( "result" ) || function.getName().equals( "fault" ) )
+            && isResponder( getCurrentPackageNode().getClassNode() );
    }
 }
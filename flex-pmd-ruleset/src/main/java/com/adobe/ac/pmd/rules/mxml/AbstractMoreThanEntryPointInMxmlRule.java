@@ -30,8 +30,6 @@
  */
 package com.adobe.ac.pmd.rules.mxml;
 
-import java.util.List;
-
 import com.adobe.ac.pmd.nodes.IAttribute;
 import com.adobe.ac.pmd.nodes.IClass;
 import com.adobe.ac.pmd.nodes.IFunction;
@@ -43,9 +41,6 @@ import com.adobe.ac.pmd.rules.core.ViolationPosition;
  */
 abstract class AbstractMoreThanEntryPointInMxmlRule extends AbstractAstFlexRule
 {
-   private int lastPublicVarLine = 0;
-   private int publicVarCount    = 0;
-
    /**
     * @return
     */
@@ -72,47 +67,10 @@ abstract class AbstractMoreThanEntryPointInMxmlRule extends AbstractAstFlexRule
    @Override
    protected void findViolations( final IClass classNode )
    {
-      publicVarCount = 0;
-      lastPublicVarLine = 0;
-
-      super.findViolations( classNode );
+      int publicVarCount = 0;
+      int lastPublicVarLine = 0;
 
-      if ( publicVarCount > getThreshold() )
-      {
-         addViolation( ViolationPosition.create( lastPublicVarLine,
-                                                 lastPublicVarLine,
-                                                 0,
-                                                 getCurrentFile().getLineAt( lastPublicVarLine - 1 ).length() ) );
-      }
-   }
-
-   /*
-    * (non-Javadoc)
-    * @see
-    * com.adobe.ac.pmd.rules.core.AbstractAstFlexRule#findViolations(com.adobe
-    * .ac.pmd.nodes.IFunction)
-    */
-   @Override
-   protected final void findViolations( final IFunction function )
-   {
-      if ( function.isPublic()
-            && function.isSetter() )
-      {
-         publicVarCount++;
-         lastPublicVarLine = function.getInternalNode().getLine();
-      }
-   }
-
-   /*
-    * (non-Javadoc)
-    * @see
-    * com.adobe.ac.pmd.rules.core.AbstractAstFlexRule#findViolationsFromAttributes
-    * (java.util.List)
-    */
-   @Override
-   protected void findViolationsFromAttributes( final List< IAttribute > variables )
-   {
-      for ( final IAttribute attribute : variables )
+      for ( final IAttribute attribute : classNode.getAttributes() )
       {
          if ( attribute.isPublic() )
          {
@@ -120,5 +78,21 @@ abstract class AbstractMoreThanEntryPointInMxmlRule extends AbstractAstFlexRule
             lastPublicVarLine = attribute.getInternalNode().getLine();
          }
       }
+      for ( final IFunction function : classNode.getFunctions() )
+      {
+         if ( function.isPublic()
+               && function.isSetter() )
+         {
+            publicVarCount++;
+            lastPublicVarLine = function.getInternalNode().getLine();
+         }
+      }
+      if ( publicVarCount > getThreshold() )
+      {
+         addViolation( ViolationPosition.create( lastPublicVarLine,
+                                                 lastPublicVarLine,
+                                                 0,
+                                                 getCurrentFile().getLineAt( lastPublicVarLine - 1 ).length() ) );
+      }
    }
 }
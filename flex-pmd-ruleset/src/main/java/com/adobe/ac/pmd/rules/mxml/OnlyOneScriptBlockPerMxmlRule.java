@@ -58,9 +58,8 @@ public class OnlyOneScriptBlockPerMxmlRule extends AbstractXpathRelatedRule
    protected Object evaluate( final Document doc,
                               final XPath xPath ) throws XPathExpressionException
    {
-      return xPath.evaluate( getXPathExpression(),
-                             doc,
-                             XPathConstants.NUMBER );
+      return getCompiledXPathExpression().evaluate( doc,
+                                                    XPathConstants.NUMBER );
    }
 
    /*
@@ -44,8 +44,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedFlexRule;
  */
 public class TooLongScriptBlockRule extends AbstractMaximizedFlexRule
 {
+   private static final class State
+   {
+      private int linesInScriptBlock;
+   }
+
    public static final int DEFAULT_THRESHOLD = 50;
-   private int             linesInScriptBlock;
 
    /*
     * (non-Javadoc)
@@ -54,7 +58,7 @@ public class TooLongScriptBlockRule extends AbstractMaximizedFlexRule
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return linesInScriptBlock;
+      return getState().linesInScriptBlock;
    }
 
    /*
@@ -79,6 +83,16 @@ public class TooLongScriptBlockRule extends AbstractMaximizedFlexRule
       return getCurrentFile().isMxml();
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see
@@ -90,9 +104,11 @@ public class TooLongScriptBlockRule extends AbstractMaximizedFlexRule
       final List< IFlexViolation > violations = new ArrayList< IFlexViolation >();
       final IMxmlFile mxml = ( IMxmlFile ) getCurrentFile();
 
-      linesInScriptBlock = mxml.getEndingScriptBlock()
+      final int linesInScriptBlock = mxml.getEndingScriptBlock()
             - mxml.getBeginningScriptBlock();
 
+      getState().linesInScriptBlock = linesInScriptBlock;
+
       if ( linesInScriptBlock >= getThreshold() )
       {
          addViolation( violations,
@@ -110,4 +126,9 @@ public class TooLongScriptBlockRule extends AbstractMaximizedFlexRule
    {
       return ViolationPriority.NORMAL;
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
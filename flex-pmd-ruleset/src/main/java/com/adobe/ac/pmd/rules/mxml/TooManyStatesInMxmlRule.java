@@ -52,7 +52,10 @@ import com.adobe.ac.pmd.rules.core.thresholded.IThresholdedRule;
  */
 public class TooManyStatesInMxmlRule extends AbstractXpathRelatedRule implements IThresholdedRule
 {
-   private Double statesNb = 0.0;
+   private static final class State
+   {
+      private int statesNb;
+   }
 
    /*
     * (non-Javadoc)
@@ -61,7 +64,7 @@ public class TooManyStatesInMxmlRule extends AbstractXpathRelatedRule implements
     */
    public int getActualValueForTheCurrentViolation()
    {
-      return statesNb.intValue();
+      return getState().statesNb;
    }
 
    /*
@@ -96,6 +99,16 @@ public class TooManyStatesInMxmlRule extends AbstractXpathRelatedRule implements
       return MAXIMUM;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see
@@ -106,9 +119,8 @@ public class TooManyStatesInMxmlRule extends AbstractXpathRelatedRule implements
    protected Object evaluate( final Document doc,
                               final XPath xPath ) throws XPathExpressionException
    {
-      return xPath.evaluate( getXPathExpression(),
-                             doc,
-                             XPathConstants.NUMBER );
+      return getCompiledXPathExpression().evaluate( doc,
+                                                    XPathConstants.NUMBER );
    }
 
    /*
@@ -143,15 +155,13 @@ public class TooManyStatesInMxmlRule extends AbstractXpathRelatedRule implements
                                final Document doc,
                                final XPath xPath ) throws XPathExpressionException
    {
-      statesNb = ( Double ) evaluate( doc,
-                                      xPath );
+      final Double statesNb = ( Double ) evaluate( doc,
+                                                   xPath );
+
+      getState().statesNb = statesNb.intValue();
 
       if ( statesNb >= getThreshold() )
       {
-         xPath.evaluate( "//mx:states/*",
-                         doc,
-                         XPathConstants.NODESET );
-
          addViolation( violations,
                        ViolationPosition.create( 1,
                                                  1,
@@ -170,4 +180,9 @@ public class TooManyStatesInMxmlRule extends AbstractXpathRelatedRule implements
    {
       return getThresholdedRuleProperties( this );
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
@@ -47,8 +47,6 @@ public class IncorrectEventHandlerNameRule extends AbstractAstFlexRule
    private static final String DEFAULT_SUFFIX = "";
    private static final String PREFIX_NAME    = "prefix";
    private static final String SUFFIX_NAME    = "suffix";
-   private String prefix;
-   private String suffix;
 
    public IncorrectEventHandlerNameRule()
    {
@@ -58,8 +56,8 @@ public class IncorrectEventHandlerNameRule extends AbstractAstFlexRule
    @Override
    protected void findViolations( final IFunction function )
    {
-      prefix = getStringProperty( propertyDescriptorFor( PREFIX_NAME ) );
-      suffix = getStringProperty( propertyDescriptorFor( SUFFIX_NAME ) );
+      final String prefix = getStringProperty( propertyDescriptorFor( PREFIX_NAME ) );
+      final String suffix = getStringProperty( propertyDescriptorFor( SUFFIX_NAME ) );
 
       if ( function.isEventHandler()
             && !( function.getName().startsWith( prefix ) && function.getName().endsWith( suffix ) ) )
@@ -36,13 +36,17 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
 
 public class TooLongFunctionNameRule extends AbstractMaximizedAstFlexRule
 {
+   private static final class State
+   {
+      private int currentMethodNameLength;
+   }
+
    private static final int DEFAULT_THRESHOLD = 25;
-   private int              currentMethodNameLength;
 
    @Override
    public int getActualValueForTheCurrentViolation()
    {
-      return currentMethodNameLength;
+      return getState().currentMethodNameLength;
    }
 
    @Override
@@ -51,10 +55,22 @@ public class TooLongFunctionNameRule extends AbstractMaximizedAstFlexRule
       return DEFAULT_THRESHOLD;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    @Override
    protected void findViolations( final IFunction function )
    {
-      currentMethodNameLength = function.getName().length();
+      final int currentMethodNameLength = function.getName().length();
+
+      getState().currentMethodNameLength = currentMethodNameLength;
       if ( currentMethodNameLength > getThreshold() )
       {
          addViolation( function );
@@ -66,4 +82,9 @@ public class TooLongFunctionNameRule extends AbstractMaximizedAstFlexRule
    {
       return ViolationPriority.NORMAL;
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
@@ -44,8 +44,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.IThresholdedRule;
  */
 public class TooShortVariableRule extends AbstractRegexpBasedRule implements IThresholdedRule
 {
+   private static final class State
+   {
+      private int length;
+   }
+
    public static final int DEFAULT_THRESHOLD = 3;
-   private int             length;
 
    /*
     * (non-Javadoc)
@@ -54,7 +58,7 @@ public class TooShortVariableRule extends AbstractRegexpBasedRule implements ITh
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return length;
+      return getState().length;
    }
 
    /*
@@ -100,6 +104,16 @@ public class TooShortVariableRule extends AbstractRegexpBasedRule implements ITh
       return true;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#getDefaultPriority()
@@ -146,8 +160,9 @@ public class TooShortVariableRule extends AbstractRegexpBasedRule implements ITh
       if ( !line.contains( "for" )
             && matcher.matches() )
       {
-         length = matcher.group( 1 ).trim().length();
+         final int length = matcher.group( 1 ).trim().length();
 
+         getState().length = length;
          result = length < getThreshold();
       }
       return result;
@@ -162,4 +177,9 @@ public class TooShortVariableRule extends AbstractRegexpBasedRule implements ITh
    {
       return getThresholdedRuleProperties( this );
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
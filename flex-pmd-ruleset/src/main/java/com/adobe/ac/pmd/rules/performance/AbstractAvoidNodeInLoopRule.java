@@ -36,11 +36,24 @@ import com.adobe.ac.pmd.rules.core.AbstractAstFlexRule;
 
 public abstract class AbstractAvoidNodeInLoopRule extends AbstractAstFlexRule
 {
-   private int loopLevel = 0;
+   private static final class State
+   {
+      private int loopLevel;
+   }
+
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
 
    protected int getLoopLevel()
    {
-      return loopLevel;
+      return getState().loopLevel;
    }
 
    protected abstract boolean isNodeForbidden( final IParserNode ast );
@@ -48,17 +61,17 @@ public abstract class AbstractAvoidNodeInLoopRule extends AbstractAstFlexRule
    @Override
    protected final void visitFor( final IParserNode ast )
    {
-      loopLevel++;
+      enterLoop();
       super.visitFor( ast );
-      loopLevel--;
+      exitLoop();
    }
 
    @Override
    protected final void visitForEach( final IParserNode ast )
    {
-      loopLevel++;
+      enterLoop();
       super.visitForEach( ast );
-      loopLevel--;
+      exitLoop();
    }
 
    @Override
@@ -77,9 +90,24 @@ public abstract class AbstractAvoidNodeInLoopRule extends AbstractAstFlexRule
    @Override
    protected final void visitWhile( final IParserNode ast )
    {
-      loopLevel++;
+      enterLoop();
       super.visitWhile( ast );
-      loopLevel--;
+      exitLoop();
+   }
+
+   private void enterLoop()
+   {
+      getState().loopLevel++;
+   }
+
+   private void exitLoop()
+   {
+      getState().loopLevel--;
+   }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
    }
 
    private void searchForbiddenNode( final IParserNode ast )
@@ -39,8 +39,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
  */
 public class CyclomaticComplexityRule extends AbstractMaximizedAstFlexRule
 {
+   private static final class State
+   {
+      private int cyclomaticComplexity;
+   }
+
    public static final int DEFAULT_THRESHOLD = 10;
-   private IFunction       currentFunction   = null;
 
    /*
     * (non-Javadoc)
@@ -49,7 +53,7 @@ public class CyclomaticComplexityRule extends AbstractMaximizedAstFlexRule
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return currentFunction.getCyclomaticComplexity();
+      return getState().cyclomaticComplexity;
    }
 
    /*
@@ -63,6 +67,16 @@ public class CyclomaticComplexityRule extends AbstractMaximizedAstFlexRule
       return DEFAULT_THRESHOLD;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see
@@ -72,7 +86,7 @@ public class CyclomaticComplexityRule extends AbstractMaximizedAstFlexRule
    @Override
    protected final void findViolations( final IFunction function )
    {
-      currentFunction = function;
+      getState().cyclomaticComplexity = function.getCyclomaticComplexity();
       if ( function.getCyclomaticComplexity() > getThreshold() )
       {
          addViolation( function );
@@ -88,4 +102,9 @@ public class CyclomaticComplexityRule extends AbstractMaximizedAstFlexRule
    {
       return ViolationPriority.HIGH;
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
@@ -39,7 +39,10 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
  */
 public class DeeplyNestedIfRule extends AbstractMaximizedAstFlexRule
 {
-   private int ifLevel = 0;
+   private static final class State
+   {
+      private int ifLevel;
+   }
 
    /*
     * (non-Javadoc)
@@ -48,7 +51,7 @@ public class DeeplyNestedIfRule extends AbstractMaximizedAstFlexRule
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return ifLevel;
+      return getState().ifLevel;
    }
 
    /*
@@ -62,6 +65,16 @@ public class DeeplyNestedIfRule extends AbstractMaximizedAstFlexRule
       return 2;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#getDefaultPriority()
@@ -99,10 +112,13 @@ public class DeeplyNestedIfRule extends AbstractMaximizedAstFlexRule
    protected final void visitFunction( final IParserNode ast,
                                        final FunctionType type )
    {
-      ifLevel = 0;
+      getState().ifLevel = 0;
 
-      super.visitFunction( ast,
-                           type );
+      if ( ast.getSummary().getNestingDepth() > getThreshold() )
+      {
+         super.visitFunction( ast,
+                              type );
+      }
    }
 
    /*
@@ -123,7 +139,9 @@ public class DeeplyNestedIfRule extends AbstractMaximizedAstFlexRule
 
    private void afterVisitingIfBlock( final IParserNode ifNode )
    {
-      ifLevel--;
+      final int ifLevel = getState().ifLevel - 1;
+
+      getState().ifLevel = ifLevel;
       if ( ifLevel >= getThreshold() )
       {
          addViolation( ifNode );
@@ -132,6 +150,11 @@ public class DeeplyNestedIfRule extends AbstractMaximizedAstFlexRule
 
    private void beforeVisitingIfBlock()
    {
-      ifLevel++;
+      getState().ifLevel++;
+   }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
    }
 }
@@ -39,7 +39,10 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
  */
 public class HeavyConstructorRule extends AbstractMaximizedAstFlexRule
 {
-   private IFunction currentConstructor = null;
+   private static final class State
+   {
+      private int cyclomaticComplexity;
+   }
 
    /*
     * (non-Javadoc)
@@ -48,7 +51,7 @@ public class HeavyConstructorRule extends AbstractMaximizedAstFlexRule
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return currentConstructor.getCyclomaticComplexity();
+      return getState().cyclomaticComplexity;
    }
 
    /*
@@ -74,6 +77,16 @@ public class HeavyConstructorRule extends AbstractMaximizedAstFlexRule
       return !getCurrentFile().isMxml();
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see
@@ -83,8 +96,9 @@ public class HeavyConstructorRule extends AbstractMaximizedAstFlexRule
    @Override
    protected final void findViolationsFromConstructor( final IFunction constructor )
    {
-      currentConstructor = constructor;
       final int cyclomaticComplexity = constructor.getCyclomaticComplexity();
+
+      getState().cyclomaticComplexity = cyclomaticComplexity;
       if ( cyclomaticComplexity > getThreshold() )
       {
          addViolation( constructor,
@@ -101,4 +115,9 @@ public class HeavyConstructorRule extends AbstractMaximizedAstFlexRule
    {
       return ViolationPriority.HIGH;
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
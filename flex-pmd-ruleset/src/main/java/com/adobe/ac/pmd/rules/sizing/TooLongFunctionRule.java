@@ -40,8 +40,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
  */
 public class TooLongFunctionRule extends AbstractMaximizedAstFlexRule
 {
+   private static final class State
+   {
+      private int functionLength;
+   }
+
    public static final int DEFAULT_THRESHOLD = 20;
-   private int             functionLength;
 
    /*
     * (non-Javadoc)
@@ -50,7 +54,7 @@ public class TooLongFunctionRule extends AbstractMaximizedAstFlexRule
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return functionLength;
+      return getState().functionLength;
    }
 
    /*
@@ -64,6 +68,16 @@ public class TooLongFunctionRule extends AbstractMaximizedAstFlexRule
       return DEFAULT_THRESHOLD;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#getDefaultPriority()
@@ -93,12 +107,19 @@ public class TooLongFunctionRule extends AbstractMaximizedAstFlexRule
       if ( block != null
             && block.numChildren() != 0 )
       {
-         functionLength = FunctionUtils.computeFunctionLength( getCurrentFile(),
-                                                               block );
+         final int functionLength = FunctionUtils.computeFunctionLength( getCurrentFile(),
+                                                                         block );
+
+         getState().functionLength = functionLength;
          if ( functionLength > getThreshold() )
          {
             addViolation( getNameFromFunctionDeclaration( functionNode ) );
          }
       }
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
@@ -39,7 +39,10 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
  */
 public class TooLongSwitchCaseRule extends AbstractMaximizedAstFlexRule
 {
-   private int length;
+   private static final class State
+   {
+      private int length;
+   }
 
    /*
     * (non-Javadoc)
@@ -48,7 +51,7 @@ public class TooLongSwitchCaseRule extends AbstractMaximizedAstFlexRule
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return length;
+      return getState().length;
    }
 
    /*
@@ -62,6 +65,16 @@ public class TooLongSwitchCaseRule extends AbstractMaximizedAstFlexRule
       return 2;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#getDefaultPriority()
@@ -83,12 +96,19 @@ public class TooLongSwitchCaseRule extends AbstractMaximizedAstFlexRule
    {
       if ( caseBlock.getLastChild() != null )
       {
-         length = caseBlock.getLastChild().getLine()
+         final int length = caseBlock.getLastChild().getLine()
                - caseBlock.getLine();
+
+         getState().length = length;
          if ( length > getThreshold() )
          {
             addViolation( caseBlock );
          }
       }
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
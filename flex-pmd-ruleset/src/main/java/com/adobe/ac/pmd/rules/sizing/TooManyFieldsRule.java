@@ -33,7 +33,6 @@ package com.adobe.ac.pmd.rules.sizing;
 import java.util.List;
 
 import com.adobe.ac.pmd.nodes.IAttribute;
-import com.adobe.ac.pmd.nodes.IClass;
 import com.adobe.ac.pmd.rules.core.ViolationPriority;
 import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
 
@@ -42,9 +41,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
  */
 public class TooManyFieldsRule extends AbstractMaximizedAstFlexRule
 {
+   private static final class State
+   {
+      private int attributesNb;
+   }
+
    public static final int DEFAULT_THRESHOLD = 5;
-   private int             attributesNb      = 0;
-   private IClass          classNode         = null;
 
    /*
     * (non-Javadoc)
@@ -53,7 +55,7 @@ public class TooManyFieldsRule extends AbstractMaximizedAstFlexRule
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return attributesNb;
+      return getState().attributesNb;
    }
 
    /*
@@ -81,15 +83,12 @@ public class TooManyFieldsRule extends AbstractMaximizedAstFlexRule
 
    /*
     * (non-Javadoc)
-    * @see
-    * com.adobe.ac.pmd.rules.core.AbstractAstFlexRule#findViolations(com.adobe
-    * .ac.pmd.nodes.IClass)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
     */
    @Override
-   protected final void findViolations( final IClass classNodeToBeSet )
+   protected final Object createState()
    {
-      classNode = classNodeToBeSet;
-      super.findViolations( classNodeToBeSet );
+      return new State();
    }
 
    /*
@@ -101,11 +100,13 @@ public class TooManyFieldsRule extends AbstractMaximizedAstFlexRule
    @Override
    protected final void findViolationsFromAttributes( final List< IAttribute > attributes )
    {
-      attributesNb = attributes.size();
+      final int attributesNb = attributes.size();
+
+      getState().attributesNb = attributesNb;
 
       if ( attributesNb > getThreshold() )
       {
-         addViolation( classNode );
+         addViolation( getCurrentPackageNode().getClassNode() );
       }
    }
 
@@ -118,4 +119,9 @@ public class TooManyFieldsRule extends AbstractMaximizedAstFlexRule
    {
       return ViolationPriority.NORMAL;
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
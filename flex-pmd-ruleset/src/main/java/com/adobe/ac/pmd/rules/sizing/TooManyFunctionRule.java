@@ -42,9 +42,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
  */
 public class TooManyFunctionRule extends AbstractMaximizedAstFlexRule
 {
+   private static final class State
+   {
+      private int functionNb;
+   }
+
    public static final int DEFAULT_THRESHOLD = 10;
-   private IClass          classNode         = null;
-   private int             functionNb;
 
    /*
     * (non-Javadoc)
@@ -53,7 +56,7 @@ public class TooManyFunctionRule extends AbstractMaximizedAstFlexRule
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return functionNb;
+      return getState().functionNb;
    }
 
    /*
@@ -69,17 +72,12 @@ public class TooManyFunctionRule extends AbstractMaximizedAstFlexRule
 
    /*
     * (non-Javadoc)
-    * @see
-    * com.adobe.ac.pmd.rules.core.AbstractAstFlexRule#findViolations(com.adobe
-    * .ac.pmd.nodes.IClass)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
     */
    @Override
-   protected final void findViolations( final IClass classNodeToSet )
+   protected final Object createState()
    {
-      functionNb = 0;
-      classNode = classNodeToSet;
-
-      super.findViolations( classNodeToSet );
+      return new State();
    }
 
    /*
@@ -91,6 +89,9 @@ public class TooManyFunctionRule extends AbstractMaximizedAstFlexRule
    @Override
    protected final void findViolations( final List< IFunction > functions )
    {
+      final IClass classNode = getCurrentPackageNode().getClassNode();
+      int functionNb = 0;
+
       for ( final IFunction functionNode : functions )
       {
          if ( !functionNode.isGetter()
@@ -99,6 +100,7 @@ public class TooManyFunctionRule extends AbstractMaximizedAstFlexRule
             functionNb++;
          }
       }
+      getState().functionNb = functionNb;
       if ( functionNb > getThreshold() )
       {
          addViolation( classNode );
@@ -114,4 +116,9 @@ public class TooManyFunctionRule extends AbstractMaximizedAstFlexRule
    {
       return ViolationPriority.HIGH;
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
@@ -39,8 +39,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
  */
 public class TooManyParametersRule extends AbstractMaximizedAstFlexRule
 {
+   private static final class State
+   {
+      private int paramsNb;
+   }
+
    public static final int DEFAULT_THRESHOLD = 4;
-   private int             paramsNb;
 
    /*
     * (non-Javadoc)
@@ -49,7 +53,7 @@ public class TooManyParametersRule extends AbstractMaximizedAstFlexRule
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return paramsNb;
+      return getState().paramsNb;
    }
 
    /*
@@ -63,6 +67,16 @@ public class TooManyParametersRule extends AbstractMaximizedAstFlexRule
       return DEFAULT_THRESHOLD;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#getDefaultPriority()
@@ -89,11 +103,18 @@ public class TooManyParametersRule extends AbstractMaximizedAstFlexRule
 
       final IParserNode paramList = ast.getChild( 2 );
 
-      paramsNb = paramList.numChildren();
+      final int paramsNb = paramList.numChildren();
+
+      getState().paramsNb = paramsNb;
 
       if ( paramsNb > getThreshold() )
       {
          addViolation( paramList );
       }
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
@@ -43,9 +43,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedAstFlexRule;
  */
 public class TooManyPublicRule extends AbstractMaximizedAstFlexRule
 {
+   private static final class State
+   {
+      private int publicCount;
+   }
+
    public static final int DEFAULT_THRESHOLD = 10;
-   private IFunction       constructor;
-   private int             publicCount;
 
    /*
     * (non-Javadoc)
@@ -54,7 +57,7 @@ public class TooManyPublicRule extends AbstractMaximizedAstFlexRule
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return publicCount;
+      return getState().publicCount;
    }
 
    /*
@@ -68,6 +71,16 @@ public class TooManyPublicRule extends AbstractMaximizedAstFlexRule
       return DEFAULT_THRESHOLD;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see
@@ -77,10 +90,11 @@ public class TooManyPublicRule extends AbstractMaximizedAstFlexRule
    @Override
    protected final void findViolations( final IClass classNode )
    {
-      publicCount = 0;
-      constructor = classNode.getConstructor();
+      final int publicCount = countPublicFunctions( classNode.getFunctions(),
+                                                    classNode.getConstructor() )
+            + countPublicAttributes( classNode.getAttributes() );
 
-      super.findViolations( classNode );
+      getState().publicCount = publicCount;
 
       if ( publicCount > getThreshold() )
       {
@@ -90,29 +104,18 @@ public class TooManyPublicRule extends AbstractMaximizedAstFlexRule
 
    /*
     * (non-Javadoc)
-    * @see
-    * com.adobe.ac.pmd.rules.core.AbstractAstFlexRule#findViolations(com.adobe
-    * .ac.pmd.nodes.IFunction)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#getDefaultPriority()
     */
    @Override
-   protected final void findViolations( final IFunction function )
+   protected final ViolationPriority getDefaultPriority()
    {
-      if ( function.isPublic()
-            && !function.equals( constructor ) && !function.isGetter() && !function.isSetter() )
-      {
-         publicCount++;
-      }
+      return ViolationPriority.NORMAL;
    }
 
-   /*
-    * (non-Javadoc)
-    * @see
-    * com.adobe.ac.pmd.rules.core.AbstractAstFlexRule#findViolationsFromAttributes
-    * (java.util.List)
-    */
-   @Override
-   protected final void findViolationsFromAttributes( final List< IAttribute > variables )
+   private int countPublicAttributes( final List< IAttribute > variables )
    {
+      int publicCount = 0;
+
       for ( final IAttribute variable : variables )
       {
          if ( variable.isPublic() )
@@ -120,15 +123,27 @@ public class TooManyPublicRule extends AbstractMaximizedAstFlexRule
             publicCount++;
          }
       }
+      return publicCount;
    }
 
-   /*
-    * (non-Javadoc)
-    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#getDefaultPriority()
-    */
-   @Override
-   protected final ViolationPriority getDefaultPriority()
+   private int countPublicFunctions( final List< IFunction > functions,
+                                     final IFunction constructor )
    {
-      return ViolationPriority.NORMAL;
+      int publicCount = 0;
+
+      for ( final IFunction function : functions )
+      {
+         if ( function.isPublic()
+               && !function.equals( constructor ) && !function.isGetter() && !function.isSetter() )
+         {
+            publicCount++;
+         }
+      }
+      return publicCount;
+   }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
    }
 }
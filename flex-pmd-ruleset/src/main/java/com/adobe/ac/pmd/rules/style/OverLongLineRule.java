@@ -44,8 +44,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.AbstractMaximizedFlexRule;
  */
 public class OverLongLineRule extends AbstractMaximizedFlexRule
 {
+   private static final class State
+   {
+      private int currentLineLength;
+   }
+
    private static final int DEFAULT_THRESHOLD = 120;
-   private int              currentLineLength;
 
    /*
     * (non-Javadoc)
@@ -68,11 +72,12 @@ public class OverLongLineRule extends AbstractMaximizedFlexRule
             if ( !line.trim().startsWith( "import" )
                   && line.length() > getThreshold() )
             {
-               currentLineLength = line.length();
                final ViolationPosition position = ViolationPosition.create( i,
                                                                             i,
                                                                             0,
-                                                                            currentLineLength );
+                                                                            line.length() );
+
+               getState().currentLineLength = line.length();
 
                addViolation( violations,
                              position );
@@ -90,7 +95,7 @@ public class OverLongLineRule extends AbstractMaximizedFlexRule
    @Override
    public final int getActualValueForTheCurrentViolation()
    {
-      return currentLineLength;
+      return getState().currentLineLength;
    }
 
    /*
@@ -105,6 +110,16 @@ public class OverLongLineRule extends AbstractMaximizedFlexRule
       return DEFAULT_THRESHOLD;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#getDefaultPriority()
@@ -125,4 +140,9 @@ public class OverLongLineRule extends AbstractMaximizedFlexRule
    {
       return true;
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
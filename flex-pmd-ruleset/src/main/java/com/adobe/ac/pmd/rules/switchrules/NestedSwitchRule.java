@@ -39,7 +39,20 @@ import com.adobe.ac.pmd.rules.core.ViolationPriority;
  */
 public class NestedSwitchRule extends AbstractAstFlexRule
 {
-   private int switchLevel = 0;
+   private static final class State
+   {
+      private int switchLevel;
+   }
+
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
 
    /*
     * (non-Javadoc)
@@ -60,13 +73,20 @@ public class NestedSwitchRule extends AbstractAstFlexRule
    @Override
    protected final void visitSwitch( final IParserNode ast )
    {
-      switchLevel++;
+      final int switchLevel = getState().switchLevel + 1;
+
+      getState().switchLevel = switchLevel;
       if ( switchLevel > 1 )
       {
          addViolation( ast );
       }
       super.visitSwitch( ast );
 
-      switchLevel--;
+      getState().switchLevel = switchLevel - 1;
+   }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
    }
 }
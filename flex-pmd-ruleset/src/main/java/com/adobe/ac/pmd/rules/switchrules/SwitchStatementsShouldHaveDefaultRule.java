@@ -39,7 +39,20 @@ import com.adobe.ac.pmd.rules.core.ViolationPriority;
  */
 public class SwitchStatementsShouldHaveDefaultRule extends AbstractAstFlexRule
 {
-   private boolean defaultStatementFound = false;
+   private static final class State
+   {
+      private boolean defaultStatementFound;
+   }
+
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
 
    /*
     * (non-Javadoc)
@@ -62,7 +75,7 @@ public class SwitchStatementsShouldHaveDefaultRule extends AbstractAstFlexRule
    {
       super.visitSwitch( ast );
 
-      if ( !defaultStatementFound )
+      if ( !getState().defaultStatementFound )
       {
          ast.getChild( 1 );
 
@@ -83,7 +96,12 @@ public class SwitchStatementsShouldHaveDefaultRule extends AbstractAstFlexRule
 
       if ( child.numChildren() != 0 )
       {
-         defaultStatementFound = true;
+         getState().defaultStatementFound = true;
       }
    }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
 }
@@ -44,8 +44,12 @@ import com.adobe.ac.pmd.rules.core.thresholded.IThresholdedRule;
  */
 public class TooFewBrancheInSwitchStatementRule extends AbstractAstFlexRule implements IThresholdedRule
 {
+   private static final class State
+   {
+      private int switchCases;
+   }
+
    public static final int DEFAULT_THRESHOLD = 3;
-   private int             switchCases;
 
    /*
     * (non-Javadoc)
@@ -54,7 +58,7 @@ public class TooFewBrancheInSwitchStatementRule extends AbstractAstFlexRule impl
     */
    public final int getActualValueForTheCurrentViolation()
    {
-      return switchCases;
+      return getState().switchCases;
    }
 
    /*
@@ -89,6 +93,16 @@ public class TooFewBrancheInSwitchStatementRule extends AbstractAstFlexRule impl
       return MINIMUM;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    /*
     * (non-Javadoc)
     * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#getDefaultPriority()
@@ -118,11 +132,11 @@ public class TooFewBrancheInSwitchStatementRule extends AbstractAstFlexRule impl
    @Override
    protected final void visitSwitch( final IParserNode ast )
    {
-      switchCases = 0;
+      getState().switchCases = 0;
 
       super.visitSwitch( ast );
 
-      if ( switchCases < getThreshold() )
+      if ( getState().switchCases < getThreshold() )
       {
          addViolation( ast );
       }
@@ -139,7 +153,7 @@ public class TooFewBrancheInSwitchStatementRule extends AbstractAstFlexRule impl
    {
       super.visitSwitchCase( child );
 
-      switchCases++;
+      getState().switchCases++;
    }
 
    /*
@@ -153,6 +167,11 @@ public class TooFewBrancheInSwitchStatementRule extends AbstractAstFlexRule impl
    {
       super.visitSwitchDefaultCase( defaultCaseNode );
 
-      switchCases++;
+      getState().switchCases++;
+   }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
    }
 }
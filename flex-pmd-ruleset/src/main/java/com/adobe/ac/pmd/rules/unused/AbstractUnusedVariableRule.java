@@ -30,6 +30,8 @@
  */
 package com.adobe.ac.pmd.rules.unused;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import com.adobe.ac.pmd.parser.IParserNode;
@@ -41,7 +43,27 @@ import com.adobe.ac.pmd.rules.core.AbstractAstFlexRule;
  */
 abstract class AbstractUnusedVariableRule extends AbstractAstFlexRule
 {
-   private Map< String, IParserNode > variablesUnused;
+   /**
+    * State kept on each file, which rules extending this one can enrich
+    */
+   static class State
+   {
+      private Map< String, IParserNode > variablesUnused = new LinkedHashMap< String, IParserNode >();
+   }
+
+   private static boolean isUsedAsPrimary( final IParserNode ast,
+                                           final String variableName )
+   {
+      for ( final IParserNode node : ast.findNodesFromValue( variableName ) )
+      {
+         if ( node.numChildren() == 0
+               && node.is( NodeKind.PRIMARY ) )
+         {
+            return true;
+         }
+      }
+      return false;
+   }
 
    /**
     * @param variableName
@@ -50,16 +72,26 @@ abstract class AbstractUnusedVariableRule extends AbstractAstFlexRule
    protected final void addVariable( final String variableName,
                                      final IParserNode ast )
    {
-      variablesUnused.put( variableName,
-                           ast );
+      getVariablesUnused().put( variableName,
+                                ast );
+   }
+
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected Object createState()
+   {
+      return new State();
    }
 
    /**
-    * @return
+    * @return the variables of the current scope which have not been used yet
     */
    protected Map< String, IParserNode > getVariablesUnused()
    {
-      return variablesUnused;
+      return getState().variablesUnused;
    }
 
    /**
@@ -67,7 +99,7 @@ abstract class AbstractUnusedVariableRule extends AbstractAstFlexRule
     */
    protected void setVariablesUnused( final Map< String, IParserNode > variablesUnusedToBeSet )
    {
-      variablesUnused = variablesUnusedToBeSet;
+      getState().variablesUnused = variablesUnusedToBeSet;
    }
 
    /**
@@ -96,10 +128,10 @@ abstract class AbstractUnusedVariableRule extends AbstractAstFlexRule
     */
    protected final void tryToMarkVariableAsUsed( final IParserNode ast )
    {
-      if ( variablesUnused != null
-            && ast != null )
+      if ( ast != null )
       {
-         markVariableAsUsed( ast );
+         markVariableAsUsed( getVariablesUnused(),
+                             ast );
       }
    }
 
@@ -117,20 +149,22 @@ abstract class AbstractUnusedVariableRule extends AbstractAstFlexRule
       tryToMarkVariableAsUsed( ast );
    }
 
-   private void markVariableAsUsed( final IParserNode ast )
+   private State getState()
    {
-      if ( ast.numChildren() == 0 )
-      {
-         if ( variablesUnused.containsKey( ast.getStringValue() ) && ast.is( NodeKind.PRIMARY ) )
-         {
-            variablesUnused.remove( ast.getStringValue() );
-         }
-      }
-      else
+      return ( State ) getContext().getRuleState();
+   }
+
+   private void markVariableAsUsed( final Map< String, IParserNode > variablesUnused,
+                                    final IParserNode ast )
+   {
+      final Iterator< String > variableNames = variablesUnused.keySet().iterator();
+
+      while ( variableNames.hasNext() )
       {
-         for ( final IParserNode child : ast.getChildren() )
+         if ( isUsedAsPrimary( ast,
+                               variableNames.next() ) )
          {
-            markVariableAsUsed( child );
+            variableNames.remove();
          }
       }
    }
@@ -44,6 +44,11 @@ import com.adobe.ac.pmd.rules.parsley.utils.MetaDataTag.Location;
  */
 public class UnusedParameterRule extends AbstractUnusedVariableRule
 {
+   private static final class State extends AbstractUnusedVariableRule.State
+   {
+      private IParserNode currentClass;
+   }
+
    private static final String DATA_GRID_COLUMN         = "DataGridColumn";
    private static final String FAULT_FUNCTION_NAME      = "fault";
    private static final String RESPONDER_INTERFACE_NAME = "Responder";
@@ -85,7 +90,8 @@ public class UnusedParameterRule extends AbstractUnusedVariableRule
    private static boolean isResponderImplementation( final IParserNode currentClass,
                                                      final IParserNode functionAst )
    {
-      if ( !isClassImplementingIResponder( currentClass ) )
+      if ( currentClass == null
+            || !isClassImplementingIResponder( currentClass ) )
       {
          return false;
       }
@@ -95,7 +101,15 @@ public class UnusedParameterRule extends AbstractUnusedVariableRule
             || FAULT_FUNCTION_NAME.compareTo( functionName ) == 0;
    }
 
-   private IParserNode currentClass;
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.unused.AbstractUnusedVariableRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
 
    /*
     * (non-Javadoc)
@@ -116,7 +130,7 @@ public class UnusedParameterRule extends AbstractUnusedVariableRule
    @Override
    protected final void visitClass( final IParserNode classNode )
    {
-      currentClass = classNode;
+      getState().currentClass = classNode;
       super.visitClass( classNode );
    }
 
@@ -135,7 +149,7 @@ public class UnusedParameterRule extends AbstractUnusedVariableRule
       final boolean isOverriden = isFunctionOverriden( functionAst );
 
       if ( !isOverriden
-            && !isResponderImplementation( currentClass,
+            && !isResponderImplementation( getState().currentClass,
                                            functionAst ) && !isParsleyFunction( functionAst ) )
       {
          super.visitFunction( functionAst,
@@ -205,6 +219,11 @@ public class UnusedParameterRule extends AbstractUnusedVariableRule
             || functionName.startsWith( "handle" ) || functionName.endsWith( "handler" );
    }
 
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
+
    private boolean isFunctionOverriden( final IParserNode ast )
    {
       for ( final IParserNode child : ast.getChildren() )
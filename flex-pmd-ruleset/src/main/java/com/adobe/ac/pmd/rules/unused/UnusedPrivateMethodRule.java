@@ -31,6 +31,7 @@
 package com.adobe.ac.pmd.rules.unused;
 
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -52,7 +53,10 @@ import com.adobe.ac.pmd.rules.core.ViolationPriority;
  */
 public class UnusedPrivateMethodRule extends AbstractAstFlexRule
 {
-   private Map< String, IFunction > privateFunctions = null;
+   private static final class State
+   {
+      private Map< String, IFunction > privateFunctions;
+   }
 
    /*
     * (non-Javadoc)
@@ -126,9 +130,20 @@ public class UnusedPrivateMethodRule extends AbstractAstFlexRule
       return ViolationPriority.NORMAL;
    }
 
+   /*
+    * (non-Javadoc)
+    * @see com.adobe.ac.pmd.rules.core.AbstractFlexRule#createState()
+    */
+   @Override
+   protected final Object createState()
+   {
+      return new State();
+   }
+
    private void addViolations()
    {
       final Set< Integer > ignoredLines = new HashSet< Integer >();
+      final Map< String, IFunction > privateFunctions = getPrivateFunctions();
 
       for ( final String functionName : privateFunctions.keySet() )
       {
@@ -137,8 +152,8 @@ public class UnusedPrivateMethodRule extends AbstractAstFlexRule
          ignoredLines.add( getNameFromFunctionDeclaration( function.getInternalNode() ).getLine() );
 
          if ( getCurrentFile() instanceof IAs3File
-               || !getCurrentFile().contains( functionName,
-                                              ignoredLines ) )
+               || !getCurrentFile().containsIdentifier( functionName,
+                                                        ignoredLines ) )
          {
             addViolation( function );
          }
@@ -147,7 +162,7 @@ public class UnusedPrivateMethodRule extends AbstractAstFlexRule
 
    private void fillPrivateFunctions( final List< IFunction > functions )
    {
-      privateFunctions = new LinkedHashMap< String, IFunction >();
+      final Map< String, IFunction > privateFunctions = new LinkedHashMap< String, IFunction >();
 
       for ( final IFunction function : functions )
       {
@@ -157,33 +172,35 @@ public class UnusedPrivateMethodRule extends AbstractAstFlexRule
                                   function );
          }
       }
+      getState().privateFunctions = privateFunctions;
    }
 
    private void findUnusedFunction( final IParserNode body )
    {
       if ( body != null )
       {
-         if ( body.getStringValue() != null )
-         {
-            for ( final String functionName : privateFunctions.keySet() )
-            {
-               if ( body.getStringValue().equals( functionName ) )
-               {
-                  privateFunctions.remove( functionName );
-                  break;
-               }
-            }
-         }
-         if ( body.numChildren() != 0 )
+         final Iterator< String > functionNames = getPrivateFunctions().keySet().iterator();
+
+         while ( functionNames.hasNext() )
          {
-            for ( final IParserNode child : body.getChildren() )
+            if ( !body.findNodesFromValue( functionNames.next() ).isEmpty() )
             {
-               findUnusedFunction( child );
+               functionNames.remove();
             }
          }
       }
    }
 
+   private Map< String, IFunction > getPrivateFunctions()
+   {
+      return getState().privateFunctions;
+   }
+
+   private State getState()
+   {
+      return ( State ) getContext().getRuleState();
+   }
+
    private void findViolationsFromVariables( final List< ? extends IVariable > variables )
    {
       for ( final IVariable constant : variables )